@@ -4,18 +4,23 @@
 package application;
 
 import backend.boards.BoardDTO;
+import backend.facades.BattleshipsBatch;
 import backend.facades.BattleshipsGenerator;
 import backend.facades.BattleshipsSolver;
 import backend.io.MAPReader;
+import backend.server.BattleshipsService;
 import backend.solvers.NoSolutionException;
 import backend.utility.Coord;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 
 public class Battleships {
+    private final static int                    BATCH_CAPACITY_FACTOR = 4;
+    private final static int                    DEFAULT_PORT = 8080;
 
     // purely for debug
     public static void printSolution(BoardDTO dto, List<Integer> rowLimits, List<Integer> columnLimits) {
@@ -35,10 +40,56 @@ public class Battleships {
     }
 
     /**
-     * Generates constrains used by the backend.
-     * Should be replaced with loading from a file
+     * Solves the puzzle file in the batch mode and prints the summary. The arguments are
+     * the puzzle file, the solution file, optionally followed by the number of the threads
+     * and the rule map. The malformed puzzles and the puzzles over the time budget are
+     * written as the failures and do not stop the batch
+     *
+     * @param args the arguments of the batch mode
+     * @throws IOException when the files or the rule map cannot be read or written
+     * @throws InterruptedException when the batch is interrupted
      */
-    public static void main(String[] args) throws NoSolutionException, IOException {
+    private static void solveBatch(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("Usage: Battleships solve <puzzles> <solutions> [threads] [rules]");
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Path rules = Path.of(args.length > 3 ? args[3] : "assets/BaseStates.map");
+        BattleshipsSolver solver = new BattleshipsSolver(new MAPReader().read(Files.newBufferedReader(rules)));
+        BattleshipsBatch.Report report = new BattleshipsBatch(solver, threads, BATCH_CAPACITY_FACTOR * threads)
+            .solve(Path.of(args[0]), Path.of(args[1]));
+        System.out.printf("Solved %d puzzles (%d failed, %d malformed) in %.3fs: %.1f puzzles/s, p50 %.3fms, p99 %.3fms%n",
+            report.puzzles(), report.failures(), report.malformed(), report.nanos() / 1e9, report.throughput(), report.p50() / 1e6, report.p99() / 1e6);
+    }
+
+    /**
+     * Starts the HTTP service. The arguments are optionally the port and the rule map
+     *
+     * @param args the arguments of the service mode
+     * @throws IOException when the rule map cannot be read or the port cannot be bound
+     */
+    private static void serve(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Path rules = Path.of(args.length > 1 ? args[1] : "assets/BaseStates.map");
+        BattleshipsService service = new BattleshipsService(new MAPReader().read(Files.newBufferedReader(rules)), new InetSocketAddress(port));
+        service.start();
+        System.out.println("Listening on " + service.getAddress());
+    }
+
+    /**
+     * Runs the batch mode when the first argument is "solve", the HTTP service when it is
+     * "serve", otherwise generates and solves the sample puzzle
+     */
+    public static void main(String[] args) throws NoSolutionException, IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("solve")) {
+            solveBatch(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("serve")) {
+            serve(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         var reader = new MAPReader();
         var constrains = reader.read(Files.newBufferedReader(Path.of("assets/BaseStates.map")));
 
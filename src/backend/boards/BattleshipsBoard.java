@@ -44,6 +44,8 @@ public class BattleshipsBoard implements Board<Set<Integer>> {
     public static class Row extends Board.Row<Set<Integer>> {
         private final Cell[]            row;
         private final int               size;
+        private BattleshipsBoard        owner = null;
+        private int                     rowID = 0;
 
         /**
          * Creates a new Row object
@@ -159,7 +161,11 @@ public class BattleshipsBoard implements Board<Set<Integer>> {
          */
         @Override
         public void set(int index, Set<Integer> value) throws IndexOutOfBoundsException {
+            Set<Integer> previous = row[index].value;
             row[index].value = value;
+            if (owner != null) {
+                owner.updateCounts(index, rowID, previous, value);
+            }
         }
 
         /**
@@ -170,7 +176,11 @@ public class BattleshipsBoard implements Board<Set<Integer>> {
          * @throws IndexOutOfBoundsException when the given index is invalid
          */
         public void generateCell(int index, Set<Integer> value) throws IndexOutOfBoundsException {
+            Set<Integer> previous = row[index].value;
             row[index] = new Cell(value);
+            if (owner != null) {
+                owner.updateCounts(index, rowID, previous, value);
+            }
         }
 
         /**
@@ -527,8 +537,14 @@ public class BattleshipsBoard implements Board<Set<Integer>> {
 
     }
 
+    private final static int            SHIP = 2;
+
     private final Row[]                 rows;
     private final Coord                 dimensions;
+    private final int[]                 rowShips;
+    private final int[]                 rowUndecided;
+    private final int[]                 columnShips;
+    private final int[]                 columnUndecided;
 
     /**
      * Creates a new GeneratorBoard object
@@ -541,6 +557,11 @@ public class BattleshipsBoard implements Board<Set<Integer>> {
             rows[y] = new Row(dimensions.x());
         }
         this.dimensions = dimensions;
+        this.rowShips = new int[dimensions.y()];
+        this.rowUndecided = new int[dimensions.y()];
+        this.columnShips = new int[dimensions.x()];
+        this.columnUndecided = new int[dimensions.x()];
+        adoptRows();
     }
 
     /**
@@ -548,12 +569,102 @@ public class BattleshipsBoard implements Board<Set<Integer>> {
      *
      * @param rows the board's rows
      * @param dimensions the board's dimensions
+     * @param counts the line counts of the copied board
      */
-    private BattleshipsBoard(Row[] rows, Coord dimensions) {
+    private BattleshipsBoard(Row[] rows, Coord dimensions, BattleshipsBoard counts) {
         this.rows = rows;
         this.dimensions = dimensions;
+        this.rowShips = counts.rowShips.clone();
+        this.rowUndecided = counts.rowUndecided.clone();
+        this.columnShips = counts.columnShips.clone();
+        this.columnUndecided = counts.columnUndecided.clone();
+        adoptRows();
+    }
+
+    /**
+     * Makes the board the owner of its rows, so the rows keep the line counts updated
+     */
+    private void adoptRows() {
+        for (int y = 0; y < rows.length; ++y) {
+            rows[y].owner = this;
+            rows[y].rowID = y;
+        }
     }
 
+    /**
+     * Returns the ship category of the cell's value
+     *
+     * @param value the cell's value
+     * @return 1 when the cell is the ship, 2 when it is undecided and can be the ship, 0 otherwise
+     */
+    private static int category(Set<Integer> value) {
+        if (value == null || !value.contains(SHIP)) {
+            return 0;
+        }
+        return value.size() == 1 ? 1 : 2;
+    }
+
+    /**
+     * Updates the line counts after the change of the cell's value
+     *
+     * @param x the column of the cell
+     * @param y the row of the cell
+     * @param previous the previous value of the cell
+     * @param value the new value of the cell
+     */
+    private void updateCounts(int x, int y, Set<Integer> previous, Set<Integer> value) {
+        int before = category(previous), after = category(value);
+        if (before == after) {
+            return;
+        }
+        if (before == 1) {
+            rowShips[y] -= 1;
+            columnShips[x] -= 1;
+        } else if (before == 2) {
+            rowUndecided[y] -= 1;
+            columnUndecided[x] -= 1;
+        }
+        if (after == 1) {
+            rowShips[y] += 1;
+            columnShips[x] += 1;
+        } else if (after == 2) {
+            rowUndecided[y] += 1;
+            columnUndecided[x] += 1;
+        }
+    }
+
+    /**
+     * Returns the number of the ships in the row
+     *
+     * @param y the index of the row
+     * @return the number of the ships in the row
+     */
+    public int getRowShips(int y) { return rowShips[y]; }
+
+    /**
+     * Returns the number of the undecided cells that can be the ships in the row
+     *
+     * @param y the index of the row
+     * @return the number of the undecided cells in the row
+     */
+    public int getRowUndecided(int y) { return rowUndecided[y]; }
+
+    /**
+     * Returns the number of the ships in the column
+     *
+     * @param x the index of the column
+     * @return the number of the ships in the column
+     */
+    public int getColumnShips(int x) { return columnShips[x]; }
+
+    /**
+     * Returns the number of the undecided cells that can be the ships in the column
+     *
+     * @param x the index of the column
+     * @return the number of the undecided cells in the column
+     */
+    public int getColumnUndecided(int x) { return columnUndecided[x]; }
+
     /**
      * Generates the cell on the board
      *
@@ -626,6 +737,18 @@ public class BattleshipsBoard implements Board<Set<Integer>> {
         return rows[position.y()].get(position.x());
     }
 
+    /**
+     * Returns the value of the given cell
+     *
+     * @param x the x-axis position of the cell
+     * @param y the y-axis position of the cell
+     * @return the value of the given cell
+     */
+    @Override
+    public Set<Integer> accessCell(int x, int y) {
+        return rows[y].get(x);
+    }
+
     /**
      * Returns an iterator to the rows of the board
      *
@@ -692,7 +815,7 @@ public class BattleshipsBoard implements Board<Set<Integer>> {
         for (int y = 0; y < dimensions.y(); ++y) {
             rows[y] = this.rows[y].clone();
         }
-        return new BattleshipsBoard(rows, new Coord(dimensions.x(), dimensions.y()));
+        return new BattleshipsBoard(rows, new Coord(dimensions.x(), dimensions.y()), this);
     }
 
 }
@@ -183,6 +183,17 @@ public interface Board<Value> extends Iterable<Board.Row<Value>> {
      */
     Value accessCell(Coord position);
 
+    /**
+     * Returns the value of the given cell
+     *
+     * @param x the x-axis position of the cell
+     * @param y the y-axis position of the cell
+     * @return the value of the given cell
+     */
+    default Value accessCell(int x, int y) {
+        return accessCell(new Coord(x, y));
+    }
+
     /**
      * Checks if the given position is on the board
      *
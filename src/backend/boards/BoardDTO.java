@@ -447,6 +447,18 @@ public class BoardDTO implements Board<Integer> {
         return board[position.y()][position.x()];
     }
 
+    /**
+     * Returns the value of the given cell
+     *
+     * @param x the x-axis position of the cell
+     * @param y the y-axis position of the cell
+     * @return the value of the given cell
+     */
+    @Override
+    public Integer accessCell(int x, int y) {
+        return board[y][x];
+    }
+
     /**
      * Returns the dimensions of the board
      *
@@ -0,0 +1,267 @@
+package backend.boards;
+
+import backend.utility.Coord;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Solved board packed into one bit per cell. The set bit marks the ship and the clear bit
+ * the water, the cells are stored in the row-major order. The packed solutions are immutable
+ * and compared directly on their bits
+ */
+public final class PackedSolution {
+    private final static int                        WATER = 1;
+    private final static int                        SHIP = 2;
+
+    private final int                               width;
+    private final int                               height;
+    private final long[]                            bits;
+
+    /**
+     * Constructs a new PackedSolution object
+     *
+     * @param width the board width
+     * @param height the board height
+     * @param bits the ship bits of the cells
+     */
+    private PackedSolution(int width, int height, long[] bits) {
+        this.width = width;
+        this.height = height;
+        this.bits = bits;
+    }
+
+    /**
+     * Returns the number of the words holding the given number of the cells
+     *
+     * @param cells the number of the cells
+     * @return the number of the words
+     */
+    private static int words(int cells) {
+        return (cells + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Packs the solved board. Every cell holding the state greater than water is the ship
+     *
+     * @param board the solved board
+     * @return the packed solution
+     */
+    public static PackedSolution encode(Board<Integer> board) {
+        int width = board.getWidth(), height = board.getHeight();
+        long[] bits = new long[words(width * height)];
+        for (int y = 0, index = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x, ++index) {
+                bits[index >>> 6] |= (board.accessCell(x, y) > WATER ? 1L : 0L) << index;
+            }
+        }
+        return new PackedSolution(width, height, bits);
+    }
+
+    /**
+     * Packs the solved board stored as the consecutive cell values in the row-major order
+     *
+     * @param cells the cell values
+     * @param offset the index of the board's first cell
+     * @param width the board width
+     * @param height the board height
+     * @return the packed solution
+     */
+    public static PackedSolution encode(byte[] cells, int offset, int width, int height) {
+        long[] bits = new long[words(width * height)];
+        for (int index = 0; index < width * height; ++index) {
+            bits[index >>> 6] |= (cells[offset + index] > WATER ? 1L : 0L) << index;
+        }
+        return new PackedSolution(width, height, bits);
+    }
+
+    /**
+     * Reads the packed solution written by {@link #write(ByteBuffer)}. The size of the
+     * solution is validated against the remaining bytes before the bits are allocated
+     *
+     * @param buffer the buffer positioned at the solution
+     * @return the packed solution
+     * @throws BufferUnderflowException when the buffer does not hold the whole solution
+     * @throws IllegalArgumentException when the solution sets the bits past its last cell
+     */
+    public static PackedSolution read(ByteBuffer buffer) throws BufferUnderflowException, IllegalArgumentException {
+        int width = Short.toUnsignedInt(buffer.getShort()), height = Short.toUnsignedInt(buffer.getShort());
+        long cells = (long) width * height, words = (cells + Long.SIZE - 1) / Long.SIZE;
+        if (words * Long.BYTES > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        long[] bits = new long[(int) words];
+        buffer.asLongBuffer().get(bits);
+        buffer.position(buffer.position() + bits.length * Long.BYTES);
+        if (cells % Long.SIZE != 0 && bits[bits.length - 1] >>> (cells % Long.SIZE) != 0) {
+            throw new IllegalArgumentException("Solution " + width + "x" + height + " sets the bits past its last cell");
+        }
+        return new PackedSolution(width, height, bits);
+    }
+
+    /**
+     * Writes the dimensions and the bits of the solution
+     *
+     * @param buffer the buffer
+     * @throws IllegalArgumentException when the dimensions exceed the unsigned short
+     */
+    public void write(ByteBuffer buffer) throws IllegalArgumentException {
+        if (width > 0xFFFF || height > 0xFFFF) {
+            throw new IllegalArgumentException("Solution " + width + "x" + height + " cannot be written");
+        }
+        buffer.putShort((short) width).putShort((short) height);
+        buffer.asLongBuffer().put(bits);
+        buffer.position(buffer.position() + bits.length * Long.BYTES);
+    }
+
+    /**
+     * Returns the number of the bytes written by {@link #write(ByteBuffer)}
+     *
+     * @return the size of the written solution
+     */
+    public int byteSize() {
+        return 2 * Short.BYTES + bits.length * Long.BYTES;
+    }
+
+    /**
+     * Unpacks the solution into the board of the water and ship states
+     *
+     * @return the unpacked board
+     */
+    public BoardDTO toBoard() {
+        BoardDTO board = new BoardDTO(new Coord(width, height));
+        for (int y = 0, index = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x, ++index) {
+                board.generateCell(new Coord(x, y), isShip(index) ? SHIP : WATER);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Unpacks the solution into the water and ship states stored in the row-major order
+     *
+     * @param cells the cell values
+     * @param offset the index of the board's first cell
+     */
+    public void decode(byte[] cells, int offset) {
+        for (int index = 0; index < width * height; ++index) {
+            cells[offset + index] = (byte) (isShip(index) ? SHIP : WATER);
+        }
+    }
+
+    /**
+     * Checks if the cell with the given row-major index is the ship
+     *
+     * @param index the index of the cell
+     * @return whether the cell is the ship
+     */
+    private boolean isShip(int index) {
+        return (bits[index >>> 6] >>> index & 1) != 0;
+    }
+
+    /**
+     * Checks if the given cell is the ship
+     *
+     * @param x the x-axis position of the cell
+     * @param y the y-axis position of the cell
+     * @return whether the cell is the ship
+     */
+    public boolean isShip(int x, int y) {
+        return isShip(y * width + x);
+    }
+
+    /**
+     * Returns the board width
+     *
+     * @return the board width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the board height
+     *
+     * @return the board height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of the ship cells
+     *
+     * @return the number of the ship cells
+     */
+    public int ships() {
+        int ships = 0;
+        for (long word : bits) {
+            ships += Long.bitCount(word);
+        }
+        return ships;
+    }
+
+    /**
+     * Returns the cells differing between the solutions as the ships of the new solution
+     *
+     * @param other the compared solution
+     * @return the solution marking the differing cells
+     * @throws IllegalArgumentException when the solutions have different dimensions
+     */
+    public PackedSolution diff(PackedSolution other) throws IllegalArgumentException {
+        if (width != other.width || height != other.height) {
+            throw new IllegalArgumentException("Cannot compare " + width + "x" + height + " with " + other.width + "x" + other.height);
+        }
+        long[] difference = new long[bits.length];
+        for (int i = 0; i < bits.length; ++i) {
+            difference[i] = bits[i] ^ other.bits[i];
+        }
+        return new PackedSolution(width, height, difference);
+    }
+
+    /**
+     * Returns the positions of the ship cells
+     *
+     * @return the positions of the ship cells in the row-major order
+     */
+    public List<Coord> shipCells() {
+        List<Coord> cells = new ArrayList<>(ships());
+        for (int i = 0; i < bits.length; ++i) {
+            for (long word = bits[i]; word != 0; word &= word - 1) {
+                int index = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+                cells.add(new Coord(index % width, index / width));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Checks if the object is the same solution
+     *
+     * @param object the compared object
+     * @return whether the object is the same solution
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) return true;
+        if (object == null || getClass() != object.getClass()) return false;
+        PackedSolution solution = (PackedSolution) object;
+        return width == solution.width && height == solution.height && Arrays.equals(bits, solution.bits);
+    }
+
+    /**
+     * Returns the hash code of the solution
+     *
+     * @return the hash code of the solution
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(width, height) + Arrays.hashCode(bits);
+    }
+
+}
@@ -0,0 +1,52 @@
+package backend.constrains;
+
+import backend.boards.Board;
+
+/**
+ * Checks the battleships constraints in the order adapted to the observed rejections.
+ * The rows, the columns and the ship lengths are checked in the given order within
+ * the fused sweep, so the check with the highest rejection rate is evaluated first
+ *
+ * @param <Value> the board's element type
+ */
+public class AdaptiveConstrains <Value> implements Constrains<Value> {
+    private final BattleshipsConstrains<Value>          constrains;
+    private final ConstrainStatistics                   statistics;
+
+    /**
+     * Constructs a new AdaptiveConstrains object
+     *
+     * @param constrains the checked constraints
+     * @param statistics the statistics of the checks, possibly shared with other constraints
+     */
+    public AdaptiveConstrains(BattleshipsConstrains<Value> constrains, ConstrainStatistics statistics) {
+        this.constrains = constrains;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns the statistics of the checks
+     *
+     * @return the statistics of the checks
+     */
+    public ConstrainStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Checks if all constrains are being satisfied
+     *
+     * @param board the board object
+     * @return whether all constrains are being satisfied
+     */
+    @Override
+    public boolean check(Board<Value> board) {
+        ConstrainStatistics.Check[] order = statistics.order();
+        long start = statistics.sampled() ? System.nanoTime() : -1;
+        ConstrainStatistics.Check failed = constrains.failedCheck(board, order);
+        statistics.record(order, failed, start < 0 ? -1 : System.nanoTime() - start);
+        statistics.finished();
+        return failed == null;
+    }
+
+}
@@ -5,9 +5,10 @@ package backend.constrains;
 
 import backend.boards.Board;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Base class for the battleships board constraints
@@ -19,17 +20,59 @@ public abstract class BattleshipsConstrains <Value> implements Constrains<Value>
     protected final List<Integer>                       rowLimits;
     protected final List<Integer>                       columnLimits;
     protected final TreeMap<Integer, Integer>           shipLimits;
+    private final int[]                                 shipLengths;
+    private final int[]                                 shipCounts;
+    private final AtomicInteger                         evaluations = new AtomicInteger();
+    private volatile ConstrainCompiler.Checker          checker;
+
+    private final static int                            LARGE_BOARD = 256;
+    private final static int                            COMPILE_THRESHOLD = 1024;
+    private final static ConstrainStatistics.Check[]    DEFAULT_ORDER = ConstrainStatistics.Check.values();
+    private final static ThreadLocal<Scratch>           scratch = ThreadLocal.withInitial(Scratch::new);
 
     /**
-     * Mutable pair used to pass data between rangeLoop method and getRangeShips method
+     * The reusable buffers of the fused evaluation
      */
-    protected static class ShipPair {
-        public int                                      length = 0;
-        public boolean                                  isShip = false;
+    private static class Scratch {
+        private int[]                                   columnRuns = new int[0];
+        private int[]                                   histogram = new int[0];
+        private byte[]                                  cells = new byte[0];
+        private int[]                                   packed = new int[0];
+        private LineCounter.Counts                      counts = new LineCounter.Counts(0, 0);
+
+        /**
+         * Clears the buffers and grows them for the board of the given dimensions. The cells,
+         * the packed cells and the row counts are overwritten by every sweep, so they are only grown
+         *
+         * @param width the board width
+         * @param height the board height
+         */
+        private void reset(int width, int height) {
+            if (columnRuns.length < width) {
+                columnRuns = new int[width];
+            }
+            if (histogram.length < Math.max(width, height) + 1) {
+                histogram = new int[Math.max(width, height) + 1];
+            }
+            if (cells.length < width * height) {
+                cells = new byte[width * height];
+                packed = new int[width * height];
+            }
+            if (counts.rowShips().length < height || counts.columnShips().length < width) {
+                counts = new LineCounter.Counts(Math.max(width, counts.columnShips().length), Math.max(height, counts.rowShips().length));
+            }
+            Arrays.fill(counts.columnShips(), 0, width, 0);
+            Arrays.fill(counts.columnOpen(), 0, width, 0);
+            Arrays.fill(columnRuns, 0, width, 0);
+            Arrays.fill(histogram, 0);
+        }
+
     }
 
     /**
-     * Constructs a new BattleshipsConstrains object
+     * Constructs a new BattleshipsConstrains object. The line limits are compiled into the
+     * {@link ConstrainCompiler.Checker} after the first evaluations, so they must not change
+     * once the constraints are used by the solver
      *
      * @param rowLimits the row limits
      * @param columnLimits the column limits
@@ -39,6 +82,8 @@ public abstract class BattleshipsConstrains <Value> implements Constrains<Value>
         this.rowLimits = rowLimits;
         this.columnLimits = columnLimits;
         this.shipLimits = adjustShipLimits(shipLimits);
+        this.shipLengths = this.shipLimits.descendingKeySet().stream().mapToInt(Integer::intValue).toArray();
+        this.shipCounts = this.shipLimits.descendingMap().values().stream().mapToInt(Integer::intValue).toArray();
     }
 
     /**
@@ -47,7 +92,7 @@ public abstract class BattleshipsConstrains <Value> implements Constrains<Value>
      * @param shipLimits the ship limits
      * @return the adjusted ship limits
      */
-    private TreeMap<Integer, Integer> adjustShipLimits(TreeMap<Integer, Integer> shipLimits) {
+    public static TreeMap<Integer, Integer> adjustShipLimits(TreeMap<Integer, Integer> shipLimits) {
         TreeMap<Integer, Integer> adjustedShipLimits = new TreeMap<>();
         int size = 0;
         for (Integer key : shipLimits.descendingKeySet()) {
@@ -69,13 +114,38 @@ public abstract class BattleshipsConstrains <Value> implements Constrains<Value>
      */
     protected abstract <Range extends Iterable<Value>> boolean rangeConstrain(Range range, int rangeLimit);
 
+    /**
+     * Checks the limit constrain on the range with the given contents
+     *
+     * @param ships the number of the ships in the range
+     * @param open the number of the cells in the range that can still be the ships
+     * @param rangeLimit the range limits
+     * @return whether the limit constrain is satisfied
+     */
+    protected abstract boolean countConstrain(int ships, int open, int rangeLimit);
+
+    /**
+     * Returns the line counter category of the cell
+     *
+     * @param cell the cell value
+     * @return {@link LineCounter#SHIP}, {@link LineCounter#OPEN} or 0 for the cell that cannot be the ship
+     */
+    protected abstract byte lineCategory(Value cell);
+
+    /**
+     * Returns the kind of the line limits checked by the countConstrain method
+     *
+     * @return the kind of the line limits
+     */
+    protected abstract ConstrainCompiler.Kind limitKind();
+
     /**
      * Checks the status of constrains on the board's rows
      *
      * @param board the board object
      * @return the status of constrains on the board's rows
      */
-    private boolean rowConstrainsStatus(Board<Value> board) {
+    public boolean rowConstrainsStatus(Board<Value> board) {
         var rowItr = rowLimits.iterator();
         for (var row : board) {
             if (!rangeConstrain(row, rowItr.next())) {
@@ -91,7 +161,7 @@ public abstract class BattleshipsConstrains <Value> implements Constrains<Value>
      * @param board the board object
      * @return the status of constrains on the board's columns
      */
-    private boolean columnConstrainsStatus(Board<Value> board) {
+    public boolean columnConstrainsStatus(Board<Value> board) {
         var colItr = columnLimits.iterator();
         for (var column : board.transpose()) {
             if (!rangeConstrain(column, colItr.next())) {
@@ -102,56 +172,231 @@ public abstract class BattleshipsConstrains <Value> implements Constrains<Value>
     }
 
     /**
-     * Checks the status of the constraints of the board
+     * Checks the status of the line limits of the board in one sweep
      *
      * @param board the board object
-     * @return the status of the constraints of the board
+     * @return the status of the line limits of the board
      */
     public boolean boardConstrain(Board<Value> board) {
-        return rowConstrainsStatus(board) && columnConstrainsStatus(board);
+        return sweep(board, true, false);
     }
 
     /**
-     * Performs the one iteration of the getRangeShips method
+     * Checks the histogram of the ship runs against the ship limits. The exact limits require
+     * the same histogram, the bounded limits compare the counts from the longest ships until
+     * the first length missing on the board or the first different count
      *
-     * @param states the current states of the method
-     * @param cell the cell value
-     * @param ships the ships lengths
+     * @param histogram the number of the row and column ship runs of every length
+     * @return whether the ship length constrain is being satisfied
      */
-    protected abstract void rangeShipsAutomate(ShipPair states, Value cell, TreeMap<Integer, Integer> ships);
+    private boolean histogramConstrain(int[] histogram) {
+        if (limitKind() == ConstrainCompiler.Kind.EXACT) {
+            int lengths = 0;
+            for (int count : histogram) {
+                lengths += count > 0 ? 1 : 0;
+            }
+            for (int i = 0; i < shipLengths.length; ++i) {
+                if (shipLengths[i] >= histogram.length || histogram[shipLengths[i]] != shipCounts[i]) {
+                    return false;
+                }
+            }
+            return lengths == shipLengths.length;
+        }
+        for (int i = 0; i < shipLengths.length; ++i) {
+            int count = shipLengths[i] < histogram.length ? histogram[shipLengths[i]] : 0;
+            if (count == 0) {
+                return true;
+            } else if (count != shipCounts[i]) {
+                return count < shipCounts[i];
+            }
+        }
+        return true;
+    }
 
     /**
-     * Returns the lengths of the ships lying on the given range
+     * Evaluates the constraints in one sweep over the board and returns the first check of the
+     * given order that the board fails. The sweep counts the ships and the open cells of every
+     * line and the row and column ship runs into the reusable buffers, so it does not allocate.
+     * When the rows are checked first they are checked during the sweep, which stops at the
+     * first violated row, the other checks are evaluated in the order after the sweep
      *
-     * @param range the range object
-     * @param ships the ships lengths
-     * @param <Range> the range type
+     * @param board the board object
+     * @param order the order of the checks
+     * @param lines whether the line limits should be checked
+     * @param runs whether the ship lengths should be checked
+     * @return the first failed check or null when the board satisfies the checked constraints
      */
-    private <Range extends Iterable<Value>> void getRangeShips(Range range, TreeMap<Integer, Integer> ships) {
-        ShipPair pair = new ShipPair();
-        for (Value cell : range) {
-            rangeShipsAutomate(pair, cell, ships);
+    private ConstrainStatistics.Check sweep(Board<Value> board, ConstrainStatistics.Check[] order, boolean lines, boolean runs) {
+        int width = board.getWidth(), height = board.getHeight();
+        Scratch buffers = scratch.get();
+        buffers.reset(width, height);
+        ConstrainCompiler.Checker compiled = lines ? compiledChecker(width, height) : null;
+        int violations = 0;
+        if (compiled != null || (lines && width * height >= LARGE_BOARD)) {
+            storedSweep(board, buffers, compiled != null);
+            if (compiled != null) {
+                violations = compiled.check(buffers.packed);
+            } else {
+                LineCounter.SELECTED.count(buffers.cells, width, height, buffers.counts);
+            }
+        } else if (!inlineSweep(board, buffers, lines && order[0] == ConstrainStatistics.Check.ROWS)) {
+            return ConstrainStatistics.Check.ROWS;
         }
-        if (pair.isShip) {
-            ships.put(pair.length, ships.getOrDefault(pair.length, 0) + 1);
+        LineCounter.Counts counts = buffers.counts;
+        for (ConstrainStatistics.Check check : order) {
+            boolean passed = switch (check) {
+                case ROWS -> !lines || (compiled != null ? (violations & ConstrainCompiler.ROWS) == 0
+                    : countsConstrain(counts.rowShips(), counts.rowOpen(), rowLimits, height));
+                case COLUMNS -> !lines || (compiled != null ? (violations & ConstrainCompiler.COLUMNS) == 0
+                    : countsConstrain(counts.columnShips(), counts.columnOpen(), columnLimits, width));
+                case SHIP_LENGTHS -> !runs || histogramConstrain(buffers.histogram);
+            };
+            if (!passed) {
+                return check;
+            }
         }
+        return null;
     }
 
     /**
-     * Returns the lengths of the ships on the board
+     * Evaluates the constraints in one sweep over the board in the default order
      *
      * @param board the board object
-     * @return the lengths of the ships on the board
+     * @param lines whether the line limits should be checked
+     * @param runs whether the ship lengths should be checked
+     * @return whether the checked constraints are being satisfied
      */
-    protected Map<Integer, Integer> getShipLengths(Board<Value> board) {
-        TreeMap<Integer, Integer> ships = new TreeMap<>();
-        for (var row : board) {
-            getRangeShips(row, ships);
+    private boolean sweep(Board<Value> board, boolean lines, boolean runs) {
+        return sweep(board, DEFAULT_ORDER, lines, runs) == null;
+    }
+
+    /**
+     * Counts the ships and the open cells of every line and the ship runs cell by cell
+     *
+     * @param board the board object
+     * @param buffers the cleared buffers of the thread
+     * @param rows whether the row limits should be checked during the sweep
+     * @return false when the row limit is violated, true otherwise
+     */
+    private boolean inlineSweep(Board<Value> board, Scratch buffers, boolean rows) {
+        int width = board.getWidth(), height = board.getHeight();
+        int[] rowShips = buffers.counts.rowShips(), rowOpen = buffers.counts.rowOpen();
+        int[] columnShips = buffers.counts.columnShips(), columnOpen = buffers.counts.columnOpen();
+        int[] columnRuns = buffers.columnRuns, histogram = buffers.histogram;
+        for (int y = 0; y < height; ++y) {
+            int ships = 0, open = 0, run = 0;
+            for (int x = 0; x < width; ++x) {
+                byte category = lineCategory(board.accessCell(x, y));
+                if (category == LineCounter.SHIP) {
+                    ships += 1;
+                    columnShips[x] += 1;
+                    run += 1;
+                    columnRuns[x] += 1;
+                    continue;
+                }
+                histogram[run] += 1;
+                histogram[columnRuns[x]] += 1;
+                run = 0;
+                columnRuns[x] = 0;
+                if (category == LineCounter.OPEN) {
+                    open += 1;
+                    columnOpen[x] += 1;
+                }
+            }
+            histogram[run] += 1;
+            rowShips[y] = ships;
+            rowOpen[y] = open;
+            if (rows && !countConstrain(ships, open, rowLimits.get(y))) {
+                return false;
+            }
         }
-        for (var column : board.transpose()) {
-            getRangeShips(column, ships);
+        finishRuns(width, buffers);
+        return true;
+    }
+
+    /**
+     * Stores the cells and counts the ship runs. The line limits are checked afterwards from
+     * the stored cells, by the compiled checker or by the {@link LineCounter#SELECTED} counter
+     *
+     * @param board the board object
+     * @param buffers the cleared buffers of the thread
+     * @param packed whether the cells should be packed for the compiled checker
+     */
+    private void storedSweep(Board<Value> board, Scratch buffers, boolean packed) {
+        int width = board.getWidth(), height = board.getHeight();
+        byte[] cells = buffers.cells;
+        int[] packedCells = buffers.packed, columnRuns = buffers.columnRuns, histogram = buffers.histogram;
+        for (int y = 0, index = 0; y < height; ++y) {
+            int run = 0;
+            for (int x = 0; x < width; ++x, ++index) {
+                byte category = lineCategory(board.accessCell(x, y));
+                if (packed) {
+                    packedCells[index] = category == LineCounter.SHIP ? ConstrainCompiler.SHIP : category == LineCounter.OPEN ? ConstrainCompiler.OPEN : 0;
+                } else {
+                    cells[index] = category;
+                }
+                if (category == LineCounter.SHIP) {
+                    run += 1;
+                    columnRuns[x] += 1;
+                    continue;
+                }
+                histogram[run] += 1;
+                histogram[columnRuns[x]] += 1;
+                run = 0;
+                columnRuns[x] = 0;
+            }
+            histogram[run] += 1;
+        }
+        finishRuns(width, buffers);
+    }
+
+    /**
+     * Adds the ship runs reaching the bottom edge to the histogram and drops the count of
+     * the empty runs
+     *
+     * @param width the board width
+     * @param buffers the buffers of the thread
+     */
+    private static void finishRuns(int width, Scratch buffers) {
+        for (int x = 0; x < width; ++x) {
+            buffers.histogram[buffers.columnRuns[x]] += 1;
+        }
+        buffers.histogram[0] = 0;
+    }
+
+    /**
+     * Checks the line limits against the line counts
+     *
+     * @param ships the number of the ships in every line
+     * @param open the number of the open cells in every line
+     * @param limits the line limits
+     * @param lines the number of the lines
+     * @return whether the line limits are satisfied
+     */
+    private boolean countsConstrain(int[] ships, int[] open, List<Integer> limits, int lines) {
+        for (int i = 0; i < lines; ++i) {
+            if (!countConstrain(ships[i], open[i], limits.get(i))) {
+                return false;
+            }
         }
-        return ships;
+        return true;
+    }
+
+    /**
+     * Returns the compiled checker of the line limits. The checker is compiled once by the
+     * thread completing the {@link #COMPILE_THRESHOLD}-th evaluation, so the short solves
+     * do not pay for the compilation
+     *
+     * @param width the board width
+     * @param height the board height
+     * @return the compiled checker or null when it is not compiled or the board has other dimensions
+     */
+    private ConstrainCompiler.Checker compiledChecker(int width, int height) {
+        if (evaluations.get() < COMPILE_THRESHOLD && evaluations.incrementAndGet() == COMPILE_THRESHOLD) {
+            checker = ConstrainCompiler.compile(limitKind(), rowLimits, columnLimits).orElse(null);
+        }
+        ConstrainCompiler.Checker compiled = checker;
+        return compiled != null && width == columnLimits.size() && height == rowLimits.size() ? compiled : null;
     }
 
     /**
@@ -160,16 +405,31 @@ public abstract class BattleshipsConstrains <Value> implements Constrains<Value>
      * @param board the board object
      * @return whether the ship length constrain is being satisfied
      */
-    public abstract boolean shipLengthConstrain(Board<Value> board);
+    public boolean shipLengthConstrain(Board<Value> board) {
+        return sweep(board, false, true);
+    }
 
     /**
-     * Checks if all constrains are being satisfied
+     * Checks if all constrains are being satisfied in one sweep. The line limits are
+     * checked only when they are given
      *
      * @param board the board object
      * @return whether all constrains are being satisfied
      */
     public boolean check(Board<Value> board) {
-        return boardConstrain(board) && shipLengthConstrain(board);
+        return sweep(board, rowLimits != null && columnLimits != null, true);
+    }
+
+    /**
+     * Checks the constraints in one sweep and returns the first check of the given order that
+     * the board fails. The line limits are checked only when they are given
+     *
+     * @param board the board object
+     * @param order the order of the checks
+     * @return the first failed check or null when all constrains are being satisfied
+     */
+    public ConstrainStatistics.Check failedCheck(Board<Value> board, ConstrainStatistics.Check[] order) {
+        return sweep(board, order, rowLimits != null && columnLimits != null, true);
     }
 
 }
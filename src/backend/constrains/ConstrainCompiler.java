@@ -0,0 +1,448 @@
+package backend.constrains;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Compiles the line limits of the puzzle into the specialised checker class. The generated
+ * class sums the cells of every row and column in the fully unrolled straight-line code
+ * with the limits inlined as the constants, and is defined as the hidden class. The method
+ * has no branches, so the class file of version 61 needs no stack map frames to pass the
+ * verifier. The most recently used checkers are cached per limits, so the repeated puzzles
+ * share them; the hidden classes are not defined as strong, so the evicted checkers are
+ * unloaded once the constraints using them are collected
+ */
+public final class ConstrainCompiler {
+    /** The packed value of the ship cell */
+    public final static int                             SHIP = 1;
+    /** The packed value of the cell that can still be the ship */
+    public final static int                             OPEN = 1 << 16;
+    /** The bit of the checker result set when some row limit is violated */
+    public final static int                             ROWS = 1;
+    /** The bit of the checker result set when some column limit is violated */
+    public final static int                             COLUMNS = 2;
+
+    private final static int                            MAX_CODE_LENGTH = 8000;
+    private final static int                            MAX_LOCALS = 256;
+    private final static int                            MAX_STACK = 4;
+    private final static int                            CACHE_CAPACITY = 64;
+    private final static String                         CHECKER_NAME = "backend/constrains/CompiledChecker";
+
+    private final static int                            ROW_VIOLATIONS = 2;
+    private final static int                            COLUMN_VIOLATIONS = 3;
+    private final static int                            ROW_ACCUMULATOR = 4;
+    private final static int                            COLUMN_ACCUMULATORS = 5;
+
+    private final static Map<Key, Optional<Checker>>    cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Optional<Checker>> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+
+    /**
+     * The opcodes of the Java virtual machine instructions emitted by the compiler
+     */
+    private static class Opcode {
+        /** Pushes the int constant -1, the following constants up to 5 are consecutive */
+        private final static int                        ICONST_M1 = 0x02;
+        /** Pushes the byte operand as the int */
+        private final static int                        BIPUSH = 0x10;
+        /** Pushes the short operand as the int */
+        private final static int                        SIPUSH = 0x11;
+        /** Loads the int local given by the operand */
+        private final static int                        ILOAD = 0x15;
+        /** Loads the int local 0, the loads of the locals up to 3 are consecutive */
+        private final static int                        ILOAD_0 = 0x1a;
+        /** Loads the reference local 0 */
+        private final static int                        ALOAD_0 = 0x2a;
+        /** Loads the reference local 1 */
+        private final static int                        ALOAD_1 = 0x2b;
+        /** Loads the element of the int array */
+        private final static int                        IALOAD = 0x2e;
+        /** Stores the int local given by the operand */
+        private final static int                        ISTORE = 0x36;
+        /** Stores the int local 0, the stores of the locals up to 3 are consecutive */
+        private final static int                        ISTORE_0 = 0x3b;
+        /** Duplicates the top of the stack */
+        private final static int                        DUP = 0x59;
+        /** Adds the ints */
+        private final static int                        IADD = 0x60;
+        /** Subtracts the ints */
+        private final static int                        ISUB = 0x64;
+        /** Negates the int */
+        private final static int                        INEG = 0x74;
+        /** Shifts the int left */
+        private final static int                        ISHL = 0x78;
+        /** Shifts the int right filling the zeros */
+        private final static int                        IUSHR = 0x7c;
+        /** Ors the ints */
+        private final static int                        IOR = 0x80;
+        /** Xors the ints */
+        private final static int                        IXOR = 0x82;
+        /** Returns the int */
+        private final static int                        IRETURN = 0xac;
+        /** Returns from the void method */
+        private final static int                        RETURN = 0xb1;
+        /** Invokes the constructor of the superclass */
+        private final static int                        INVOKESPECIAL = 0xb7;
+    }
+
+    /**
+     * The tags of the constant pool entries and the access flags of the class file
+     */
+    private static class ClassFile {
+        /** The class file version of Java 17 */
+        private final static int                        VERSION = 61;
+        /** The modified UTF-8 string */
+        private final static int                        UTF8 = 1;
+        /** The class reference */
+        private final static int                        CLASS = 7;
+        /** The method reference */
+        private final static int                        METHOD_REF = 10;
+        /** The name and the type of the member */
+        private final static int                        NAME_AND_TYPE = 12;
+        /** The public class access flags with the super flag */
+        private final static int                        PUBLIC_FINAL_SUPER = 0x0031;
+        /** The public method access flag */
+        private final static int                        PUBLIC = 0x0001;
+    }
+
+    /**
+     * Represents the compiled line limits checker
+     */
+    public interface Checker {
+
+        /**
+         * Checks the line limits of the board
+         *
+         * @param cells the packed cell values in the row-major order
+         * @return {@link #ROWS} when some row limit is violated or-ed with {@link #COLUMNS}
+         * when some column limit is violated, so 0 when the line limits are satisfied
+         */
+        int check(int[] cells);
+
+    }
+
+    /**
+     * The kinds of the line limits
+     */
+    public enum Kind {
+        /** Every line has exactly the limit ships and no open cells */
+        EXACT,
+        /** Every line can still reach its limit */
+        BOUNDED
+    }
+
+    /**
+     * Represents the key of the compiled checker
+     *
+     * @param kind the kind of the line limits
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     */
+    private record Key(Kind kind, List<Integer> rowLimits, List<Integer> columnLimits) { }
+
+    /**
+     * Disallows the instantiation
+     */
+    private ConstrainCompiler() {}
+
+    /**
+     * Returns the checker of the given line limits. The checker is not compiled when its
+     * code would be too large for the JIT compiler or the board is too wide. The checker
+     * inlines the limits given at the time of the call
+     *
+     * @param kind the kind of the line limits
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @return the compiled checker
+     */
+    public static Optional<Checker> compile(Kind kind, List<Integer> rowLimits, List<Integer> columnLimits) {
+        Key key = new Key(kind, List.copyOf(rowLimits), List.copyOf(columnLimits));
+        synchronized (cache) {
+            Optional<Checker> checker = cache.get(key);
+            if (checker != null) {
+                return checker;
+            }
+        }
+        Optional<Checker> checker = define(key);
+        synchronized (cache) {
+            return cache.computeIfAbsent(key, ignored -> checker);
+        }
+    }
+
+    /**
+     * Defines the checker class as the hidden class and instantiates it
+     *
+     * @param key the key of the checker
+     * @return the compiled checker
+     */
+    private static Optional<Checker> define(Key key) {
+        int width = key.columnLimits().size(), height = key.rowLimits().size();
+        if (width == 0 || height == 0 || COLUMN_ACCUMULATORS + width > MAX_LOCALS) {
+            return Optional.empty();
+        }
+        byte[] code = generateCode(key);
+        if (code.length > MAX_CODE_LENGTH) {
+            return Optional.empty();
+        }
+        try {
+            Class<?> checker = MethodHandles.lookup().defineHiddenClass(generateClass(code, width), true).lookupClass();
+            return Optional.of((Checker) checker.getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException("Cannot define the compiled checker", exception);
+        }
+    }
+
+    /**
+     * Writes the load of the local variable
+     *
+     * @param code the method code
+     * @param local the index of the local variable
+     */
+    private static void load(ByteArrayOutputStream code, int local) {
+        if (local <= 3) {
+            code.write(Opcode.ILOAD_0 + local);
+        } else {
+            code.write(Opcode.ILOAD);
+            code.write(local);
+        }
+    }
+
+    /**
+     * Writes the store of the local variable
+     *
+     * @param code the method code
+     * @param local the index of the local variable
+     */
+    private static void store(ByteArrayOutputStream code, int local) {
+        if (local <= 3) {
+            code.write(Opcode.ISTORE_0 + local);
+        } else {
+            code.write(Opcode.ISTORE);
+            code.write(local);
+        }
+    }
+
+    /**
+     * Writes the push of the integer constant
+     *
+     * @param code the method code
+     * @param value the integer constant
+     */
+    private static void push(ByteArrayOutputStream code, int value) {
+        if (value >= -1 && value <= 5) {
+            code.write(Opcode.ICONST_M1 + 1 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            code.write(Opcode.BIPUSH);
+            code.write(value);
+        } else {
+            code.write(Opcode.SIPUSH);
+            code.write(value >> 8);
+            code.write(value);
+        }
+    }
+
+    /**
+     * Writes the number of the ships of the line accumulator
+     *
+     * @param code the method code
+     * @param local the local variable of the line accumulator
+     */
+    private static void ships(ByteArrayOutputStream code, int local) {
+        load(code, local);
+        push(code, 16);
+        code.write(Opcode.ISHL);
+        push(code, 16);
+        code.write(Opcode.IUSHR);
+    }
+
+    /**
+     * Writes the number of the open cells of the line accumulator
+     *
+     * @param code the method code
+     * @param local the local variable of the line accumulator
+     */
+    private static void open(ByteArrayOutputStream code, int local) {
+        load(code, local);
+        push(code, 16);
+        code.write(Opcode.IUSHR);
+    }
+
+    /**
+     * Writes the check of the line, which ors any set bit into the violations for the
+     * violated exact line and the sign bit for the violated bounded line
+     *
+     * @param code the method code
+     * @param kind the kind of the line limits
+     * @param local the local variable of the line accumulator
+     * @param limit the line limit
+     * @param violations the local variable of the violations
+     */
+    private static void line(ByteArrayOutputStream code, Kind kind, int local, int limit, int violations) {
+        if (kind == Kind.EXACT) {
+            ships(code, local);
+            push(code, limit);
+            code.write(Opcode.IXOR);
+            open(code, local);
+            code.write(Opcode.IOR);
+        } else {
+            push(code, limit);
+            ships(code, local);
+            code.write(Opcode.ISUB);
+            ships(code, local);
+            open(code, local);
+            code.write(Opcode.IADD);
+            push(code, limit);
+            code.write(Opcode.ISUB);
+            code.write(Opcode.IOR);
+        }
+        load(code, violations);
+        code.write(Opcode.IOR);
+        store(code, violations);
+    }
+
+    /**
+     * Writes the violation flag of the lines, which is 1 when the violations hold any
+     * set bit for the exact lines or the sign bit for the bounded lines
+     *
+     * @param code the method code
+     * @param kind the kind of the line limits
+     * @param violations the local variable of the violations
+     */
+    private static void violated(ByteArrayOutputStream code, Kind kind, int violations) {
+        load(code, violations);
+        if (kind == Kind.EXACT) {
+            code.write(Opcode.INEG);
+        }
+        push(code, 31);
+        code.write(Opcode.IUSHR);
+    }
+
+    /**
+     * Generates the code of the check method. The local variables are: the checker, the cells,
+     * the row violations, the column violations, the row accumulator and the column accumulators
+     *
+     * @param key the key of the checker
+     * @return the code of the check method
+     */
+    private static byte[] generateCode(Key key) {
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        int width = key.columnLimits().size(), height = key.rowLimits().size();
+        push(code, 0);
+        store(code, ROW_VIOLATIONS);
+        push(code, 0);
+        store(code, COLUMN_VIOLATIONS);
+        for (int y = 0; y < height && code.size() <= MAX_CODE_LENGTH; ++y) {
+            for (int x = 0; x < width; ++x) {
+                code.write(Opcode.ALOAD_1);
+                push(code, y * width + x);
+                code.write(Opcode.IALOAD);
+                code.write(Opcode.DUP);
+                if (x > 0) {
+                    load(code, ROW_ACCUMULATOR);
+                    code.write(Opcode.IADD);
+                }
+                store(code, ROW_ACCUMULATOR);
+                if (y > 0) {
+                    load(code, COLUMN_ACCUMULATORS + x);
+                    code.write(Opcode.IADD);
+                }
+                store(code, COLUMN_ACCUMULATORS + x);
+            }
+            line(code, key.kind(), ROW_ACCUMULATOR, key.rowLimits().get(y), ROW_VIOLATIONS);
+        }
+        for (int x = 0; x < width; ++x) {
+            line(code, key.kind(), COLUMN_ACCUMULATORS + x, key.columnLimits().get(x), COLUMN_VIOLATIONS);
+        }
+        violated(code, key.kind(), ROW_VIOLATIONS);
+        violated(code, key.kind(), COLUMN_VIOLATIONS);
+        push(code, 1);
+        code.write(Opcode.ISHL);
+        code.write(Opcode.IOR);
+        code.write(Opcode.IRETURN);
+        return code.toByteArray();
+    }
+
+    /**
+     * Generates the class file of the checker. The constant pool holds the entries: 1 and 2 the
+     * checker class, 3 and 4 the Object class, 5 and 6 the Checker interface, 7 and 8 the name
+     * and the descriptor of the constructor, 9 and 10 the reference of the Object constructor,
+     * 11 and 12 the name and the descriptor of the check method and 13 the Code attribute name
+     *
+     * @param code the code of the check method
+     * @param width the board width
+     * @return the class file of the checker
+     */
+    private static byte[] generateClass(byte[] code, int width) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(0xCAFEBABE);
+            output.writeShort(0);
+            output.writeShort(ClassFile.VERSION);
+            output.writeShort(14);
+            String[] utf8 = {CHECKER_NAME, "java/lang/Object", Checker.class.getName().replace('.', '/'), "<init>", "()V", "check", "([I)I", "Code"};
+            output.writeByte(ClassFile.UTF8); output.writeUTF(utf8[0]);
+            output.writeByte(ClassFile.CLASS); output.writeShort(1);
+            output.writeByte(ClassFile.UTF8); output.writeUTF(utf8[1]);
+            output.writeByte(ClassFile.CLASS); output.writeShort(3);
+            output.writeByte(ClassFile.UTF8); output.writeUTF(utf8[2]);
+            output.writeByte(ClassFile.CLASS); output.writeShort(5);
+            output.writeByte(ClassFile.UTF8); output.writeUTF(utf8[3]);
+            output.writeByte(ClassFile.UTF8); output.writeUTF(utf8[4]);
+            output.writeByte(ClassFile.NAME_AND_TYPE); output.writeShort(7); output.writeShort(8);
+            output.writeByte(ClassFile.METHOD_REF); output.writeShort(4); output.writeShort(9);
+            output.writeByte(ClassFile.UTF8); output.writeUTF(utf8[5]);
+            output.writeByte(ClassFile.UTF8); output.writeUTF(utf8[6]);
+            output.writeByte(ClassFile.UTF8); output.writeUTF(utf8[7]);
+            output.writeShort(ClassFile.PUBLIC_FINAL_SUPER);
+            output.writeShort(2);
+            output.writeShort(4);
+            output.writeShort(1);
+            output.writeShort(6);
+            output.writeShort(0);
+            output.writeShort(2);
+            writeMethod(output, 7, 8, 1, 1, new byte[]{Opcode.ALOAD_0, (byte) Opcode.INVOKESPECIAL, 0, 10, (byte) Opcode.RETURN});
+            writeMethod(output, 11, 12, MAX_STACK, COLUMN_ACCUMULATORS + width, code);
+            output.writeShort(0);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the public method with the code attribute
+     *
+     * @param output the class file output
+     * @param name the constant pool index of the method name
+     * @param descriptor the constant pool index of the method descriptor
+     * @param maxStack the maximal depth of the operand stack
+     * @param maxLocals the number of the local variables
+     * @param code the code of the method
+     * @throws IOException when the method cannot be written
+     */
+    private static void writeMethod(DataOutputStream output, int name, int descriptor, int maxStack, int maxLocals, byte[] code) throws IOException {
+        output.writeShort(ClassFile.PUBLIC);
+        output.writeShort(name);
+        output.writeShort(descriptor);
+        output.writeShort(1);
+        output.writeShort(13);
+        output.writeInt(12 + code.length);
+        output.writeShort(maxStack);
+        output.writeShort(maxLocals);
+        output.writeInt(code.length);
+        output.write(code);
+        output.writeShort(0);
+        output.writeShort(0);
+    }
+
+}
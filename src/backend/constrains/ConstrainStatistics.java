@@ -0,0 +1,170 @@
+package backend.constrains;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects how often every constraint check rejects the board and derives the order
+ * of the checks from them. The checks are ordered by their rejection rate, the most
+ * rejecting first. The checks share one fused sweep, so its time cannot be attributed
+ * to a single check and is recorded for reporting only. Only every
+ * {@link #SAMPLE_INTERVAL}-th evaluation of a thread is timed, so the clock is not read
+ * on the hot path. The statistics can be shared by many constraint objects, every thread
+ * counts its evaluations separately so the sharing threads do not contend on the counter
+ */
+public class ConstrainStatistics {
+    private final static int                            REORDER_INTERVAL = 1024;
+    private final static int                            SAMPLE_INTERVAL = 64;
+
+    private final LongAdder[]                           calls = new LongAdder[Check.values().length];
+    private final LongAdder[]                           rejections = new LongAdder[Check.values().length];
+    private final LongAdder[]                           nanos = new LongAdder[Check.values().length];
+    private final ThreadLocal<long[]>                   evaluations = ThreadLocal.withInitial(() -> new long[1]);
+    private volatile Check[]                            order = Check.values();
+
+    /**
+     * The checks of the battleships constraints
+     */
+    public enum Check {
+        /** The row limits */
+        ROWS,
+        /** The column limits */
+        COLUMNS,
+        /** The ship lengths */
+        SHIP_LENGTHS
+    }
+
+    /**
+     * Represents the counters of the constraint check
+     *
+     * @param check the constraint check
+     * @param calls the number of the evaluations of the check
+     * @param rejections the number of the rejected boards
+     * @param nanos the total time of the sweeps evaluating the check
+     */
+    public record Counters(Check check, long calls, long rejections, long nanos) {
+
+        /**
+         * Returns the fraction of the evaluations rejecting the board
+         *
+         * @return the rejection rate
+         */
+        public double rejectionRate() {
+            return calls == 0 ? 0 : (double) rejections / calls;
+        }
+
+        /**
+         * Returns the average time of the sweep evaluating the check in nanoseconds.
+         * The time is shared with the other checks evaluated by the same sweep
+         *
+         * @return the average time of the sweep evaluating the check
+         */
+        public double averageNanos() {
+            return calls == 0 ? 0 : (double) nanos / calls;
+        }
+
+    }
+
+    /**
+     * Constructs a new ConstrainStatistics object
+     */
+    public ConstrainStatistics() {
+        for (int i = 0; i < calls.length; ++i) {
+            calls[i] = new LongAdder();
+            rejections[i] = new LongAdder();
+            nanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the current order of the checks
+     *
+     * @return the current order of the checks
+     */
+    public List<Check> getOrder() {
+        return List.of(order);
+    }
+
+    /**
+     * Returns the current order of the checks without copying
+     *
+     * @return the current order of the checks
+     */
+    Check[] order() {
+        return order;
+    }
+
+    /**
+     * Returns the counters of every check
+     *
+     * @return the counters of every check
+     */
+    public List<Counters> getCounters() {
+        List<Counters> counters = new ArrayList<>();
+        for (Check check : Check.values()) {
+            int index = check.ordinal();
+            counters.add(new Counters(check, calls[index].sum(), rejections[index].sum(), nanos[index].sum()));
+        }
+        return counters;
+    }
+
+    /**
+     * Checks if the next evaluation of the current thread should be timed
+     *
+     * @return whether the next evaluation should be timed
+     */
+    boolean sampled() {
+        return evaluations.get()[0] % SAMPLE_INTERVAL == 0;
+    }
+
+    /**
+     * Records the evaluation of the checks in the given order. The checks up to the failed one
+     * are counted as called. The time of the sampled evaluation is scaled by the sampling
+     * interval and added to every evaluated check, as they share one sweep
+     *
+     * @param order the order of the evaluated checks
+     * @param failed the failed check or null when the board has passed all checks
+     * @param elapsed the time of the sampled evaluation in nanoseconds or a negative value
+     */
+    void record(Check[] order, Check failed, long elapsed) {
+        int evaluated = order.length;
+        for (int i = 0; i < order.length; ++i) {
+            if (order[i] == failed) {
+                evaluated = i + 1;
+                break;
+            }
+        }
+        for (int i = 0; i < evaluated; ++i) {
+            int index = order[i].ordinal();
+            calls[index].increment();
+            if (elapsed >= 0) {
+                nanos[index].add(elapsed * SAMPLE_INTERVAL);
+            }
+        }
+        if (failed != null) {
+            rejections[failed.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Registers the finished evaluation of the constraints and reorders the checks after
+     * every {@link #REORDER_INTERVAL} evaluations of the current thread
+     */
+    void finished() {
+        if (++evaluations.get()[0] % REORDER_INTERVAL == 0) {
+            reorder();
+        }
+    }
+
+    /**
+     * Orders the checks by the descending rejection rate. The checks that have
+     * never rejected the board keep their relative order at the end
+     */
+    void reorder() {
+        List<Counters> counters = getCounters();
+        Check[] reordered = Check.values();
+        Arrays.sort(reordered, Comparator.comparingDouble(check -> -counters.get(check.ordinal()).rejectionRate()));
+        order = reordered;
+    }
+
+}
@@ -0,0 +1,64 @@
+package backend.constrains;
+
+/**
+ * Counts the ships and the open cells of all rows and columns in one pass over the primitive
+ * board storage. Every cell is stored as the byte holding {@link #SHIP} when it is the ship
+ * and {@link #OPEN} when it can still be the ship
+ */
+public interface LineCounter {
+    /** The cell is the ship */
+    byte SHIP = 1;
+    /** The cell is undecided or empty and can still be the ship */
+    byte OPEN = 2;
+    /** The counter selected at the startup, the word-parallel one unless the battleships.scalarCounting property is set */
+    LineCounter SELECTED = Boolean.getBoolean("battleships.scalarCounting") ? new ScalarLineCounter() : new WordLineCounter();
+
+    /**
+     * Represents the line counts of the board
+     *
+     * @param rowShips the number of the ships in every row
+     * @param rowOpen the number of the open cells in every row
+     * @param columnShips the number of the ships in every column
+     * @param columnOpen the number of the open cells in every column
+     */
+    record Counts(int[] rowShips, int[] rowOpen, int[] columnShips, int[] columnOpen) {
+
+        /**
+         * Constructs a new Counts object for the board of the given dimensions
+         *
+         * @param width the board width
+         * @param height the board height
+         */
+        public Counts(int width, int height) {
+            this(new int[height], new int[height], new int[width], new int[width]);
+        }
+
+    }
+
+    /**
+     * Counts the ships and the open cells of all rows and columns
+     *
+     * @param cells the cells in the row-major order
+     * @param width the board width
+     * @param height the board height
+     * @return the line counts
+     */
+    default Counts count(byte[] cells, int width, int height) {
+        Counts counts = new Counts(width, height);
+        count(cells, width, height, counts);
+        return counts;
+    }
+
+    /**
+     * Counts the ships and the open cells of all rows and columns into the given counts. Only
+     * the first height rows and width columns of the counts are overwritten, so the counts
+     * can be reused for the boards of any smaller dimensions
+     *
+     * @param cells the cells in the row-major order
+     * @param width the board width
+     * @param height the board height
+     * @param counts the line counts at least as large as the board
+     */
+    void count(byte[] cells, int width, int height, Counts counts);
+
+}
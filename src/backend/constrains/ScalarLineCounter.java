@@ -0,0 +1,35 @@
+package backend.constrains;
+
+import java.util.Arrays;
+
+/**
+ * Counts the line contents cell by cell
+ */
+public class ScalarLineCounter implements LineCounter {
+
+    /**
+     * Counts the ships and the open cells of all rows and columns into the given counts
+     *
+     * @param cells the cells in the row-major order
+     * @param width the board width
+     * @param height the board height
+     * @param counts the line counts at least as large as the board
+     */
+    @Override
+    public void count(byte[] cells, int width, int height, Counts counts) {
+        Arrays.fill(counts.rowShips(), 0, height, 0);
+        Arrays.fill(counts.rowOpen(), 0, height, 0);
+        Arrays.fill(counts.columnShips(), 0, width, 0);
+        Arrays.fill(counts.columnOpen(), 0, width, 0);
+        for (int y = 0, index = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x, ++index) {
+                int ship = cells[index] & SHIP, open = (cells[index] & OPEN) >>> 1;
+                counts.rowShips()[y] += ship;
+                counts.rowOpen()[y] += open;
+                counts.columnShips()[x] += ship;
+                counts.columnOpen()[x] += open;
+            }
+        }
+    }
+
+}
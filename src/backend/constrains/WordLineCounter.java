@@ -0,0 +1,103 @@
+package backend.constrains;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Counts the line contents eight cells at a time. The rows are read as the long words, the row
+ * counts are the population counts of the flag bits and the column counts are accumulated in
+ * the byte lanes of the words, which are flushed before they can overflow
+ */
+public class WordLineCounter implements LineCounter {
+    private final static long                           LANES = 0x0101010101010101L;
+    private final static int                            FLUSH = 255;
+    private final static VarHandle                      WORDS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final static ThreadLocal<Accumulators>      accumulators = ThreadLocal.withInitial(Accumulators::new);
+
+    /**
+     * The reusable byte lane accumulators of the column counts
+     */
+    private static class Accumulators {
+        private long[]                                  ships = new long[0];
+        private long[]                                  open = new long[0];
+
+        /**
+         * Clears the accumulators and grows them for the given number of the words
+         *
+         * @param words the number of the words in the row
+         */
+        private void reset(int words) {
+            if (ships.length < words) {
+                ships = new long[words];
+                open = new long[words];
+            }
+            Arrays.fill(ships, 0, words, 0L);
+            Arrays.fill(open, 0, words, 0L);
+        }
+
+    }
+
+    /**
+     * Adds the byte lanes of the accumulator to the column counts
+     *
+     * @param accumulator the accumulator of the eight columns
+     * @param columns the column counts
+     * @param x the index of the first column of the accumulator
+     */
+    private static void flush(long accumulator, int[] columns, int x) {
+        for (int lane = 0; lane < Long.BYTES; ++lane) {
+            columns[x + lane] += (int) (accumulator >>> (lane * Byte.SIZE)) & 0xFF;
+        }
+    }
+
+    /**
+     * Counts the ships and the open cells of all rows and columns into the given counts.
+     * The word accumulators are reused by the thread, so the counting does not allocate
+     *
+     * @param cells the cells in the row-major order
+     * @param width the board width
+     * @param height the board height
+     * @param counts the line counts at least as large as the board
+     */
+    @Override
+    public void count(byte[] cells, int width, int height, Counts counts) {
+        int words = width / Long.BYTES;
+        Accumulators buffers = accumulators.get();
+        buffers.reset(words);
+        long[] ships = buffers.ships, open = buffers.open;
+        Arrays.fill(counts.columnShips(), 0, width, 0);
+        Arrays.fill(counts.columnOpen(), 0, width, 0);
+        for (int y = 0; y < height; ++y) {
+            int index = y * width, rowShips = 0, rowOpen = 0;
+            for (int w = 0; w < words; ++w) {
+                long word = (long) WORDS.get(cells, index + w * Long.BYTES);
+                long shipLanes = word & LANES, openLanes = (word >>> 1) & LANES;
+                rowShips += Long.bitCount(shipLanes);
+                rowOpen += Long.bitCount(openLanes);
+                ships[w] += shipLanes;
+                open[w] += openLanes;
+            }
+            for (int x = words * Long.BYTES; x < width; ++x) {
+                int ship = cells[index + x] & SHIP, free = (cells[index + x] & OPEN) >>> 1;
+                rowShips += ship;
+                rowOpen += free;
+                counts.columnShips()[x] += ship;
+                counts.columnOpen()[x] += free;
+            }
+            counts.rowShips()[y] = rowShips;
+            counts.rowOpen()[y] = rowOpen;
+            if ((y + 1) % FLUSH == 0 || y + 1 == height) {
+                for (int w = 0; w < words; ++w) {
+                    flush(ships[w], counts.columnShips(), w * Long.BYTES);
+                    flush(open[w], counts.columnOpen(), w * Long.BYTES);
+                    ships[w] = 0;
+                    open[w] = 0;
+                }
+            }
+        }
+    }
+
+}
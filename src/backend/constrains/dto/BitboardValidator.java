@@ -0,0 +1,400 @@
+package backend.constrains.dto;
+
+import backend.boards.Board;
+import backend.utility.Coord;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Validates the complete boards on the bitboard representation. Every row is stored as
+ * the long mask of the ships and of every ship shape state, the line limits are checked by the population counts and the
+ * bit-sliced column counters, the ship lengths by the shifted run masks and the vectorized
+ * fields constraints by the shifted masks of the forbidden neighbor states. Accepts exactly
+ * the boards accepted by {@link HardConstrains#check(Board)}. The validator is stateless,
+ * so it can be used from the parallel streams
+ */
+public class BitboardValidator {
+    private final static int                                    STATES = 16;
+    private final static long                                   LOW_BITS = 0x0101010101010101L;
+    private final static long                                   HIGH_BITS = 0x8080808080808080L;
+    private final static long                                   LOW_NIBBLES = 0x0F0F0F0F0F0F0F0FL;
+    private final static long                                   SHIP_BIAS = 0x7E7E7E7E7E7E7E7EL;
+    private final static long                                   SHAPE_BIAS = 0x7D7D7D7D7D7D7D7DL;
+    private final static long                                   GATHER = 0x0102040810204080L;
+    private final static VarHandle                              CELLS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private final static int[][]                                OFFSETS = {{-1, -1}, {0, -1}, {1, -1}, {-1, 0}, {1, 0}, {-1, 1}, {0, 1}, {1, 1}};
+
+    private final int                                           width;
+    private final int                                           height;
+    private final long                                          widthMask;
+    private final int[]                                         rowLimits;
+    private final long[]                                        columnPlanes;
+    private final int[]                                         shipCounts;
+    private final boolean                                       satisfiable;
+    private final int                                           vectorized;
+    private final int[][]                                       forbidden;
+    private final ThreadLocal<Scratch>                          scratch;
+
+    /**
+     * The per-thread buffers of the validation
+     */
+    private static class Scratch {
+        private final int                                       height;
+        private final long[]                                    masks;
+        private final long[]                                    ships;
+        private final long[]                                    shapes;
+        private final long[]                                    planes;
+        private final int[]                                     histogram;
+        private int                                             present;
+
+        /**
+         * Constructs a new Scratch object
+         *
+         * @param height the board height
+         * @param planes the number of the column counter planes
+         * @param lengths the number of the counted ship lengths
+         */
+        private Scratch(int height, int planes, int lengths) {
+            this.height = height;
+            this.masks = new long[STATES * height];
+            this.ships = new long[height];
+            this.shapes = new long[height];
+            this.planes = new long[planes];
+            this.histogram = new int[lengths];
+        }
+
+        /**
+         * Prepares the buffers for the next board. The water and the plain ship are always
+         * considered present, as their masks are derived from the ship masks
+         */
+        private void reset() {
+            present = 0b110;
+            Arrays.fill(planes, 0);
+            Arrays.fill(shapes, 0);
+        }
+
+        /**
+         * Adds the ship shape cell to the state masks. The masks of the state are cleared
+         * when the state first appears on the board
+         *
+         * @param state the state of the cell
+         * @param x the x-axis position of the cell
+         * @param y the y-axis position of the cell
+         */
+        private void add(int state, int x, int y) {
+            if ((present & (1 << state)) == 0) {
+                Arrays.fill(masks, state * height, (state + 1) * height, 0);
+                present |= 1 << state;
+            }
+            masks[state * height + y] |= 1L << x;
+            shapes[y] |= 1L << x;
+        }
+
+    }
+
+    /**
+     * Constructs a new BitboardValidator object
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship limits
+     * @param vectorizedFieldsConstrains the vectorized fields constrains
+     * @throws IllegalArgumentException when the board is wider than 64 cells
+     */
+    public BitboardValidator(List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits, Map<Integer, Map<Coord, Set<Integer>>> vectorizedFieldsConstrains) throws IllegalArgumentException {
+        if (columnLimits.size() > Long.SIZE) {
+            throw new IllegalArgumentException("Bitboard supports at most " + Long.SIZE + " columns");
+        }
+        this.width = columnLimits.size();
+        this.height = rowLimits.size();
+        this.widthMask = width == Long.SIZE ? -1L : (1L << width) - 1;
+        this.rowLimits = rowLimits.stream().mapToInt(Integer::intValue).toArray();
+        int maximum = Math.max(height, columnLimits.stream().mapToInt(Integer::intValue).max().orElse(0));
+        this.columnPlanes = new long[Integer.SIZE - Integer.numberOfLeadingZeros(maximum)];
+        for (int x = 0; x < width; ++x) {
+            for (int k = 0; k < columnPlanes.length; ++k) {
+                columnPlanes[k] |= ((columnLimits.get(x) >> k) & 1L) << x;
+            }
+        }
+        TreeMap<Integer, Integer> adjusted = DTOConstrains.adjustShipLimits(shipLimits);
+        this.shipCounts = new int[Math.max(width, height) + 2];
+        boolean valid = true;
+        for (Map.Entry<Integer, Integer> entry : adjusted.entrySet()) {
+            valid &= entry.getValue() > 0 && entry.getKey() > 0 && entry.getKey() < shipCounts.length;
+            if (entry.getKey() > 0 && entry.getKey() < shipCounts.length) {
+                shipCounts[entry.getKey()] = entry.getValue();
+            }
+        }
+        this.satisfiable = valid;
+        this.forbidden = new int[STATES][OFFSETS.length];
+        int rules = 0;
+        for (int state = 3; state < STATES; ++state) {
+            Map<Coord, Set<Integer>> neighbors = vectorizedFieldsConstrains.get(state);
+            if (neighbors == null) {
+                continue;
+            }
+            rules |= 1 << state;
+            for (int d = 0; d < OFFSETS.length; ++d) {
+                Set<Integer> allowed = neighbors.get(new Coord(OFFSETS[d][0], OFFSETS[d][1]));
+                for (int neighbor = 0; neighbor < STATES; ++neighbor) {
+                    if (allowed != null && !allowed.contains(neighbor)) {
+                        forbidden[state][d] |= 1 << neighbor;
+                    }
+                }
+            }
+        }
+        this.vectorized = rules;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(height, columnPlanes.length, shipCounts.length + 1));
+    }
+
+    /**
+     * Returns the mask of the high bits of the bytes, the first byte in the lowest bit
+     *
+     * @param word the bytes
+     * @return the mask of the high bits of the bytes
+     */
+    private static long gather(long word) {
+        return ((word & HIGH_BITS) >>> 7) * GATHER >>> 56;
+    }
+
+    /**
+     * Checks the board stored as the consecutive cell values in the row-major order. The cells
+     * are read by eight, and their ship bits are gathered from the bytes at once
+     *
+     * @param cells the packed cell values
+     * @param offset the index of the board's first cell
+     * @return whether the board passes the constraints
+     */
+    public boolean check(byte[] cells, int offset) {
+        if (!satisfiable) {
+            return false;
+        }
+        Scratch buffers = scratch.get();
+        buffers.reset();
+        for (int y = 0, index = offset; y < height; ++y, index += width) {
+            long ships = 0;
+            boolean shaped = false;
+            int x = 0;
+            for (; x + Long.BYTES <= width; x += Long.BYTES) {
+                long word = (long) CELLS.get(cells, index + x);
+                if ((word & ~LOW_NIBBLES) != 0 || ((word - LOW_BITS) & ~word & HIGH_BITS) != 0) {
+                    return false;
+                }
+                ships |= gather(word + SHIP_BIAS) << x;
+                shaped |= ((word + SHAPE_BIAS) & HIGH_BITS) != 0;
+            }
+            for (; x < width; ++x) {
+                int state = cells[index + x];
+                if (state <= 0 || state >= STATES) {
+                    return false;
+                }
+                ships |= (long) ((1 - state) >>> 31) << x;
+                shaped |= state > 2;
+            }
+            if (!addRow(buffers, y, ships)) {
+                return false;
+            }
+            for (x = 0; shaped && x < width; ++x) {
+                if (cells[index + x] > 2) {
+                    buffers.add(cells[index + x], x, y);
+                }
+            }
+        }
+        return check(buffers);
+    }
+
+    /**
+     * Checks the board
+     *
+     * @param board the board object
+     * @return whether the board passes the constraints
+     */
+    public boolean check(Board<Integer> board) {
+        if (!satisfiable || board.getWidth() != width || board.getHeight() != height) {
+            return false;
+        }
+        Scratch buffers = scratch.get();
+        buffers.reset();
+        int y = 0;
+        for (var row : board) {
+            long ships = 0;
+            int x = 0;
+            for (Integer state : row) {
+                if (state <= 0 || state >= STATES) {
+                    return false;
+                }
+                if (state > 2) {
+                    buffers.add(state, x, y);
+                }
+                ships |= (state > 1 ? 1L : 0L) << x++;
+            }
+            if (!addRow(buffers, y++, ships)) {
+                return false;
+            }
+        }
+        return check(buffers);
+    }
+
+    /**
+     * Checks all boards stored as the consecutive cell values in the row-major order
+     *
+     * @param cells the packed cell values of the boards
+     * @return the result of the check of every board
+     */
+    public boolean[] checkAll(byte[] cells) {
+        int size = width * height;
+        boolean[] results = new boolean[size == 0 ? 0 : cells.length / size];
+        IntStream.range(0, results.length).parallel().forEach(i -> results[i] = check(cells, i * size));
+        return results;
+    }
+
+    /**
+     * Checks all given boards
+     *
+     * @param boards the boards
+     * @return the result of the check of every board
+     */
+    public boolean[] checkAll(List<? extends Board<Integer>> boards) {
+        boolean[] results = new boolean[boards.size()];
+        IntStream.range(0, results.length).parallel().forEach(i -> results[i] = check(boards.get(i)));
+        return results;
+    }
+
+    /**
+     * Checks the row limit of the row and adds the row to the column counters
+     *
+     * @param buffers the validation buffers
+     * @param y the y-axis position of the row
+     * @param ships the ship mask of the row
+     * @return whether the row limit is satisfied and no column counter has overflowed
+     */
+    private boolean addRow(Scratch buffers, int y, long ships) {
+        if (Long.bitCount(ships) != rowLimits[y]) {
+            return false;
+        }
+        buffers.ships[y] = ships;
+        long[] planes = buffers.planes;
+        long carry = ships;
+        for (int k = 0; k < planes.length && carry != 0; ++k) {
+            long sum = planes[k] ^ carry;
+            carry &= planes[k];
+            planes[k] = sum;
+        }
+        return carry == 0;
+    }
+
+    /**
+     * Checks the column limits, the ship lengths and the vectorized fields of the scanned board
+     *
+     * @param buffers the validation buffers
+     * @return whether the board passes the constraints
+     */
+    private boolean check(Scratch buffers) {
+        if ((buffers.present & ~0b110 & ~vectorized) != 0) {
+            return false;
+        }
+        for (int k = 0; k < columnPlanes.length; ++k) {
+            if (buffers.planes[k] != columnPlanes[k]) {
+                return false;
+            }
+        }
+        return shipLengths(buffers.ships, buffers.histogram) && vectorizedFields(buffers);
+    }
+
+    /**
+     * Checks if the histogram of the row and column ship runs matches the ship limits
+     *
+     * @param ships the ship masks of the rows
+     * @param histogram the buffer of the run histogram
+     * @return whether the ship length constrain is being satisfied
+     */
+    private boolean shipLengths(long[] ships, int[] histogram) {
+        Arrays.fill(histogram, 0);
+        for (int y = 0; y < height; ++y) {
+            long row = ships[y];
+            long runs = row & ~(row << 1);
+            for (int length = 1; runs != 0; ++length) {
+                long longer = runs & (row >>> length);
+                histogram[Math.min(length, shipCounts.length)] += Long.bitCount(runs) - Long.bitCount(longer);
+                runs = longer;
+            }
+            runs = row & ~(y > 0 ? ships[y - 1] : 0);
+            for (int length = 1; runs != 0; ++length) {
+                long longer = y + length < height ? runs & ships[y + length] : 0;
+                histogram[Math.min(length, shipCounts.length)] += Long.bitCount(runs) - Long.bitCount(longer);
+                runs = longer;
+            }
+        }
+        for (int length = 0; length < shipCounts.length; ++length) {
+            if (histogram[length] != shipCounts[length]) {
+                return false;
+            }
+        }
+        return histogram[shipCounts.length] == 0;
+    }
+
+    /**
+     * Shifts the row mask, so the bit of every cell holds its neighbor in the given direction
+     *
+     * @param row the row mask
+     * @param dx the x-axis direction of the neighbor
+     * @return the shifted row mask
+     */
+    private static long neighbors(long row, int dx) {
+        return dx > 0 ? row >>> dx : dx < 0 ? row << -dx : row;
+    }
+
+    /**
+     * Returns the mask of the row's cells holding one of the given states. The water and
+     * the plain ship masks are derived from the ship and the ship shape masks
+     *
+     * @param buffers the validation buffers
+     * @param states the mask of the states
+     * @param y the y-axis position of the row
+     * @return the mask of the row's cells holding one of the states
+     */
+    private long statesMask(Scratch buffers, int states, int y) {
+        long row = 0;
+        if ((states & 0b10) != 0) {
+            row |= ~buffers.ships[y] & widthMask;
+        }
+        if ((states & 0b100) != 0) {
+            row |= buffers.ships[y] & ~buffers.shapes[y];
+        }
+        for (int state = 3; states >> state != 0; ++state) {
+            if ((states & (1 << state)) != 0) {
+                row |= buffers.masks[state * height + y];
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Checks if the vectorized fields constraints are being satisfied
+     *
+     * @param buffers the validation buffers
+     * @return whether the vectorized fields constraints are being satisfied
+     */
+    private boolean vectorizedFields(Scratch buffers) {
+        for (int state = 3; buffers.present >> state != 0; ++state) {
+            if ((buffers.present & (1 << state)) == 0) {
+                continue;
+            }
+            for (int y = 0; y < height; ++y) {
+                long cells = buffers.masks[state * height + y];
+                for (int d = 0; d < OFFSETS.length && cells != 0; ++d) {
+                    int ny = y + OFFSETS[d][1], rule = forbidden[state][d] & buffers.present;
+                    if (ny >= 0 && ny < height && rule != 0 && (cells & neighbors(statesMask(buffers, rule, ny), OFFSETS[d][0]) & widthMask) != 0) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+}
@@ -4,16 +4,16 @@
 package backend.constrains.dto;
 
 import backend.boards.Board;
+import backend.constrains.LineCounter;
 import backend.utility.Coord;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public abstract class DTOConstrains extends backend.constrains.BattleshipsConstrains<Integer> {
 
-    private final Map<Integer, Map<Coord, Set<Integer>>>        vectorizedFieldsConstrains;
-    private final static Set<Integer>                           neighborValues = Stream.of(-1, 0, 1).collect(Collectors.toCollection(HashSet::new));
+    private final static int                                    SHAPE_STATES = ~0b111;
+
+    private final RuleTable                                     ruleTable;
 
     /**
      * Stores information how many ships and how many empty fields are in the given range
@@ -33,7 +33,7 @@ public abstract class DTOConstrains extends backend.constrains.BattleshipsConstr
 
     public DTOConstrains(List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits, Map<Integer, Map<Coord, Set<Integer>>> vectorizedFieldsContains) {
         super(rowLimits, columnLimits, shipLimits);
-        this.vectorizedFieldsConstrains = vectorizedFieldsContains;
+        this.ruleTable = new RuleTable(vectorizedFieldsContains, SHAPE_STATES);
     }
 
     /**
@@ -63,88 +63,53 @@ public abstract class DTOConstrains extends backend.constrains.BattleshipsConstr
      * @return whether the limit constrain is satisfied
      * @param <Range> the range type
      */
-    protected abstract <Range extends Iterable<Integer>> boolean rangeConstrain(Range range, int rangeLimit);
+    @Override
+    protected <Range extends Iterable<Integer>> boolean rangeConstrain(Range range, int rangeLimit) {
+        ContainedPair pair = contained(range);
+        return countConstrain(pair.ships, pair.empty, rangeLimit);
+    }
 
     /**
-     * Performs the one iteration of the getRangeShips method
+     * Returns the line counter category of the cell
      *
-     * @param states the current states of the method
      * @param cell the cell value
-     * @param ships the ships lengths
+     * @return {@link LineCounter#SHIP} for the ship, {@link LineCounter#OPEN} for the empty cell and 0 for the water
      */
     @Override
-    protected void rangeShipsAutomate(ShipPair states, Integer cell, TreeMap<Integer, Integer> ships) {
-        if (cell > 1) {
-            if (states.isShip) {
-                states.length += 1;
-            } else {
-                states.isShip = true;
-                states.length = 1;
-            }
-        } else if (states.isShip) {
-            states.isShip = false;
-            ships.put(states.length, ships.getOrDefault(states.length, 0) + 1);
-        }
+    protected byte lineCategory(Integer cell) {
+        return cell == 0 ? LineCounter.OPEN : cell > 1 ? LineCounter.SHIP : 0;
     }
 
     /**
-     * Checks if the ship length constrain is being satisfied
+     * Returns the compiled vectorized fields constrains
      *
-     * @param board the board object
-     * @return whether the ship length constrain is being satisfied
-     */
-    public abstract boolean shipLengthConstrain(Board<Integer> board);
-
-    /**
-     * Checks if the vectorized constrain is being satisfied
-     *
-     * @param board the board object
-     * @param position the position of the cell
-     * @param neighbor the position of the cell's neighbor
-     * @param diff the difference between cell's position and neighbor's position
-     * @return whether the vectorized constrain is being satisfied
+     * @return the compiled vectorized fields constrains
      */
-    private boolean checkVectorizedConstrain(Board<Integer> board, Coord position, Coord neighbor, Coord diff) {
-        return vectorizedFieldsConstrains.get(board.accessCell(position)).get(diff).contains(board.accessCell(neighbor));
+    public RuleTable getRuleTable() {
+        return ruleTable;
     }
 
     /**
-     * Checks if the local vectorized constrains are being satisfied
+     * Checks if the vectorized fields constraints are being satisfied
      *
      * @param board the board object
-     * @param position the position of the cell
-     * @return whether the local vectorized constrains are being satisfied
+     * @return whether the vectorized fields constraints are being satisfied
      */
-    private boolean checkLocalVectorizedConstrains(Board<Integer> board, Coord position) {
-        for (Integer u : neighborValues) {
-            for (Integer v : neighborValues) {
-                if (u != 0 || v != 0) {
-                    Coord neighbor = new Coord(position.x() + u, position.y() + v);
-                    if (board.onBoard(neighbor) && !checkVectorizedConstrain(board, position, neighbor, new Coord(u, v))) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+    public boolean vectorizedFieldsConstrain(Board<Integer> board) {
+        return ruleTable.check(board);
     }
 
     /**
-     * Checks if the vectorized fields constraints are being satisfied
+     * Checks the vectorized fields constraints of all boards stored as the consecutive cell
+     * values in the row-major order
      *
-     * @param board the board object
-     * @return whether the vectorized fields constraints are being satisfied
+     * @param cells the packed cell values of the boards
+     * @param width the board width
+     * @param height the board height
+     * @return the result of the check of every board
      */
-    public boolean vectorizedFieldsConstrain(Board<Integer> board) {
-        for (int y = 0; y < board.getHeight(); ++y) {
-            for (int x = 0; x < board.getWidth(); ++x) {
-                Coord position = new Coord(x, y);
-                if (board.accessCell(position) > 2 && !checkLocalVectorizedConstrains(board, position)) {
-                    return false;
-                }
-            }
-        }
-        return true;
+    public boolean[] vectorizedFieldsConstrain(byte[] cells, int width, int height) {
+        return ruleTable.checkAll(cells, width, height);
     }
 
     /**
@@ -3,7 +3,7 @@
  */
 package backend.constrains.dto;
 
-import backend.boards.Board;
+import backend.constrains.ConstrainCompiler;
 import backend.utility.Coord;
 
 import java.util.List;
@@ -29,28 +29,26 @@ public class HardConstrains extends DTOConstrains {
     }
 
     /**
-     * Checks the limit constrain on the given range
+     * Checks the limit constrain on the range with the given contents
      *
-     * @param range the range object
+     * @param ships the number of the ships in the range
+     * @param open the number of the cells in the range that can still be the ships
      * @param rangeLimit the range limits
      * @return whether the limit constrain is satisfied
-     * @param <Range> the range type
      */
     @Override
-    protected <Range extends Iterable<Integer>> boolean rangeConstrain(Range range, int rangeLimit) {
-        ContainedPair pair = contained(range);
-        return pair.ships == rangeLimit && pair.empty == 0;
+    protected boolean countConstrain(int ships, int open, int rangeLimit) {
+        return ships == rangeLimit && open == 0;
     }
 
     /**
-     * Checks if the ship length constrain is being satisfied
+     * Returns the kind of the line limits checked by the countConstrain method
      *
-     * @param board the board object
-     * @return whether the ship length constrain is being satisfied
+     * @return the kind of the line limits
      */
     @Override
-    public boolean shipLengthConstrain(Board<Integer> board) {
-        return getShipLengths(board).equals(shipLimits);
+    protected ConstrainCompiler.Kind limitKind() {
+        return ConstrainCompiler.Kind.EXACT;
     }
 
 }
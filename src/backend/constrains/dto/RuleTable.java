@@ -0,0 +1,210 @@
+package backend.constrains.dto;
+
+import backend.boards.Board;
+import backend.io.RuleTableFile;
+import backend.utility.Coord;
+
+import java.nio.IntBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Vectorized fields constraints compiled into the flat table of the allowed neighbor
+ * states. The entry of the state and the direction is the bitmask of the states allowed
+ * at the neighbor in that direction, so the check of the neighbor is a single shift and AND.
+ * The table is either built from the rules or read in place from the mapped {@link RuleTableFile}.
+ * The cells outside the state alphabet are always rejected
+ */
+public final class RuleTable {
+    public final static int                                     STATES = Integer.SIZE;
+    public final static int                                     DIRECTIONS = 8;
+    final static int[][]                                        OFFSETS = {{-1, -1}, {0, -1}, {1, -1}, {-1, 0}, {1, 0}, {-1, 1}, {0, 1}, {1, 1}};
+
+    private final IntBuffer                                     allowed;
+    private final int[]                                         rows;
+    private final int[]                                         columns;
+    private final int                                           checked;
+    private final ThreadLocal<byte[]>                           scratch = ThreadLocal.withInitial(() -> new byte[0]);
+
+    /**
+     * Constructs a new RuleTable object. The checked states missing in the rules allow
+     * no neighbors, the directions missing in the rules allow every neighbor
+     *
+     * @param rules the vectorized fields constrains
+     * @param checked the bitmask of the states whose neighbors are checked
+     * @throws IllegalArgumentException when the rules contain a state outside the alphabet
+     */
+    public RuleTable(Map<Integer, Map<Coord, Set<Integer>>> rules, int checked) throws IllegalArgumentException {
+        int[] table = new int[STATES * DIRECTIONS];
+        for (int state = 0; state < STATES; ++state) {
+            Map<Coord, Set<Integer>> neighbors = rules.get(state);
+            for (int d = 0; d < DIRECTIONS && neighbors != null; ++d) {
+                Set<Integer> states = neighbors.get(new Coord(OFFSETS[d][0], OFFSETS[d][1]));
+                table[state * DIRECTIONS + d] = states == null ? -1 : mask(states);
+            }
+        }
+        for (Integer state : rules.keySet()) {
+            if (state < 0 || state >= STATES) {
+                throw new IllegalArgumentException("State " + state + " is outside the rule table");
+            }
+        }
+        this.allowed = IntBuffer.wrap(table);
+        this.rows = IntStream.range(0, STATES).map(state -> state * DIRECTIONS).toArray();
+        this.columns = IntStream.range(0, DIRECTIONS).toArray();
+        this.checked = checked;
+    }
+
+    /**
+     * Constructs a new RuleTable object reading the bitmasks in place from the mapped file.
+     * The checked states missing in the file allow no neighbors, the directions missing in
+     * the file allow every neighbor
+     *
+     * @param file the mapped rule table
+     * @param checked the bitmask of the states whose neighbors are checked
+     */
+    public RuleTable(RuleTableFile file, int checked) {
+        List<Coord> directions = file.getDirections();
+        this.allowed = file.getTable();
+        this.rows = IntStream.range(0, STATES).map(state -> file.indexOf(state) < 0 ? -1 : file.indexOf(state) * directions.size()).toArray();
+        this.columns = IntStream.range(0, DIRECTIONS).map(d -> directions.indexOf(offset(d))).toArray();
+        this.checked = checked;
+    }
+
+    /**
+     * Returns the bitmask of the given states
+     *
+     * @param states the states
+     * @return the bitmask of the states
+     * @throws IllegalArgumentException when the state is outside the alphabet
+     */
+    private static int mask(Set<Integer> states) throws IllegalArgumentException {
+        int mask = 0;
+        for (Integer state : states) {
+            if (state < 0 || state >= STATES) {
+                throw new IllegalArgumentException("State " + state + " is outside the rule table");
+            }
+            mask |= 1 << state;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the bitmask of the states allowed at the neighbor in the given row of the table
+     *
+     * @param row the index of the state's row, negative when the state is not ruled
+     * @param direction the index of the neighbor's direction
+     * @return the bitmask of the allowed neighbor states
+     */
+    private int mask(int row, int direction) {
+        int column = columns[direction];
+        return row < 0 ? 0 : column < 0 ? -1 : allowed.get(row + column);
+    }
+
+    /**
+     * Returns the bitmask of the states allowed at the neighbor of the given state
+     *
+     * @param state the state of the cell
+     * @param direction the index of the neighbor's direction
+     * @return the bitmask of the allowed neighbor states
+     */
+    public int allowed(int state, int direction) {
+        return mask(rows[state], direction);
+    }
+
+    /**
+     * Returns the offset of the neighbor in the given direction
+     *
+     * @param direction the index of the neighbor's direction
+     * @return the offset of the neighbor
+     */
+    public static Coord offset(int direction) {
+        return new Coord(OFFSETS[direction][0], OFFSETS[direction][1]);
+    }
+
+    /**
+     * Checks the board stored as the consecutive cell values in the row-major order. The
+     * inner cells are checked without the bounds tests
+     *
+     * @param cells the packed cell values
+     * @param offset the index of the board's first cell
+     * @param width the board width
+     * @param height the board height
+     * @return whether the vectorized fields constraints are being satisfied
+     */
+    public boolean check(byte[] cells, int offset, int width, int height) {
+        for (int y = 0, index = offset; y < height; ++y) {
+            boolean innerRow = y > 0 && y < height - 1;
+            for (int x = 0; x < width; ++x, ++index) {
+                int state = cells[index] & 0xFF;
+                if (state >= STATES) {
+                    return false;
+                }
+                if ((checked >>> state & 1) == 0) {
+                    continue;
+                }
+                int row = rows[state];
+                if (innerRow && x > 0 && x < width - 1) {
+                    for (int d = 0; d < DIRECTIONS; ++d) {
+                        int neighbor = cells[index + OFFSETS[d][1] * width + OFFSETS[d][0]] & 0xFF;
+                        if (neighbor >= STATES || (mask(row, d) >>> neighbor & 1) == 0) {
+                            return false;
+                        }
+                    }
+                    continue;
+                }
+                for (int d = 0; d < DIRECTIONS; ++d) {
+                    int nx = x + OFFSETS[d][0], ny = y + OFFSETS[d][1];
+                    if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                        continue;
+                    }
+                    int neighbor = cells[index + OFFSETS[d][1] * width + OFFSETS[d][0]] & 0xFF;
+                    if (neighbor >= STATES || (mask(row, d) >>> neighbor & 1) == 0) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the board. The cells are copied into the per-thread primitive buffer first
+     *
+     * @param board the board object
+     * @return whether the vectorized fields constraints are being satisfied
+     */
+    public boolean check(Board<Integer> board) {
+        int width = board.getWidth(), height = board.getHeight();
+        byte[] cells = scratch.get();
+        if (cells.length < width * height) {
+            cells = new byte[width * height];
+            scratch.set(cells);
+        }
+        for (int y = 0, index = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x, ++index) {
+                int state = board.accessCell(x, y);
+                cells[index] = (byte) (state < 0 || state >= STATES ? -1 : state);
+            }
+        }
+        return check(cells, 0, width, height);
+    }
+
+    /**
+     * Checks all boards of the same dimensions stored as the consecutive cell values in the
+     * row-major order
+     *
+     * @param cells the packed cell values of the boards
+     * @param width the board width
+     * @param height the board height
+     * @return the result of the check of every board
+     */
+    public boolean[] checkAll(byte[] cells, int width, int height) {
+        int size = width * height;
+        boolean[] results = new boolean[size == 0 ? 0 : cells.length / size];
+        IntStream.range(0, results.length).parallel().forEach(i -> results[i] = check(cells, i * size, width, height));
+        return results;
+    }
+
+}
@@ -0,0 +1,318 @@
+package backend.constrains.dto;
+
+import backend.utility.Coord;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Vectorized fields constraints compressed by the symmetries of the board. Detects the
+ * rotations and reflections of the directions under which the rules are invariant up to
+ * the permutation of the states, and stores only the rules of the canonical state of every
+ * orbit. The rules of the other states are restored by the transform mapping their canonical
+ * state onto them. The table serves the analysis of the rules, i.e. their compression ratio
+ * and their consistency, the boards are checked by the uncompressed {@link RuleTable}
+ */
+public final class SymmetricRuleTable {
+    private final static int                                    STATES = RuleTable.STATES;
+    private final static int                                    DIRECTIONS = RuleTable.DIRECTIONS;
+    private final static int[]                                  OPPOSITE = IntStream.range(0, DIRECTIONS)
+        .map(d -> direction(-RuleTable.offset(d).x(), -RuleTable.offset(d).y())).toArray();
+
+    private final List<Symmetry>                                symmetries;
+    private final int[][]                                       sources;
+    private final int[]                                         canonical;
+    private final int[]                                         transform;
+    private final int[]                                         slot;
+    private final int[]                                         masks;
+    private final int                                           present;
+
+    /**
+     * Represents the symmetry of the rules. The rule allowing the neighbor state at the
+     * direction is mapped onto the rule of the mapped states at the mapped direction
+     *
+     * @param directions the mapped index of every direction
+     * @param states the mapped value of every state
+     */
+    public record Symmetry(int[] directions, int[] states) {
+
+        /**
+         * Maps the bitmask of the states
+         *
+         * @param mask the bitmask of the states
+         * @return the bitmask of the mapped states
+         */
+        public int map(int mask) {
+            int mapped = 0;
+            for (int bits = mask; bits != 0; bits &= bits - 1) {
+                mapped |= 1 << states[Integer.numberOfTrailingZeros(bits)];
+            }
+            return mapped;
+        }
+
+    }
+
+    /**
+     * Represents the rule allowing the neighbor, which does not allow the state back
+     *
+     * @param state the state of the cell
+     * @param direction the index of the neighbor's direction
+     * @param neighbor the state of the neighbor
+     */
+    public record Inconsistency(int state, int direction, int neighbor) { }
+
+    /**
+     * Constructs a new SymmetricRuleTable object
+     *
+     * @param rules the vectorized fields constrains
+     * @throws IllegalArgumentException when the rules contain a state outside the alphabet
+     */
+    public SymmetricRuleTable(Map<Integer, Map<Coord, Set<Integer>>> rules) throws IllegalArgumentException {
+        RuleTable table = new RuleTable(rules, 0);
+        int states = 0;
+        for (Integer state : rules.keySet()) {
+            states |= 1 << state;
+        }
+        this.present = states;
+        this.symmetries = detect(table, states);
+        this.sources = new int[symmetries.size()][DIRECTIONS];
+        for (int k = 0; k < sources.length; ++k) {
+            for (int d = 0; d < DIRECTIONS; ++d) {
+                sources[k][symmetries.get(k).directions()[d]] = d;
+            }
+        }
+        this.canonical = new int[STATES];
+        this.transform = new int[STATES];
+        this.slot = new int[STATES];
+        Arrays.fill(canonical, -1);
+        int canonicalStates = 0;
+        for (int state = 0; state < STATES; ++state) {
+            if ((states >>> state & 1) == 0 || canonical[state] >= 0) {
+                continue;
+            }
+            slot[state] = canonicalStates++;
+            for (int k = 0; k < symmetries.size(); ++k) {
+                int image = symmetries.get(k).states()[state];
+                if (canonical[image] < 0) {
+                    canonical[image] = state;
+                    transform[image] = k;
+                }
+            }
+        }
+        this.masks = new int[canonicalStates * DIRECTIONS];
+        for (int state = 0; state < STATES; ++state) {
+            if (canonical[state] == state) {
+                for (int d = 0; d < DIRECTIONS; ++d) {
+                    masks[slot[state] * DIRECTIONS + d] = table.allowed(state, d);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the direction with the given offset
+     *
+     * @param x the x-axis offset
+     * @param y the y-axis offset
+     * @return the index of the direction
+     */
+    private static int direction(int x, int y) {
+        for (int d = 0; d < DIRECTIONS; ++d) {
+            if (RuleTable.offset(d).equals(new Coord(x, y))) {
+                return d;
+            }
+        }
+        throw new IllegalStateException("No direction " + x + ", " + y);
+    }
+
+    /**
+     * Returns the index of the opposite direction
+     *
+     * @param direction the index of the direction
+     * @return the index of the opposite direction
+     */
+    public static int opposite(int direction) {
+        return OPPOSITE[direction];
+    }
+
+    /**
+     * Returns the direction maps of the eight rotations and reflections of the board, the identity first
+     *
+     * @return the direction maps of the board symmetries
+     */
+    private static int[][] directionMaps() {
+        int[][] maps = new int[8][DIRECTIONS];
+        for (int k = 0; k < maps.length; ++k) {
+            for (int d = 0; d < DIRECTIONS; ++d) {
+                Coord offset = RuleTable.offset(d);
+                int x = k >= 4 ? -offset.x() : offset.x(), y = offset.y();
+                for (int rotation = 0; rotation < k % 4; ++rotation) {
+                    int rotated = -y;
+                    y = x;
+                    x = rotated;
+                }
+                maps[k][d] = direction(x, y);
+            }
+        }
+        return maps;
+    }
+
+    /**
+     * Detects the symmetries of the rules. Searches the state permutation of every board
+     * symmetry by the backtracking over the states with the matching rule sizes
+     *
+     * @param table the uncompressed rules
+     * @param states the bitmask of the ruled states
+     * @return the symmetries of the rules, the identity first
+     */
+    private static List<Symmetry> detect(RuleTable table, int states) {
+        List<Symmetry> symmetries = new ArrayList<>();
+        int[][] maps = directionMaps();
+        for (int k = 0; k < maps.length; ++k) {
+            int[] permutation = new int[STATES];
+            for (int state = 0; state < STATES; ++state) {
+                permutation[state] = state;
+            }
+            int[] directions = maps[k];
+            if (k == 0 || assign(table, states, directions, permutation, 0, 0)) {
+                symmetries.add(new Symmetry(directions, permutation));
+            }
+        }
+        return symmetries;
+    }
+
+    /**
+     * Assigns the images of the states starting at the given state
+     *
+     * @param table the uncompressed rules
+     * @param states the bitmask of the ruled states
+     * @param directions the direction map of the board symmetry
+     * @param permutation the state permutation being built
+     * @param state the next assigned state
+     * @param used the bitmask of the already used images
+     * @return whether the permutation has been completed into the symmetry
+     */
+    private static boolean assign(RuleTable table, int states, int[] directions, int[] permutation, int state, int used) {
+        while (state < STATES && (states >>> state & 1) == 0) {
+            ++state;
+        }
+        if (state == STATES) {
+            return invariant(table, states, new Symmetry(directions, permutation));
+        }
+        for (int image = 0; image < STATES; ++image) {
+            if ((states >>> image & 1) == 0 || (used >>> image & 1) != 0 || !matching(table, directions, state, image)) {
+                continue;
+            }
+            permutation[state] = image;
+            if (assign(table, states, directions, permutation, state + 1, used | 1 << image)) {
+                return true;
+            }
+        }
+        permutation[state] = state;
+        return false;
+    }
+
+    /**
+     * Checks if the rules of the image have the sizes of the rules of the state
+     *
+     * @param table the uncompressed rules
+     * @param directions the direction map of the board symmetry
+     * @param state the state
+     * @param image the candidate image of the state
+     * @return whether the rule sizes match
+     */
+    private static boolean matching(RuleTable table, int[] directions, int state, int image) {
+        for (int d = 0; d < DIRECTIONS; ++d) {
+            if (Integer.bitCount(table.allowed(state, d)) != Integer.bitCount(table.allowed(image, directions[d]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the rules are invariant under the symmetry
+     *
+     * @param table the uncompressed rules
+     * @param states the bitmask of the ruled states
+     * @param symmetry the symmetry
+     * @return whether the rules are invariant
+     */
+    private static boolean invariant(RuleTable table, int states, Symmetry symmetry) {
+        for (int state = 0; state < STATES; ++state) {
+            for (int d = 0; d < DIRECTIONS && (states >>> state & 1) != 0; ++d) {
+                int mask = table.allowed(state, d);
+                if ((mask == -1 ? -1 : symmetry.map(mask)) != table.allowed(symmetry.states()[state], symmetry.directions()[d])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the bitmask of the states allowed at the neighbor of the given state
+     *
+     * @param state the state of the cell
+     * @param direction the index of the neighbor's direction
+     * @return the bitmask of the allowed neighbor states
+     */
+    public int allowed(int state, int direction) {
+        if ((present >>> state & 1) == 0) {
+            return 0;
+        }
+        int k = transform[state];
+        int mask = masks[slot[canonical[state]] * DIRECTIONS + sources[k][direction]];
+        return mask == -1 || k == 0 ? mask : symmetries.get(k).map(mask);
+    }
+
+    /**
+     * Returns the detected symmetries, the identity first
+     *
+     * @return the detected symmetries
+     */
+    public List<Symmetry> getSymmetries() {
+        return Collections.unmodifiableList(symmetries);
+    }
+
+    /**
+     * Returns the canonical state of the given state
+     *
+     * @param state the state
+     * @return the canonical state
+     */
+    public int getCanonical(int state) {
+        return canonical[state];
+    }
+
+    /**
+     * Returns the number of the stored rule entries
+     *
+     * @return the number of the stored rule entries
+     */
+    public int getEntries() {
+        return masks.length;
+    }
+
+    /**
+     * Returns the rules which are not mirrored by the neighbor, i.e. the state allows the
+     * neighbor at the direction, but the neighbor does not allow the state at the opposite direction
+     *
+     * @return the inconsistent rules
+     */
+    public List<Inconsistency> verify() {
+        List<Inconsistency> inconsistencies = new ArrayList<>();
+        for (int state = 0; state < STATES; ++state) {
+            for (int d = 0; d < DIRECTIONS && (present >>> state & 1) != 0; ++d) {
+                for (int bits = allowed(state, d) & present; bits != 0; bits &= bits - 1) {
+                    int neighbor = Integer.numberOfTrailingZeros(bits);
+                    if ((allowed(neighbor, opposite(d)) >>> state & 1) == 0) {
+                        inconsistencies.add(new Inconsistency(state, d, neighbor));
+                    }
+                }
+            }
+        }
+        return inconsistencies;
+    }
+
+}
@@ -3,11 +3,10 @@
  */
 package backend.constrains.solver;
 
-import backend.boards.Board;
+import backend.constrains.ConstrainCompiler;
 
 import java.util.List;
 import java.util.TreeMap;
-import java.util.Set;
 
 /**
  * Constrains that can be checked on the incomplete board
@@ -26,36 +25,26 @@ public class SoftConstrains extends SolverConstrains {
     }
 
     /**
-     * Checks the limit constrain on the given range
+     * Checks the limit constrain on the range with the given contents
      *
-     * @param range the range object
+     * @param ships the number of the ships in the range
+     * @param open the number of the cells in the range that can still be the ships
      * @param rangeLimit the range limits
      * @return whether the limit constrain is satisfied
-     * @param <Range> the range type
      */
     @Override
-    protected <Range extends Iterable<Set<Integer>>> boolean rangeConstrain(Range range, int rangeLimit) {
-        SolverConstrains.ContainedPair pair = contained(range);
-        return pair.ships <= rangeLimit && pair.ships + pair.empty >= rangeLimit;
+    protected boolean countConstrain(int ships, int open, int rangeLimit) {
+        return ships <= rangeLimit && ships + open >= rangeLimit;
     }
 
     /**
-     * Checks if the ship length constrain is being satisfied
+     * Returns the kind of the line limits checked by the countConstrain method
      *
-     * @param board the board object
-     * @return whether the ship length constrain is being satisfied
+     * @return the kind of the line limits
      */
     @Override
-    public boolean shipLengthConstrain(Board<Set<Integer>> board) {
-        var shipLengths = getShipLengths(board);
-        for (Integer key : shipLimits.descendingKeySet()) {
-            if (!shipLengths.containsKey(key)) {
-                return true;
-            } else if (!shipLengths.get(key).equals(shipLimits.get(key))) {
-                return shipLengths.get(key) < shipLimits.get(key);
-            }
-        }
-        return true;
+    protected ConstrainCompiler.Kind limitKind() {
+        return ConstrainCompiler.Kind.BOUNDED;
     }
 
 }
@@ -3,7 +3,7 @@
  */
 package backend.constrains.solver;
 
-import backend.boards.Board;
+import backend.constrains.LineCounter;
 
 import java.util.*;
 
@@ -59,36 +59,24 @@ public abstract class SolverConstrains extends backend.constrains.BattleshipsCon
      * @return whether the limit constrain is satisfied
      * @param <Range> the range type
      */
-    protected abstract <Range extends Iterable<Set<Integer>>> boolean rangeConstrain(Range range, int rangeLimit);
+    @Override
+    protected <Range extends Iterable<Set<Integer>>> boolean rangeConstrain(Range range, int rangeLimit) {
+        ContainedPair pair = contained(range);
+        return countConstrain(pair.ships, pair.empty, rangeLimit);
+    }
 
     /**
-     * Performs the one iteration of the getRangeShips method
+     * Returns the line counter category of the cell
      *
-     * @param states the current states of the method
      * @param cell the cell value
-     * @param ships the ships lengths
+     * @return {@link LineCounter#SHIP} for the ship, {@link LineCounter#OPEN} for the undecided cell that can be the ship and 0 otherwise
      */
     @Override
-    protected void rangeShipsAutomate(ShipPair states, Set<Integer> cell, TreeMap<Integer, Integer> ships) {
-        if (cell.size() == 1 && cell.contains(2)) {
-            if (states.isShip) {
-                states.length += 1;
-            } else {
-                states.isShip = true;
-                states.length = 1;
-            }
-        } else if (states.isShip) {
-            states.isShip = false;
-            ships.put(states.length, ships.getOrDefault(states.length, 0) + 1);
+    protected byte lineCategory(Set<Integer> cell) {
+        if (!cell.contains(2)) {
+            return 0;
         }
+        return cell.size() == 1 ? LineCounter.SHIP : LineCounter.OPEN;
     }
 
-    /**
-     * Checks if the ship length constrain is being satisfied
-     *
-     * @param board the board object
-     * @return whether the ship length constrain is being satisfied
-     */
-    public abstract boolean shipLengthConstrain(Board<Set<Integer>> board);
-
 }
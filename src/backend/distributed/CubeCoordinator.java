@@ -0,0 +1,251 @@
+package backend.distributed;
+
+import backend.boards.BoardDTO;
+import backend.facades.BattleshipsSolver;
+import backend.utility.InitValue;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates the cube-and-conquer solving over the local worker processes. The puzzle is
+ * split into the cubes by the lookahead, the workers pull the cubes one by one over
+ * the local sockets, so the faster workers take more cubes. The cubes of the failed
+ * workers are dispatched again
+ */
+public class CubeCoordinator {
+    private final static int                                    CUBES_PER_WORKER = 8;
+    private final static long                                   POLL_MILLIS = 50;
+    private final static long                                   SHUTDOWN_MILLIS = 1000;
+
+    private final List<List<String>>                            commands;
+
+    /**
+     * Represents the aggregated result of the job
+     *
+     * @param count the number of the found solutions
+     * @param solutions the found solutions, empty in the counting mode
+     */
+    public record Result(long count, List<BoardDTO> solutions) { }
+
+    /**
+     * Shared state of the dispatching
+     */
+    private static class Dispatch {
+        private final Deque<List<InitValue<Integer>>>           pending;
+        private final Job.Mode                                  mode;
+        private final List<BoardDTO>                            solutions = new ArrayList<>();
+        private int                                             remaining;
+        private int                                             connected = 0;
+        private long                                            count = 0;
+
+        /**
+         * Constructs a new Dispatch object
+         *
+         * @param cubes the dispatched cubes
+         * @param mode the aggregation mode of the results
+         */
+        public Dispatch(List<List<InitValue<Integer>>> cubes, Job.Mode mode) {
+            this.pending = new ArrayDeque<>(cubes);
+            this.remaining = cubes.size();
+            this.mode = mode;
+        }
+
+        /**
+         * Checks whether the job is finished
+         *
+         * @return whether the job is finished
+         */
+        public synchronized boolean isDone() {
+            return remaining == 0 || mode == Job.Mode.FIRST && count > 0;
+        }
+
+        /**
+         * Waits for the next pending cube
+         *
+         * @return the next pending cube or null when the job is finished
+         * @throws InterruptedException when the thread is interrupted
+         */
+        public synchronized List<InitValue<Integer>> take() throws InterruptedException {
+            while (pending.isEmpty() && !isDone()) {
+                wait(POLL_MILLIS);
+            }
+            return isDone() ? null : pending.poll();
+        }
+
+        /**
+         * Aggregates the result of the cube
+         *
+         * @param cubeCount the number of the solutions of the cube
+         * @param cubeSolutions the solutions of the cube
+         */
+        public synchronized void complete(long cubeCount, List<BoardDTO> cubeSolutions) {
+            if (mode != Job.Mode.FIRST || count == 0) {
+                solutions.addAll(cubeSolutions);
+                count += cubeCount;
+            }
+            remaining -= 1;
+            notifyAll();
+        }
+
+        /**
+         * Returns the cube of the failed worker to the pending cubes
+         *
+         * @param cube the returned cube
+         */
+        public synchronized void requeue(List<InitValue<Integer>> cube) {
+            pending.addFirst(cube);
+            notifyAll();
+        }
+
+        /**
+         * Registers the change of the connected workers count
+         *
+         * @param difference the change of the connected workers count
+         */
+        public synchronized void connect(int difference) {
+            connected += difference;
+            notifyAll();
+        }
+
+    }
+
+    /**
+     * Constructs a new CubeCoordinator object launching the given number of the workers
+     * with the current Java runtime
+     *
+     * @param workers the number of the workers
+     */
+    public CubeCoordinator(int workers) {
+        this(Collections.nCopies(workers, workerCommand(CubeWorker.class)));
+    }
+
+    /**
+     * Constructs a new CubeCoordinator object launching one worker for every command.
+     * The coordinator's port is appended to the commands
+     *
+     * @param commands the commands launching the workers
+     */
+    public CubeCoordinator(List<List<String>> commands) {
+        this.commands = commands;
+    }
+
+    /**
+     * Returns the command launching the given worker class with the current Java runtime
+     *
+     * @param worker the main class of the worker
+     * @return the command launching the worker
+     */
+    public static List<String> workerCommand(Class<?> worker) {
+        String classPath = System.getProperty("java.class.path");
+        for (Class<?> source : List.of(CubeWorker.class, worker)) {
+            try {
+                classPath += File.pathSeparator + Path.of(source.getProtectionDomain().getCodeSource().getLocation().toURI());
+            } catch (URISyntaxException | NullPointerException exception) {
+                // the class path of the current runtime is used as is
+            }
+        }
+        return List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-cp", classPath, worker.getName());
+    }
+
+    /**
+     * Serves the single worker connection until the job is finished or the worker fails
+     *
+     * @param socket the worker connection
+     * @param job the solved job
+     * @param dispatch the shared state of the dispatching
+     */
+    private static void serve(Socket socket, Job job, Dispatch dispatch) {
+        List<InitValue<Integer>> cube = null;
+        dispatch.connect(1);
+        try (socket) {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            output.writeByte(Protocol.JOB);
+            Protocol.writeJob(output, job);
+            while ((cube = dispatch.take()) != null) {
+                output.writeByte(Protocol.CUBE);
+                Protocol.writeAssignments(output, cube);
+                output.flush();
+                if (input.readByte() != Protocol.RESULT) {
+                    throw new IOException("Unexpected worker message");
+                }
+                long count = input.readLong();
+                List<BoardDTO> solutions = new ArrayList<>();
+                for (int size = input.readInt(); size > 0; --size) {
+                    solutions.add(Protocol.readBoard(input));
+                }
+                dispatch.complete(count, solutions);
+                cube = null;
+            }
+            output.writeByte(Protocol.STOP);
+            output.flush();
+        } catch (IOException | InterruptedException exception) {
+            if (cube != null) {
+                dispatch.requeue(cube);
+            }
+        } finally {
+            dispatch.connect(-1);
+        }
+    }
+
+    /**
+     * Solves the job on the worker processes
+     *
+     * @param job the solved job
+     * @return the aggregated result of the job
+     * @throws IOException when all workers fail before the job is finished
+     * @throws InterruptedException when the thread is interrupted
+     */
+    public Result run(Job job) throws IOException, InterruptedException {
+        int depth = 32 - Integer.numberOfLeadingZeros(Math.max(1, commands.size() * CUBES_PER_WORKER - 1));
+        List<List<InitValue<Integer>>> cubes = new BattleshipsSolver(job.constrains())
+            .cubes(job.initValues(), job.rowLimits(), job.columnLimits(), job.shipLimits(), depth);
+        Dispatch dispatch = new Dispatch(cubes, job.mode());
+        List<Process> processes = new ArrayList<>();
+        try (ServerSocket server = new ServerSocket(0, commands.size(), InetAddress.getLoopbackAddress())) {
+            for (List<String> command : commands) {
+                List<String> arguments = new ArrayList<>(command);
+                arguments.add(String.valueOf(server.getLocalPort()));
+                processes.add(new ProcessBuilder(arguments).redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT).start());
+            }
+            Thread acceptor = new Thread(() -> {
+                while (!server.isClosed()) {
+                    try {
+                        Socket socket = server.accept();
+                        Thread handler = new Thread(() -> serve(socket, job, dispatch));
+                        handler.setDaemon(true);
+                        handler.start();
+                    } catch (IOException exception) {
+                        return;
+                    }
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+            synchronized (dispatch) {
+                while (!dispatch.isDone()) {
+                    if (dispatch.connected == 0 && processes.stream().noneMatch(Process::isAlive)) {
+                        throw new IOException("All workers failed before the job was finished");
+                    }
+                    dispatch.wait(POLL_MILLIS);
+                }
+                return new Result(dispatch.count, List.copyOf(dispatch.solutions));
+            }
+        } finally {
+            for (Process process : processes) {
+                if (!process.waitFor(SHUTDOWN_MILLIS, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+
+}
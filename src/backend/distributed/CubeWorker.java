@@ -0,0 +1,75 @@
+package backend.distributed;
+
+import backend.boards.BoardDTO;
+import backend.facades.BattleshipsSolver;
+import backend.utility.InitValue;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Worker process of the distributed solving. Connects to the coordinator, receives the job
+ * and solves the received cubes until the coordinator stops it
+ */
+public class CubeWorker {
+
+    /**
+     * Solves the cube and writes its result
+     *
+     * @param output the output stream
+     * @param solver the Battleships solver
+     * @param job the solved job
+     * @param cube the assignments of the cube
+     * @throws IOException when the stream cannot be written
+     */
+    private static void solveCube(DataOutputStream output, BattleshipsSolver solver, Job job, List<InitValue<Integer>> cube) throws IOException {
+        List<InitValue<Integer>> initValues = new ArrayList<>(job.initValues());
+        initValues.addAll(cube);
+        List<BoardDTO> solutions = new ArrayList<>();
+        long[] count = {0};
+        solver.enumerate(initValues, job.rowLimits(), job.columnLimits(), job.shipLimits(), board -> {
+            count[0] += 1;
+            if (job.mode() != Job.Mode.COUNT) {
+                solutions.add(board);
+            }
+            return job.mode() != Job.Mode.FIRST;
+        }, false);
+        output.writeByte(Protocol.RESULT);
+        output.writeLong(count[0]);
+        output.writeInt(solutions.size());
+        for (BoardDTO solution : solutions) {
+            Protocol.writeBoard(output, solution);
+        }
+        output.flush();
+    }
+
+    /**
+     * Runs the worker connected to the coordinator on the given local port
+     *
+     * @param args the port of the coordinator
+     * @throws IOException when the connection fails
+     */
+    public static void main(String[] args) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))) {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            Job job = null;
+            BattleshipsSolver solver = null;
+            while (true) {
+                byte message = input.readByte();
+                if (message == Protocol.JOB) {
+                    job = Protocol.readJob(input);
+                    solver = new BattleshipsSolver(job.constrains());
+                } else if (message == Protocol.CUBE && job != null) {
+                    solveCube(output, solver, job, Protocol.readAssignments(input));
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package backend.distributed;
+
+import backend.utility.Coord;
+import backend.utility.InitValue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Represents the distributed solving job
+ *
+ * @param initValues the list of the initial values
+ * @param rowLimits the row limits
+ * @param columnLimits the column limits
+ * @param shipLimits the ship lengths
+ * @param constrains the board's states constraints
+ * @param mode the aggregation mode of the results
+ */
+public record Job(List<InitValue<Integer>> initValues, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits, Map<Integer, Map<Coord, Set<Integer>>> constrains, Mode mode) {
+
+    /**
+     * The aggregation modes of the results
+     */
+    public enum Mode {
+        /** Stops at the first found solution */
+        FIRST,
+        /** Counts all solutions */
+        COUNT,
+        /** Collects all solutions */
+        ALL
+    }
+
+}
@@ -0,0 +1,200 @@
+package backend.distributed;
+
+import backend.boards.BoardDTO;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Binary protocol between the coordinator and the workers. The coordinator sends the job
+ * once and then the cubes one by one, the worker answers every cube with its result.
+ * The cube assignments are packed into single integers
+ */
+final class Protocol {
+    static final byte                                   JOB = 1;
+    static final byte                                   CUBE = 2;
+    static final byte                                   STOP = 3;
+    static final byte                                   RESULT = 4;
+
+    private final static int                            COORD_BITS = 12;
+    private final static int                            COORD_MASK = (1 << COORD_BITS) - 1;
+
+    /**
+     * Hides the constructor of the utility class
+     */
+    private Protocol() {}
+
+    /**
+     * Packs the assignment into the single integer
+     *
+     * @param value the assignment
+     * @return the packed assignment
+     */
+    static int pack(InitValue<Integer> value) {
+        return (value.value() << 2 * COORD_BITS) | (value.coord().y() << COORD_BITS) | value.coord().x();
+    }
+
+    /**
+     * Unpacks the assignment from the single integer
+     *
+     * @param packed the packed assignment
+     * @return the assignment
+     */
+    static InitValue<Integer> unpack(int packed) {
+        return new InitValue<>(new Coord(packed & COORD_MASK, (packed >>> COORD_BITS) & COORD_MASK), packed >>> 2 * COORD_BITS);
+    }
+
+    /**
+     * Writes the list of the assignments
+     *
+     * @param output the output stream
+     * @param values the assignments
+     * @throws IOException when the stream cannot be written
+     */
+    static void writeAssignments(DataOutputStream output, List<InitValue<Integer>> values) throws IOException {
+        output.writeInt(values.size());
+        for (InitValue<Integer> value : values) {
+            output.writeInt(pack(value));
+        }
+    }
+
+    /**
+     * Reads the list of the assignments
+     *
+     * @param input the input stream
+     * @return the assignments
+     * @throws IOException when the stream cannot be read
+     */
+    static List<InitValue<Integer>> readAssignments(DataInputStream input) throws IOException {
+        int size = input.readInt();
+        List<InitValue<Integer>> values = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            values.add(unpack(input.readInt()));
+        }
+        return values;
+    }
+
+    /**
+     * Writes the list of the integers
+     *
+     * @param output the output stream
+     * @param values the integers
+     * @throws IOException when the stream cannot be written
+     */
+    private static void writeIntegers(DataOutputStream output, Collection<Integer> values) throws IOException {
+        output.writeInt(values.size());
+        for (Integer value : values) {
+            output.writeInt(value);
+        }
+    }
+
+    /**
+     * Reads the list of the integers
+     *
+     * @param input the input stream
+     * @return the integers
+     * @throws IOException when the stream cannot be read
+     */
+    private static List<Integer> readIntegers(DataInputStream input) throws IOException {
+        int size = input.readInt();
+        List<Integer> values = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            values.add(input.readInt());
+        }
+        return values;
+    }
+
+    /**
+     * Writes the job
+     *
+     * @param output the output stream
+     * @param job the job
+     * @throws IOException when the stream cannot be written
+     */
+    static void writeJob(DataOutputStream output, Job job) throws IOException {
+        writeAssignments(output, job.initValues());
+        writeIntegers(output, job.rowLimits());
+        writeIntegers(output, job.columnLimits());
+        writeIntegers(output, job.shipLimits().keySet());
+        writeIntegers(output, job.shipLimits().values());
+        output.writeInt(job.constrains().size());
+        for (Map.Entry<Integer, Map<Coord, Set<Integer>>> state : job.constrains().entrySet()) {
+            output.writeInt(state.getKey());
+            output.writeInt(state.getValue().size());
+            for (Map.Entry<Coord, Set<Integer>> rule : state.getValue().entrySet()) {
+                output.writeInt(rule.getKey().x());
+                output.writeInt(rule.getKey().y());
+                writeIntegers(output, rule.getValue());
+            }
+        }
+        output.writeByte(job.mode().ordinal());
+    }
+
+    /**
+     * Reads the job
+     *
+     * @param input the input stream
+     * @return the job
+     * @throws IOException when the stream cannot be read
+     */
+    static Job readJob(DataInputStream input) throws IOException {
+        List<InitValue<Integer>> initValues = readAssignments(input);
+        List<Integer> rowLimits = readIntegers(input);
+        List<Integer> columnLimits = readIntegers(input);
+        List<Integer> shipKeys = readIntegers(input), shipValues = readIntegers(input);
+        TreeMap<Integer, Integer> shipLimits = new TreeMap<>();
+        for (int i = 0; i < shipKeys.size(); ++i) {
+            shipLimits.put(shipKeys.get(i), shipValues.get(i));
+        }
+        Map<Integer, Map<Coord, Set<Integer>>> constrains = new HashMap<>();
+        for (int states = input.readInt(); states > 0; --states) {
+            Map<Coord, Set<Integer>> rules = new HashMap<>();
+            constrains.put(input.readInt(), rules);
+            for (int count = input.readInt(); count > 0; --count) {
+                Coord direction = new Coord(input.readInt(), input.readInt());
+                rules.put(direction, new HashSet<>(readIntegers(input)));
+            }
+        }
+        return new Job(initValues, rowLimits, columnLimits, shipLimits, constrains, Job.Mode.values()[input.readByte()]);
+    }
+
+    /**
+     * Writes the solved board
+     *
+     * @param output the output stream
+     * @param board the solved board
+     * @throws IOException when the stream cannot be written
+     */
+    static void writeBoard(DataOutputStream output, BoardDTO board) throws IOException {
+        output.writeShort(board.getWidth());
+        output.writeShort(board.getHeight());
+        for (int y = 0; y < board.getHeight(); ++y) {
+            for (int x = 0; x < board.getWidth(); ++x) {
+                output.writeByte(board.accessCell(new Coord(x, y)));
+            }
+        }
+    }
+
+    /**
+     * Reads the solved board
+     *
+     * @param input the input stream
+     * @return the solved board
+     * @throws IOException when the stream cannot be read
+     */
+    static BoardDTO readBoard(DataInputStream input) throws IOException {
+        Coord dimensions = new Coord(input.readShort(), input.readShort());
+        BoardDTO board = new BoardDTO(dimensions);
+        for (int y = 0; y < dimensions.y(); ++y) {
+            for (int x = 0; x < dimensions.x(); ++x) {
+                board.setValue(new Coord(x, y), (int) input.readByte());
+            }
+        }
+        return board;
+    }
+
+}
@@ -0,0 +1,327 @@
+package backend.facades;
+
+import backend.boards.BoardDTO;
+import backend.io.PuzzleFormatException;
+import backend.io.PuzzleReader;
+import backend.solvers.NoSolutionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Solves the batches of the puzzles on the pool of the threads. The solutions are written
+ * in the order of the puzzles, one line per puzzle: the rows of the board separated by '/'
+ * with '#' marking the ship and '.' the water, or '!' followed by the reason of the failure.
+ * The malformed puzzle line fails only its own record, the batch continues with the next line.
+ * Every puzzle is solved within the time budget counted from the start of its solving, the puzzle
+ * over the budget is interrupted and written as the timeout failure.
+ * At most the configured number of the puzzles is in flight, so the memory stays bounded
+ * regardless of the size of the batch
+ */
+public class BattleshipsBatch {
+    private final static int                                    SUB_BUCKET_BITS = 5;
+    private final static int                                    SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private final static Duration                               DEFAULT_BUDGET = Duration.ofSeconds(10);
+
+    private final BattleshipsSolver                             solver;
+    private final int                                           threads;
+    private final int                                           capacity;
+    private final Duration                                      budget;
+
+    /**
+     * Represents the summary of the solved batch
+     *
+     * @param puzzles the number of the puzzles
+     * @param failures the number of the puzzles which were not solved, including the malformed ones
+     * @param malformed the number of the puzzles which could not be parsed
+     * @param nanos the wall time of the batch in nanoseconds
+     * @param p50 the median solving latency in nanoseconds
+     * @param p99 the 99th percentile of the solving latency in nanoseconds
+     */
+    public record Report(long puzzles, long failures, long malformed, long nanos, long p50, long p99) {
+
+        /**
+         * Returns the number of the puzzles processed per second
+         *
+         * @return the throughput of the batch
+         */
+        public double throughput() {
+            return nanos == 0 ? 0.0 : puzzles * 1e9 / nanos;
+        }
+
+    }
+
+    /**
+     * The formatted outcome of the single puzzle
+     *
+     * @param line the formatted solution or failure
+     * @param nanos the solving latency in nanoseconds
+     * @param failed whether the puzzle was not solved
+     * @param malformed whether the puzzle could not be parsed
+     */
+    private record Result(String line, long nanos, boolean failed, boolean malformed) { }
+
+    /**
+     * The solving of the single puzzle remembering when it has started
+     */
+    private static final class Task extends FutureTask<Result> {
+        private volatile long                                   started = -1;
+
+        /**
+         * Constructs a new Task object
+         *
+         * @param callable the solving of the puzzle
+         */
+        private Task(Callable<Result> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            started = System.nanoTime();
+            super.run();
+        }
+
+    }
+
+    /**
+     * Histogram of the latencies with the logarithmic buckets split into the linear sub-buckets.
+     * The percentiles are exact up to 1 / {@link #SUB_BUCKETS} of the value, the memory does
+     * not depend on the number of the recorded latencies
+     */
+    private static final class Latencies {
+        private final long[]                                    counts = new long[(Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+        private long                                            total = 0;
+        private long                                            max = 0;
+
+        /**
+         * Records the latency
+         *
+         * @param nanos the latency in nanoseconds
+         */
+        private void record(long nanos) {
+            long value = Math.max(0, nanos);
+            int shift = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1);
+            counts[shift * SUB_BUCKETS + (int) (value >>> shift)] += 1;
+            total += 1;
+            max = Math.max(max, value);
+        }
+
+        /**
+         * Returns the upper bound of the bucket holding the given fraction of the latencies
+         *
+         * @param fraction the fraction of the latencies
+         * @return the percentile of the latencies in nanoseconds
+         */
+        private long percentile(double fraction) {
+            long rank = (long) Math.ceil(fraction * total), seen = 0;
+            for (int i = 0; i < counts.length; ++i) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    int shift = i < 2 * SUB_BUCKETS ? 0 : i / SUB_BUCKETS - 1;
+                    long mantissa = i - (long) shift * SUB_BUCKETS;
+                    return Math.min(max, ((mantissa + 1) << shift) - 1);
+                }
+            }
+            return 0;
+        }
+
+    }
+
+    /**
+     * Constructs a new BattleshipsBatch object with the default time budget of the puzzles
+     *
+     * @param solver the Battleships solver shared by the threads
+     * @param threads the number of the solving threads
+     * @param capacity the maximum number of the puzzles in flight
+     * @throws IllegalArgumentException when the number of the threads or the capacity is not positive
+     */
+    public BattleshipsBatch(BattleshipsSolver solver, int threads, int capacity) throws IllegalArgumentException {
+        this(solver, threads, capacity, DEFAULT_BUDGET);
+    }
+
+    /**
+     * Constructs a new BattleshipsBatch object
+     *
+     * @param solver the Battleships solver shared by the threads
+     * @param threads the number of the solving threads
+     * @param capacity the maximum number of the puzzles in flight
+     * @param budget the time budget of a single puzzle
+     * @throws IllegalArgumentException when the number of the threads, the capacity or the budget is not positive
+     */
+    public BattleshipsBatch(BattleshipsSolver solver, int threads, int capacity, Duration budget) throws IllegalArgumentException {
+        if (threads <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Batch needs positive threads and capacity, got " + threads + " and " + capacity);
+        }
+        if (budget.isNegative() || budget.isZero()) {
+            throw new IllegalArgumentException("Batch needs positive budget, got " + budget);
+        }
+        this.solver = solver;
+        this.threads = threads;
+        this.capacity = capacity;
+        this.budget = budget;
+    }
+
+    /**
+     * Formats the solved board as the rows separated by '/'
+     *
+     * @param board the solved board
+     * @return the formatted board
+     */
+    public static String format(BoardDTO board) {
+        StringBuilder builder = new StringBuilder(board.getHeight() * (board.getWidth() + 1));
+        for (int y = 0; y < board.getHeight(); ++y) {
+            if (y != 0) {
+                builder.append('/');
+            }
+            for (int x = 0; x < board.getWidth(); ++x) {
+                builder.append(board.accessCell(x, y) > 1 ? '#' : '.');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Solves the single puzzle
+     *
+     * @param puzzle the puzzle
+     * @return the outcome of the puzzle
+     */
+    private Result solve(PuzzleReader.Puzzle puzzle) {
+        long start = System.nanoTime();
+        try {
+            BoardDTO board = solver.solve(puzzle.initValues(), puzzle.rowLimits(), puzzle.columnLimits(), puzzle.shipLimits());
+            return new Result(format(board), System.nanoTime() - start, false, false);
+        } catch (NoSolutionException exception) {
+            return new Result("! no solution", System.nanoTime() - start, true, false);
+        } catch (RuntimeException exception) {
+            return new Result("! " + exception, System.nanoTime() - start, true, false);
+        }
+    }
+
+    /**
+     * Solves the puzzles of the file and writes their solutions into the output file
+     *
+     * @param input the puzzle file in the {@link PuzzleReader} format
+     * @param output the solution file
+     * @return the summary of the batch
+     * @throws IOException when the files cannot be read or written
+     * @throws InterruptedException when the thread is interrupted while waiting for the solutions
+     */
+    public Report solve(Path input, Path output) throws IOException, InterruptedException {
+        try (Stream<PuzzleReader.Puzzle> puzzles = new PuzzleReader().stream(input);
+             Writer writer = Files.newBufferedWriter(output, StandardCharsets.US_ASCII)) {
+            return solve(puzzles.iterator(), writer);
+        }
+    }
+
+    /**
+     * Solves the puzzles and writes their solutions in the same order. The next puzzle is
+     * taken only after the oldest one is written when the capacity is exhausted. The puzzle
+     * reported as malformed by the iterator is written as the failure in its place, so is
+     * the puzzle exceeding the time budget
+     *
+     * @param puzzles the puzzles
+     * @param output the writer of the solutions
+     * @return the summary of the batch
+     * @throws IOException when the puzzles cannot be read or the solutions cannot be written
+     * @throws InterruptedException when the thread is interrupted while waiting for the solutions
+     */
+    public Report solve(Iterator<PuzzleReader.Puzzle> puzzles, Writer output) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "battleships-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ArrayDeque<Future<Result>> pending = new ArrayDeque<>(capacity);
+        Latencies latencies = new Latencies();
+        long start = System.nanoTime(), count = 0, failures = 0, malformed = 0;
+        Result rejected = null;
+        try {
+            while (true) {
+                boolean next = rejected != null;
+                if (!next) {
+                    try {
+                        next = puzzles.hasNext();
+                    } catch (UncheckedIOException exception) {
+                        rejected = reject(exception);
+                        next = true;
+                    }
+                }
+                if (!pending.isEmpty() && (!next || pending.size() == capacity)) {
+                    Result result = await(pending.poll());
+                    output.write(result.line());
+                    output.write('\n');
+                    if (!result.malformed()) {
+                        latencies.record(result.nanos());
+                    }
+                    count += 1;
+                    failures += result.failed() ? 1 : 0;
+                    malformed += result.malformed() ? 1 : 0;
+                } else if (rejected != null) {
+                    pending.add(CompletableFuture.completedFuture(rejected));
+                    rejected = null;
+                } else if (next) {
+                    PuzzleReader.Puzzle puzzle = puzzles.next();
+                    Task task = new Task(() -> solve(puzzle));
+                    executor.execute(task);
+                    pending.add(task);
+                } else {
+                    break;
+                }
+            }
+            output.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Report(count, failures, malformed, System.nanoTime() - start, latencies.percentile(0.5), latencies.percentile(0.99));
+    }
+
+    /**
+     * Converts the malformed puzzle into the failed outcome, unwrapping the other input errors
+     *
+     * @param exception the error of the iterator
+     * @return the outcome of the malformed puzzle
+     * @throws IOException when the puzzles cannot be read
+     */
+    private static Result reject(UncheckedIOException exception) throws IOException {
+        if (exception.getCause() instanceof PuzzleFormatException cause) {
+            return new Result("! " + cause.getMessage(), 0, true, true);
+        }
+        throw exception.getCause();
+    }
+
+    /**
+     * Waits for the outcome of the puzzle until its deadline. The oldest pending puzzle has
+     * already been taken by the pool, as the puzzles are started in their order, so its
+     * deadline is counted from its start or from now when the thread has not reached it yet
+     *
+     * @param result the pending outcome
+     * @return the outcome or the timeout failure when the puzzle exceeds the time budget
+     * @throws InterruptedException when the thread is interrupted while waiting
+     */
+    private Result await(Future<Result> result) throws InterruptedException {
+        long started = result instanceof Task task ? task.started : -1, start = started < 0 ? System.nanoTime() : started;
+        try {
+            return result.get(start + budget.toNanos() - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException exception) {
+            result.cancel(true);
+            return new Result("! timeout after " + budget.toMillis() + " ms", System.nanoTime() - start, true, false);
+        } catch (InterruptedException exception) {
+            result.cancel(true);
+            throw exception;
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+}
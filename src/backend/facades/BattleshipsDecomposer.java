@@ -0,0 +1,663 @@
+package backend.facades;
+
+import backend.boards.BattleshipsBoard;
+import backend.boards.Board;
+import backend.boards.BoardDTO;
+import backend.constrains.Constrains;
+import backend.constrains.solver.HardConstrains;
+import backend.constrains.solver.SoftConstrains;
+import backend.heuristic.Heuristic;
+import backend.heuristic.MinimumEntropyHeuristic;
+import backend.solvers.NoSolutionException;
+import backend.solvers.WaveFunctionCollapse;
+import backend.states.BattleshipsStates;
+import backend.states.States;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Solves the Battleships board by decomposing it into independent regions. Two cells that
+ * can hold the ship belong to the same region when they are neighbors, so the regions are
+ * coupled only by the shared fleet and by the limits of the lines holding the undecided cells
+ * of several regions. Every region enumerates its usages of the fleet and of the shared
+ * lines independently and the usages are merged by the dynamic program over their counts.
+ * When the shared lines would make the program too large, the regions of the widest shared
+ * line are merged into one. When the fleet alone makes the program too large, the board is
+ * solved by the full solver
+ */
+public class BattleshipsDecomposer {
+    private final static int                                    WATER = 1;
+    private final static int                                    SHIP = 2;
+    private final static int                                    UNKNOWN = 0;
+    private final static long                                   MAX_STATES = 1 << 16;
+
+    private final Map<Integer, Map<Coord, Set<Integer>>>        constrains;
+    private final BattleshipsSolver                             solver;
+    private final States<Set<Integer>, Integer>                 states = new BattleshipsStates();
+    private final Heuristic<Set<Integer>>                       heuristic = new MinimumEntropyHeuristic<>();
+    private final LongAdder                                     fallbacks = new LongAdder();
+
+    /**
+     * Represents the independent region of the board
+     *
+     * @param cells the positions of the region's cells
+     */
+    public record Region(List<Coord> cells) { }
+
+    /**
+     * The propagated board split into the regions
+     *
+     * @param board the propagated board
+     * @param cells the values of the board's cells (0 - unknown, 1 - water, 2 - ship)
+     * @param components the region index of every cell or -1 for the water
+     * @param regions the number of the regions
+     * @param lines the shared lines, the rows numbered from 0 and the columns after them
+     */
+    private record Decomposition(Board<Set<Integer>> board, int[] cells, int[] components, int regions, List<Integer> lines) { }
+
+    /**
+     * Checks the line limits of the region. The shared lines are only bounded by their limits,
+     * their counts are matched by the dynamic program merging the regions
+     *
+     * @param rowLimits the row limits of the region
+     * @param columnLimits the column limits of the region
+     * @param sharedRows whether the rows are shared with the other regions
+     * @param sharedColumns whether the columns are shared with the other regions
+     * @param hard whether the collapsed board should reach the limits exactly
+     */
+    private record RegionConstrains(int[] rowLimits, int[] columnLimits, boolean[] sharedRows, boolean[] sharedColumns, boolean hard) implements Constrains<Set<Integer>> {
+
+        /**
+         * Checks the limit of the line
+         *
+         * @param ships the number of the ships in the line
+         * @param open the number of the undecided cells in the line
+         * @param limit the line limit
+         * @param shared whether the line is shared with the other regions
+         * @return whether the line satisfies its limit
+         */
+        private boolean line(int ships, int open, int limit, boolean shared) {
+            if (hard) {
+                return shared ? ships <= limit && open == 0 : ships == limit && open == 0;
+            }
+            return ships <= limit && (shared || ships + open >= limit);
+        }
+
+        /**
+         * Checks the line limits of the region's board
+         *
+         * @param board the board object
+         * @return whether the board satisfies the line limits
+         */
+        @Override
+        public boolean check(Board<Set<Integer>> board) {
+            int[] columnShips = new int[board.getWidth()], columnOpen = new int[board.getWidth()];
+            for (int y = 0; y < board.getHeight(); ++y) {
+                int ships = 0, open = 0;
+                for (int x = 0; x < board.getWidth(); ++x) {
+                    int value = valueOf(board.accessCell(new Coord(x, y)));
+                    ships += value == SHIP ? 1 : 0;
+                    open += value == UNKNOWN ? 1 : 0;
+                    columnShips[x] += value == SHIP ? 1 : 0;
+                    columnOpen[x] += value == UNKNOWN ? 1 : 0;
+                }
+                if (!line(ships, open, rowLimits[y], sharedRows[y])) {
+                    return false;
+                }
+            }
+            for (int x = 0; x < board.getWidth(); ++x) {
+                if (!line(columnShips[x], columnOpen[x], columnLimits[x], sharedColumns[x])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * Constructs a new BattleshipsDecomposer object
+     *
+     * @param constrains the board's states constraints
+     */
+    public BattleshipsDecomposer(Map<Integer, Map<Coord, Set<Integer>>> constrains) {
+        this.constrains = constrains;
+        this.solver = new BattleshipsSolver(constrains);
+    }
+
+    /**
+     * Returns the number of the puzzles whose dynamic program was too large or whose assembled
+     * regions failed the hard constraints and were solved by the full solver instead
+     *
+     * @return the number of the fallbacks to the full solver
+     */
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * Returns the value of the propagated cell
+     *
+     * @param cell the propagated cell
+     * @return the value of the cell (0 - unknown, 1 - water, 2 - ship)
+     */
+    private static int valueOf(Set<Integer> cell) {
+        if (!cell.contains(SHIP)) {
+            return WATER;
+        }
+        return cell.size() == 1 ? SHIP : UNKNOWN;
+    }
+
+    /**
+     * Fills the lines whose limits are already reached or can only be reached by filling
+     * all undecided cells. Repeats until the board does not change
+     *
+     * @param solver the wave function collapse solver
+     * @param board the propagated board
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @throws NoSolutionException when some line cannot satisfy its limit
+     */
+    private void saturate(WaveFunctionCollapse<Set<Integer>, Integer> solver, Board<Set<Integer>> board, List<Integer> rowLimits, List<Integer> columnLimits) throws NoSolutionException {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int line = 0; line < rowLimits.size() + columnLimits.size(); ++line) {
+                boolean row = line < rowLimits.size();
+                int length = row ? columnLimits.size() : rowLimits.size();
+                int limit = row ? rowLimits.get(line) : columnLimits.get(line - rowLimits.size());
+                List<Coord> unknown = new ArrayList<>();
+                int ships = 0;
+                for (int i = 0; i < length; ++i) {
+                    Coord position = row ? new Coord(i, line) : new Coord(line - rowLimits.size(), i);
+                    int value = valueOf(board.accessCell(position));
+                    ships += value == SHIP ? 1 : 0;
+                    if (value == UNKNOWN) {
+                        unknown.add(position);
+                    }
+                }
+                if (ships > limit || ships + unknown.size() < limit) {
+                    throw new NoSolutionException();
+                }
+                if (!unknown.isEmpty() && (ships == limit || ships + unknown.size() == limit)) {
+                    int value = ships == limit ? WATER : SHIP;
+                    for (Coord position : unknown) {
+                        if (valueOf(board.accessCell(position)) == UNKNOWN) {
+                            solver.restrict(board, List.of(new InitValue<>(position, value)));
+                        }
+                    }
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the root of the given cell in the union-find forest
+     *
+     * @param parents the union-find forest
+     * @param index the index of the cell
+     * @return the root of the cell
+     */
+    private static int find(int[] parents, int index) {
+        while (parents[index] != index) {
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+
+    /**
+     * Joins the sets of the given cells
+     *
+     * @param parents the union-find forest
+     * @param first the index of the first cell
+     * @param second the index of the second cell
+     */
+    private static void union(int[] parents, int first, int second) {
+        parents[find(parents, first)] = find(parents, second);
+    }
+
+    /**
+     * Propagates the initial values and the line limits and splits the board into
+     * the independent regions
+     *
+     * @param initValueList the list of the initial values
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @return the decomposition of the board
+     * @throws NoSolutionException when the propagation finds the contradiction
+     */
+    private Decomposition decomposition(List<InitValue<Integer>> initValueList, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) throws NoSolutionException {
+        Coord dimensions = new Coord(columnLimits.size(), rowLimits.size());
+        int width = dimensions.x(), height = dimensions.y();
+        WaveFunctionCollapse<Set<Integer>, Integer> propagator = new WaveFunctionCollapse<>(
+            new SoftConstrains(rowLimits, columnLimits, shipLimits), new HardConstrains(rowLimits, columnLimits, shipLimits),
+            constrains, states, heuristic);
+        Board<Set<Integer>> board = new BattleshipsBoard(dimensions);
+        propagator.prepare(board, solver.extendInitialValues(rowLimits, columnLimits, initValueList));
+        saturate(propagator, board, rowLimits, columnLimits);
+        int[] cells = new int[width * height];
+        int[] parents = new int[width * height];
+        for (int index = 0; index < cells.length; ++index) {
+            cells[index] = valueOf(board.accessCell(new Coord(index % width, index / width)));
+            parents[index] = index;
+        }
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                int index = y * width + x;
+                if (cells[index] == WATER) {
+                    continue;
+                }
+                for (int[] diff : new int[][]{{1, 0}, {-1, 1}, {0, 1}, {1, 1}}) {
+                    int nx = x + diff[0], ny = y + diff[1];
+                    if (nx >= 0 && nx < width && ny < height && cells[ny * width + nx] != WATER) {
+                        union(parents, index, ny * width + nx);
+                    }
+                }
+            }
+        }
+        long fleetStates = 1;
+        for (int count : shipLimits.values()) {
+            fleetStates = Math.min(MAX_STATES + 1, fleetStates * (count + 1));
+        }
+        while (true) {
+            int[] components = label(cells, parents);
+            List<Integer> lines = sharedLines(cells, components, width, height);
+            long statesCount = fleetStates;
+            int widest = -1;
+            for (int line : lines) {
+                int limit = line < height ? rowLimits.get(line) : columnLimits.get(line - height);
+                statesCount = Math.min(MAX_STATES + 1, statesCount * (limit + 1));
+                if (widest < 0 || limit > (widest < height ? rowLimits.get(widest) : columnLimits.get(widest - height))) {
+                    widest = line;
+                }
+            }
+            if (statesCount <= MAX_STATES || lines.isEmpty()) {
+                int regions = Arrays.stream(components).max().orElse(-1) + 1;
+                return new Decomposition(board, cells, components, regions, lines);
+            }
+            int previous = -1;
+            for (int index : lineCells(widest, width, height)) {
+                if (cells[index] != WATER) {
+                    if (previous >= 0) {
+                        union(parents, index, previous);
+                    }
+                    previous = index;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the indices of the cells of the line
+     *
+     * @param line the line, the rows numbered from 0 and the columns after them
+     * @param width the board width
+     * @param height the board height
+     * @return the indices of the line's cells
+     */
+    private static int[] lineCells(int line, int width, int height) {
+        return line < height ? IntStream.range(0, width).map(x -> line * width + x).toArray()
+            : IntStream.range(0, height).map(y -> y * width + line - height).toArray();
+    }
+
+    /**
+     * Numbers the sets of the union-find forest in the order of their first cells
+     *
+     * @param cells the values of the board's cells
+     * @param parents the union-find forest
+     * @return the region index of every cell or -1 for the water
+     */
+    private static int[] label(int[] cells, int[] parents) {
+        int[] components = new int[cells.length];
+        Map<Integer, Integer> roots = new HashMap<>();
+        for (int index = 0; index < cells.length; ++index) {
+            components[index] = cells[index] == WATER ? -1
+                : roots.computeIfAbsent(find(parents, index), root -> roots.size());
+        }
+        return components;
+    }
+
+    /**
+     * Returns the lines holding the undecided cells of more than one region
+     *
+     * @param cells the values of the board's cells
+     * @param components the region index of every cell or -1 for the water
+     * @param width the board width
+     * @param height the board height
+     * @return the shared lines, the rows numbered from 0 and the columns after them
+     */
+    private static List<Integer> sharedLines(int[] cells, int[] components, int width, int height) {
+        List<Integer> lines = new ArrayList<>();
+        for (int line = 0; line < width + height; ++line) {
+            int region = -1;
+            for (int index : lineCells(line, width, height)) {
+                if (cells[index] != UNKNOWN) {
+                    continue;
+                }
+                if (region >= 0 && components[index] != region) {
+                    lines.add(line);
+                    break;
+                }
+                region = components[index];
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the independent regions of the given board
+     *
+     * @param initValueList the list of the initial values
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @return the independent regions of the board
+     * @throws NoSolutionException when the propagation finds the contradiction
+     */
+    public List<Region> decompose(List<InitValue<Integer>> initValueList, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) throws NoSolutionException {
+        Decomposition decomposition = decomposition(initValueList, rowLimits, columnLimits, shipLimits);
+        List<List<Coord>> regions = new ArrayList<>();
+        for (int i = 0; i < decomposition.regions(); ++i) {
+            regions.add(new ArrayList<>());
+        }
+        int width = columnLimits.size();
+        for (int index = 0; index < decomposition.components().length; ++index) {
+            if (decomposition.components()[index] >= 0) {
+                regions.get(decomposition.components()[index]).add(new Coord(index % width, index / width));
+            }
+        }
+        return regions.stream().map(Region::new).toList();
+    }
+
+    /**
+     * Counts the ships of the collapsed board
+     *
+     * @param board the collapsed board
+     * @param lengths the number of the ships of every length
+     * @return whether the board does not contain the ships longer than the array allows
+     */
+    private static boolean countShips(Board<Set<Integer>> board, int[] lengths) {
+        int width = board.getWidth(), height = board.getHeight();
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                if (!isShip(board, x, y) || isShip(board, x - 1, y) || isShip(board, x, y - 1)) {
+                    continue;
+                }
+                int dx = isShip(board, x + 1, y) ? 1 : 0, dy = 1 - dx, length = 0;
+                while (isShip(board, x + length * dx, y + length * dy)) ++length;
+                if (length >= lengths.length) {
+                    return false;
+                }
+                lengths[length] += 1;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the collapsed cell is the ship. The cells outside the board are water
+     *
+     * @param board the collapsed board
+     * @param x the x-axis position
+     * @param y the y-axis position
+     * @return whether the collapsed cell is the ship
+     */
+    private static boolean isShip(Board<Set<Integer>> board, int x, int y) {
+        return x >= 0 && y >= 0 && x < board.getWidth() && y < board.getHeight()
+            && board.accessCell(new Coord(x, y)).equals(Set.of(SHIP));
+    }
+
+    /**
+     * Enumerates the fleet usages of the region. Returns one representative board for
+     * every distinct usage
+     *
+     * @param decomposition the decomposition of the board
+     * @param region the index of the region
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param fleet the fleet counts indexed by the ship length
+     * @param strides the strides of the encoding of the fleet counts followed by the shared line counts
+     * @return the representative boards indexed by the encoded usages
+     */
+    private Map<Integer, Board<Set<Integer>>> enumerateRegion(Decomposition decomposition, int region, List<Integer> rowLimits, List<Integer> columnLimits, int[] fleet, int[] strides) {
+        int width = columnLimits.size(), height = rowLimits.size();
+        int left = width, top = height, right = -1, bottom = -1;
+        for (int index = 0; index < decomposition.components().length; ++index) {
+            if (decomposition.components()[index] == region) {
+                left = Math.min(left, index % width);
+                right = Math.max(right, index % width);
+                top = Math.min(top, index / width);
+                bottom = Math.max(bottom, index / width);
+            }
+        }
+        Coord dimensions = new Coord(right - left + 1, bottom - top + 1);
+        int[] regionRows = new int[dimensions.y()], regionColumns = new int[dimensions.x()];
+        boolean[] sharedRows = new boolean[dimensions.y()], sharedColumns = new boolean[dimensions.x()];
+        for (int y = top; y <= bottom; ++y) {
+            regionRows[y - top] = regionLimit(decomposition, region, rowLimits.get(y), y * width, 1, width);
+            sharedRows[y - top] = decomposition.lines().contains(y);
+        }
+        for (int x = left; x <= right; ++x) {
+            regionColumns[x - left] = regionLimit(decomposition, region, columnLimits.get(x), x, width, height);
+            sharedColumns[x - left] = decomposition.lines().contains(height + x);
+        }
+        List<InitValue<Integer>> initValues = new ArrayList<>();
+        for (int y = top; y <= bottom; ++y) {
+            for (int x = left; x <= right; ++x) {
+                int index = y * width + x;
+                if (decomposition.components()[index] != region || decomposition.cells()[index] != UNKNOWN) {
+                    int value = decomposition.components()[index] == region ? decomposition.cells()[index] : WATER;
+                    initValues.add(new InitValue<>(new Coord(x - left, y - top), value));
+                }
+            }
+        }
+        WaveFunctionCollapse<Set<Integer>, Integer> regionSolver = new WaveFunctionCollapse<>(
+            new RegionConstrains(regionRows, regionColumns, sharedRows, sharedColumns, false),
+            new RegionConstrains(regionRows, regionColumns, sharedRows, sharedColumns, true), constrains, states, heuristic);
+        int regionLeft = left, regionTop = top;
+        Map<Integer, Board<Set<Integer>>> usages = new HashMap<>();
+        regionSolver.enumerate(new BattleshipsBoard(dimensions), initValues, board -> {
+            int[] lengths = new int[fleet.length];
+            if (countShips(board, lengths)) {
+                int code = 0;
+                for (int length = 1; length < fleet.length; ++length) {
+                    if (lengths[length] > fleet[length]) {
+                        return true;
+                    }
+                    code += lengths[length] * strides[length];
+                }
+                for (int i = 0; i < decomposition.lines().size(); ++i) {
+                    int line = decomposition.lines().get(i);
+                    code += lineShips(board, line < height ? line - regionTop : -1, line < height ? -1 : line - height - regionLeft) * strides[fleet.length + i];
+                }
+                usages.putIfAbsent(code, board.clone());
+            }
+            return true;
+        }, false);
+        return usages;
+    }
+
+    /**
+     * Counts the ships of the line of the region's board
+     *
+     * @param board the collapsed board of the region
+     * @param row the row of the line or -1 for the column
+     * @param column the column of the line or -1 for the row
+     * @return the number of the ships in the line or 0 when the line lies outside the board
+     */
+    private static int lineShips(Board<Set<Integer>> board, int row, int column) {
+        int ships = 0;
+        if (row >= 0 && row < board.getHeight()) {
+            for (int x = 0; x < board.getWidth(); ++x) {
+                ships += isShip(board, x, row) ? 1 : 0;
+            }
+        } else if (column >= 0 && column < board.getWidth()) {
+            for (int y = 0; y < board.getHeight(); ++y) {
+                ships += isShip(board, column, y) ? 1 : 0;
+            }
+        }
+        return ships;
+    }
+
+    /**
+     * Returns the limit of the line restricted to the region. The line holding the region's
+     * undecided cells loses the ships of the other regions, the other lines keep only the
+     * region's ships
+     *
+     * @param decomposition the decomposition of the board
+     * @param region the index of the region
+     * @param limit the limit of the whole line
+     * @param start the index of the line's first cell
+     * @param step the distance between the line's cells
+     * @param length the length of the line
+     * @return the limit of the line restricted to the region
+     */
+    private static int regionLimit(Decomposition decomposition, int region, int limit, int start, int step, int length) {
+        boolean owned = false;
+        int ships = 0, regionShips = 0;
+        for (int i = 0, index = start; i < length; ++i, index += step) {
+            boolean inRegion = decomposition.components()[index] == region;
+            owned |= inRegion && decomposition.cells()[index] == UNKNOWN;
+            ships += decomposition.cells()[index] == SHIP ? 1 : 0;
+            regionShips += inRegion && decomposition.cells()[index] == SHIP ? 1 : 0;
+        }
+        return owned ? limit - (ships - regionShips) : regionShips;
+    }
+
+    /**
+     * Solves the given Battleships board by the decomposition into independent regions
+     *
+     * @param initValueList the list of the initial values
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @return the solved board
+     * @throws NoSolutionException when board cannot be solved
+     */
+    public BoardDTO solve(List<InitValue<Integer>> initValueList, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) throws NoSolutionException {
+        Decomposition decomposition = decomposition(initValueList, rowLimits, columnLimits, shipLimits);
+        int[] fleet = new int[shipLimits.isEmpty() ? 1 : shipLimits.lastKey() + 1];
+        shipLimits.forEach((length, count) -> fleet[length] = count);
+        int height = rowLimits.size();
+        int[] capacities = Arrays.copyOf(fleet, fleet.length + decomposition.lines().size());
+        for (int i = 0; i < decomposition.lines().size(); ++i) {
+            int line = decomposition.lines().get(i);
+            capacities[fleet.length + i] = line < height ? rowLimits.get(line) : columnLimits.get(line - height);
+        }
+        int[] strides = new int[capacities.length];
+        long states = 1;
+        for (int digit = 1; digit < capacities.length && states <= MAX_STATES; ++digit) {
+            strides[digit] = (int) states;
+            states *= capacities[digit] + 1;
+        }
+        if (states > MAX_STATES) {
+            fallbacks.increment();
+            return solver.solve(initValueList, rowLimits, columnLimits, shipLimits);
+        }
+        int statesCount = (int) states;
+        List<Map<Integer, Board<Set<Integer>>>> usages = new ArrayList<>(Collections.nCopies(decomposition.regions(), null));
+        IntStream.range(0, decomposition.regions()).parallel().forEach(region ->
+            usages.set(region, enumerateRegion(decomposition, region, rowLimits, columnLimits, fleet, strides)));
+        int[][] choices = mergeUsages(usages, capacities, strides, statesCount);
+        int state = statesCount - 1;
+        if (choices.length > 0 && choices[choices.length - 1][state] < 0 || choices.length == 0 && state != 0) {
+            throw new NoSolutionException();
+        }
+        Board<Set<Integer>> result = new BattleshipsBoard(decomposition.board().getDimensions());
+        int width = columnLimits.size();
+        for (int index = 0; index < decomposition.cells().length; ++index) {
+            result.generateCell(new Coord(index % width, index / width), new HashSet<>(Set.of(WATER)));
+        }
+        for (int region = decomposition.regions() - 1; region >= 0; --region) {
+            int usage = choices[region][state];
+            state -= usage;
+            assemble(result, decomposition, region, usages.get(region).get(usage));
+        }
+        if (!new HardConstrains(rowLimits, columnLimits, shipLimits).check(result)) {
+            fallbacks.increment();
+            return solver.solve(initValueList, rowLimits, columnLimits, shipLimits);
+        }
+        BoardDTO dto = new BoardDTO(result.getDimensions());
+        for (int index = 0; index < decomposition.cells().length; ++index) {
+            Coord position = new Coord(index % width, index / width);
+            dto.setValue(position, result.accessCell(position).iterator().next());
+        }
+        return dto;
+    }
+
+    /**
+     * Merges the usages of the regions with the dynamic program over the fleet counts and
+     * the shared line counts. The final state reaches every count exactly
+     *
+     * @param usages the representative boards of the regions indexed by the encoded usages
+     * @param capacities the fleet counts indexed by the ship length followed by the shared line limits
+     * @param strides the strides of the counts encoding
+     * @param statesCount the number of the encoded counts
+     * @return the usage chosen by every region to reach every state or -1 when unreachable
+     */
+    private static int[][] mergeUsages(List<Map<Integer, Board<Set<Integer>>>> usages, int[] capacities, int[] strides, int statesCount) {
+        int[][] counts = new int[statesCount][capacities.length];
+        for (int state = 0; state < statesCount; ++state) {
+            for (int digit = 1; digit < capacities.length; ++digit) {
+                counts[state][digit] = state / strides[digit] % (capacities[digit] + 1);
+            }
+        }
+        int[][] choices = new int[usages.size()][statesCount];
+        boolean[] reachable = new boolean[statesCount];
+        reachable[0] = true;
+        for (int region = 0; region < usages.size(); ++region) {
+            Arrays.fill(choices[region], -1);
+            boolean[] next = new boolean[statesCount];
+            for (int state = 0; state < statesCount; ++state) {
+                if (!reachable[state]) {
+                    continue;
+                }
+                for (int usage : usages.get(region).keySet()) {
+                    boolean valid = true;
+                    for (int digit = 1; digit < capacities.length && valid; ++digit) {
+                        valid = counts[state][digit] + counts[usage][digit] <= capacities[digit];
+                    }
+                    if (valid && !next[state + usage]) {
+                        next[state + usage] = true;
+                        choices[region][state + usage] = usage;
+                    }
+                }
+            }
+            reachable = next;
+        }
+        return choices;
+    }
+
+    /**
+     * Copies the cells of the region from the representative board into the result
+     *
+     * @param result the result board
+     * @param decomposition the decomposition of the board
+     * @param region the index of the region
+     * @param board the representative board of the region
+     */
+    private static void assemble(Board<Set<Integer>> result, Decomposition decomposition, int region, Board<Set<Integer>> board) {
+        int width = result.getWidth();
+        int left = width, top = result.getHeight();
+        for (int index = 0; index < decomposition.components().length; ++index) {
+            if (decomposition.components()[index] == region) {
+                left = Math.min(left, index % width);
+                top = Math.min(top, index / width);
+            }
+        }
+        for (int index = 0; index < decomposition.components().length; ++index) {
+            if (decomposition.components()[index] == region) {
+                Coord position = new Coord(index % width, index / width);
+                result.setValue(position, new HashSet<>(board.accessCell(new Coord(position.x() - left, position.y() - top))));
+            }
+        }
+    }
+
+}
@@ -7,6 +7,7 @@ import backend.boards.Board;
 import backend.boards.BattleshipsBoard;
 import backend.boards.BoardDTO;
 import backend.constrains.Constrains;
+import backend.constrains.LineCounter;
 import backend.constrains.solver.HardConstrains;
 import backend.constrains.solver.SoftConstrains;
 import backend.heuristic.Heuristic;
@@ -29,7 +30,7 @@ public class BattleshipsGenerator {
     private final TreeMap<Integer, Integer>                     shipLengths;
     private final Coord                                         dimensions;
     private final int                                           resolution;
-    private final Heuristic<Set<Integer>>                       heuristic = new MinimumEntropyHeuristic<>();
+    private final Heuristic<Set<Integer>>                       heuristic;
     private final States<Set<Integer>, Integer>                 states = new BattleshipsStates();
 
     /**
@@ -102,46 +103,42 @@ public class BattleshipsGenerator {
      * @param resolution the number of returned initial values
      */
     public BattleshipsGenerator(Map<Integer, Map<Coord, Set<Integer>>> constrains, TreeMap<Integer, Integer> shipLengths, Coord dimensions, int resolution) {
-        this.constrains = constrains;
-        this.shipLengths = shipLengths;
-        this.dimensions = dimensions;
-        this.resolution = resolution;
+        this(constrains, shipLengths, dimensions, resolution, new MinimumEntropyHeuristic<>());
     }
 
     /**
-     * Calculates the row limits of the given board
+     * Constructs a new BattleshipsGenerator object
      *
-     * @param board the board object
-     * @return the row limits of the given board
+     * @param constrains the board's states constraints
+     * @param shipLengths the ship lengths
+     * @param dimensions the board dimensions
+     * @param resolution the number of returned initial values
+     * @param heuristic the heuristic choosing the collapsed cells, instantiated without
+     * the line limits for every generation
      */
-    private List<Integer> calculateRowLimits(Board<Integer> board) {
-        List<Integer> rowLimits = new ArrayList<>();
-        for (var row : board) {
-            int limit = 0;
-            for (Integer value : row) {
-                limit += value == 2 ? 1 : 0;
-            }
-            rowLimits.add(limit);
-        }
-        return rowLimits;
+    public BattleshipsGenerator(Map<Integer, Map<Coord, Set<Integer>>> constrains, TreeMap<Integer, Integer> shipLengths, Coord dimensions, int resolution, Heuristic<Set<Integer>> heuristic) {
+        this.constrains = constrains;
+        this.shipLengths = shipLengths;
+        this.dimensions = dimensions;
+        this.resolution = resolution;
+        this.heuristic = heuristic;
     }
 
     /**
-     * Calculates the column limits of the given board
+     * Counts the ships of all rows and columns of the given board in one pass
      *
      * @param board the board object
-     * @return the column limits of the given board
+     * @return the line counts of the given board
      */
-    private List<Integer> calculateColumnLimits(Board<Integer> board) {
-        List<Integer> columnLimits = new ArrayList<>();
-        for (var row : board.transpose()) {
-            int limit = 0;
+    private LineCounter.Counts calculateLimits(Board<Integer> board) {
+        byte[] cells = new byte[board.getWidth() * board.getHeight()];
+        int index = 0;
+        for (var row : board) {
             for (Integer value : row) {
-                limit += value == 2 ? 1 : 0;
+                cells[index++] = value == 2 ? LineCounter.SHIP : 0;
             }
-            columnLimits.add(limit);
         }
-        return columnLimits;
+        return LineCounter.SELECTED.count(cells, board.getWidth(), board.getHeight());
     }
 
     /**
@@ -240,12 +237,14 @@ public class BattleshipsGenerator {
     public Solution generate() throws NoSolutionException {
         SoftGeneratorConstrains soft = new SoftGeneratorConstrains(shipLengths);
         HardGeneratorConstrains hard = new HardGeneratorConstrains(shipLengths);
-        WaveFunctionCollapse<Set<Integer>, Integer> solver = new WaveFunctionCollapse<>(soft, hard, constrains, states, heuristic);
+        WaveFunctionCollapse<Set<Integer>, Integer> solver = new WaveFunctionCollapse<>(soft, hard, constrains, states,
+            heuristic.instantiate(List.of(), List.of()));
         var result = solver.solve(new BattleshipsBoard(dimensions), new BoardDTO(dimensions), new ArrayList<>());
+        LineCounter.Counts limits = calculateLimits(result);
         return new Solution(
                 strip(result),
-                calculateRowLimits(result),
-                calculateColumnLimits(result)
+                Arrays.stream(limits.rowShips()).boxed().toList(),
+                Arrays.stream(limits.columnShips()).boxed().toList()
         );
     }
 
@@ -0,0 +1,263 @@
+package backend.facades;
+
+import backend.boards.BoardDTO;
+import backend.solvers.NoSolutionException;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Computes the probability that the cells of the Battleships board contain a ship.
+ * Small boards are counted exactly, larger ones are estimated by sampling the solutions
+ * in parallel. Both modes answer within the configured time budget
+ */
+public class BattleshipsHeatmap {
+    private final static double                                 CONFIDENCE_DELTA = 0.05;
+    private final static int                                    CACHE_CAPACITY = 256;
+    private final static double                                 EXACT_BUDGET_FRACTION = 0.5;
+
+    private final BattleshipsSolver                             solver;
+    private final Duration                                      budget;
+    private final int                                           exactCellLimit;
+    private final int                                           threads;
+    private final ExecutorService                               executor;
+    private final Map<Puzzle, Heatmap>                          cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Puzzle, Heatmap> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+
+    /**
+     * Represents the computed heatmap
+     *
+     * @param probabilities the probability of the ship in the cell, indexed [y][x]
+     * @param error the half-width of the 95% confidence interval of every probability
+     * @param samples the number of the counted solutions or drawn samples
+     * @param exact whether the probabilities were counted exactly
+     */
+    public record Heatmap(double[][] probabilities, double error, long samples, boolean exact) { }
+
+    /**
+     * The cache key of the computed heatmap
+     *
+     * @param initValues the initial values of the board
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     */
+    private record Puzzle(List<InitValue<Integer>> initValues, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) { }
+
+    /**
+     * Accumulates the ship occurrences of the visited solutions
+     */
+    private static class Accumulator {
+        private final long[][]                                  ships;
+        private long                                            solutions = 0;
+
+        /**
+         * Creates a new Accumulator object
+         *
+         * @param dimensions the board dimensions
+         */
+        public Accumulator(Coord dimensions) {
+            ships = new long[dimensions.y()][dimensions.x()];
+        }
+
+        /**
+         * Adds the given solution to the accumulated occurrences
+         *
+         * @param board the solution
+         */
+        public synchronized void add(BoardDTO board) {
+            for (int y = 0; y < board.getHeight(); ++y) {
+                for (int x = 0; x < board.getWidth(); ++x) {
+                    ships[y][x] += board.accessCell(new Coord(x, y)) > 1 ? 1 : 0;
+                }
+            }
+            solutions += 1;
+        }
+
+        /**
+         * Converts the accumulated occurrences into the heatmap
+         *
+         * @param error the error of the probabilities
+         * @param exact whether the probabilities were counted exactly
+         * @return the heatmap
+         */
+        public synchronized Heatmap toHeatmap(double error, boolean exact) {
+            double[][] probabilities = new double[ships.length][];
+            for (int y = 0; y < ships.length; ++y) {
+                probabilities[y] = new double[ships[y].length];
+                for (int x = 0; x < ships[y].length; ++x) {
+                    probabilities[y][x] = solutions == 0 ? 0.0 : (double) ships[y][x] / solutions;
+                }
+            }
+            return new Heatmap(probabilities, error, solutions, exact);
+        }
+
+        /**
+         * Returns the number of accumulated solutions
+         *
+         * @return the number of accumulated solutions
+         */
+        public synchronized long getSolutions() {
+            return solutions;
+        }
+    }
+
+    /**
+     * Constructs a new BattleshipsHeatmap object. Boards with up to 64 cells are counted
+     * exactly and the sampling uses all available processors
+     *
+     * @param solver the Battleships solver
+     * @param budget the time budget of a single computation
+     */
+    public BattleshipsHeatmap(BattleshipsSolver solver, Duration budget) {
+        this(solver, budget, 64, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new BattleshipsHeatmap object
+     *
+     * @param solver the Battleships solver
+     * @param budget the time budget of a single computation
+     * @param exactCellLimit the maximum number of the board cells counted exactly
+     * @param threads the number of the sampling threads
+     */
+    public BattleshipsHeatmap(BattleshipsSolver solver, Duration budget, int exactCellLimit, int threads) {
+        this.solver = solver;
+        this.budget = budget;
+        this.exactCellLimit = exactCellLimit;
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "battleships-heatmap");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Computes the heatmap of the given Battleships board. The exact counting of the small
+     * boards may use only the part of the budget, so the sampling still has the rest of the
+     * budget when the counting does not finish on time
+     *
+     * @param initValueList the list of the initial values
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @return the heatmap of the board
+     * @throws NoSolutionException when board cannot be solved
+     */
+    public Heatmap compute(List<InitValue<Integer>> initValueList, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) throws NoSolutionException {
+        Puzzle puzzle = new Puzzle(List.copyOf(initValueList), List.copyOf(rowLimits), List.copyOf(columnLimits), new TreeMap<>(shipLimits));
+        synchronized (cache) {
+            Heatmap cached = cache.get(puzzle);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long start = System.nanoTime(), deadline = start + budget.toNanos();
+        if (rowLimits.size() * columnLimits.size() <= exactCellLimit) {
+            Heatmap exact = countExactly(puzzle, start + (long) (budget.toNanos() * EXACT_BUDGET_FRACTION));
+            if (exact != null) {
+                synchronized (cache) {
+                    cache.put(puzzle, exact);
+                }
+                return exact;
+            }
+        }
+        return sample(puzzle, deadline);
+    }
+
+    /**
+     * Counts the heatmap exactly by the enumeration of all solutions
+     *
+     * @param puzzle the puzzle
+     * @param deadline the deadline in the System.nanoTime units
+     * @return the exact heatmap or null when the enumeration has not finished on time
+     * @throws NoSolutionException when board cannot be solved
+     */
+    private Heatmap countExactly(Puzzle puzzle, long deadline) throws NoSolutionException {
+        Accumulator accumulator = new Accumulator(new Coord(puzzle.columnLimits().size(), puzzle.rowLimits().size()));
+        Future<Boolean> task = executor.submit(() -> solver.enumerate(puzzle.initValues(), puzzle.rowLimits(),
+            puzzle.columnLimits(), puzzle.shipLimits(), board -> {
+                accumulator.add(board);
+                return true;
+            }, false));
+        try {
+            if (!task.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return null;
+            }
+        } catch (TimeoutException exception) {
+            task.cancel(true);
+            return null;
+        } catch (InterruptedException exception) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException(exception.getCause());
+        }
+        if (accumulator.getSolutions() == 0) {
+            throw new NoSolutionException();
+        }
+        return accumulator.toHeatmap(0.0, true);
+    }
+
+    /**
+     * Estimates the heatmap by sampling the solutions until the deadline. The samples are
+     * drawn by the randomized collapse, so they are not perfectly uniform over the solutions
+     *
+     * @param puzzle the puzzle
+     * @param deadline the deadline in the System.nanoTime units
+     * @return the estimated heatmap
+     * @throws NoSolutionException when board cannot be solved
+     */
+    private Heatmap sample(Puzzle puzzle, long deadline) throws NoSolutionException {
+        Accumulator accumulator = new Accumulator(new Coord(puzzle.columnLimits().size(), puzzle.rowLimits().size()));
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; ++i) {
+            tasks.add(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    boolean exhausted = solver.enumerate(puzzle.initValues(), puzzle.rowLimits(),
+                        puzzle.columnLimits(), puzzle.shipLimits(), board -> {
+                            accumulator.add(board);
+                            return false;
+                        }, true);
+                    if (exhausted) {
+                        return true;
+                    }
+                }
+                return false;
+            });
+        }
+        boolean exhausted = false;
+        try {
+            for (Future<Boolean> result : executor.invokeAll(tasks, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                exhausted |= !result.isCancelled() && result.get();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException(exception.getCause());
+        }
+        long samples = accumulator.getSolutions();
+        if (samples == 0 && exhausted) {
+            throw new NoSolutionException();
+        }
+        double error = samples == 0 ? 1.0 : Math.min(1.0, Math.sqrt(Math.log(2.0 / CONFIDENCE_DELTA) / (2.0 * samples)));
+        return accumulator.toHeatmap(error, false);
+    }
+
+    /**
+     * Stops the threads used by the heatmap computations
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,516 @@
+package backend.facades;
+
+import backend.boards.Board;
+import backend.utility.Coord;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Finds the next logical deduction on the partially filled Battleships board. The rules
+ * are evaluated in the order of their cost and the first deduction found is returned
+ */
+public class BattleshipsHints {
+    private final static int                                    UNKNOWN = 0;
+    private final static int                                    WATER = 1;
+    private final static int                                    SHIP = 2;
+    private final static int                                    PROBING_ROUNDS = 8;
+
+    private final int[]                                         rowLimits;
+    private final int[]                                         columnLimits;
+    private final int[]                                         fleet;
+    private final int                                           width;
+    private final int                                           height;
+
+    /**
+     * The deduction rules ordered by their cost
+     */
+    public enum Rule {
+        LINE_COUNT,
+        WATER_AROUND_SHIPS,
+        SHIP_SHAPE,
+        FLEET_COUNT,
+        PROBING
+    }
+
+    /**
+     * Represents the deduced cell
+     *
+     * @param coord the position of the cell
+     * @param value the deduced value of the cell (1 - water, 2 - ship)
+     * @param rule the rule used for the deduction
+     */
+    public record Hint(Coord coord, Integer value, Rule rule) { }
+
+    /**
+     * Receives the deductions made by the rules
+     */
+    @FunctionalInterface
+    private interface Sink {
+
+        /**
+         * Accepts the deduction
+         *
+         * @param index the index of the deduced cell
+         * @param value the deduced value
+         * @return whether the rule should continue the search
+         */
+        boolean accept(int index, int value);
+
+    }
+
+    /**
+     * Constructs a new BattleshipsHints object
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     */
+    public BattleshipsHints(List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) {
+        this.rowLimits = rowLimits.stream().mapToInt(Integer::intValue).toArray();
+        this.columnLimits = columnLimits.stream().mapToInt(Integer::intValue).toArray();
+        this.fleet = new int[shipLimits.isEmpty() ? 1 : shipLimits.lastKey() + 1];
+        shipLimits.forEach((length, count) -> fleet[length] = count);
+        this.width = this.columnLimits.length;
+        this.height = this.rowLimits.length;
+    }
+
+    /**
+     * Finds the cheapest deduction on the given board. Unknown cells are represented by
+     * zeros or nulls, water by 1 and ships by the values greater than 1
+     *
+     * @param board the partially filled board
+     * @return the deduction or null when no deduction can be made
+     */
+    public Hint next(Board<Integer> board) {
+        int[] cells = new int[width * height];
+        int[] labels = new int[width * height];
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                Integer value = board.accessCell(new Coord(x, y));
+                int index = y * width + x;
+                cells[index] = value == null || value == 0 ? UNKNOWN : (value == 1 ? WATER : SHIP);
+                labels[index] = value == null ? 0 : value;
+            }
+        }
+        int[] found = {-1, 0};
+        Sink first = (index, value) -> {
+            found[0] = index;
+            found[1] = value;
+            return false;
+        };
+        for (Rule rule : Rule.values()) {
+            if (rule == Rule.PROBING) {
+                probe(cells, labels, first);
+            } else {
+                apply(rule, cells, labels, first);
+            }
+            if (found[0] >= 0) {
+                return new Hint(new Coord(found[0] % width, found[0] / width), found[1], rule);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Applies the given cheap rule to the board
+     *
+     * @param rule the applied rule
+     * @param cells the cells of the board
+     * @param labels the initial values of the board
+     * @param sink the receiver of the deductions
+     */
+    private void apply(Rule rule, int[] cells, int[] labels, Sink sink) {
+        switch (rule) {
+            case LINE_COUNT -> lineCount(cells, sink);
+            case WATER_AROUND_SHIPS -> waterAroundShips(cells, sink);
+            case SHIP_SHAPE -> shipShape(cells, labels, sink);
+            case FLEET_COUNT -> fleetCount(cells, sink);
+            default -> { }
+        }
+    }
+
+    /**
+     * Returns the value of the cell, the cells outside the board are water
+     *
+     * @param cells the cells of the board
+     * @param x the x-axis position
+     * @param y the y-axis position
+     * @return the value of the cell
+     */
+    private int cell(int[] cells, int x, int y) {
+        return x < 0 || y < 0 || x >= width || y >= height ? WATER : cells[y * width + x];
+    }
+
+    /**
+     * Passes the deduction to the sink if the cell is on the board and unknown
+     *
+     * @param cells the cells of the board
+     * @param x the x-axis position
+     * @param y the y-axis position
+     * @param value the deduced value
+     * @param sink the receiver of the deductions
+     * @return whether the rule should continue the search
+     */
+    private boolean deduce(int[] cells, int x, int y, int value, Sink sink) {
+        if (x < 0 || y < 0 || x >= width || y >= height || cells[y * width + x] != UNKNOWN) {
+            return true;
+        }
+        return sink.accept(y * width + x, value);
+    }
+
+    /**
+     * Fills the lines whose limits are already reached or can only be reached by
+     * filling all unknown cells
+     *
+     * @param cells the cells of the board
+     * @param sink the receiver of the deductions
+     */
+    private void lineCount(int[] cells, Sink sink) {
+        for (int line = 0; line < height + width; ++line) {
+            boolean row = line < height;
+            int length = row ? width : height;
+            int limit = row ? rowLimits[line] : columnLimits[line - height];
+            int ships = 0, unknown = 0;
+            for (int i = 0; i < length; ++i) {
+                int value = row ? cell(cells, i, line) : cell(cells, line - height, i);
+                ships += value == SHIP ? 1 : 0;
+                unknown += value == UNKNOWN ? 1 : 0;
+            }
+            if (unknown == 0 || (ships != limit && ships + unknown != limit)) {
+                continue;
+            }
+            int value = ships == limit ? WATER : SHIP;
+            for (int i = 0; i < length; ++i) {
+                if (!(row ? deduce(cells, i, line, value, sink) : deduce(cells, line - height, i, value, sink))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills the cells lying diagonally to the ships with water
+     *
+     * @param cells the cells of the board
+     * @param sink the receiver of the deductions
+     */
+    private void waterAroundShips(int[] cells, Sink sink) {
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                if (cells[y * width + x] == SHIP && !(deduce(cells, x - 1, y - 1, WATER, sink)
+                        && deduce(cells, x + 1, y - 1, WATER, sink) && deduce(cells, x - 1, y + 1, WATER, sink)
+                        && deduce(cells, x + 1, y + 1, WATER, sink))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills the orthogonal neighbors of the vectorized initial values
+     *
+     * @param cells the cells of the board
+     * @param labels the initial values of the board
+     * @param sink the receiver of the deductions
+     */
+    private void shipShape(int[] cells, int[] labels, Sink sink) {
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                int label = labels[y * width + x];
+                if (label == 8) {
+                    label = middleOrientation(cells, x, y);
+                }
+                if ((label > 2 || label < 0) && !shapeNeighbors(cells, x, y, label, sink)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the orientation of the middle part of the ship
+     *
+     * @param cells the cells of the board
+     * @param x the x-axis position
+     * @param y the y-axis position
+     * @return -1 for the horizontal middle, -2 for the vertical middle and 0 when unknown
+     */
+    private int middleOrientation(int[] cells, int x, int y) {
+        int left = cell(cells, x - 1, y), right = cell(cells, x + 1, y);
+        int up = cell(cells, x, y - 1), down = cell(cells, x, y + 1);
+        if (left == SHIP || right == SHIP || up == WATER || down == WATER) {
+            return -1;
+        }
+        if (up == SHIP || down == SHIP || left == WATER || right == WATER) {
+            return -2;
+        }
+        return 0;
+    }
+
+    /**
+     * Deduces the orthogonal neighbors of the vectorized cell
+     *
+     * @param cells the cells of the board
+     * @param x the x-axis position
+     * @param y the y-axis position
+     * @param label the vectorized value of the cell (3-7) or the middle orientation (-1, -2)
+     * @param sink the receiver of the deductions
+     * @return whether the rule should continue the search
+     */
+    private boolean shapeNeighbors(int[] cells, int x, int y, int label, Sink sink) {
+        int left = label == 3 || label == -1 ? SHIP : WATER;
+        int up = label == 4 || label == -2 ? SHIP : WATER;
+        int right = label == 5 || label == -1 ? SHIP : WATER;
+        int down = label == 6 || label == -2 ? SHIP : WATER;
+        return deduce(cells, x - 1, y, left, sink) && deduce(cells, x, y - 1, up, sink)
+            && deduce(cells, x + 1, y, right, sink) && deduce(cells, x, y + 1, down, sink);
+    }
+
+    /**
+     * Returns whether the cell is the ship
+     *
+     * @param cells the cells of the board
+     * @param x the x-axis position
+     * @param y the y-axis position
+     * @return whether the cell is the ship
+     */
+    private boolean isShip(int[] cells, int x, int y) {
+        return cell(cells, x, y) == SHIP;
+    }
+
+    /**
+     * Counts the complete ships on the board and returns the length of the longest
+     * ship which is not yet complete. Returns -1 when more ships are complete than
+     * the fleet contains
+     *
+     * @param cells the cells of the board
+     * @return the length of the longest remaining ship
+     */
+    private int longestRemaining(int[] cells) {
+        int[] complete = new int[fleet.length];
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                if (!isShip(cells, x, y)) {
+                    continue;
+                }
+                int length = 0;
+                if (!isShip(cells, x - 1, y) && isShip(cells, x + 1, y)) {
+                    while (isShip(cells, x + length, y)) ++length;
+                    length = cell(cells, x - 1, y) == WATER && cell(cells, x + length, y) == WATER ? length : 0;
+                } else if (!isShip(cells, x, y - 1) && isShip(cells, x, y + 1)) {
+                    while (isShip(cells, x, y + length)) ++length;
+                    length = cell(cells, x, y - 1) == WATER && cell(cells, x, y + length) == WATER ? length : 0;
+                } else if (cell(cells, x - 1, y) == WATER && cell(cells, x + 1, y) == WATER
+                        && cell(cells, x, y - 1) == WATER && cell(cells, x, y + 1) == WATER) {
+                    length = 1;
+                }
+                if (length >= fleet.length || (length > 0 && ++complete[length] > fleet[length])) {
+                    return -1;
+                }
+            }
+        }
+        for (int length = fleet.length - 1; length > 0; --length) {
+            if (complete[length] < fleet[length]) {
+                return length;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Closes the ships which already have the length of the longest remaining ship and
+     * fills the board with water when the whole fleet is complete
+     *
+     * @param cells the cells of the board
+     * @param sink the receiver of the deductions
+     */
+    private void fleetCount(int[] cells, Sink sink) {
+        int longest = longestRemaining(cells);
+        if (longest < 0) {
+            return;
+        }
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                if (longest == 0) {
+                    if (!deduce(cells, x, y, WATER, sink)) {
+                        return;
+                    }
+                } else if (isShip(cells, x, y) && !closeShip(cells, x, y, longest, sink)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the ship starting at the given cell if it reached the given length
+     *
+     * @param cells the cells of the board
+     * @param x the x-axis position of the ship's first cell
+     * @param y the y-axis position of the ship's first cell
+     * @param longest the length of the longest remaining ship
+     * @param sink the receiver of the deductions
+     * @return whether the rule should continue the search
+     */
+    private boolean closeShip(int[] cells, int x, int y, int longest, Sink sink) {
+        boolean horizontal = isShip(cells, x - 1, y) || isShip(cells, x + 1, y);
+        boolean vertical = isShip(cells, x, y - 1) || isShip(cells, x, y + 1);
+        if (!horizontal && !vertical) {
+            return longest != 1 || (deduce(cells, x - 1, y, WATER, sink) && deduce(cells, x + 1, y, WATER, sink)
+                && deduce(cells, x, y - 1, WATER, sink) && deduce(cells, x, y + 1, WATER, sink));
+        }
+        int dx = horizontal ? 1 : 0, dy = horizontal ? 0 : 1;
+        if (isShip(cells, x - dx, y - dy)) {
+            return true;
+        }
+        int length = 0;
+        while (isShip(cells, x + length * dx, y + length * dy)) ++length;
+        return length != longest || (deduce(cells, x - dx, y - dy, WATER, sink)
+            && deduce(cells, x + length * dx, y + length * dy, WATER, sink));
+    }
+
+    /**
+     * Checks whether the board can still be completed
+     *
+     * @param cells the cells of the board
+     * @param labels the initial values of the board
+     * @return whether the board is consistent
+     */
+    private boolean consistent(int[] cells, int[] labels) {
+        for (int line = 0; line < height + width; ++line) {
+            boolean row = line < height;
+            int length = row ? width : height;
+            int limit = row ? rowLimits[line] : columnLimits[line - height];
+            int ships = 0, unknown = 0;
+            for (int i = 0; i < length; ++i) {
+                int value = row ? cells[line * width + i] : cells[i * width + line - height];
+                ships += value == SHIP ? 1 : 0;
+                unknown += value == UNKNOWN ? 1 : 0;
+            }
+            if (ships > limit || ships + unknown < limit) {
+                return false;
+            }
+        }
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                if (isShip(cells, x, y) && (isShip(cells, x + 1, y + 1) || isShip(cells, x - 1, y + 1))) {
+                    return false;
+                }
+                if (violatesShape(cells, x, y, labels[y * width + x])) {
+                    return false;
+                }
+            }
+        }
+        int longest = longestRemaining(cells);
+        if (longest < 0) {
+            return false;
+        }
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                if (runLength(cells, x, y) > longest) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the known orthogonal neighbors contradict the vectorized value
+     *
+     * @param cells the cells of the board
+     * @param x the x-axis position
+     * @param y the y-axis position
+     * @param label the vectorized value of the cell
+     * @return whether the neighbors contradict the vectorized value
+     */
+    private boolean violatesShape(int[] cells, int x, int y, int label) {
+        if (label < 3) {
+            return false;
+        }
+        if (label == 8) {
+            boolean horizontal = cell(cells, x - 1, y) != WATER && cell(cells, x + 1, y) != WATER;
+            boolean vertical = cell(cells, x, y - 1) != WATER && cell(cells, x, y + 1) != WATER;
+            return !horizontal && !vertical;
+        }
+        int[][] neighbors = {{x - 1, y, 3}, {x, y - 1, 4}, {x + 1, y, 5}, {x, y + 1, 6}};
+        for (int[] neighbor : neighbors) {
+            int expected = neighbor[2] == label ? SHIP : WATER;
+            int value = cell(cells, neighbor[0], neighbor[1]);
+            if (value != UNKNOWN && value != expected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the length of the incomplete ship starting at the given cell or zero
+     * when the cell is not the first cell of the incomplete ship
+     *
+     * @param cells the cells of the board
+     * @param x the x-axis position
+     * @param y the y-axis position
+     * @return the length of the incomplete ship
+     */
+    private int runLength(int[] cells, int x, int y) {
+        if (!isShip(cells, x, y)) {
+            return 0;
+        }
+        int length = 0;
+        if (!isShip(cells, x - 1, y) && isShip(cells, x + 1, y)) {
+            while (isShip(cells, x + length, y)) ++length;
+            return cell(cells, x - 1, y) == WATER && cell(cells, x + length, y) == WATER ? 0 : length;
+        }
+        if (!isShip(cells, x, y - 1) && isShip(cells, x, y + 1)) {
+            while (isShip(cells, x, y + length)) ++length;
+            return cell(cells, x, y - 1) == WATER && cell(cells, x, y + length) == WATER ? 0 : length;
+        }
+        boolean single = !isShip(cells, x - 1, y) && !isShip(cells, x, y - 1);
+        return single && (cell(cells, x - 1, y) == UNKNOWN || cell(cells, x + 1, y) == UNKNOWN
+            || cell(cells, x, y - 1) == UNKNOWN || cell(cells, x, y + 1) == UNKNOWN) ? 1 : 0;
+    }
+
+    /**
+     * Probes every unknown cell with both values. When the cheap rules lead the board with
+     * one of the values into the contradiction, the other value is deduced
+     *
+     * @param cells the cells of the board
+     * @param labels the initial values of the board
+     * @param sink the receiver of the deductions
+     */
+    private void probe(int[] cells, int[] labels, Sink sink) {
+        int[] probed = new int[cells.length];
+        Sink fill = (index, value) -> {
+            probed[index] = value;
+            return true;
+        };
+        for (int index = 0; index < cells.length; ++index) {
+            if (cells[index] != UNKNOWN) {
+                continue;
+            }
+            for (int value = WATER; value <= SHIP; ++value) {
+                System.arraycopy(cells, 0, probed, 0, cells.length);
+                probed[index] = value;
+                boolean contradiction = !consistent(probed, labels);
+                for (int round = 0; round < PROBING_ROUNDS && !contradiction; ++round) {
+                    int[] before = probed.clone();
+                    for (Rule rule : Rule.values()) {
+                        apply(rule, probed, labels, fill);
+                    }
+                    contradiction = !consistent(probed, labels);
+                    if (Arrays.equals(before, probed)) {
+                        break;
+                    }
+                }
+                if (contradiction) {
+                    sink.accept(index, value == WATER ? SHIP : WATER);
+                    return;
+                }
+            }
+        }
+    }
+
+}
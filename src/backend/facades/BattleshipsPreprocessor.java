@@ -18,12 +18,15 @@ import java.util.List;
 // 5 -> kraniec skierowany w prawo
 // 6 -> kraniec skierowany w dół
 // 7 -> samotna łódź
+// 8 -> środek łodzi, traktowany jak nieskierowany
 
 /**
  * Preprocesses the given vectorized values into the valid initial list without
  * vectorized elements
  */
 public class BattleshipsPreprocessor {
+    final static int                            VECTORIZED_VALUES = 0b1_1111_1000;
+
     private final Coord                         dimensions;
 
     /**
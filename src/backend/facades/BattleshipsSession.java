@@ -0,0 +1,129 @@
+package backend.facades;
+
+import backend.boards.BattleshipsBoard;
+import backend.boards.Board;
+import backend.boards.BoardDTO;
+import backend.solvers.NoSolutionException;
+import backend.solvers.WaveFunctionCollapse;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Incremental solving session of the single Battleships board. Keeps the propagated board
+ * after every clue as a checkpoint, so adding a clue propagates only its consequences and
+ * removing a clue rebuilds the board from the preceding checkpoint
+ */
+public class BattleshipsSession {
+    private final WaveFunctionCollapse<Set<Integer>, Integer>       solver;
+    private final BattleshipsPreprocessor                           preprocessor;
+    private final Coord                                             dimensions;
+    private final Board<Set<Integer>>                               base;
+    private final List<InitValue<Integer>>                          clues = new ArrayList<>();
+    private final List<Board<Set<Integer>>>                         checkpoints = new ArrayList<>();
+    private BoardDTO                                                solution = null;
+
+    /**
+     * Constructs a new BattleshipsSession object
+     *
+     * @param solver the wave function collapse solver
+     * @param dimensions the board dimensions
+     * @param initValueList the initial values implied by the limits
+     */
+    BattleshipsSession(WaveFunctionCollapse<Set<Integer>, Integer> solver, Coord dimensions, List<InitValue<Integer>> initValueList) {
+        this.solver = solver;
+        this.dimensions = dimensions;
+        this.preprocessor = new BattleshipsPreprocessor(dimensions);
+        this.base = new BattleshipsBoard(dimensions);
+        solver.prepare(base, initValueList);
+    }
+
+    /**
+     * Returns the board propagated with all clues of the session
+     *
+     * @return the board propagated with all clues
+     */
+    private Board<Set<Integer>> current() {
+        return checkpoints.isEmpty() ? base : checkpoints.get(checkpoints.size() - 1);
+    }
+
+    /**
+     * Checks if the given board satisfies the given clue
+     *
+     * @param board the solved board
+     * @param clue the clue
+     * @return whether the board satisfies the clue
+     */
+    private boolean satisfies(BoardDTO board, InitValue<Integer> clue) {
+        for (InitValue<Integer> value : preprocessor.preprocess(List.of(clue))) {
+            if (!board.accessCell(value.coord()).equals(value.value())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the clue to the session and propagates its consequences
+     *
+     * @param clue the added clue
+     */
+    public void addClue(InitValue<Integer> clue) {
+        Board<Set<Integer>> board = current().clone();
+        solver.restrict(board, preprocessor.preprocess(List.of(clue)));
+        clues.add(clue);
+        checkpoints.add(board);
+        if (solution != null && !satisfies(solution, clue)) {
+            solution = null;
+        }
+    }
+
+    /**
+     * Removes the clue from the session. The board is rebuilt from the checkpoint preceding
+     * the clue. The last solution stays valid because the removal only relaxes the problem
+     *
+     * @param clue the removed clue
+     * @return whether the session contained the clue
+     */
+    public boolean removeClue(InitValue<Integer> clue) {
+        int index = clues.indexOf(clue);
+        if (index < 0) {
+            return false;
+        }
+        clues.remove(index);
+        checkpoints.subList(index, checkpoints.size()).clear();
+        for (InitValue<Integer> replayed : clues.subList(index, clues.size())) {
+            Board<Set<Integer>> board = current().clone();
+            solver.restrict(board, preprocessor.preprocess(List.of(replayed)));
+            checkpoints.add(board);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the clues of the session
+     *
+     * @return the clues of the session
+     */
+    public List<InitValue<Integer>> getClues() {
+        return List.copyOf(clues);
+    }
+
+    /**
+     * Solves the board with the current clues. Reuses the last solution when it still
+     * satisfies the clues
+     *
+     * @return the solved board
+     * @throws NoSolutionException when board cannot be solved
+     */
+    public BoardDTO solve() throws NoSolutionException {
+        if (solution == null) {
+            solution = (BoardDTO) solver.solvePrepared(current(), new BoardDTO(dimensions));
+        }
+        return solution;
+    }
+
+}
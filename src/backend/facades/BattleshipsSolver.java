@@ -3,28 +3,58 @@
  */
 package backend.facades;
 
+import backend.boards.Board;
 import backend.boards.BoardDTO;
 import backend.boards.BattleshipsBoard;
+import backend.constrains.AdaptiveConstrains;
+import backend.constrains.ConstrainStatistics;
 import backend.constrains.solver.HardConstrains;
 import backend.constrains.solver.SoftConstrains;
 import backend.heuristic.Heuristic;
 import backend.heuristic.MinimumEntropyHeuristic;
 import backend.solvers.NoSolutionException;
+import backend.solvers.SearchCheckpoint;
+import backend.solvers.Solver;
 import backend.solvers.WaveFunctionCollapse;
+import backend.solvers.sat.SATSolver;
+import backend.solvers.shapes.ShapeSolver;
 import backend.states.BattleshipsStates;
 import backend.states.States;
 import backend.utility.Coord;
 import backend.utility.InitValue;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Solves the given Battleships board
  */
 public class BattleshipsSolver {
+    private final static int                                    LOOKAHEAD_CANDIDATES = 16;
+    private final static int                                    SHIP = 2;
+
     private final Map<Integer, Map<Coord, Set<Integer>>>        constrains;
+    private final Map<Integer, Map<Coord, Set<Integer>>>        shapeConstrains;
     private final States<Set<Integer>, Integer>                 states = new BattleshipsStates();
-    private final Heuristic<Set<Integer>>                       heuristic = new MinimumEntropyHeuristic<>();
+    private final Heuristic<Set<Integer>>                       heuristic;
+    private final Engine                                        engine;
+    private final ShapeSolver.Alphabet                          shapeAlphabet;
+    private final int                                           clues;
+    private final ConstrainStatistics                           softStatistics = new ConstrainStatistics();
+    private final ConstrainStatistics                           hardStatistics = new ConstrainStatistics();
+
+    /**
+     * The engines solving the board
+     */
+    public enum Engine {
+        /** The wave function collapse backtracking */
+        WAVE_FUNCTION_COLLAPSE,
+        /** The CNF encoding solved by the CDCL search */
+        SAT,
+        /** The propagation and search over the vectorized states alphabet */
+        SHAPES
+    }
 
     /**
      * Constructs a new BattleshipsSolver object
@@ -32,7 +62,96 @@ public class BattleshipsSolver {
      * @param constrains the board's states constraints
      */
     public BattleshipsSolver(Map<Integer, Map<Coord, Set<Integer>>> constrains) {
+        this(constrains, Engine.WAVE_FUNCTION_COLLAPSE);
+    }
+
+    /**
+     * Constructs a new BattleshipsSolver object
+     *
+     * @param constrains the board's states constraints
+     * @param engine the engine solving the board
+     */
+    public BattleshipsSolver(Map<Integer, Map<Coord, Set<Integer>>> constrains, Engine engine) {
+        this(constrains, engine, new MinimumEntropyHeuristic<>());
+    }
+
+    /**
+     * Constructs a new BattleshipsSolver object
+     *
+     * @param constrains the board's states constraints
+     * @param engine the engine solving the board
+     * @param heuristic the heuristic choosing the collapsed cells, instantiated for every search
+     */
+    public BattleshipsSolver(Map<Integer, Map<Coord, Set<Integer>>> constrains, Engine engine, Heuristic<Set<Integer>> heuristic) {
+        this(constrains, null, engine, heuristic);
+    }
+
+    /**
+     * Constructs a new BattleshipsSolver object
+     *
+     * @param constrains the board's states constraints
+     * @param shapeConstrains the vectorized states constraints used by the {@link Engine#SHAPES} engine
+     * @param engine the engine solving the board
+     * @param heuristic the heuristic choosing the collapsed cells, instantiated for every search
+     * @throws IllegalArgumentException when the shapes engine is selected without the valid vectorized states constraints
+     */
+    public BattleshipsSolver(Map<Integer, Map<Coord, Set<Integer>>> constrains, Map<Integer, Map<Coord, Set<Integer>>> shapeConstrains, Engine engine, Heuristic<Set<Integer>> heuristic) throws IllegalArgumentException {
+        if (engine == Engine.SHAPES && shapeConstrains == null) {
+            throw new IllegalArgumentException("The shapes engine requires the vectorized states constraints");
+        }
         this.constrains = constrains;
+        this.shapeConstrains = shapeConstrains;
+        this.engine = engine;
+        this.heuristic = heuristic;
+        this.shapeAlphabet = engine == Engine.SHAPES ? ShapeSolver.Alphabet.compile(shapeConstrains) : null;
+        this.clues = engine == Engine.SHAPES ? shapeAlphabet.clues() : baseClues(constrains);
+    }
+
+    /**
+     * Returns the bitmask of the clue values accepted with the board's states constraints.
+     * The vectorized values are accepted when the ship is the part of the alphabet, as they
+     * are devectorized into the ship and its surroundings
+     *
+     * @param constrains the board's states constraints
+     * @return the bitmask of the clue values
+     */
+    private static int baseClues(Map<Integer, Map<Coord, Set<Integer>>> constrains) {
+        int clues = 0;
+        for (Integer state : constrains.keySet()) {
+            clues |= state > 0 && state < Integer.SIZE ? 1 << state : 0;
+        }
+        return (clues >>> SHIP & 1) != 0 ? clues | BattleshipsPreprocessor.VECTORIZED_VALUES : clues;
+    }
+
+    /**
+     * Checks if the value may be the clue of the solved boards, i.e. if it belongs to the
+     * alphabet of the solver's engine
+     *
+     * @param value the clue value
+     * @return whether the value is the valid clue
+     */
+    public boolean isClue(int value) {
+        return value >= 0 && value < Integer.SIZE && (clues >>> value & 1) != 0;
+    }
+
+    /**
+     * Returns the statistics of the soft constraint checks of the wave function collapse
+     * searches started by this solver
+     *
+     * @return the statistics of the soft constraint checks
+     */
+    public ConstrainStatistics getSoftStatistics() {
+        return softStatistics;
+    }
+
+    /**
+     * Returns the statistics of the hard constraint checks of the wave function collapse
+     * searches started by this solver
+     *
+     * @return the statistics of the hard constraint checks
+     */
+    public ConstrainStatistics getHardStatistics() {
+        return hardStatistics;
     }
 
     /**
@@ -77,7 +196,7 @@ public class BattleshipsSolver {
      * @param initValueList the list of the initial values
      * @return the extended list of the initial values
      */
-    private List<InitValue<Integer>> extendInitialValues(List<Integer> rowLimits, List<Integer> columnLimits, List<InitValue<Integer>> initValueList) {
+    List<InitValue<Integer>> extendInitialValues(List<Integer> rowLimits, List<Integer> columnLimits, List<InitValue<Integer>> initValueList) {
         BattleshipsPreprocessor preprocessor = new BattleshipsPreprocessor(new Coord(columnLimits.size(), rowLimits.size()));
         Set<InitValue<Integer>> preprocessed = new HashSet<>(preprocessor.preprocess(initValueList));
         addZeroRows(preprocessed, rowLimits, columnLimits);
@@ -85,6 +204,54 @@ public class BattleshipsSolver {
         return new ArrayList<>(preprocessed);
     }
 
+    /**
+     * Extends the initial value list with the empty lines. The vectorized values are kept,
+     * as the shapes engine propagates them natively
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param initValueList the list of the initial values
+     * @return the extended list of the initial values
+     */
+    private List<InitValue<Integer>> extendShapeValues(List<Integer> rowLimits, List<Integer> columnLimits, List<InitValue<Integer>> initValueList) {
+        Set<InitValue<Integer>> extended = new HashSet<>();
+        addZeroRows(extended, rowLimits, columnLimits);
+        addZeroColumns(extended, rowLimits, columnLimits);
+        extended.addAll(initValueList);
+        return new ArrayList<>(extended);
+    }
+
+    /**
+     * Creates the wave function collapse solver for the given limits. The constraint checks
+     * are ordered by the statistics shared by all searches of this solver
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @return the wave function collapse solver
+     */
+    private WaveFunctionCollapse<Set<Integer>, Integer> createSolver(List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) {
+        AdaptiveConstrains<Set<Integer>> soft = new AdaptiveConstrains<>(new SoftConstrains(rowLimits, columnLimits, shipLimits), softStatistics);
+        AdaptiveConstrains<Set<Integer>> hard = new AdaptiveConstrains<>(new HardConstrains(rowLimits, columnLimits, shipLimits), hardStatistics);
+        return new WaveFunctionCollapse<>(soft, hard, constrains, states, heuristic.instantiate(rowLimits, columnLimits));
+    }
+
+    /**
+     * Creates the solver of the selected engine for the given limits
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @return the solver of the selected engine
+     */
+    private Solver<Set<Integer>, Integer> createEngine(List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) {
+        return switch (engine) {
+            case WAVE_FUNCTION_COLLAPSE -> createSolver(rowLimits, columnLimits, shipLimits);
+            case SAT -> new SATSolver(rowLimits, columnLimits, shipLimits, constrains);
+            case SHAPES -> new ShapeSolver(rowLimits, columnLimits, shipLimits, shapeConstrains, shapeAlphabet);
+        };
+    }
+
     /**
      * Solves the given Battleships board
      *
@@ -96,12 +263,190 @@ public class BattleshipsSolver {
      * @throws NoSolutionException when board cannot be solved
      */
     public BoardDTO solve(List<InitValue<Integer>> initValueList, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) throws NoSolutionException {
-        SoftConstrains soft = new SoftConstrains(rowLimits, columnLimits, shipLimits);
-        HardConstrains hard = new HardConstrains(rowLimits, columnLimits, shipLimits);
         Coord dimensions = new Coord(columnLimits.size(), rowLimits.size());
-        WaveFunctionCollapse<Set<Integer>, Integer> solver = new WaveFunctionCollapse<>(soft, hard, constrains, states, heuristic);
-        return (BoardDTO) solver.solve(new BattleshipsBoard(dimensions), new BoardDTO(dimensions),
-            extendInitialValues(rowLimits, columnLimits, initValueList));
+        Solver<Set<Integer>, Integer> solver = createEngine(rowLimits, columnLimits, shipLimits);
+        List<InitValue<Integer>> initValues = engine == Engine.SHAPES ? extendShapeValues(rowLimits, columnLimits, initValueList)
+            : extendInitialValues(rowLimits, columnLimits, initValueList);
+        return (BoardDTO) solver.solve(new BattleshipsBoard(dimensions), new BoardDTO(dimensions), initValues);
+    }
+
+    /**
+     * Opens the incremental solving session for the given limits. The session keeps the
+     * propagated board between the clue changes
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @return the solving session
+     */
+    public BattleshipsSession openSession(List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) {
+        return new BattleshipsSession(createSolver(rowLimits, columnLimits, shipLimits),
+            new Coord(columnLimits.size(), rowLimits.size()), extendInitialValues(rowLimits, columnLimits, new ArrayList<>()));
+    }
+
+    /**
+     * Enumerates the solutions of the given Battleships board. Every solution is passed to
+     * the visitor, which returns whether the enumeration should be continued. The enumeration
+     * also stops when the current thread is interrupted
+     *
+     * @param initValueList the list of the initial values
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @param visitor the visitor of the solutions
+     * @param shuffle whether the solutions should be visited in the random order
+     * @return whether all solutions have been enumerated
+     */
+    public boolean enumerate(List<InitValue<Integer>> initValueList, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits, Predicate<BoardDTO> visitor, boolean shuffle) {
+        Coord dimensions = new Coord(columnLimits.size(), rowLimits.size());
+        WaveFunctionCollapse<Set<Integer>, Integer> solver = createSolver(rowLimits, columnLimits, shipLimits);
+        return solver.enumerate(new BattleshipsBoard(dimensions), extendInitialValues(rowLimits, columnLimits, initValueList),
+            board -> visitor.test((BoardDTO) solver.convert(board, new BoardDTO(dimensions))), shuffle);
+    }
+
+    /**
+     * Checks whether the propagated board can still be solved
+     *
+     * @param solver the wave function collapse solver
+     * @param board the propagated board
+     * @return whether no cell is empty and the board passes the soft constraints
+     */
+    private boolean consistent(WaveFunctionCollapse<Set<Integer>, Integer> solver, Board<Set<Integer>> board) {
+        for (int y = 0; y < board.getHeight(); ++y) {
+            for (int x = 0; x < board.getWidth(); ++x) {
+                if (board.accessCell(new Coord(x, y)).isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        return solver.getSoftConstrains().check(board);
+    }
+
+    /**
+     * Splits the propagated board into the cubes. Looks ahead at both values of the undecided
+     * cells and branches on the cell fixing the most cells in its weaker branch. The branches
+     * refuted by the lookahead are dropped
+     *
+     * @param solver the wave function collapse solver
+     * @param board the propagated board
+     * @param assignments the assignments of the current cube
+     * @param depth the remaining number of the splits
+     * @param cubes the list of the cubes
+     */
+    private void split(WaveFunctionCollapse<Set<Integer>, Integer> solver, Board<Set<Integer>> board, List<InitValue<Integer>> assignments, int depth, List<List<InitValue<Integer>>> cubes) {
+        List<Board<Set<Integer>>> best = null;
+        Coord bestPosition = null;
+        int bestScore = -1, undecided = 0, candidates = 0;
+        for (int y = 0; y < board.getHeight(); ++y) {
+            for (int x = 0; x < board.getWidth(); ++x) {
+                undecided += board.accessCell(new Coord(x, y)).size() > 1 ? 1 : 0;
+            }
+        }
+        for (int index = 0; index < board.getWidth() * board.getHeight() && depth > 0 && candidates < LOOKAHEAD_CANDIDATES && bestScore < Integer.MAX_VALUE; ++index) {
+            Coord position = new Coord(index % board.getWidth(), index / board.getWidth());
+            if (board.accessCell(position).size() < 2) {
+                continue;
+            }
+            ++candidates;
+            List<Board<Set<Integer>>> branches = new ArrayList<>();
+            int score = Integer.MAX_VALUE;
+            for (Integer value : new TreeSet<>(board.accessCell(position))) {
+                Board<Set<Integer>> branch = board.clone();
+                solver.restrict(branch, List.of(new InitValue<>(position, value)));
+                if (!consistent(solver, branch)) {
+                    branches.add(null);
+                    continue;
+                }
+                branches.add(branch);
+                int fixed = 0;
+                for (int y = 0; y < branch.getHeight(); ++y) {
+                    for (int x = 0; x < branch.getWidth(); ++x) {
+                        fixed += branch.accessCell(new Coord(x, y)).size() > 1 ? 0 : 1;
+                    }
+                }
+                score = Math.min(score, fixed - (board.getWidth() * board.getHeight() - undecided));
+            }
+            if (branches.stream().anyMatch(Objects::isNull) || score > bestScore) {
+                best = branches;
+                bestPosition = position;
+                bestScore = branches.stream().anyMatch(Objects::isNull) ? Integer.MAX_VALUE : score;
+            }
+        }
+        if (best == null) {
+            cubes.add(assignments);
+            return;
+        }
+        List<Integer> values = new ArrayList<>(new TreeSet<>(board.accessCell(bestPosition)));
+        for (int i = 0; i < values.size(); ++i) {
+            if (best.get(i) != null) {
+                List<InitValue<Integer>> extended = new ArrayList<>(assignments);
+                extended.add(new InitValue<>(bestPosition, values.get(i)));
+                boolean refuted = best.stream().anyMatch(Objects::isNull);
+                split(solver, best.get(i), extended, refuted ? depth : depth - 1, cubes);
+            }
+        }
+    }
+
+    /**
+     * Splits the given Battleships board into the cubes. Every cube is the partial assignment
+     * of the board's cells, the cubes are disjoint and together cover all solutions
+     *
+     * @param initValueList the list of the initial values
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @param depth the number of the splits of every cube
+     * @return the list of the cubes
+     */
+    public List<List<InitValue<Integer>>> cubes(List<InitValue<Integer>> initValueList, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits, int depth) {
+        WaveFunctionCollapse<Set<Integer>, Integer> solver = createSolver(rowLimits, columnLimits, shipLimits);
+        Board<Set<Integer>> board = new BattleshipsBoard(new Coord(columnLimits.size(), rowLimits.size()));
+        solver.prepare(board, extendInitialValues(rowLimits, columnLimits, initValueList));
+        List<List<InitValue<Integer>>> cubes = new ArrayList<>();
+        if (consistent(solver, board)) {
+            split(solver, board, new ArrayList<>(), depth, cubes);
+        }
+        return cubes;
+    }
+
+    /**
+     * Counts the solutions of the given Battleships board
+     *
+     * @param initValueList the list of the initial values
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @return the number of solutions
+     */
+    public long count(List<InitValue<Integer>> initValueList, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) {
+        long[] counter = {0};
+        enumerate(initValueList, rowLimits, columnLimits, shipLimits, board -> {
+            counter[0] += 1;
+            return true;
+        }, false);
+        return counter[0];
+    }
+
+    /**
+     * Counts the solutions of the given Battleships board. The frontier of the enumeration
+     * is periodically saved to the checkpoint and the counting resumes from the existing
+     * checkpoint. When the current thread is interrupted, returns the number of the solutions
+     * counted so far and keeps the checkpoint
+     *
+     * @param initValueList the list of the initial values
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @param checkpoint the checkpoint of the counting
+     * @return the number of solutions
+     * @throws IOException when the checkpoint cannot be read or written
+     */
+    public long count(List<InitValue<Integer>> initValueList, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits, SearchCheckpoint checkpoint) throws IOException {
+        Coord dimensions = new Coord(columnLimits.size(), rowLimits.size());
+        WaveFunctionCollapse<Set<Integer>, Integer> solver = createSolver(rowLimits, columnLimits, shipLimits);
+        solver.enumerate(new BattleshipsBoard(dimensions), extendInitialValues(rowLimits, columnLimits, initValueList),
+            board -> true, false, checkpoint);
+        return checkpoint.getSolutions();
     }
 
 }
@@ -0,0 +1,158 @@
+package backend.heuristic;
+
+import backend.boards.Board;
+import backend.utility.Coord;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Chooses the cell with the smallest ratio of the domain size to the weighted degree.
+ * Every constraint (row, column, fleet and the cell's adjacency) keeps the weight,
+ * which is increased whenever the constraint fails after a collapse. The weighted degree
+ * of the cell is the sum of the weights of its constraints
+ */
+public class DomWdegHeuristic implements Heuristic<Set<Integer>> {
+    private final static int                    SHIP = 2;
+
+    private final List<Integer>                 rowLimits;
+    private final List<Integer>                 columnLimits;
+    private long[]                              rowWeights = new long[0];
+    private long[]                              columnWeights = new long[0];
+    private long[]                              adjacencyWeights = new long[0];
+    private long                                fleetWeight = 1;
+
+    /**
+     * Constructs a new DomWdegHeuristic object. The failures are attributed to the lines
+     * only by the instances created for the single search
+     */
+    public DomWdegHeuristic() {
+        this(List.of(), List.of());
+    }
+
+    /**
+     * Constructs a new DomWdegHeuristic object
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     */
+    private DomWdegHeuristic(List<Integer> rowLimits, List<Integer> columnLimits) {
+        this.rowLimits = rowLimits;
+        this.columnLimits = columnLimits;
+    }
+
+    /**
+     * Returns the new heuristic with the fresh weights for the single search
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @return the heuristic for the single search
+     */
+    @Override
+    public Heuristic<Set<Integer>> instantiate(List<Integer> rowLimits, List<Integer> columnLimits) {
+        return new DomWdegHeuristic(rowLimits, columnLimits);
+    }
+
+    /**
+     * Creates the unit weights matching the board's dimensions
+     *
+     * @param board the board object
+     */
+    private void ensureWeights(Board<Set<Integer>> board) {
+        if (adjacencyWeights.length != board.getWidth() * board.getHeight()) {
+            rowWeights = new long[board.getHeight()];
+            columnWeights = new long[board.getWidth()];
+            adjacencyWeights = new long[board.getWidth() * board.getHeight()];
+            Arrays.fill(rowWeights, 1);
+            Arrays.fill(columnWeights, 1);
+            Arrays.fill(adjacencyWeights, 1);
+        }
+    }
+
+    /**
+     * Chooses the cell with the smallest ratio of the domain size to the weighted degree
+     *
+     * @param board the board object
+     * @return the chosen cell
+     */
+    @Override
+    public Coord choose(Board<Set<Integer>> board) {
+        ensureWeights(board);
+        Coord best = new Coord(0, 0);
+        long bestSize = 1, bestWeight = 0;
+        for (int y = 0; y < board.getHeight(); ++y) {
+            for (int x = 0; x < board.getWidth(); ++x) {
+                long size = board.accessCell(new Coord(x, y)).size();
+                if (size < 2) {
+                    continue;
+                }
+                long weight = rowWeights[y] + columnWeights[x] + fleetWeight + adjacencyWeights[y * board.getWidth() + x];
+                if (size * bestWeight < bestSize * weight) {
+                    best = new Coord(x, y);
+                    bestSize = size;
+                    bestWeight = weight;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Checks if the line cannot satisfy its limit anymore
+     *
+     * @param board the board object
+     * @param start the first cell of the line
+     * @param step the distance between the line's cells
+     * @param length the length of the line
+     * @param limit the limit of the line
+     * @return whether the line is violated
+     */
+    private static boolean violated(Board<Set<Integer>> board, Coord start, Coord step, int length, int limit) {
+        int ships = 0, undecided = 0;
+        for (int i = 0; i < length; ++i) {
+            Set<Integer> cell = board.accessCell(new Coord(start.x() + step.x() * i, start.y() + step.y() * i));
+            ships += cell.size() == 1 && cell.contains(SHIP) ? 1 : 0;
+            undecided += cell.size() > 1 && cell.contains(SHIP) ? 1 : 0;
+        }
+        return ships > limit || ships + undecided < limit;
+    }
+
+    /**
+     * Increases the weights of the failed constraints. The fleet is blamed when neither
+     * the lines nor the adjacency of the collapsed cell are violated
+     *
+     * @param board the failed board object
+     * @param position the position of the collapsed cell
+     */
+    @Override
+    public void failure(Board<Set<Integer>> board, Coord position) {
+        ensureWeights(board);
+        boolean blamed = false;
+        for (int y = 0; y < Math.min(rowLimits.size(), board.getHeight()); ++y) {
+            if (violated(board, new Coord(0, y), new Coord(1, 0), board.getWidth(), rowLimits.get(y))) {
+                rowWeights[y] += 1;
+                blamed = true;
+            }
+        }
+        for (int x = 0; x < Math.min(columnLimits.size(), board.getWidth()); ++x) {
+            if (violated(board, new Coord(x, 0), new Coord(0, 1), board.getHeight(), columnLimits.get(x))) {
+                columnWeights[x] += 1;
+                blamed = true;
+            }
+        }
+        for (int dy = -1; dy <= 1; ++dy) {
+            for (int dx = -1; dx <= 1; ++dx) {
+                Coord neighbor = new Coord(position.x() + dx, position.y() + dy);
+                if (board.onBoard(neighbor) && board.accessCell(neighbor).isEmpty()) {
+                    adjacencyWeights[position.y() * board.getWidth() + position.x()] += 1;
+                    blamed = true;
+                }
+            }
+        }
+        if (!blamed) {
+            fleetWeight += 1;
+        }
+    }
+
+}
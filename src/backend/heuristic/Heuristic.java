@@ -7,6 +7,8 @@ import backend.boards.Board;
 import backend.utility.Coord;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Represents the heuristic using to choose field from the board
@@ -23,4 +25,48 @@ public interface Heuristic <BoardValue extends Collection<?>> {
      */
     Coord choose(Board<BoardValue> board);
 
+    /**
+     * Returns the heuristic for the single search of the problem with the given limits.
+     * The stateless heuristics return themselves
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @return the heuristic for the single search
+     */
+    default Heuristic<BoardValue> instantiate(List<Integer> rowLimits, List<Integer> columnLimits) {
+        return this;
+    }
+
+    /**
+     * Informs the heuristic that the board failed the soft constraints after
+     * the collapse of the given cell
+     *
+     * @param board the failed board object
+     * @param position the position of the collapsed cell
+     */
+    default void failure(Board<BoardValue> board, Coord position) {}
+
+    /**
+     * Orders the states tried in the chosen cell. By default, the states are shuffled
+     *
+     * @param board the board object
+     * @param position the position of the chosen cell
+     * @param superposition the states of the chosen cell
+     * @param <StateValue> the board's state type
+     */
+    default <StateValue> void order(Board<BoardValue> board, Coord position, List<StateValue> superposition) {
+        Collections.shuffle(superposition);
+    }
+
+    /**
+     * Informs the heuristic about the result of the collapse and its propagation
+     *
+     * @param before the board before the collapse
+     * @param after the board after the collapse and its propagation
+     * @param position the position of the collapsed cell
+     * @param state the collapsed state
+     * @param <StateValue> the board's state type
+     */
+    default <StateValue> void propagated(Board<BoardValue> before, Board<BoardValue> after, Coord position, StateValue state) {}
+
 }
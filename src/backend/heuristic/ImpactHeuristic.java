@@ -0,0 +1,194 @@
+package backend.heuristic;
+
+import backend.boards.Board;
+import backend.utility.Coord;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Impact-based search. Records the relative reduction of the search space achieved by
+ * the propagation of every collapse, chooses the cell with the highest total impact of its
+ * states and tries its states from the lowest impact. The states without the recorded
+ * impact are ordered by the number of the neighbor states they eliminate. The impact tables
+ * belong to the heuristic, so the searches of the solver holding it share them
+ */
+public class ImpactHeuristic implements Heuristic<Set<Integer>> {
+    private final Map<Integer, Map<Coord, Set<Integer>>>        constrains;
+    private final Function<Coord, ImpactTable>                  tables;
+
+    /**
+     * Constructs a new ImpactHeuristic object keeping one impact table per board dimensions
+     * sized to the states of the constraints
+     *
+     * @param constrains the board's states constraints
+     */
+    public ImpactHeuristic(Map<Integer, Map<Coord, Set<Integer>>> constrains) {
+        this(constrains, tables(alphabet(constrains)));
+    }
+
+    /**
+     * Constructs a new ImpactHeuristic object
+     *
+     * @param constrains the board's states constraints
+     * @param tables the impact tables for the board dimensions
+     */
+    public ImpactHeuristic(Map<Integer, Map<Coord, Set<Integer>>> constrains, Function<Coord, ImpactTable> tables) {
+        this.constrains = constrains;
+        this.tables = tables;
+    }
+
+    /**
+     * Returns the size of the state alphabet of the constraints
+     *
+     * @param constrains the board's states constraints
+     * @return the greatest state increased by one
+     */
+    private static int alphabet(Map<Integer, Map<Coord, Set<Integer>>> constrains) {
+        int states = 0;
+        for (Map.Entry<Integer, Map<Coord, Set<Integer>>> entry : constrains.entrySet()) {
+            states = Math.max(states, entry.getKey() + 1);
+            for (Set<Integer> allowed : entry.getValue().values()) {
+                for (Integer state : allowed) {
+                    states = Math.max(states, state + 1);
+                }
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Creates the impact tables kept per board dimensions
+     *
+     * @param states the size of the state alphabet
+     * @return the impact tables for the board dimensions
+     */
+    private static Function<Coord, ImpactTable> tables(int states) {
+        Map<Coord, ImpactTable> tables = new ConcurrentHashMap<>();
+        return dimensions -> tables.computeIfAbsent(dimensions, key -> new ImpactTable(key, states));
+    }
+
+    /**
+     * Returns the impact table of the boards with the given dimensions
+     *
+     * @param dimensions the board dimensions
+     * @return the impact table
+     */
+    ImpactTable table(Coord dimensions) {
+        return tables.apply(dimensions);
+    }
+
+    /**
+     * Returns the logarithm of the search space size of the board
+     *
+     * @param board the board object
+     * @return the logarithm of the search space size or NaN when some cell is empty
+     */
+    private static double searchSpace(Board<Set<Integer>> board) {
+        double size = 0;
+        for (int y = 0; y < board.getHeight(); ++y) {
+            for (int x = 0; x < board.getWidth(); ++x) {
+                int states = board.accessCell(new Coord(x, y)).size();
+                if (states == 0) {
+                    return Double.NaN;
+                }
+                size += Math.log(states);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Chooses the undecided cell with the highest total impact of its states
+     *
+     * @param board the board object
+     * @return the chosen cell
+     */
+    @Override
+    public Coord choose(Board<Set<Integer>> board) {
+        ImpactTable table = tables.apply(board.getDimensions());
+        Coord best = new Coord(0, 0);
+        double bestScore = -1;
+        for (int y = 0; y < board.getHeight(); ++y) {
+            for (int x = 0; x < board.getWidth(); ++x) {
+                Coord position = new Coord(x, y);
+                Set<Integer> cell = board.accessCell(position);
+                if (cell.size() < 2) {
+                    continue;
+                }
+                double score = 0;
+                for (Integer state : cell) {
+                    double impact = table.impact(position, state);
+                    score += Double.isNaN(impact) ? 0 : impact;
+                }
+                if (score > bestScore) {
+                    best = position;
+                    bestScore = score;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of the neighbor states eliminated by the state
+     *
+     * @param board the board object
+     * @param position the position of the cell
+     * @param state the state of the cell
+     * @return the number of the eliminated neighbor states
+     */
+    private int eliminated(Board<Set<Integer>> board, Coord position, Integer state) {
+        int eliminated = 0;
+        for (Map.Entry<Coord, Set<Integer>> rule : constrains.getOrDefault(state, Map.of()).entrySet()) {
+            Coord neighbor = new Coord(position.x() + rule.getKey().x(), position.y() + rule.getKey().y());
+            if (board.onBoard(neighbor)) {
+                for (Integer neighborState : board.accessCell(neighbor)) {
+                    eliminated += rule.getValue().contains(neighborState) ? 0 : 1;
+                }
+            }
+        }
+        return eliminated;
+    }
+
+    /**
+     * Orders the states from the lowest impact. When some state has no recorded impact,
+     * orders the states from the least constraining one
+     *
+     * @param board the board object
+     * @param position the position of the chosen cell
+     * @param superposition the states of the chosen cell
+     * @param <StateValue> the board's state type
+     */
+    @Override
+    public <StateValue> void order(Board<Set<Integer>> board, Coord position, List<StateValue> superposition) {
+        ImpactTable table = tables.apply(board.getDimensions());
+        boolean known = superposition.stream().allMatch(state -> state instanceof Integer value && table.samples(position, value) > 0);
+        Map<StateValue, Double> keys = new HashMap<>();
+        for (StateValue state : superposition) {
+            Integer value = (Integer) state;
+            keys.put(state, known ? table.impact(position, value) : eliminated(board, position, value));
+        }
+        superposition.sort(Comparator.comparingDouble(keys::get));
+    }
+
+    /**
+     * Records the impact of the collapse
+     *
+     * @param before the board before the collapse
+     * @param after the board after the collapse and its propagation
+     * @param position the position of the collapsed cell
+     * @param state the collapsed state
+     * @param <StateValue> the board's state type
+     */
+    @Override
+    public <StateValue> void propagated(Board<Set<Integer>> before, Board<Set<Integer>> after, Coord position, StateValue state) {
+        if (state instanceof Integer value) {
+            double space = searchSpace(before), reduced = searchSpace(after);
+            double impact = Double.isNaN(reduced) ? 1 : 1 - Math.exp(reduced - space);
+            tables.apply(before.getDimensions()).record(position, value, impact);
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+package backend.heuristic;
+
+import backend.utility.Coord;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stores the average impacts of the collapses per cell and state in the primitive arrays.
+ * The impacts are summed in the fixed point, so the concurrent searches update the table
+ * with the atomic additions instead of the locks
+ */
+public class ImpactTable {
+    private final static double                             SCALE = 1L << 32;
+
+    private final Coord                                     dimensions;
+    private final int                                       states;
+    private final AtomicLongArray                           sums;
+    private final AtomicIntegerArray                        counts;
+
+    /**
+     * Constructs a new ImpactTable object
+     *
+     * @param dimensions the board dimensions
+     * @param states the size of the state alphabet, the states are from 0 to states - 1
+     */
+    public ImpactTable(Coord dimensions, int states) {
+        this.dimensions = dimensions;
+        this.states = states;
+        this.sums = new AtomicLongArray(dimensions.x() * dimensions.y() * states);
+        this.counts = new AtomicIntegerArray(dimensions.x() * dimensions.y() * states);
+    }
+
+    /**
+     * Returns the index of the cell's state in the arrays
+     *
+     * @param position the position of the cell
+     * @param state the state of the cell
+     * @return the index of the cell's state
+     * @throws IndexOutOfBoundsException when the state lies outside the alphabet
+     */
+    private int index(Coord position, int state) throws IndexOutOfBoundsException {
+        return (position.y() * dimensions.x() + position.x()) * states + Objects.checkIndex(state, states);
+    }
+
+    /**
+     * Records the impact of the collapse
+     *
+     * @param position the position of the collapsed cell
+     * @param state the collapsed state
+     * @param impact the relative reduction of the search space, from 0 to 1
+     */
+    public void record(Coord position, int state, double impact) {
+        int index = index(position, state);
+        sums.addAndGet(index, Math.round(impact * SCALE));
+        counts.incrementAndGet(index);
+    }
+
+    /**
+     * Returns the average impact of the collapse
+     *
+     * @param position the position of the cell
+     * @param state the state of the cell
+     * @return the average impact or NaN when the collapse was not recorded
+     */
+    public double impact(Coord position, int state) {
+        int index = index(position, state);
+        int count = counts.get(index);
+        return count == 0 ? Double.NaN : sums.get(index) / SCALE / count;
+    }
+
+    /**
+     * Returns the number of the recorded collapses
+     *
+     * @param position the position of the cell
+     * @param state the state of the cell
+     * @return the number of the recorded collapses
+     */
+    public int samples(Coord position, int state) {
+        return counts.get(index(position, state));
+    }
+
+}
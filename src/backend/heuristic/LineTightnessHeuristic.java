@@ -0,0 +1,176 @@
+package backend.heuristic;
+
+import backend.boards.BattleshipsBoard;
+import backend.boards.Board;
+import backend.utility.Coord;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Chooses the cell in the tightest line. The slack of the line is the smaller of the ships
+ * still missing in the line and the undecided cells that must stay water. In the tightest
+ * line the cell touching the most ships is chosen, the ties are broken by the slack of
+ * the crossing line. The line counts are read from the {@link BattleshipsBoard}, which
+ * keeps them updated as the cells collapse, so the choice does not scan the whole board
+ */
+public class LineTightnessHeuristic implements Heuristic<Set<Integer>> {
+    private final static int                    SHIP = 2;
+    private final static Coord[]                SIDES = {new Coord(1, 0), new Coord(-1, 0), new Coord(0, 1), new Coord(0, -1)};
+
+    private final List<Integer>                 rowLimits;
+    private final List<Integer>                 columnLimits;
+
+    /**
+     * Constructs a new LineTightnessHeuristic object. Without the limits the heuristic
+     * only prefers the cells touching the ships
+     */
+    public LineTightnessHeuristic() {
+        this(List.of(), List.of());
+    }
+
+    /**
+     * Constructs a new LineTightnessHeuristic object
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     */
+    private LineTightnessHeuristic(List<Integer> rowLimits, List<Integer> columnLimits) {
+        this.rowLimits = rowLimits;
+        this.columnLimits = columnLimits;
+    }
+
+    /**
+     * Returns the heuristic aware of the given limits
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @return the heuristic for the single search
+     */
+    @Override
+    public Heuristic<Set<Integer>> instantiate(List<Integer> rowLimits, List<Integer> columnLimits) {
+        return new LineTightnessHeuristic(rowLimits, columnLimits);
+    }
+
+    /**
+     * Returns the slack of the line. The lines without the undecided cells have
+     * the maximal slack
+     *
+     * @param limit the limit of the line
+     * @param ships the number of the ships in the line
+     * @param undecided the number of the undecided cells in the line
+     * @return the slack of the line
+     */
+    private static int slack(int limit, int ships, int undecided) {
+        if (undecided == 0) {
+            return Integer.MAX_VALUE;
+        }
+        int missing = limit - ships;
+        return Math.max(0, Math.min(missing, undecided - missing));
+    }
+
+    /**
+     * Returns the number of the ships touching the cell by its sides
+     *
+     * @param board the board object
+     * @param position the position of the cell
+     * @return the number of the touching ships
+     */
+    private static int touchingShips(Board<Set<Integer>> board, Coord position) {
+        int ships = 0;
+        for (Coord side : SIDES) {
+            Coord neighbor = new Coord(position.x() + side.x(), position.y() + side.y());
+            if (board.onBoard(neighbor) && board.accessCell(neighbor).equals(Set.of(SHIP))) {
+                ++ships;
+            }
+        }
+        return ships;
+    }
+
+    /**
+     * Chooses the undecided cell of the given line touching the most ships
+     *
+     * @param board the board object
+     * @param start the first cell of the line
+     * @param step the distance between the line's cells
+     * @param length the length of the line
+     * @return the chosen cell or null when the line has no undecided cells
+     */
+    private Coord chooseInLine(BattleshipsBoard board, Coord start, Coord step, int length) {
+        Coord best = null;
+        long bestScore = Long.MIN_VALUE;
+        for (int i = 0; i < length; ++i) {
+            Coord position = new Coord(start.x() + step.x() * i, start.y() + step.y() * i);
+            if (board.accessCell(position).size() < 2) {
+                continue;
+            }
+            int crossing = step.x() == 1
+                ? slack(columnLimits.get(position.x()), board.getColumnShips(position.x()), board.getColumnUndecided(position.x()))
+                : slack(rowLimits.get(position.y()), board.getRowShips(position.y()), board.getRowUndecided(position.y()));
+            long score = ((long) touchingShips(board, position) << 32) - crossing;
+            if (score > bestScore) {
+                best = position;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Chooses the undecided cell touching the most ships by scanning the whole board
+     *
+     * @param board the board object
+     * @return the chosen cell
+     */
+    private Coord chooseTouching(Board<Set<Integer>> board) {
+        Coord best = new Coord(0, 0);
+        int bestShips = -1;
+        for (int y = 0; y < board.getHeight(); ++y) {
+            for (int x = 0; x < board.getWidth(); ++x) {
+                Coord position = new Coord(x, y);
+                if (board.accessCell(position).size() > 1 && touchingShips(board, position) > bestShips) {
+                    best = position;
+                    bestShips = touchingShips(board, position);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Chooses the cell in the tightest line
+     *
+     * @param board the board object
+     * @return the chosen cell
+     */
+    @Override
+    public Coord choose(Board<Set<Integer>> board) {
+        if (!(board instanceof BattleshipsBoard counted) || rowLimits.size() != board.getHeight()
+            || columnLimits.size() != board.getWidth()) {
+            return chooseTouching(board);
+        }
+        int bestSlack = Integer.MAX_VALUE, bestLine = -1;
+        for (int y = 0; y < board.getHeight(); ++y) {
+            int slack = slack(rowLimits.get(y), counted.getRowShips(y), counted.getRowUndecided(y));
+            if (slack < bestSlack) {
+                bestSlack = slack;
+                bestLine = y;
+            }
+        }
+        for (int x = 0; x < board.getWidth(); ++x) {
+            int slack = slack(columnLimits.get(x), counted.getColumnShips(x), counted.getColumnUndecided(x));
+            if (slack < bestSlack) {
+                bestSlack = slack;
+                bestLine = board.getHeight() + x;
+            }
+        }
+        Coord chosen = null;
+        if (bestLine >= board.getHeight()) {
+            chosen = chooseInLine(counted, new Coord(bestLine - board.getHeight(), 0), new Coord(0, 1), board.getHeight());
+        } else if (bestLine >= 0) {
+            chosen = chooseInLine(counted, new Coord(0, bestLine), new Coord(1, 0), board.getWidth());
+        }
+        return chosen != null ? chosen : chooseTouching(board);
+    }
+
+}
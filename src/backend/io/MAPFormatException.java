@@ -0,0 +1,45 @@
+package backend.io;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the MAP input is malformed. Carries the position of the offending character
+ */
+public class MAPFormatException extends IOException {
+    private final static long                   serialVersionUID = 1L;
+
+    private final int                           line;
+    private final int                           column;
+
+    /**
+     * Constructs a new MAPFormatException object
+     *
+     * @param message the description of the error
+     * @param line the line of the error, counted from 1
+     * @param column the column of the error, counted from 1
+     */
+    public MAPFormatException(String message, int line, int column) {
+        super("Line " + line + ", column " + column + ": " + message);
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Returns the line of the error, counted from 1
+     *
+     * @return the line of the error
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Returns the column of the error, counted from 1
+     *
+     * @return the column of the error
+     */
+    public int getColumn() {
+        return column;
+    }
+
+}
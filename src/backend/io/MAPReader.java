@@ -5,76 +5,265 @@ package backend.io;
 
 import backend.utility.Coord;
 
-import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 /**
- * Reader of the MAP format
+ * Reader of the MAP format. The input is parsed in a single pass character by character,
+ * the malformed input is reported with its line and column
  */
 public class MAPReader {
+    private final static int                    BUFFER_SIZE = 8192;
+    private final static int                    END = -1;
 
     /**
-     * Reads the MAP format from the given buffer reader
+     * The position in the parsed input holding the current character
+     */
+    private static final class Cursor {
+        private final Reader                    reader;
+        private final ByteBuffer                bytes;
+        private final char[]                    buffer;
+        private int                             position = 0;
+        private int                             limit = 0;
+        private int                             current;
+        private int                             line = 1;
+        private int                             column = 1;
+
+        /**
+         * Constructs a new Cursor object reading from one of the given sources
+         *
+         * @param reader the character source or null
+         * @param bytes the ASCII bytes source or null
+         * @throws IOException when the input cannot be read
+         */
+        private Cursor(Reader reader, ByteBuffer bytes) throws IOException {
+            this.reader = reader;
+            this.bytes = bytes;
+            this.buffer = reader != null ? new char[BUFFER_SIZE] : null;
+            this.current = read();
+        }
+
+        /**
+         * Reads the next character of the source
+         *
+         * @return the next character or {@link #END} at the end of the input
+         * @throws IOException when the input cannot be read
+         */
+        private int read() throws IOException {
+            if (bytes != null) {
+                return bytes.hasRemaining() ? bytes.get() & 0xFF : END;
+            }
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return END;
+                }
+            }
+            return buffer[position++];
+        }
+
+        /**
+         * Moves to the next character
+         *
+         * @throws IOException when the input cannot be read
+         */
+        private void advance() throws IOException {
+            if (current == '\n') {
+                line += 1;
+                column = 1;
+            } else {
+                column += 1;
+            }
+            current = read();
+        }
+
+        /**
+         * Skips the whitespace characters
+         *
+         * @throws IOException when the input cannot be read
+         */
+        private void skipWhitespace() throws IOException {
+            while (current == ' ' || current == '\t' || current == '\n' || current == '\r') {
+                advance();
+            }
+        }
+
+        /**
+         * Consumes the expected character
+         *
+         * @param expected the expected character
+         * @throws IOException when the input cannot be read or holds another character
+         */
+        private void expect(char expected) throws IOException {
+            if (current != expected) {
+                throw error("Expected '" + expected + "' but found " + describe());
+            }
+            advance();
+        }
+
+        /**
+         * Describes the current character
+         *
+         * @return the description of the current character
+         */
+        private String describe() {
+            return current == END ? "end of input" : current == '\n' ? "end of line" : "'" + (char) current + "'";
+        }
+
+        /**
+         * Creates the exception at the current position
+         *
+         * @param message the description of the error
+         * @return the exception at the current position
+         */
+        private MAPFormatException error(String message) {
+            return new MAPFormatException(message, line, column);
+        }
+
+    }
+
+    /**
+     * Reads the MAP format from the given reader
+     *
+     * @param file the reader
+     * @return the parsed MAP format
+     * @throws MAPFormatException when the input is malformed
+     * @throws IOException when the input cannot be read
+     */
+    public Map<Integer, Map<Coord, Set<Integer>>> read(Reader file) throws MAPFormatException, IOException {
+        return parse(new Cursor(file, null));
+    }
+
+    /**
+     * Reads the MAP format from the ASCII bytes between the position and the limit of
+     * the given buffer. The position of the buffer is not changed
+     *
+     * @param bytes the buffer
+     * @return the parsed MAP format
+     * @throws MAPFormatException when the input is malformed
+     */
+    public Map<Integer, Map<Coord, Set<Integer>>> read(ByteBuffer bytes) throws MAPFormatException {
+        try {
+            return parse(new Cursor(null, bytes.duplicate()));
+        } catch (MAPFormatException exception) {
+            throw exception;
+        } catch (IOException exception) {
+            throw new IllegalStateException("Buffer cannot fail reading", exception);
+        }
+    }
+
+    /**
+     * Parses the records of the MAP format
      *
-     * @param file the buffer reader
+     * @param cursor the cursor of the input
      * @return the parsed MAP format
+     * @throws IOException when the input cannot be read or is malformed
      */
-    public Map<Integer, Map<Coord, Set<Integer>>> read(BufferedReader file) {
+    private Map<Integer, Map<Coord, Set<Integer>>> parse(Cursor cursor) throws IOException {
         Map<Integer, Map<Coord, Set<Integer>>> data = new HashMap<>();
-        Map<Coord, Set<Integer>> record = new HashMap<>();
-        int recordTag = 0;
-        for (String line : file.lines().toList()) {
-            if (line.contains("}")) {
-                data.put(recordTag, record);
-                record = new HashMap<>();
-            } else if (line.contains("{")) {
-                recordTag = Integer.parseInt(line.substring(0, line.indexOf(":")));
-            } else {
-                String[] parts = line.split("->");
-                record.put(parseCoord(parts[0]), parseSet(parts[1]));
+        cursor.skipWhitespace();
+        while (cursor.current != END) {
+            int recordTag = parseNumber(cursor);
+            cursor.skipWhitespace();
+            cursor.expect(':');
+            cursor.skipWhitespace();
+            cursor.expect('{');
+            cursor.skipWhitespace();
+            Map<Coord, Set<Integer>> record = new HashMap<>();
+            while (cursor.current != '}') {
+                Coord coord = parseCoord(cursor);
+                cursor.skipWhitespace();
+                cursor.expect('-');
+                cursor.expect('>');
+                cursor.skipWhitespace();
+                record.put(coord, parseSet(cursor));
+                cursor.skipWhitespace();
             }
+            cursor.advance();
+            data.put(recordTag, record);
+            cursor.skipWhitespace();
         }
         return data;
     }
 
     /**
-     * Preprocesses the line used by the parsers
+     * Parses the optionally negative decimal number
      *
-     * @param line the raw line
-     * @return the preprocessed line
+     * @param cursor the cursor of the input
+     * @return the number
+     * @throws IOException when the input cannot be read or holds no number
      */
-    private String[] preprocessLine(String line) {
-        String stripped = line.strip();
-        stripped = stripped.substring(1, stripped.length() - 1);
-        return stripped.split("\\|");
+    private int parseNumber(Cursor cursor) throws IOException {
+        boolean negative = cursor.current == '-';
+        if (negative) {
+            cursor.advance();
+        }
+        if (cursor.current < '0' || cursor.current > '9') {
+            throw cursor.error("Expected a number but found " + cursor.describe());
+        }
+        long value = 0;
+        while (cursor.current >= '0' && cursor.current <= '9') {
+            value = value * 10 + (cursor.current - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw cursor.error("Number out of range");
+            }
+            cursor.advance();
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw cursor.error("Number out of range");
+        }
+        return (int) value;
     }
 
     /**
-     * Parses the set of integers from the given string
+     * Parses the set of integers in the brackets separated by the bars
      *
-     * @param line the parsed string
+     * @param cursor the cursor of the input
      * @return the set of integers
+     * @throws IOException when the input cannot be read or is malformed
      */
-    private Set<Integer> parseSet(String line) {
+    private Set<Integer> parseSet(Cursor cursor) throws IOException {
         Set<Integer> set = new HashSet<>();
-        for (String number : preprocessLine(line)) {
-            set.add(Integer.parseInt(number));
+        cursor.expect('[');
+        cursor.skipWhitespace();
+        while (cursor.current != ']') {
+            set.add(parseNumber(cursor));
+            cursor.skipWhitespace();
+            if (cursor.current != ']') {
+                cursor.expect('|');
+                cursor.skipWhitespace();
+            }
         }
+        cursor.advance();
         return set;
     }
 
     /**
-     * Parses the coordinates from the given string
+     * Parses the coordinates in the brackets separated by the bar
      *
-     * @param line the parsed string
+     * @param cursor the cursor of the input
      * @return the coordinates
+     * @throws IOException when the input cannot be read or is malformed
      */
-    private Coord parseCoord(String line) {
-        String[] numbers = preprocessLine(line);
-        return new Coord(Integer.parseInt(numbers[0]), Integer.parseInt(numbers[1]));
+    private Coord parseCoord(Cursor cursor) throws IOException {
+        cursor.expect('[');
+        cursor.skipWhitespace();
+        int x = parseNumber(cursor);
+        cursor.skipWhitespace();
+        cursor.expect('|');
+        cursor.skipWhitespace();
+        int y = parseNumber(cursor);
+        cursor.skipWhitespace();
+        cursor.expect(']');
+        return new Coord(x, y);
     }
 
 }
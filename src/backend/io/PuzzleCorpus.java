@@ -0,0 +1,588 @@
+package backend.io;
+
+import backend.facades.BattleshipsGenerator;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Corpus of the puzzles stored in the binary file. The file consists of the header with
+ * the magic number, the version and the record format, followed by the fixed-width records.
+ * Every record holds the dimensions, the row and column limits and the ship counts as
+ * unsigned bytes, followed by the number of the clues and the clues packed into three bytes:
+ * the x-axis position, the y-axis position and the value. The corpus is memory mapped and
+ * the records are read in place through the reusable {@link View}
+ */
+public final class PuzzleCorpus {
+    private final static int                    MAGIC = 0x42535043;
+    private final static int                    VERSION = 1;
+    private final static int                    HEADER_SIZE = 8 * Integer.BYTES;
+    private final static int                    CLUE_SIZE = 3;
+    private final static int                    MAX_BYTE = 0xFF;
+    private final static int                    MAX_SEGMENT = Integer.MAX_VALUE;
+
+    private final Format                        format;
+    private final List<MappedByteBuffer>        segments;
+    private final long                          size;
+    private final int                           segmentRecords;
+
+    /**
+     * Represents the format of the records. Every dimension, limit and ship count is stored
+     * in the single unsigned byte
+     *
+     * @param maxWidth the maximal board width
+     * @param maxHeight the maximal board height
+     * @param maxShipLength the maximal ship length
+     * @param maxClues the maximal number of the clues
+     */
+    public record Format(int maxWidth, int maxHeight, int maxShipLength, int maxClues) {
+
+        /**
+         * Constructs a new Format object
+         *
+         * @param maxWidth the maximal board width
+         * @param maxHeight the maximal board height
+         * @param maxShipLength the maximal ship length
+         * @param maxClues the maximal number of the clues
+         * @throws IllegalArgumentException when the format does not fit the byte fields
+         */
+        public Format {
+            if (maxWidth < 1 || maxWidth > MAX_BYTE || maxHeight < 1 || maxHeight > MAX_BYTE || maxShipLength < 0
+                || maxShipLength > MAX_BYTE || maxClues < 0 || maxClues > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Unsupported corpus format " + maxWidth + "x" + maxHeight + ", ships up to "
+                    + maxShipLength + ", " + maxClues + " clues");
+            }
+        }
+
+        /**
+         * Returns the size of the record in bytes
+         *
+         * @return the size of the record
+         */
+        public int recordSize() {
+            return 2 + maxHeight + maxWidth + maxShipLength + Short.BYTES + maxClues * CLUE_SIZE;
+        }
+
+        /**
+         * Returns the offset of the first row limit in the record
+         *
+         * @return the offset of the row limits
+         */
+        private int rows() {
+            return 2;
+        }
+
+        /**
+         * Returns the offset of the first column limit in the record
+         *
+         * @return the offset of the column limits
+         */
+        private int columns() {
+            return rows() + maxHeight;
+        }
+
+        /**
+         * Returns the offset of the ship count of the single cell ships in the record
+         *
+         * @return the offset of the ship counts
+         */
+        private int fleet() {
+            return columns() + maxWidth;
+        }
+
+        /**
+         * Returns the offset of the number of the clues in the record
+         *
+         * @return the offset of the number of the clues
+         */
+        private int clues() {
+            return fleet() + maxShipLength;
+        }
+
+    }
+
+    /**
+     * The flyweight view of the record. The view is moved between the records without
+     * copying or decoding them
+     */
+    public final class View {
+        private ByteBuffer                      segment;
+        private int                             base;
+        private long                            index = -1;
+
+        /**
+         * Moves the view to the given record
+         *
+         * @param index the index of the record
+         * @return this view
+         * @throws IndexOutOfBoundsException when the record is not in the corpus
+         */
+        public View moveTo(long index) throws IndexOutOfBoundsException {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Record " + index + " is not in the corpus of " + size + " puzzles");
+            }
+            this.segment = segments.get((int) (index / segmentRecords));
+            this.base = (int) (index % segmentRecords) * format.recordSize();
+            this.index = index;
+            return this;
+        }
+
+        /**
+         * Returns the index of the viewed record
+         *
+         * @return the index of the record
+         */
+        public long index() {
+            return index;
+        }
+
+        /**
+         * Returns the unsigned byte of the record
+         *
+         * @param offset the offset in the record
+         * @return the unsigned byte
+         */
+        private int unsigned(int offset) {
+            return segment.get(base + offset) & MAX_BYTE;
+        }
+
+        /**
+         * Returns the board width
+         *
+         * @return the board width
+         */
+        public int width() {
+            return unsigned(0);
+        }
+
+        /**
+         * Returns the board height
+         *
+         * @return the board height
+         */
+        public int height() {
+            return unsigned(1);
+        }
+
+        /**
+         * Returns the limit of the given row
+         *
+         * @param y the y-axis position of the row
+         * @return the row limit
+         */
+        public int rowLimit(int y) {
+            return unsigned(format.rows() + y);
+        }
+
+        /**
+         * Returns the limit of the given column
+         *
+         * @param x the x-axis position of the column
+         * @return the column limit
+         */
+        public int columnLimit(int x) {
+            return unsigned(format.columns() + x);
+        }
+
+        /**
+         * Returns the number of the ships of the given length
+         *
+         * @param length the ship length
+         * @return the number of the ships
+         */
+        public int shipCount(int length) {
+            return length < 1 || length > format.maxShipLength() ? 0 : unsigned(format.fleet() + length - 1);
+        }
+
+        /**
+         * Returns the number of the clues
+         *
+         * @return the number of the clues
+         */
+        public int clueCount() {
+            return segment.getShort(base + format.clues());
+        }
+
+        /**
+         * Returns the x-axis position of the given clue
+         *
+         * @param clue the index of the clue
+         * @return the x-axis position of the clue
+         */
+        public int clueX(int clue) {
+            return unsigned(format.clues() + Short.BYTES + clue * CLUE_SIZE);
+        }
+
+        /**
+         * Returns the y-axis position of the given clue
+         *
+         * @param clue the index of the clue
+         * @return the y-axis position of the clue
+         */
+        public int clueY(int clue) {
+            return unsigned(format.clues() + Short.BYTES + clue * CLUE_SIZE + 1);
+        }
+
+        /**
+         * Returns the value of the given clue
+         *
+         * @param clue the index of the clue
+         * @return the value of the clue
+         */
+        public int clueValue(int clue) {
+            return unsigned(format.clues() + Short.BYTES + clue * CLUE_SIZE + 2);
+        }
+
+        /**
+         * Decodes the row limits
+         *
+         * @return the row limits
+         */
+        public List<Integer> rowLimits() {
+            List<Integer> limits = new ArrayList<>(height());
+            for (int y = 0; y < height(); ++y) {
+                limits.add(rowLimit(y));
+            }
+            return limits;
+        }
+
+        /**
+         * Decodes the column limits
+         *
+         * @return the column limits
+         */
+        public List<Integer> columnLimits() {
+            List<Integer> limits = new ArrayList<>(width());
+            for (int x = 0; x < width(); ++x) {
+                limits.add(columnLimit(x));
+            }
+            return limits;
+        }
+
+        /**
+         * Decodes the ship lengths
+         *
+         * @return the ship lengths
+         */
+        public TreeMap<Integer, Integer> shipLimits() {
+            TreeMap<Integer, Integer> limits = new TreeMap<>();
+            for (int length = 1; length <= format.maxShipLength(); ++length) {
+                if (shipCount(length) > 0) {
+                    limits.put(length, shipCount(length));
+                }
+            }
+            return limits;
+        }
+
+        /**
+         * Decodes the clues
+         *
+         * @return the initial values of the clues
+         */
+        public List<InitValue<Integer>> initValues() {
+            List<InitValue<Integer>> initValues = new ArrayList<>(clueCount());
+            for (int clue = 0; clue < clueCount(); ++clue) {
+                initValues.add(new InitValue<>(new Coord(clueX(clue), clueY(clue)), clueValue(clue)));
+            }
+            return initValues;
+        }
+
+    }
+
+    /**
+     * Appends the records to the corpus file. The header is written when the file is
+     * created, the format of the existing file must match the format of the writer. The
+     * trailing partial record left by the interrupted writer is truncated before appending
+     */
+    public static final class Writer implements Closeable {
+        private final static int                BUFFER_SIZE = 1 << 16;
+
+        private final FileChannel               channel;
+        private final Format                    format;
+        private final ByteBuffer                buffer;
+
+        /**
+         * Constructs a new Writer object
+         *
+         * @param file the corpus file
+         * @param format the format of the records
+         * @throws IOException when the file cannot be opened or has another format
+         */
+        public Writer(Path file, Format format) throws IOException {
+            this.format = format;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, format.recordSize()));
+            try {
+                if (channel.size() == 0) {
+                    ByteBuffer header = header(format);
+                    while (header.hasRemaining()) {
+                        channel.write(header);
+                    }
+                } else if (!format.equals(readFormat(channel, file))) {
+                    throw new IOException("Corpus " + file + " has another format");
+                }
+                long end = HEADER_SIZE + (channel.size() - HEADER_SIZE) / format.recordSize() * format.recordSize();
+                channel.truncate(end);
+                channel.position(end);
+            } catch (IOException exception) {
+                channel.close();
+                throw exception;
+            }
+        }
+
+        /**
+         * Appends the puzzle
+         *
+         * @param initValues the clues
+         * @param rowLimits the row limits
+         * @param columnLimits the column limits
+         * @param shipLimits the ship lengths
+         * @throws IOException when the record cannot be written
+         * @throws IllegalArgumentException when the puzzle does not fit the format
+         */
+        public void append(List<InitValue<Integer>> initValues, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) throws IOException, IllegalArgumentException {
+            if (columnLimits.size() > format.maxWidth() || rowLimits.size() > format.maxHeight() || initValues.size() > format.maxClues()
+                || (!shipLimits.isEmpty() && shipLimits.lastKey() > format.maxShipLength())) {
+                throw new IllegalArgumentException("Puzzle does not fit the corpus format " + format);
+            }
+            if (buffer.remaining() < format.recordSize()) {
+                flush();
+            }
+            int base = buffer.position();
+            try {
+                put(base, initValues, rowLimits, columnLimits, shipLimits);
+            } catch (IllegalArgumentException exception) {
+                buffer.position(base);
+                throw exception;
+            }
+        }
+
+        /**
+         * Puts the record into the buffer
+         *
+         * @param base the position of the record in the buffer
+         * @param initValues the clues
+         * @param rowLimits the row limits
+         * @param columnLimits the column limits
+         * @param shipLimits the ship lengths
+         * @throws IllegalArgumentException when the value does not fit the unsigned byte
+         */
+        private void put(int base, List<InitValue<Integer>> initValues, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) throws IllegalArgumentException {
+            buffer.put(checked(columnLimits.size())).put(checked(rowLimits.size()));
+            buffer.position(base + format.rows());
+            rowLimits.forEach(limit -> buffer.put(checked(limit)));
+            buffer.position(base + format.columns());
+            columnLimits.forEach(limit -> buffer.put(checked(limit)));
+            buffer.position(base + format.fleet());
+            for (int length = 1; length <= format.maxShipLength(); ++length) {
+                buffer.put(checked(shipLimits.getOrDefault(length, 0)));
+            }
+            buffer.putShort((short) initValues.size());
+            for (InitValue<Integer> initValue : initValues) {
+                buffer.put(checked(initValue.coord().x())).put(checked(initValue.coord().y())).put(checked(initValue.value()));
+            }
+            while (buffer.position() < base + format.recordSize()) {
+                buffer.put((byte) 0);
+            }
+        }
+
+        /**
+         * Appends the generated puzzle
+         *
+         * @param solution the generated puzzle
+         * @param shipLimits the ship lengths of the generator
+         * @throws IOException when the record cannot be written
+         * @throws IllegalArgumentException when the puzzle does not fit the format
+         */
+        public void append(BattleshipsGenerator.Solution solution, TreeMap<Integer, Integer> shipLimits) throws IOException, IllegalArgumentException {
+            append(solution.initValues(), solution.rowLimits(), solution.columnLimits(), shipLimits);
+        }
+
+        /**
+         * Converts the value into the unsigned byte
+         *
+         * @param value the value
+         * @return the unsigned byte
+         * @throws IllegalArgumentException when the value does not fit the unsigned byte
+         */
+        private static byte checked(int value) throws IllegalArgumentException {
+            if (value < 0 || value > MAX_BYTE) {
+                throw new IllegalArgumentException("Value " + value + " does not fit the corpus record");
+            }
+            return (byte) value;
+        }
+
+        /**
+         * Writes the buffered records to the file
+         *
+         * @throws IOException when the records cannot be written
+         */
+        public void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Writes the buffered records and closes the file
+         *
+         * @throws IOException when the records cannot be written
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+
+    }
+
+    /**
+     * Constructs a new PuzzleCorpus object
+     *
+     * @param format the format of the records
+     * @param segments the mapped segments of the records
+     * @param size the number of the records
+     * @param segmentRecords the number of the records in every segment
+     */
+    private PuzzleCorpus(Format format, List<MappedByteBuffer> segments, long size, int segmentRecords) {
+        this.format = format;
+        this.segments = segments;
+        this.size = size;
+        this.segmentRecords = segmentRecords;
+    }
+
+    /**
+     * Creates the header of the corpus file
+     *
+     * @param format the format of the records
+     * @return the header ready to be written
+     */
+    private static ByteBuffer header(Format format) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(format.maxWidth()).putInt(format.maxHeight())
+            .putInt(format.maxShipLength()).putInt(format.maxClues()).putInt(format.recordSize()).putInt(0);
+        return header.flip();
+    }
+
+    /**
+     * Reads and validates the header of the corpus file
+     *
+     * @param channel the channel of the file
+     * @param file the corpus file
+     * @return the format of the records
+     * @throws IOException when the file cannot be read or is not the supported corpus
+     */
+    private static Format readFormat(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                break;
+            }
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+            throw new IOException("File " + file + " is not a puzzle corpus");
+        }
+        if (header.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Unsupported corpus version " + header.getInt(Integer.BYTES) + " in " + file);
+        }
+        try {
+            Format format = new Format(header.getInt(2 * Integer.BYTES), header.getInt(3 * Integer.BYTES),
+                header.getInt(4 * Integer.BYTES), header.getInt(5 * Integer.BYTES));
+            if (format.recordSize() != header.getInt(6 * Integer.BYTES)) {
+                throw new IOException("Corpus " + file + " has the inconsistent record size");
+            }
+            return format;
+        } catch (IllegalArgumentException exception) {
+            throw new IOException("Corpus " + file + " has the unsupported format", exception);
+        }
+    }
+
+    /**
+     * Memory maps the corpus file. The records appended after the opening are not visible.
+     * The trailing partial record is ignored
+     *
+     * @param file the corpus file
+     * @return the mapped corpus
+     * @throws IOException when the file cannot be read or is not the supported corpus
+     */
+    public static PuzzleCorpus open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Format format = readFormat(channel, file);
+            long size = (channel.size() - HEADER_SIZE) / format.recordSize();
+            int segmentRecords = MAX_SEGMENT / format.recordSize();
+            List<MappedByteBuffer> segments = new ArrayList<>();
+            for (long first = 0; first < size; first += segmentRecords) {
+                long records = Math.min(segmentRecords, size - first);
+                segments.add(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * format.recordSize(), records * format.recordSize()));
+            }
+            return new PuzzleCorpus(format, segments, size, segmentRecords);
+        }
+    }
+
+    /**
+     * Returns the format of the records
+     *
+     * @return the format of the records
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the number of the puzzles
+     *
+     * @return the number of the puzzles
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Creates the new view. The views are not thread-safe, every thread should use its own view
+     *
+     * @return the new view
+     */
+    public View view() {
+        return new View();
+    }
+
+    /**
+     * Passes every record of the given range to the action through the single reused view
+     *
+     * @param first the index of the first record
+     * @param last the index after the last record
+     * @param action the action
+     */
+    public void forEach(long first, long last, Consumer<View> action) {
+        View view = new View();
+        for (long index = first; index < last; ++index) {
+            action.accept(view.moveTo(index));
+        }
+    }
+
+    /**
+     * Passes every record to the action through the single reused view
+     *
+     * @param action the action
+     */
+    public void forEach(Consumer<View> action) {
+        forEach(0, size, action);
+    }
+
+}
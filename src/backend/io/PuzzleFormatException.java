@@ -0,0 +1,46 @@
+package backend.io;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the puzzle text is malformed. Carries the byte offset of the offending
+ * puzzle and the column of the offending character
+ */
+public class PuzzleFormatException extends IOException {
+    private final static long                   serialVersionUID = 1L;
+
+    private final long                          offset;
+    private final int                           column;
+
+    /**
+     * Constructs a new PuzzleFormatException object
+     *
+     * @param message the description of the error
+     * @param offset the byte offset of the puzzle's line
+     * @param column the column of the error, counted from 1
+     */
+    public PuzzleFormatException(String message, long offset, int column) {
+        super("Puzzle at byte " + offset + ", column " + column + ": " + message);
+        this.offset = offset;
+        this.column = column;
+    }
+
+    /**
+     * Returns the byte offset of the puzzle's line
+     *
+     * @return the byte offset of the puzzle's line
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the column of the error, counted from 1
+     *
+     * @return the column of the error
+     */
+    public int getColumn() {
+        return column;
+    }
+
+}
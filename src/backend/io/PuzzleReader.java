@@ -0,0 +1,638 @@
+package backend.io;
+
+import backend.utility.Coord;
+import backend.utility.InitValue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reader of the puzzle text format. Every line holds one puzzle made of four sections
+ * separated by the semicolons: the row limits, the column limits, the fleet given as the
+ * ship length and count pairs and the clues given as the x-axis position, the y-axis
+ * position and the value. The fleet and the clue sections may be empty, the blank lines
+ * and the lines starting with '#' are skipped, e.g.
+ * <pre>
+ * # rows ; columns ; fleet ; clues
+ * 3,1,2,3,0,1 ; 3,0,3,0,1,3 ; 1:3,2:2,3:1 ; 2:2:4
+ * </pre>
+ * The input is read through the mapped windows and parsed byte by byte. The parallel
+ * streams split the input into the chunks on the line boundaries
+ */
+public class PuzzleReader {
+    private final static int                    WINDOW_SIZE = 1 << 26;
+    private final static int                    SPLIT_SIZE = 1 << 16;
+    private final static int                    SCAN_SIZE = 1 << 12;
+
+    private final int                           windowSize;
+
+    /**
+     * Represents the parsed puzzle. The arrays are owned by the record and shall not be
+     * modified
+     *
+     * @param offset the byte offset of the puzzle's line, -1 when the puzzle was not read
+     * @param rows the row limits
+     * @param columns the column limits
+     * @param ships the ship counts indexed by the ship length decreased by one
+     * @param clues the clues stored as the consecutive x-axis position, y-axis position
+     *              and value triples
+     */
+    public record Puzzle(long offset, int[] rows, int[] columns, int[] ships, int[] clues) {
+
+        /**
+         * Creates the puzzle from the parameters taken by the solver
+         *
+         * @param initValues the clues
+         * @param rowLimits the row limits
+         * @param columnLimits the column limits
+         * @param shipLimits the ship counts by their lengths
+         * @return the puzzle
+         */
+        public static Puzzle of(List<InitValue<Integer>> initValues, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) {
+            int[] ships = new int[shipLimits.isEmpty() ? 0 : shipLimits.lastKey()];
+            shipLimits.forEach((length, count) -> ships[length - 1] = count);
+            int[] clues = new int[initValues.size() * 3];
+            for (int i = 0; i < initValues.size(); ++i) {
+                InitValue<Integer> clue = initValues.get(i);
+                clues[3 * i] = clue.coord().x();
+                clues[3 * i + 1] = clue.coord().y();
+                clues[3 * i + 2] = clue.value();
+            }
+            return new Puzzle(-1, rowLimits.stream().mapToInt(Integer::intValue).toArray(),
+                columnLimits.stream().mapToInt(Integer::intValue).toArray(), ships, clues);
+        }
+
+        /**
+         * Returns the board width
+         *
+         * @return the board width
+         */
+        public int width() {
+            return columns.length;
+        }
+
+        /**
+         * Returns the board height
+         *
+         * @return the board height
+         */
+        public int height() {
+            return rows.length;
+        }
+
+        /**
+         * Returns the row limits in the format taken by the solver
+         *
+         * @return the row limits
+         */
+        public List<Integer> rowLimits() {
+            return Arrays.stream(rows).boxed().toList();
+        }
+
+        /**
+         * Returns the column limits in the format taken by the solver
+         *
+         * @return the column limits
+         */
+        public List<Integer> columnLimits() {
+            return Arrays.stream(columns).boxed().toList();
+        }
+
+        /**
+         * Returns the ship counts in the format taken by the solver. The lengths without
+         * ships are omitted
+         *
+         * @return the ship counts by their lengths
+         */
+        public TreeMap<Integer, Integer> shipLimits() {
+            TreeMap<Integer, Integer> shipLimits = new TreeMap<>();
+            for (int length = 1; length <= ships.length; ++length) {
+                if (ships[length - 1] != 0) {
+                    shipLimits.put(length, ships[length - 1]);
+                }
+            }
+            return shipLimits;
+        }
+
+        /**
+         * Returns the clues in the format taken by the solver
+         *
+         * @return the clues
+         */
+        public List<InitValue<Integer>> initValues() {
+            List<InitValue<Integer>> initValues = new ArrayList<>(clues.length / 3);
+            for (int i = 0; i < clues.length; i += 3) {
+                initValues.add(new InitValue<>(new Coord(clues[i], clues[i + 1]), clues[i + 2]));
+            }
+            return initValues;
+        }
+
+        /**
+         * Formats the puzzle as the line of the puzzle text format without the line separator
+         *
+         * @return the formatted puzzle
+         */
+        public String format() {
+            StringBuilder builder = new StringBuilder();
+            join(builder, rows);
+            builder.append(';');
+            join(builder, columns);
+            builder.append(';');
+            boolean first = true;
+            for (int length = 1; length <= ships.length; ++length) {
+                if (ships[length - 1] != 0) {
+                    builder.append(first ? "" : ",").append(length).append(':').append(ships[length - 1]);
+                    first = false;
+                }
+            }
+            builder.append(';');
+            for (int i = 0; i < clues.length; i += 3) {
+                builder.append(i == 0 ? "" : ",").append(clues[i]).append(':').append(clues[i + 1]).append(':').append(clues[i + 2]);
+            }
+            return builder.toString();
+        }
+
+        /**
+         * Appends the comma separated values
+         *
+         * @param builder the builder
+         * @param values the values
+         */
+        private static void join(StringBuilder builder, int[] values) {
+            for (int i = 0; i < values.length; ++i) {
+                builder.append(i == 0 ? "" : ",").append(values[i]);
+            }
+        }
+
+    }
+
+    /**
+     * The input providing the windows of its bytes
+     */
+    private interface Source {
+
+        /**
+         * Returns the window of the input
+         *
+         * @param position the offset of the window
+         * @param length the length of the window
+         * @return the window positioned at its first byte
+         * @throws IOException when the input cannot be read
+         */
+        ByteBuffer window(long position, int length) throws IOException;
+
+    }
+
+    /**
+     * The parser of the single puzzle line. Reuses its scratch array between the lines
+     */
+    private static final class Parser {
+        private ByteBuffer                      buffer;
+        private int                             index;
+        private int                             start;
+        private int                             end;
+        private long                            offset;
+        private int[]                           scratch = new int[64];
+        private int                             size;
+
+        /**
+         * Parses the line between the given indices of the buffer
+         *
+         * @param buffer the buffer
+         * @param start the index of the line's first byte
+         * @param end the index after the line's last byte, excluding the line separator
+         * @param offset the byte offset of the line in the input
+         * @return the parsed puzzle or null when the line is blank or a comment
+         * @throws PuzzleFormatException when the line is malformed
+         */
+        private Puzzle parse(ByteBuffer buffer, int start, int end, long offset) throws PuzzleFormatException {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+            this.offset = offset;
+            this.index = start;
+            skipSpaces();
+            if (index == this.end || buffer.get(index) == '#') {
+                return null;
+            }
+            int[] rows = parseLimits();
+            expect(';');
+            int[] columns = parseLimits();
+            expect(';');
+            int[] ships = parseFleet();
+            expect(';');
+            int[] clues = parseClues(columns.length, rows.length);
+            if (index != this.end) {
+                throw error("Expected end of line but found " + describe());
+            }
+            return new Puzzle(offset, rows, columns, ships, clues);
+        }
+
+        /**
+         * Skips the spaces and the tabulators
+         */
+        private void skipSpaces() {
+            while (index < end && (buffer.get(index) == ' ' || buffer.get(index) == '\t')) {
+                ++index;
+            }
+        }
+
+        /**
+         * Checks if the next character after the spaces is the given one and consumes it
+         *
+         * @param expected the character
+         * @return whether the character was consumed
+         */
+        private boolean consume(char expected) {
+            skipSpaces();
+            if (index < end && buffer.get(index) == expected) {
+                ++index;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Consumes the expected character
+         *
+         * @param expected the expected character
+         * @throws PuzzleFormatException when the line holds another character
+         */
+        private void expect(char expected) throws PuzzleFormatException {
+            if (!consume(expected)) {
+                throw error("Expected '" + expected + "' but found " + describe());
+            }
+        }
+
+        /**
+         * Parses the non-negative decimal number
+         *
+         * @return the number
+         * @throws PuzzleFormatException when the line does not hold a number
+         */
+        private int parseNumber() throws PuzzleFormatException {
+            skipSpaces();
+            if (index == end || buffer.get(index) < '0' || buffer.get(index) > '9') {
+                throw error("Expected number but found " + describe());
+            }
+            int number = 0;
+            while (index < end && buffer.get(index) >= '0' && buffer.get(index) <= '9') {
+                if (number > (Integer.MAX_VALUE - 9) / 10) {
+                    throw error("Number is too large");
+                }
+                number = number * 10 + buffer.get(index++) - '0';
+            }
+            return number;
+        }
+
+        /**
+         * Stores the value in the scratch array
+         *
+         * @param value the value
+         */
+        private void push(int value) {
+            if (size == scratch.length) {
+                scratch = Arrays.copyOf(scratch, 2 * size);
+            }
+            scratch[size++] = value;
+        }
+
+        /**
+         * Parses the non-empty comma separated limits
+         *
+         * @return the limits
+         * @throws PuzzleFormatException when the section is malformed
+         */
+        private int[] parseLimits() throws PuzzleFormatException {
+            size = 0;
+            do {
+                push(parseNumber());
+            } while (consume(','));
+            return Arrays.copyOf(scratch, size);
+        }
+
+        /**
+         * Parses the possibly empty comma separated ship length and count pairs
+         *
+         * @return the ship counts indexed by the ship length decreased by one
+         * @throws PuzzleFormatException when the section is malformed
+         */
+        private int[] parseFleet() throws PuzzleFormatException {
+            size = 0;
+            skipSpaces();
+            if (index < end && buffer.get(index) == ';') {
+                return new int[0];
+            }
+            int longest = 0;
+            do {
+                int column = index;
+                int length = parseNumber();
+                expect(':');
+                int count = parseNumber();
+                if (length == 0) {
+                    index = column;
+                    throw error("Ship length must be positive");
+                }
+                for (int i = 0; i < size; i += 2) {
+                    if (scratch[i] == length) {
+                        index = column;
+                        throw error("Duplicated ship length " + length);
+                    }
+                }
+                push(length);
+                push(count);
+                longest = Math.max(longest, length);
+            } while (consume(','));
+            int[] ships = new int[longest];
+            for (int i = 0; i < size; i += 2) {
+                ships[scratch[i] - 1] = scratch[i + 1];
+            }
+            return ships;
+        }
+
+        /**
+         * Parses the possibly empty comma separated clues
+         *
+         * @param width the board width
+         * @param height the board height
+         * @return the clues stored as the consecutive position and value triples
+         * @throws PuzzleFormatException when the section is malformed or the clue lies
+         *                               outside the board
+         */
+        private int[] parseClues(int width, int height) throws PuzzleFormatException {
+            size = 0;
+            skipSpaces();
+            if (index == end) {
+                return new int[0];
+            }
+            do {
+                int column = index;
+                int x = parseNumber();
+                expect(':');
+                int y = parseNumber();
+                expect(':');
+                int value = parseNumber();
+                if (x >= width || y >= height) {
+                    index = column;
+                    throw error("Clue (" + x + ", " + y + ") lies outside the board");
+                }
+                push(x);
+                push(y);
+                push(value);
+            } while (consume(','));
+            skipSpaces();
+            return Arrays.copyOf(scratch, size);
+        }
+
+        /**
+         * Describes the current character
+         *
+         * @return the description of the current character
+         */
+        private String describe() {
+            return index == end ? "end of line" : "'" + (char) (buffer.get(index) & 0xFF) + "'";
+        }
+
+        /**
+         * Creates the exception at the current character
+         *
+         * @param message the description of the error
+         * @return the exception at the current character
+         */
+        private PuzzleFormatException error(String message) {
+            return new PuzzleFormatException(message, offset, index - start + 1);
+        }
+
+    }
+
+    /**
+     * The chunk of the input starting and ending on the line boundaries. The chunk is
+     * traversed through the windows of the input, the line crossing the window's end is
+     * parsed from the next window starting at the line
+     */
+    private final class Chunk implements Spliterator<Puzzle> {
+        private final Source                    source;
+        private final long                      end;
+        private final Parser                    parser = new Parser();
+        private long                            position;
+        private ByteBuffer                      window;
+        private long                            windowStart;
+
+        /**
+         * Constructs a new Chunk object
+         *
+         * @param source the input
+         * @param start the offset of the chunk's first line
+         * @param end the offset after the chunk's last line
+         */
+        private Chunk(Source source, long start, long end) {
+            this.source = source;
+            this.position = start;
+            this.end = end;
+        }
+
+        /**
+         * Parses the next puzzle of the chunk
+         *
+         * @param action the consumer of the puzzle
+         * @return whether the puzzle was parsed
+         * @throws UncheckedIOException when the input cannot be read or is malformed, the
+         *         malformed line is skipped, so the traversal may continue after it
+         */
+        @Override
+        public boolean tryAdvance(Consumer<? super Puzzle> action) throws UncheckedIOException {
+            try {
+                while (true) {
+                    if (window == null || !window.hasRemaining()) {
+                        if (position >= end) {
+                            return false;
+                        }
+                        window = source.window(position, (int) Math.min(windowSize, end - position));
+                        windowStart = position;
+                    }
+                    int first = window.position(), limit = window.limit(), last = first;
+                    while (last < limit && window.get(last) != '\n') {
+                        ++last;
+                    }
+                    if (last == limit && windowStart + limit < end) {
+                        if (first == 0) {
+                            long offset = position;
+                            position = skipLine(windowStart + limit);
+                            window = null;
+                            throw new PuzzleFormatException("Line exceeds " + windowSize + " bytes", offset, 1);
+                        }
+                        window = null;
+                        continue;
+                    }
+                    window.position(Math.min(last + 1, limit));
+                    long offset = position;
+                    position = windowStart + window.position();
+                    Puzzle puzzle = parser.parse(window, first, last, offset);
+                    if (puzzle != null) {
+                        action.accept(puzzle);
+                        return true;
+                    }
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        /**
+         * Finds the start of the line following the given offset
+         *
+         * @param from the offset inside the skipped line
+         * @return the offset of the next line or the end of the chunk
+         * @throws IOException when the input cannot be read
+         */
+        private long skipLine(long from) throws IOException {
+            for (long scan = from; scan < end; scan += SCAN_SIZE) {
+                ByteBuffer bytes = source.window(scan, (int) Math.min(SCAN_SIZE, end - scan));
+                for (int i = 0; i < bytes.limit(); ++i) {
+                    if (bytes.get(i) == '\n') {
+                        return scan + i + 1;
+                    }
+                }
+            }
+            return end;
+        }
+
+        /**
+         * Splits the untraversed chunk in half on the first line boundary after its middle
+         *
+         * @return the first half of the chunk or null when the chunk is too small
+         * @throws UncheckedIOException when the input cannot be read
+         */
+        @Override
+        public Spliterator<Puzzle> trySplit() throws UncheckedIOException {
+            if (window != null || end - position < 2L * SPLIT_SIZE) {
+                return null;
+            }
+            try {
+                for (long scan = position + (end - position) / 2 - 1; scan < end; scan += SCAN_SIZE) {
+                    ByteBuffer bytes = source.window(scan, (int) Math.min(SCAN_SIZE, end - scan));
+                    for (int i = 0; i < bytes.limit(); ++i) {
+                        if (bytes.get(i) == '\n') {
+                            long boundary = scan + i + 1;
+                            if (boundary >= end) {
+                                return null;
+                            }
+                            Chunk prefix = new Chunk(source, position, boundary);
+                            position = boundary;
+                            return prefix;
+                        }
+                    }
+                }
+                return null;
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        /**
+         * Estimates the number of the puzzles in the chunk
+         *
+         * @return the estimated number of the puzzles
+         */
+        @Override
+        public long estimateSize() {
+            return (end - position) / 32 + 1;
+        }
+
+        /**
+         * Returns the characteristics of the chunk
+         *
+         * @return the characteristics of the chunk
+         */
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+
+    }
+
+    /**
+     * Constructs a new PuzzleReader object
+     */
+    public PuzzleReader() {
+        this(WINDOW_SIZE);
+    }
+
+    /**
+     * Constructs a new PuzzleReader object mapping the windows of the given size
+     *
+     * @param windowSize the size of the mapped windows, bounds the length of the line
+     */
+    PuzzleReader(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Streams the puzzles of the file in the order of their lines. The file is closed
+     * with the stream, the parallel stream parses the chunks of the file concurrently.
+     * The malformed input is reported with the {@link UncheckedIOException} wrapping
+     * the {@link PuzzleFormatException}, the iterator of the stream may continue after
+     * the malformed line
+     *
+     * @param file the puzzle file
+     * @return the stream of the puzzles
+     * @throws IOException when the file cannot be opened
+     */
+    public Stream<Puzzle> stream(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            Source source = (position, length) -> channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            return StreamSupport.stream(new Chunk(source, 0, channel.size()), false).onClose(() -> {
+                try {
+                    channel.close();
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Streams the puzzles stored as the ASCII bytes between the position and the limit
+     * of the given buffer. The position of the buffer is not changed
+     *
+     * @param bytes the buffer
+     * @return the stream of the puzzles
+     */
+    public Stream<Puzzle> stream(ByteBuffer bytes) {
+        ByteBuffer input = bytes.slice();
+        Source source = (position, length) -> input.slice((int) position, length);
+        return StreamSupport.stream(new Chunk(source, 0, input.limit()), false);
+    }
+
+    /**
+     * Reads the puzzles stored as the ASCII bytes between the position and the limit of
+     * the given buffer. The position of the buffer is not changed
+     *
+     * @param bytes the buffer
+     * @return the puzzles in the order of their lines
+     * @throws PuzzleFormatException when the input is malformed
+     */
+    public List<Puzzle> read(ByteBuffer bytes) throws PuzzleFormatException {
+        try {
+            return stream(bytes).toList();
+        } catch (UncheckedIOException exception) {
+            if (exception.getCause() instanceof PuzzleFormatException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Buffer cannot fail reading", exception);
+        }
+    }
+
+}
@@ -0,0 +1,268 @@
+package backend.io;
+
+import backend.utility.Coord;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Compiled rule table stored in the binary file. The file consists of the header with
+ * the magic number, the version, the number of the states and the directions and the
+ * checksum of the payload, followed by the direction offsets, the states, the bitmask of the
+ * unrestricted directions of every state and the table of the allowed neighbor bitmasks
+ * indexed by the state and the direction. The unrestricted direction allows every state in
+ * the table, its flag tells it apart from the rule listing all of the states. The loaded file
+ * is memory mapped and the bitmasks are read in place
+ */
+public final class RuleTableFile {
+    private final static int                    MAGIC = 0x42535254;
+    private final static int                    VERSION = 2;
+    private final static int                    HEADER_SIZE = 5 * Integer.BYTES;
+    private final static int                    MAX_STATES = Integer.SIZE;
+    private final static int                    MAX_DIRECTIONS = Integer.SIZE;
+    private final static int                    EVERY_STATE = -1;
+
+    private final ByteBuffer                    buffer;
+    private final List<Coord>                   directions;
+    private final int[]                         states;
+    private final int[]                         indices;
+    private final int                           flags;
+    private final int                           table;
+
+    /**
+     * Constructs a new RuleTableFile object over the validated buffer
+     *
+     * @param buffer the buffer of the file
+     * @param directions the direction offsets
+     * @param states the ruled states
+     */
+    private RuleTableFile(ByteBuffer buffer, List<Coord> directions, int[] states) {
+        this.buffer = buffer;
+        this.directions = directions;
+        this.states = states;
+        this.indices = new int[MAX_STATES];
+        Arrays.fill(indices, -1);
+        for (int i = 0; i < states.length; ++i) {
+            indices[states[i]] = i;
+        }
+        this.flags = HEADER_SIZE + directions.size() * 2 * Integer.BYTES + states.length * Integer.BYTES;
+        this.table = flags + states.length * Integer.BYTES;
+    }
+
+    /**
+     * Returns the bitmask of the given states
+     *
+     * @param values the states
+     * @return the bitmask of the states
+     * @throws IllegalArgumentException when the state cannot be stored in the bitmask
+     */
+    private static int mask(Set<Integer> values) throws IllegalArgumentException {
+        int mask = 0;
+        for (Integer value : values) {
+            if (value < 0 || value >= MAX_STATES) {
+                throw new IllegalArgumentException("State " + value + " cannot be stored in the rule table");
+            }
+            mask |= 1 << value;
+        }
+        return mask;
+    }
+
+    /**
+     * Writes the rules read by the {@link MAPReader} into the binary file. The file is
+     * replaced only after the new table is completely written
+     *
+     * @param file the binary file
+     * @param rules the rules
+     * @throws IOException when the file cannot be written
+     * @throws IllegalArgumentException when the state or the number of the directions cannot be stored in the rule table
+     */
+    public static void write(Path file, Map<Integer, Map<Coord, Set<Integer>>> rules) throws IOException, IllegalArgumentException {
+        int[] states = rules.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        mask(rules.keySet());
+        TreeSet<Coord> offsets = new TreeSet<>(Comparator.comparingInt(Coord::y).thenComparingInt(Coord::x));
+        rules.values().forEach(record -> offsets.addAll(record.keySet()));
+        if (offsets.size() > MAX_DIRECTIONS) {
+            throw new IllegalArgumentException(offsets.size() + " directions cannot be stored in the rule table");
+        }
+        ByteBuffer payload = ByteBuffer.allocate(offsets.size() * 2 * Integer.BYTES + states.length * (2 + offsets.size()) * Integer.BYTES);
+        for (Coord offset : offsets) {
+            payload.putInt(offset.x()).putInt(offset.y());
+        }
+        for (int state : states) {
+            payload.putInt(state);
+        }
+        for (int state : states) {
+            Map<Coord, Set<Integer>> record = rules.get(state);
+            int unrestricted = 0, d = 0;
+            for (Coord offset : offsets) {
+                unrestricted |= record.containsKey(offset) ? 0 : 1 << d;
+                ++d;
+            }
+            payload.putInt(unrestricted);
+        }
+        for (int state : states) {
+            Map<Coord, Set<Integer>> record = rules.get(state);
+            for (Coord offset : offsets) {
+                Set<Integer> allowed = record.get(offset);
+                payload.putInt(allowed == null ? EVERY_STATE : mask(allowed));
+            }
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(payload.array());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(states.length)
+            .putInt(offsets.size()).putInt((int) checksum.getValue());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            header.flip();
+            payload.flip();
+            while (header.hasRemaining() || payload.hasRemaining()) {
+                channel.write(new ByteBuffer[]{header, payload});
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Memory maps the binary file and validates its header and checksum
+     *
+     * @param file the binary file
+     * @return the mapped rule table
+     * @throws IOException when the file cannot be read, has another version or is corrupted
+     */
+    public static RuleTableFile load(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Rule table " + file + " is truncated");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("File " + file + " is not a rule table");
+        }
+        if (buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Unsupported rule table version " + buffer.getInt(Integer.BYTES) + " in " + file);
+        }
+        int stateCount = buffer.getInt(2 * Integer.BYTES), directionCount = buffer.getInt(3 * Integer.BYTES);
+        if (stateCount < 0 || stateCount > MAX_STATES || directionCount < 0 || directionCount > MAX_DIRECTIONS
+            || buffer.capacity() != HEADER_SIZE + ((long) directionCount * 2 + (long) stateCount * (2 + directionCount)) * Integer.BYTES) {
+            throw new IOException("Rule table " + file + " has the invalid size");
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+        if ((int) checksum.getValue() != buffer.getInt(4 * Integer.BYTES)) {
+            throw new IOException("Rule table " + file + " is corrupted");
+        }
+        List<Coord> directions = new ArrayList<>(directionCount);
+        for (int d = 0, offset = HEADER_SIZE; d < directionCount; ++d, offset += 2 * Integer.BYTES) {
+            directions.add(new Coord(buffer.getInt(offset), buffer.getInt(offset + Integer.BYTES)));
+        }
+        int[] states = new int[stateCount];
+        for (int i = 0, offset = HEADER_SIZE + directionCount * 2 * Integer.BYTES; i < stateCount; ++i, offset += Integer.BYTES) {
+            states[i] = buffer.getInt(offset);
+            if (states[i] < 0 || states[i] >= MAX_STATES) {
+                throw new IOException("Rule table " + file + " holds the invalid state " + states[i]);
+            }
+        }
+        return new RuleTableFile(buffer, Collections.unmodifiableList(directions), states);
+    }
+
+    /**
+     * Returns the direction offsets of the table
+     *
+     * @return the direction offsets
+     */
+    public List<Coord> getDirections() {
+        return directions;
+    }
+
+    /**
+     * Returns the ruled states in the ascending order
+     *
+     * @return the ruled states
+     */
+    public int[] getStates() {
+        return states.clone();
+    }
+
+    /**
+     * Returns the index of the state's row in the table
+     *
+     * @param state the state
+     * @return the index of the state's row, -1 when the state is not ruled
+     */
+    public int indexOf(int state) {
+        return state < 0 || state >= MAX_STATES ? -1 : indices[state];
+    }
+
+    /**
+     * Returns the read-only view of the mapped table of the allowed neighbor bitmasks. The
+     * bitmask of the state and the direction lies at the index of the state's row multiplied
+     * by the number of the directions plus the index of the direction
+     *
+     * @return the mapped table of the allowed neighbor bitmasks
+     */
+    public IntBuffer getTable() {
+        return buffer.slice(table, states.length * directions.size() * Integer.BYTES).asReadOnlyBuffer().asIntBuffer();
+    }
+
+    /**
+     * Returns the bitmask of the states allowed at the neighbor of the given state. The
+     * bitmask is read directly from the mapped file
+     *
+     * @param state the state of the cell
+     * @param direction the index of the neighbor's direction
+     * @return the bitmask of the allowed states, every state when the direction is unrestricted
+     *         and 0 when the state is not ruled
+     */
+    public int allowed(int state, int direction) {
+        int index = indexOf(state);
+        return index < 0 ? 0 : buffer.getInt(table + (index * directions.size() + direction) * Integer.BYTES);
+    }
+
+    /**
+     * Checks if the rules of the state do not restrict the neighbor in the given direction
+     *
+     * @param state the state of the cell
+     * @param direction the index of the neighbor's direction
+     * @return whether the direction is unrestricted, false when the state is not ruled
+     */
+    public boolean isUnrestricted(int state, int direction) {
+        int index = indexOf(state);
+        return index >= 0 && (buffer.getInt(flags + index * Integer.BYTES) >>> direction & 1) != 0;
+    }
+
+    /**
+     * Converts the table into the rules in the format read by the {@link MAPReader}
+     *
+     * @return the rules
+     */
+    public Map<Integer, Map<Coord, Set<Integer>>> toMap() {
+        Map<Integer, Map<Coord, Set<Integer>>> rules = new HashMap<>();
+        for (int state : states) {
+            Map<Coord, Set<Integer>> record = new HashMap<>();
+            for (int d = 0; d < directions.size(); ++d) {
+                if (isUnrestricted(state, d)) {
+                    continue;
+                }
+                Set<Integer> allowed = new HashSet<>();
+                for (int bits = allowed(state, d); bits != 0; bits &= bits - 1) {
+                    allowed.add(Integer.numberOfTrailingZeros(bits));
+                }
+                record.put(directions.get(d), allowed);
+            }
+            rules.put(state, record);
+        }
+        return rules;
+    }
+
+}
@@ -0,0 +1,476 @@
+package backend.server;
+
+import backend.boards.PackedSolution;
+import backend.facades.BattleshipsGenerator;
+import backend.facades.BattleshipsSolver;
+import backend.io.PuzzleReader;
+import backend.solvers.NoSolutionException;
+import backend.utility.Coord;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+
+/**
+ * HTTP service solving, counting, validating and generating the Battleships puzzles. Every
+ * endpoint takes the POST request with the JSON body, or the binary body when the content
+ * type is {@value #BINARY_TYPE}, and answers in the same encoding (see {@link Messages}).
+ * The errors are answered with the JSON object holding the "error" message. The requests are
+ * handled on the virtual threads when the runtime provides them, otherwise on the pool of
+ * the platform threads. Every request is computed within the time budget, the request over
+ * the budget is interrupted and answered with the status 503. The boards are limited to
+ * {@value #MAX_SIDE} cells per side and the clues to the alphabet of the solver. The solver
+ * with its compiled rule tables and the rule maps are shared by all requests
+ */
+public class BattleshipsService implements Closeable {
+    private final static String                                 JSON_TYPE = "application/json";
+    private final static String                                 BINARY_TYPE = "application/octet-stream";
+    private final static int                                    MAX_BODY = 1 << 20;
+    private final static int                                    BACKLOG = 1024;
+    private final static int                                    POOL_THREADS_FACTOR = 4;
+    private final static int                                    DEFAULT_RESOLUTION = 2;
+    private final static int                                    MAX_SIDE = 32;
+    private final static Duration                               DEFAULT_BUDGET = Duration.ofSeconds(10);
+    private final static int                                    SOLVABLE = 1;
+    private final static int                                    UNIQUE = 2;
+    private final static int                                    CORRECT = 4;
+
+    private final BattleshipsSolver                             solver;
+    private final Map<Integer, Map<Coord, Set<Integer>>>        constrains;
+    private final Duration                                      budget;
+    private final ExecutorService                               executor;
+    private final ExecutorService                               workers;
+    private final HttpServer                                    server;
+
+    /**
+     * Represents the received request
+     *
+     * @param body the body of the request
+     * @param binary whether the body is binary
+     */
+    private record Request(byte[] body, boolean binary) {
+
+        /**
+         * Returns the body as the JSON object
+         *
+         * @return the members of the JSON object
+         * @throws IllegalArgumentException when the body is not the JSON object
+         */
+        private Map<?, ?> json() throws IllegalArgumentException {
+            return Messages.object(Json.parse(new String(body, StandardCharsets.UTF_8)), "body");
+        }
+
+    }
+
+    /**
+     * Represents the response to the request
+     *
+     * @param status the HTTP status
+     * @param body the body of the response
+     * @param binary whether the body is binary
+     */
+    private record Response(int status, byte[] body, boolean binary) {
+
+        /**
+         * Creates the successful JSON response
+         *
+         * @param body the JSON body
+         * @return the response
+         */
+        private static Response json(CharSequence body) {
+            return new Response(200, body.toString().getBytes(StandardCharsets.UTF_8), false);
+        }
+
+        /**
+         * Creates the successful binary response
+         *
+         * @param body the binary body
+         * @return the response
+         */
+        private static Response binary(byte[] body) {
+            return new Response(200, body, true);
+        }
+
+        /**
+         * Creates the error response
+         *
+         * @param status the HTTP status
+         * @param message the description of the error
+         * @return the response
+         */
+        private static Response error(int status, String message) {
+            return new Response(status, ("{\"error\":" + Json.quote(message) + "}").getBytes(StandardCharsets.UTF_8), false);
+        }
+
+    }
+
+    /**
+     * The handler of the single endpoint
+     */
+    private interface Endpoint {
+
+        /**
+         * Handles the request
+         *
+         * @param request the request
+         * @return the response
+         * @throws NoSolutionException when the puzzle cannot be solved
+         * @throws IllegalArgumentException when the request is malformed
+         */
+        Response handle(Request request) throws NoSolutionException, IllegalArgumentException;
+
+    }
+
+    /**
+     * Constructs a new BattleshipsService object with the default solver
+     *
+     * @param constrains the constrains of the board states
+     * @param address the address of the service, the port 0 binds the free port
+     * @throws IOException when the address cannot be bound
+     */
+    public BattleshipsService(Map<Integer, Map<Coord, Set<Integer>>> constrains, InetSocketAddress address) throws IOException {
+        this(new BattleshipsSolver(constrains), constrains, address);
+    }
+
+    /**
+     * Constructs a new BattleshipsService object with the default time budget of the requests
+     *
+     * @param solver the solver shared by the requests
+     * @param constrains the constrains of the board states used by the generator
+     * @param address the address of the service, the port 0 binds the free port
+     * @throws IOException when the address cannot be bound
+     */
+    public BattleshipsService(BattleshipsSolver solver, Map<Integer, Map<Coord, Set<Integer>>> constrains, InetSocketAddress address) throws IOException {
+        this(solver, constrains, address, DEFAULT_BUDGET);
+    }
+
+    /**
+     * Constructs a new BattleshipsService object
+     *
+     * @param solver the solver shared by the requests
+     * @param constrains the constrains of the board states used by the generator
+     * @param address the address of the service, the port 0 binds the free port
+     * @param budget the time budget of a single request
+     * @throws IOException when the address cannot be bound
+     */
+    public BattleshipsService(BattleshipsSolver solver, Map<Integer, Map<Coord, Set<Integer>>> constrains, InetSocketAddress address, Duration budget) throws IOException {
+        this.solver = solver;
+        this.constrains = constrains;
+        this.budget = budget;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = createExecutor("battleships-service");
+        this.workers = createExecutor("battleships-worker");
+        server.setExecutor(executor);
+        register("/solve", this::solve);
+        register("/count", this::count);
+        register("/validate", this::validate);
+        register("/generate", this::generate);
+    }
+
+    /**
+     * Creates the virtual-thread-per-task executor through the reflection, as the virtual
+     * threads are not available on every supported runtime. Falls back to the fixed pool
+     * of the platform threads
+     *
+     * @param name the name of the platform threads
+     * @return the executor of the requests
+     */
+    private static ExecutorService createExecutor(String name) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            return Executors.newFixedThreadPool(POOL_THREADS_FACTOR * Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Starts accepting the requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the bound address of the service
+     *
+     * @return the bound address
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops the service and the threads handling the requests
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Registers the endpoint at the given path
+     *
+     * @param path the path of the endpoint
+     * @param endpoint the endpoint
+     */
+    private void register(String path, Endpoint endpoint) {
+        server.createContext(path, exchange -> {
+            try (exchange) {
+                Response response = dispatch(exchange, path, endpoint);
+                exchange.getResponseHeaders().set("Content-Type", response.binary() ? BINARY_TYPE : JSON_TYPE);
+                exchange.sendResponseHeaders(response.status(), response.body().length);
+                exchange.getResponseBody().write(response.body());
+            }
+        });
+    }
+
+    /**
+     * Reads the request and passes it to the endpoint computing within the time budget
+     *
+     * @param exchange the exchange
+     * @param path the path of the endpoint
+     * @param endpoint the endpoint
+     * @return the response
+     * @throws IOException when the request cannot be read
+     */
+    private Response dispatch(HttpExchange exchange, String path, Endpoint endpoint) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals(path)) {
+            return Response.error(404, "Unknown endpoint " + exchange.getRequestURI().getPath());
+        }
+        if (!exchange.getRequestMethod().equals("POST")) {
+            return Response.error(405, "Endpoint accepts only POST");
+        }
+        byte[] body = readBody(exchange.getRequestBody());
+        if (body == null) {
+            return Response.error(413, "Body exceeds " + MAX_BODY + " bytes");
+        }
+        String type = exchange.getRequestHeaders().getFirst("Content-Type");
+        Request request = new Request(body, type != null && type.startsWith(BINARY_TYPE));
+        long deadline = System.nanoTime() + budget.toNanos();
+        Future<Response> task = workers.submit(() -> endpoint.handle(request));
+        try {
+            return task.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException exception) {
+            task.cancel(true);
+            return Response.error(503, "Request exceeds the time budget of " + budget.toMillis() + " ms");
+        } catch (InterruptedException exception) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            return Response.error(503, "Service is stopping");
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IllegalArgumentException cause) {
+                return Response.error(400, cause.getMessage());
+            }
+            if (exception.getCause() instanceof BufferUnderflowException) {
+                return Response.error(400, "Body is truncated");
+            }
+            if (exception.getCause() instanceof NoSolutionException) {
+                return Response.error(422, "Puzzle has no solution");
+            }
+            return Response.error(500, "Request failed: " + exception.getCause());
+        }
+    }
+
+    /**
+     * Reads the body of the request
+     *
+     * @param input the body stream
+     * @return the body or null when it exceeds the limit
+     * @throws IOException when the body cannot be read
+     */
+    private static byte[] readBody(InputStream input) throws IOException {
+        byte[] body = input.readNBytes(MAX_BODY + 1);
+        return body.length > MAX_BODY ? null : body;
+    }
+
+    /**
+     * Reads the puzzle of the request
+     *
+     * @param request the request
+     * @param buffer the buffer of the binary body
+     * @return the puzzle
+     * @throws IllegalArgumentException when the puzzle is malformed or not accepted
+     */
+    private PuzzleReader.Puzzle readPuzzle(Request request, ByteBuffer buffer) throws IllegalArgumentException {
+        return checkPuzzle(request.binary() ? Messages.readPuzzle(buffer) : Messages.readPuzzle(request.json()));
+    }
+
+    /**
+     * Checks that the puzzle fits the size limits and its clues belong to the alphabet of the solver
+     *
+     * @param puzzle the puzzle
+     * @return the puzzle
+     * @throws IllegalArgumentException when the puzzle is not accepted
+     */
+    private PuzzleReader.Puzzle checkPuzzle(PuzzleReader.Puzzle puzzle) throws IllegalArgumentException {
+        Messages.check(puzzle.width(), 1, MAX_SIDE, "Width");
+        Messages.check(puzzle.height(), 1, MAX_SIDE, "Height");
+        for (int i = 2; i < puzzle.clues().length; i += 3) {
+            if (!solver.isClue(puzzle.clues()[i])) {
+                throw new IllegalArgumentException("Clue value " + puzzle.clues()[i] + " lies outside the rule alphabet");
+            }
+        }
+        return puzzle;
+    }
+
+    /**
+     * Checks that the binary body was read completely
+     *
+     * @param buffer the buffer of the binary body
+     * @throws IllegalArgumentException when the body holds the trailing bytes
+     */
+    private static void checkConsumed(ByteBuffer buffer) throws IllegalArgumentException {
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Body holds " + buffer.remaining() + " trailing bytes");
+        }
+    }
+
+    /**
+     * Solves the puzzle
+     *
+     * @param request the request with the puzzle
+     * @return the response with the solution
+     * @throws NoSolutionException when the puzzle cannot be solved
+     */
+    private Response solve(Request request) throws NoSolutionException {
+        ByteBuffer buffer = ByteBuffer.wrap(request.body());
+        PuzzleReader.Puzzle puzzle = readPuzzle(request, buffer);
+        if (request.binary()) {
+            checkConsumed(buffer);
+        }
+        PackedSolution solution = PackedSolution.encode(solver.solve(puzzle.initValues(), puzzle.rowLimits(),
+            puzzle.columnLimits(), puzzle.shipLimits()));
+        if (request.binary()) {
+            ByteBuffer output = ByteBuffer.allocate(solution.byteSize());
+            solution.write(output);
+            return Response.binary(output.array());
+        }
+        StringBuilder builder = new StringBuilder("{\"solution\":");
+        Messages.writeSolution(builder, solution);
+        return Response.json(builder.append('}'));
+    }
+
+    /**
+     * Counts the solutions of the puzzle
+     *
+     * @param request the request with the puzzle
+     * @return the response with the number of the solutions
+     */
+    private Response count(Request request) {
+        ByteBuffer buffer = ByteBuffer.wrap(request.body());
+        PuzzleReader.Puzzle puzzle = readPuzzle(request, buffer);
+        if (request.binary()) {
+            checkConsumed(buffer);
+        }
+        long solutions = solver.count(puzzle.initValues(), puzzle.rowLimits(), puzzle.columnLimits(), puzzle.shipLimits());
+        return request.binary() ? Response.binary(ByteBuffer.allocate(Long.BYTES).putLong(solutions).array())
+            : Response.json("{\"solutions\":" + solutions + "}");
+    }
+
+    /**
+     * Checks whether the puzzle has the single solution and, when the request holds the
+     * solution, whether it solves the puzzle. The binary response is the byte of the flags
+     *
+     * @param request the request with the puzzle and the optional solution
+     * @return the response with the results of the checks
+     */
+    private Response validate(Request request) {
+        ByteBuffer buffer = ByteBuffer.wrap(request.body());
+        PuzzleReader.Puzzle puzzle;
+        PackedSolution submitted = null;
+        if (request.binary()) {
+            puzzle = checkPuzzle(Messages.readPuzzle(buffer));
+            if (buffer.hasRemaining()) {
+                submitted = PackedSolution.read(buffer);
+                checkConsumed(buffer);
+            }
+        } else {
+            Map<?, ?> message = request.json();
+            puzzle = checkPuzzle(Messages.readPuzzle(message));
+            if (message.get("solution") != null) {
+                submitted = Messages.readSolution(message.get("solution"), puzzle.width(), puzzle.height());
+            }
+        }
+        if (submitted != null && (submitted.getWidth() != puzzle.width() || submitted.getHeight() != puzzle.height())) {
+            throw new IllegalArgumentException("Solution is " + submitted.getWidth() + "x" + submitted.getHeight()
+                + " but puzzle is " + puzzle.width() + "x" + puzzle.height());
+        }
+        PackedSolution expected = submitted;
+        long[] solutions = {0};
+        boolean[] correct = {false};
+        solver.enumerate(puzzle.initValues(), puzzle.rowLimits(), puzzle.columnLimits(), puzzle.shipLimits(), board -> {
+            solutions[0] += 1;
+            correct[0] |= expected != null && PackedSolution.encode(board).equals(expected);
+            return solutions[0] < 2 || (expected != null && !correct[0]);
+        }, false);
+        if (request.binary()) {
+            int flags = (solutions[0] > 0 ? SOLVABLE : 0) | (solutions[0] == 1 ? UNIQUE : 0) | (correct[0] ? CORRECT : 0);
+            return Response.binary(new byte[]{(byte) flags});
+        }
+        return Response.json("{\"solvable\":" + (solutions[0] > 0) + ",\"unique\":" + (solutions[0] == 1)
+            + (expected != null ? ",\"correct\":" + correct[0] : "") + "}");
+    }
+
+    /**
+     * Generates the puzzle of the requested dimensions and fleet. The JSON request holds the
+     * "width", the "height", the "fleet" and the optional "resolution" of the generator, the
+     * binary request holds the width, the height, the resolution and the fleet. The resolution
+     * may not exceed the number of the ship cells of the fleet
+     *
+     * @param request the request with the parameters of the puzzle
+     * @return the response with the generated puzzle
+     * @throws NoSolutionException when no puzzle fits the parameters
+     */
+    private Response generate(Request request) throws NoSolutionException {
+        int width, height, resolution;
+        int[] ships;
+        if (request.binary()) {
+            ByteBuffer buffer = ByteBuffer.wrap(request.body());
+            width = Messages.check(buffer.get() & Messages.MAX_VALUE, 1, MAX_SIDE, "Width");
+            height = Messages.check(buffer.get() & Messages.MAX_VALUE, 1, MAX_SIDE, "Height");
+            resolution = Messages.check(buffer.get() & Messages.MAX_VALUE, 1, Messages.MAX_VALUE, "Resolution");
+            ships = Messages.readFleet(buffer);
+            checkConsumed(buffer);
+        } else {
+            Map<?, ?> message = request.json();
+            width = Messages.integer(message.get("width"), 1, MAX_SIDE, "Width");
+            height = Messages.integer(message.get("height"), 1, MAX_SIDE, "Height");
+            resolution = message.get("resolution") == null ? DEFAULT_RESOLUTION
+                : Messages.integer(message.get("resolution"), 1, Messages.MAX_VALUE, "Resolution");
+            ships = Messages.readFleet(message.get("fleet"));
+        }
+        TreeMap<Integer, Integer> shipLimits = new PuzzleReader.Puzzle(-1, new int[0], new int[0], ships, new int[0]).shipLimits();
+        if (shipLimits.isEmpty()) {
+            throw new IllegalArgumentException("Fleet must hold at least one ship");
+        }
+        int shipCells = shipLimits.entrySet().stream().mapToInt(entry -> entry.getKey() * entry.getValue()).sum();
+        Messages.check(shipCells, 1, width * height, "Fleet size");
+        Messages.check(resolution, 1, shipCells, "Resolution");
+        BattleshipsGenerator.Solution generated = new BattleshipsGenerator(constrains, shipLimits, new Coord(width, height), resolution).generate();
+        PuzzleReader.Puzzle puzzle = PuzzleReader.Puzzle.of(generated.initValues(), generated.rowLimits(), generated.columnLimits(), shipLimits);
+        if (request.binary()) {
+            return Response.binary(Messages.writePuzzle(puzzle));
+        }
+        StringBuilder builder = new StringBuilder();
+        Messages.writePuzzle(builder, puzzle);
+        return Response.json(builder);
+    }
+
+}
@@ -0,0 +1,283 @@
+package backend.server;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader of the service messages. The objects are read into the maps, the
+ * arrays into the lists and the numbers into the longs, as the messages hold only the
+ * integers. The malformed input is reported with the {@link IllegalArgumentException}, as
+ * is the nesting deeper than {@value #MAX_DEPTH} objects and arrays
+ */
+final class Json {
+    private final static int                            MAX_DEPTH = 64;
+
+    private final String                                text;
+    private int                                         index = 0;
+    private int                                         depth = 0;
+
+    /**
+     * Constructs a new Json object
+     *
+     * @param text the parsed text
+     */
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses the JSON value
+     *
+     * @param text the JSON text
+     * @return the parsed value
+     * @throws IllegalArgumentException when the text is malformed
+     */
+    static Object parse(String text) throws IllegalArgumentException {
+        Json json = new Json(text);
+        Object value = json.parseValue();
+        json.skipWhitespace();
+        if (json.index != text.length()) {
+            throw json.error("Expected end of input");
+        }
+        return value;
+    }
+
+    /**
+     * Quotes the string as the JSON string
+     *
+     * @param value the string
+     * @return the quoted string
+     */
+    static String quote(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char character = value.charAt(i);
+            switch (character) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (character < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        builder.append(character);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Skips the whitespace characters
+     */
+    private void skipWhitespace() {
+        while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+            ++index;
+        }
+    }
+
+    /**
+     * Consumes the expected character after the whitespace
+     *
+     * @param expected the expected character
+     * @throws IllegalArgumentException when the text holds another character
+     */
+    private void expect(char expected) throws IllegalArgumentException {
+        skipWhitespace();
+        if (index == text.length() || text.charAt(index) != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+        ++index;
+    }
+
+    /**
+     * Checks if the next character after the whitespace is the given one and consumes it
+     *
+     * @param expected the character
+     * @return whether the character was consumed
+     */
+    private boolean consume(char expected) {
+        skipWhitespace();
+        if (index < text.length() && text.charAt(index) == expected) {
+            ++index;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Parses the value
+     *
+     * @return the parsed value
+     * @throws IllegalArgumentException when the value is malformed
+     */
+    private Object parseValue() throws IllegalArgumentException {
+        skipWhitespace();
+        if (index == text.length()) {
+            throw error("Expected value");
+        }
+        char character = text.charAt(index);
+        if (character == '{') {
+            return parseObject();
+        }
+        if (character == '[') {
+            return parseArray();
+        }
+        if (character == '"') {
+            return parseString();
+        }
+        if (character == '-' || (character >= '0' && character <= '9')) {
+            return parseNumber();
+        }
+        for (String literal : new String[]{"true", "false", "null"}) {
+            if (text.startsWith(literal, index)) {
+                index += literal.length();
+                return literal.equals("null") ? null : Boolean.valueOf(literal);
+            }
+        }
+        throw error("Unexpected character '" + character + "'");
+    }
+
+    /**
+     * Enters the nested object or array
+     *
+     * @throws IllegalArgumentException when the nesting is too deep
+     */
+    private void enter() throws IllegalArgumentException {
+        if (++depth > MAX_DEPTH) {
+            throw error("Nesting exceeds " + MAX_DEPTH + " levels");
+        }
+    }
+
+    /**
+     * Parses the object
+     *
+     * @return the parsed members in the order of their appearance
+     * @throws IllegalArgumentException when the object is malformed or nested too deep
+     */
+    private Map<String, Object> parseObject() throws IllegalArgumentException {
+        Map<String, Object> members = new LinkedHashMap<>();
+        expect('{');
+        enter();
+        if (!consume('}')) {
+            do {
+                skipWhitespace();
+                String name = parseString();
+                expect(':');
+                members.put(name, parseValue());
+            } while (consume(','));
+            expect('}');
+        }
+        --depth;
+        return members;
+    }
+
+    /**
+     * Parses the array
+     *
+     * @return the parsed elements
+     * @throws IllegalArgumentException when the array is malformed or nested too deep
+     */
+    private List<Object> parseArray() throws IllegalArgumentException {
+        List<Object> elements = new ArrayList<>();
+        expect('[');
+        enter();
+        if (!consume(']')) {
+            do {
+                elements.add(parseValue());
+            } while (consume(','));
+            expect(']');
+        }
+        --depth;
+        return elements;
+    }
+
+    /**
+     * Parses the string
+     *
+     * @return the parsed string
+     * @throws IllegalArgumentException when the string is malformed
+     */
+    private String parseString() throws IllegalArgumentException {
+        if (index == text.length() || text.charAt(index) != '"') {
+            throw error("Expected string");
+        }
+        StringBuilder builder = new StringBuilder();
+        for (++index; index < text.length(); ++index) {
+            char character = text.charAt(index);
+            if (character == '"') {
+                ++index;
+                return builder.toString();
+            }
+            if (character != '\\') {
+                builder.append(character);
+                continue;
+            }
+            if (++index == text.length()) {
+                break;
+            }
+            switch (text.charAt(index)) {
+                case '"', '\\', '/' -> builder.append(text.charAt(index));
+                case 'b' -> builder.append('\b');
+                case 'f' -> builder.append('\f');
+                case 'n' -> builder.append('\n');
+                case 'r' -> builder.append('\r');
+                case 't' -> builder.append('\t');
+                case 'u' -> {
+                    if (index + 4 >= text.length()) {
+                        throw error("Truncated escape");
+                    }
+                    try {
+                        builder.append((char) Integer.parseInt(text.substring(index + 1, index + 5), 16));
+                    } catch (NumberFormatException exception) {
+                        throw error("Invalid escape");
+                    }
+                    index += 4;
+                }
+                default -> throw error("Invalid escape");
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    /**
+     * Parses the integer number
+     *
+     * @return the parsed number
+     * @throws IllegalArgumentException when the number is malformed or not an integer
+     */
+    private Long parseNumber() throws IllegalArgumentException {
+        int start = index;
+        if (text.charAt(index) == '-') {
+            ++index;
+        }
+        while (index < text.length() && text.charAt(index) >= '0' && text.charAt(index) <= '9') {
+            ++index;
+        }
+        if (index < text.length() && (text.charAt(index) == '.' || text.charAt(index) == 'e' || text.charAt(index) == 'E')) {
+            throw error("Expected integer");
+        }
+        try {
+            return Long.parseLong(text.substring(start, index));
+        } catch (NumberFormatException exception) {
+            index = start;
+            throw error("Invalid number");
+        }
+    }
+
+    /**
+     * Creates the exception at the current character
+     *
+     * @param message the description of the error
+     * @return the exception at the current character
+     */
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("JSON at character " + (index + 1) + ": " + message);
+    }
+
+}
@@ -0,0 +1,308 @@
+package backend.server;
+
+import backend.boards.PackedSolution;
+import backend.io.PuzzleReader;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codecs of the puzzles and the solutions exchanged by the service. In the JSON messages
+ * the puzzle is the object with the "rows" and "columns" limits, the "fleet" object mapping
+ * the ship lengths to their counts and the "clues" array of the [x, y, value] triples, the
+ * solution is the array of the rows with '#' marking the ship and '.' the water. In the
+ * binary messages every number is the unsigned byte, except the number of the clues stored
+ * in the unsigned short: the width, the height, the row limits, the column limits, the number
+ * of the ship lengths, the ship counts, the number of the clues and the x, y, value triples.
+ * The solution is stored by {@link PackedSolution#write(ByteBuffer)}
+ */
+final class Messages {
+    static final int                                    MAX_VALUE = 0xFF;
+
+    /**
+     * Hides the constructor of the utility class
+     */
+    private Messages() {}
+
+    /**
+     * Checks that the value lies in the given range
+     *
+     * @param value the value
+     * @param min the minimal value
+     * @param max the maximal value
+     * @param name the name of the value
+     * @return the value
+     * @throws IllegalArgumentException when the value lies outside the range
+     */
+    static int check(long value, int min, int max, String name) throws IllegalArgumentException {
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(name + " " + value + " lies outside [" + min + ", " + max + "]");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads the integer member of the JSON object
+     *
+     * @param value the member value
+     * @param min the minimal value
+     * @param max the maximal value
+     * @param name the name of the member
+     * @return the integer
+     * @throws IllegalArgumentException when the member is not the integer in the range
+     */
+    static int integer(Object value, int min, int max, String name) throws IllegalArgumentException {
+        if (!(value instanceof Long number)) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+        return check(number, min, max, name);
+    }
+
+    /**
+     * Reads the JSON array
+     *
+     * @param value the member value
+     * @param name the name of the member
+     * @return the elements of the array
+     * @throws IllegalArgumentException when the member is not the array
+     */
+    static List<?> array(Object value, String name) throws IllegalArgumentException {
+        if (!(value instanceof List<?> list)) {
+            throw new IllegalArgumentException(name + " must be an array");
+        }
+        return list;
+    }
+
+    /**
+     * Reads the JSON object
+     *
+     * @param value the member value
+     * @param name the name of the member
+     * @return the members of the object
+     * @throws IllegalArgumentException when the member is not the object
+     */
+    static Map<?, ?> object(Object value, String name) throws IllegalArgumentException {
+        if (!(value instanceof Map<?, ?> map)) {
+            throw new IllegalArgumentException(name + " must be an object");
+        }
+        return map;
+    }
+
+    /**
+     * Reads the fleet from the JSON object mapping the ship lengths to their counts
+     *
+     * @param value the fleet object or null
+     * @return the ship counts indexed by the ship length decreased by one
+     * @throws IllegalArgumentException when the fleet is malformed
+     */
+    static int[] readFleet(Object value) throws IllegalArgumentException {
+        if (value == null) {
+            return new int[0];
+        }
+        Map<?, ?> fleet = object(value, "fleet");
+        int[] ships = new int[0];
+        for (Map.Entry<?, ?> entry : fleet.entrySet()) {
+            int length;
+            try {
+                length = check(Long.parseLong((String) entry.getKey()), 1, MAX_VALUE, "Ship length");
+            } catch (NumberFormatException exception) {
+                throw new IllegalArgumentException("Ship length " + entry.getKey() + " must be an integer");
+            }
+            if (length > ships.length) {
+                ships = Arrays.copyOf(ships, length);
+            }
+            ships[length - 1] = integer(entry.getValue(), 0, MAX_VALUE, "Ship count");
+        }
+        return ships;
+    }
+
+    /**
+     * Reads the puzzle from the JSON object
+     *
+     * @param message the JSON object
+     * @return the puzzle
+     * @throws IllegalArgumentException when the puzzle is malformed
+     */
+    static PuzzleReader.Puzzle readPuzzle(Map<?, ?> message) throws IllegalArgumentException {
+        List<?> rowList = array(message.get("rows"), "rows"), columnList = array(message.get("columns"), "columns");
+        check(rowList.size(), 1, MAX_VALUE, "Height");
+        check(columnList.size(), 1, MAX_VALUE, "Width");
+        int[] rows = new int[rowList.size()], columns = new int[columnList.size()];
+        for (int y = 0; y < rows.length; ++y) {
+            rows[y] = integer(rowList.get(y), 0, columns.length, "Row limit");
+        }
+        for (int x = 0; x < columns.length; ++x) {
+            columns[x] = integer(columnList.get(x), 0, rows.length, "Column limit");
+        }
+        List<?> clueList = message.get("clues") == null ? List.of() : array(message.get("clues"), "clues");
+        int[] clues = new int[3 * clueList.size()];
+        for (int i = 0; i < clueList.size(); ++i) {
+            List<?> clue = array(clueList.get(i), "clue");
+            if (clue.size() != 3) {
+                throw new IllegalArgumentException("Clue must hold x, y and value");
+            }
+            clues[3 * i] = integer(clue.get(0), 0, columns.length - 1, "Clue x");
+            clues[3 * i + 1] = integer(clue.get(1), 0, rows.length - 1, "Clue y");
+            clues[3 * i + 2] = integer(clue.get(2), 0, MAX_VALUE, "Clue value");
+        }
+        return new PuzzleReader.Puzzle(-1, rows, columns, readFleet(message.get("fleet")), clues);
+    }
+
+    /**
+     * Reads the fleet from the binary message
+     *
+     * @param buffer the buffer positioned at the fleet
+     * @return the ship counts indexed by the ship length decreased by one
+     */
+    static int[] readFleet(ByteBuffer buffer) {
+        int[] ships = new int[buffer.get() & MAX_VALUE];
+        for (int i = 0; i < ships.length; ++i) {
+            ships[i] = buffer.get() & MAX_VALUE;
+        }
+        return ships;
+    }
+
+    /**
+     * Reads the puzzle from the binary message
+     *
+     * @param buffer the buffer positioned at the puzzle
+     * @return the puzzle
+     * @throws IllegalArgumentException when the puzzle is malformed
+     */
+    static PuzzleReader.Puzzle readPuzzle(ByteBuffer buffer) throws IllegalArgumentException {
+        int width = check(buffer.get() & MAX_VALUE, 1, MAX_VALUE, "Width");
+        int height = check(buffer.get() & MAX_VALUE, 1, MAX_VALUE, "Height");
+        int[] rows = new int[height], columns = new int[width];
+        for (int y = 0; y < height; ++y) {
+            rows[y] = check(buffer.get() & MAX_VALUE, 0, width, "Row limit");
+        }
+        for (int x = 0; x < width; ++x) {
+            columns[x] = check(buffer.get() & MAX_VALUE, 0, height, "Column limit");
+        }
+        int[] ships = readFleet(buffer);
+        int[] clues = new int[3 * Short.toUnsignedInt(buffer.getShort())];
+        for (int i = 0; i < clues.length; i += 3) {
+            clues[i] = check(buffer.get() & MAX_VALUE, 0, width - 1, "Clue x");
+            clues[i + 1] = check(buffer.get() & MAX_VALUE, 0, height - 1, "Clue y");
+            clues[i + 2] = buffer.get() & MAX_VALUE;
+        }
+        return new PuzzleReader.Puzzle(-1, rows, columns, ships, clues);
+    }
+
+    /**
+     * Writes the puzzle as the JSON object
+     *
+     * @param builder the builder of the message
+     * @param puzzle the puzzle
+     */
+    static void writePuzzle(StringBuilder builder, PuzzleReader.Puzzle puzzle) {
+        builder.append("{\"rows\":");
+        writeArray(builder, puzzle.rows());
+        builder.append(",\"columns\":");
+        writeArray(builder, puzzle.columns());
+        builder.append(",\"fleet\":{");
+        boolean first = true;
+        for (int length = 1; length <= puzzle.ships().length; ++length) {
+            if (puzzle.ships()[length - 1] != 0) {
+                builder.append(first ? "\"" : ",\"").append(length).append("\":").append(puzzle.ships()[length - 1]);
+                first = false;
+            }
+        }
+        builder.append("},\"clues\":[");
+        int[] clues = puzzle.clues();
+        for (int i = 0; i < clues.length; i += 3) {
+            builder.append(i == 0 ? "[" : ",[").append(clues[i]).append(',').append(clues[i + 1]).append(',').append(clues[i + 2]).append(']');
+        }
+        builder.append("]}");
+    }
+
+    /**
+     * Writes the JSON array of the integers
+     *
+     * @param builder the builder of the message
+     * @param values the integers
+     */
+    private static void writeArray(StringBuilder builder, int[] values) {
+        builder.append('[');
+        for (int i = 0; i < values.length; ++i) {
+            builder.append(i == 0 ? "" : ",").append(values[i]);
+        }
+        builder.append(']');
+    }
+
+    /**
+     * Writes the puzzle as the binary message
+     *
+     * @param puzzle the puzzle
+     * @return the binary message
+     */
+    static byte[] writePuzzle(PuzzleReader.Puzzle puzzle) {
+        ByteBuffer buffer = ByteBuffer.allocate(3 + puzzle.height() + puzzle.width() + puzzle.ships().length + Short.BYTES + puzzle.clues().length);
+        buffer.put((byte) puzzle.width()).put((byte) puzzle.height());
+        for (int limit : puzzle.rows()) {
+            buffer.put((byte) limit);
+        }
+        for (int limit : puzzle.columns()) {
+            buffer.put((byte) limit);
+        }
+        buffer.put((byte) puzzle.ships().length);
+        for (int count : puzzle.ships()) {
+            buffer.put((byte) count);
+        }
+        buffer.putShort((short) (puzzle.clues().length / 3));
+        for (int value : puzzle.clues()) {
+            buffer.put((byte) value);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Reads the solution from the JSON array of the rows
+     *
+     * @param value the array of the rows
+     * @param width the board width
+     * @param height the board height
+     * @return the packed solution
+     * @throws IllegalArgumentException when the solution is malformed or has other dimensions
+     */
+    static PackedSolution readSolution(Object value, int width, int height) throws IllegalArgumentException {
+        List<?> rows = array(value, "solution");
+        if (rows.size() != height) {
+            throw new IllegalArgumentException("Solution must hold " + height + " rows");
+        }
+        byte[] cells = new byte[width * height];
+        for (int y = 0; y < height; ++y) {
+            if (!(rows.get(y) instanceof String row) || row.length() != width) {
+                throw new IllegalArgumentException("Solution row must be a string of " + width + " cells");
+            }
+            for (int x = 0; x < width; ++x) {
+                if (row.charAt(x) != '#' && row.charAt(x) != '.') {
+                    throw new IllegalArgumentException("Solution cell must be '#' or '.'");
+                }
+                cells[y * width + x] = (byte) (row.charAt(x) == '#' ? 2 : 1);
+            }
+        }
+        return PackedSolution.encode(cells, 0, width, height);
+    }
+
+    /**
+     * Writes the solution as the JSON array of the rows
+     *
+     * @param builder the builder of the message
+     * @param solution the solution
+     */
+    static void writeSolution(StringBuilder builder, PackedSolution solution) {
+        builder.append('[');
+        for (int y = 0; y < solution.getHeight(); ++y) {
+            builder.append(y == 0 ? "\"" : ",\"");
+            for (int x = 0; x < solution.getWidth(); ++x) {
+                builder.append(solution.isShip(x, y) ? '#' : '.');
+            }
+            builder.append('"');
+        }
+        builder.append(']');
+    }
+
+}
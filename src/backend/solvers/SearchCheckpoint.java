@@ -0,0 +1,201 @@
+package backend.solvers;
+
+import backend.utility.Coord;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Stores the frontier of the enumeration in the file, so the interrupted enumeration can
+ * be resumed exactly. The frontier consists of the decided cell, the branch order and the
+ * next branch of every decision on the stack, the random generator state and the number of
+ * visited solutions. The checkpoint object can be reused by the consecutive enumerations
+ */
+public class SearchCheckpoint {
+    private final static int                            MAGIC = 0x57464331;
+    private final static int                            VERSION = 2;
+
+    private final Path                                  file;
+    private final long                                  interval;
+    private long                                        lastWrite = System.nanoTime();
+    private long                                        solutions = 0;
+
+    /**
+     * Represents the saved frontier of the enumeration
+     *
+     * @param fingerprint the fingerprint of the prepared board
+     * @param positions the decided cells of the decisions on the stack
+     * @param orders the branch orders of the decisions on the stack
+     * @param next the indices of the next branches of the decisions
+     * @param seed the state of the random generator
+     * @param solutions the number of the visited solutions
+     */
+    record Frontier(long fingerprint, List<Coord> positions, List<int[]> orders, int[] next, long seed, long solutions) { }
+
+    /**
+     * Random generator with the accessible state. Reproduces the sequence of
+     * the {@link Random} generator
+     */
+    static class StateRandom extends Random {
+        private final static long                       serialVersionUID = 1L;
+        private final static long                       MULTIPLIER = 0x5DEECE66DL;
+        private final static long                       ADDEND = 0xBL;
+        private final static long                       MASK = (1L << 48) - 1;
+
+        private long                                    state;
+
+        /**
+         * Constructs a new StateRandom object
+         *
+         * @param state the state of the generator
+         */
+        StateRandom(long state) {
+            this.state = state & MASK;
+        }
+
+        /**
+         * Generates the next pseudorandom number
+         *
+         * @param bits the number of the random bits
+         * @return the next pseudorandom number
+         */
+        @Override
+        protected int next(int bits) {
+            state = (state * MULTIPLIER + ADDEND) & MASK;
+            return (int) (state >>> (48 - bits));
+        }
+
+        /**
+         * Returns the state of the generator
+         *
+         * @return the state of the generator
+         */
+        long getState() {
+            return state;
+        }
+
+    }
+
+    /**
+     * Constructs a new SearchCheckpoint object
+     *
+     * @param file the checkpoint file
+     * @param interval the minimal time between the checkpoints
+     */
+    public SearchCheckpoint(Path file, Duration interval) {
+        this.file = file;
+        this.interval = interval.toNanos();
+    }
+
+    /**
+     * Returns the number of the solutions visited by the enumeration including
+     * the solutions visited before the resumption
+     *
+     * @return the number of the visited solutions
+     */
+    public long getSolutions() {
+        return solutions;
+    }
+
+    /**
+     * Registers the visited solution
+     */
+    void visit() {
+        solutions += 1;
+    }
+
+    /**
+     * Checks if the checkpoint interval has elapsed
+     *
+     * @return whether the checkpoint should be written
+     */
+    boolean isDue() {
+        return System.nanoTime() - lastWrite >= interval;
+    }
+
+    /**
+     * Reads the saved frontier and starts counting the solutions of the new enumeration from
+     * the saved number. Returns null when no checkpoint exists
+     *
+     * @param fingerprint the fingerprint of the prepared board
+     * @return the saved frontier
+     * @throws IOException when the checkpoint cannot be read or belongs to another problem
+     */
+    Frontier read(long fingerprint) throws IOException {
+        solutions = 0;
+        lastWrite = System.nanoTime();
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Unsupported checkpoint file " + file);
+            }
+            if (input.readLong() != fingerprint) {
+                throw new IOException("Checkpoint " + file + " belongs to another problem");
+            }
+            int depth = input.readInt();
+            List<Coord> positions = new ArrayList<>(depth);
+            List<int[]> orders = new ArrayList<>(depth);
+            int[] next = new int[depth];
+            for (int d = 0; d < depth; ++d) {
+                positions.add(new Coord(input.readUnsignedShort(), input.readUnsignedShort()));
+                int[] order = new int[input.readUnsignedByte()];
+                for (int i = 0; i < order.length; ++i) {
+                    order[i] = input.readUnsignedByte();
+                }
+                orders.add(order);
+                next[d] = input.readUnsignedByte();
+            }
+            Frontier frontier = new Frontier(fingerprint, positions, orders, next, input.readLong(), input.readLong());
+            solutions = frontier.solutions();
+            return frontier;
+        }
+    }
+
+    /**
+     * Writes the frontier atomically. The file is replaced only after the new
+     * checkpoint is completely written
+     *
+     * @param frontier the frontier of the enumeration
+     * @throws IOException when the checkpoint cannot be written
+     */
+    void write(Frontier frontier) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(frontier.fingerprint());
+            output.writeInt(frontier.orders().size());
+            for (int d = 0; d < frontier.orders().size(); ++d) {
+                output.writeShort(frontier.positions().get(d).x());
+                output.writeShort(frontier.positions().get(d).y());
+                output.writeByte(frontier.orders().get(d).length);
+                for (int index : frontier.orders().get(d)) {
+                    output.writeByte(index);
+                }
+                output.writeByte(frontier.next()[d]);
+            }
+            output.writeLong(frontier.seed());
+            output.writeLong(frontier.solutions());
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lastWrite = System.nanoTime();
+    }
+
+    /**
+     * Removes the checkpoint of the finished enumeration
+     *
+     * @throws IOException when the checkpoint cannot be removed
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+}
@@ -7,7 +7,10 @@ import backend.states.States;
 import backend.utility.Coord;
 import backend.utility.InitValue;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -23,6 +26,58 @@ public class WaveFunctionCollapse<BoardValue extends Collection<?>, StateValue>
     private final Heuristic<BoardValue>                             heuristic;
 
     private final static Set<Integer>                               neighborValues = Stream.of(-1, 0, 1).collect(Collectors.toCollection(HashSet::new));
+    private final static int                                        CHECKPOINT_MASK = (1 << 8) - 1;
+
+    /**
+     * Decision on the stack of the resumable enumeration
+     */
+    private final class Frame {
+        private final Board<BoardValue>                             board;
+        private final Coord                                         position;
+        private final List<StateValue>                              superposition;
+        private final int[]                                         order;
+        private int                                                 next = 0;
+
+        /**
+         * Creates a new Frame object
+         *
+         * @param board the board before the decision
+         * @param position the position of the decided cell or null when it should be chosen by the heuristic
+         * @param order the order of the branches or null when the order should be generated
+         * @param random the random generator shuffling the branches or null when
+         * the branches are not shuffled
+         */
+        private Frame(Board<BoardValue> board, Coord position, int[] order, Random random) {
+            this.board = board;
+            this.position = position != null ? position : heuristic.choose(board);
+            this.superposition = states.updateStates(board.accessCell(this.position));
+            if (order == null) {
+                List<Integer> indices = new ArrayList<>();
+                for (int i = 0; i < superposition.size(); ++i) {
+                    indices.add(i);
+                }
+                if (random != null) {
+                    Collections.shuffle(indices, random);
+                }
+                order = indices.stream().mapToInt(Integer::intValue).toArray();
+            }
+            this.order = order;
+        }
+
+        /**
+         * Collapses the cell of the decision to the state of the given branch
+         *
+         * @param index the index of the branch
+         * @return the collapsed and propagated board
+         */
+        private Board<BoardValue> branch(int index) {
+            Board<BoardValue> tempBoard = board.clone();
+            tempBoard.setValue(position, states.collapseState(superposition.get(order[index])));
+            propagate(tempBoard, position, new ArrayList<>(List.of(position)));
+            return tempBoard;
+        }
+
+    }
 
     /**
      * Creates a new WaveFunctionCollapse object
@@ -127,34 +182,53 @@ public class WaveFunctionCollapse<BoardValue extends Collection<?>, StateValue>
      * returns null
      *
      * @param board the board object
+     * @param position the position of the last collapsed cell or null
      * @return the valid board
      */
-    private Board<BoardValue> checkConstrains(Board<BoardValue> board) {
+    private Board<BoardValue> checkConstrains(Board<BoardValue> board, Coord position) {
         if (softConstrains.check(board)) {
             if (isCollapsed(board)) {
                 return hardConstrains.check(board) ? board : null;
             }
             return collapse(board);
         }
+        reportFailure(board, position);
         return null;
     }
 
+    /**
+     * Informs the heuristic about the soft constraints failure
+     *
+     * @param board the failed board object
+     * @param position the position of the last collapsed cell or null
+     */
+    private void reportFailure(Board<BoardValue> board, Coord position) {
+        if (position != null) {
+            heuristic.failure(board, position);
+        }
+    }
+
     /**
      * Collapses one of the states of the board. If board cannot be collapsed further, and it
      * is invalid then returns null
      *
      * @param board the board object
      * @return the collapsed board
+     * @throws CancellationException when the current thread is interrupted
      */
-    private Board<BoardValue> collapse(Board<BoardValue> board) {
+    private Board<BoardValue> collapse(Board<BoardValue> board) throws CancellationException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("The collapse was interrupted");
+        }
         Coord position = heuristic.choose(board);
         List<StateValue> superposition = states.updateStates(board.accessCell(position));
-        Collections.shuffle(superposition);
+        heuristic.order(board, position, superposition);
         for (StateValue state : superposition) {
             Board<BoardValue> tempBoard = board.clone();
             tempBoard.setValue(position, states.collapseState(state));
             propagate(tempBoard, position, new ArrayList<>(List.of(position)));
-            Board<BoardValue> result = checkConstrains(tempBoard);
+            heuristic.propagated(board, tempBoard, position, state);
+            Board<BoardValue> result = checkConstrains(tempBoard, position);
             if (result != null) {
                 return result;
             }
@@ -162,6 +236,57 @@ public class WaveFunctionCollapse<BoardValue extends Collection<?>, StateValue>
         return null;
     }
 
+    /**
+     * Visits the board if it is valid and collapsed, otherwise continues the enumeration
+     * on the board's branches
+     *
+     * @param board the board object
+     * @param position the position of the last collapsed cell or null
+     * @param visitor the visitor of the collapsed boards
+     * @param shuffle whether the superpositions should be visited in the random order
+     * @return whether the enumeration should be continued
+     */
+    private boolean visitConstrains(Board<BoardValue> board, Coord position, Predicate<Board<BoardValue>> visitor, boolean shuffle) {
+        if (softConstrains.check(board)) {
+            if (isCollapsed(board)) {
+                return !hardConstrains.check(board) || visitor.test(board);
+            }
+            return collapseAll(board, visitor, shuffle);
+        }
+        reportFailure(board, position);
+        return true;
+    }
+
+    /**
+     * Collapses every state of the chosen cell and enumerates the resulting branches.
+     * Stops when the visitor rejects a board or when the current thread is interrupted
+     *
+     * @param board the board object
+     * @param visitor the visitor of the collapsed boards
+     * @param shuffle whether the superpositions should be visited in the random order
+     * @return whether the enumeration should be continued
+     */
+    private boolean collapseAll(Board<BoardValue> board, Predicate<Board<BoardValue>> visitor, boolean shuffle) {
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        Coord position = heuristic.choose(board);
+        List<StateValue> superposition = states.updateStates(board.accessCell(position));
+        if (shuffle) {
+            Collections.shuffle(superposition);
+        }
+        for (StateValue state : superposition) {
+            Board<BoardValue> tempBoard = board.clone();
+            tempBoard.setValue(position, states.collapseState(state));
+            propagate(tempBoard, position, new ArrayList<>(List.of(position)));
+            heuristic.propagated(board, tempBoard, position, state);
+            if (!visitConstrains(tempBoard, position, visitor, shuffle)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Prepares the board for the main collapsing process
      *
@@ -200,15 +325,187 @@ public class WaveFunctionCollapse<BoardValue extends Collection<?>, StateValue>
      * @param initValueList the initial value list for the problem
      * @return the solved board
      * @throws NoSolutionException if no solution can be found
+     * @throws CancellationException when the current thread is interrupted
      */
     @Override
     public Board<StateValue> solve(Board<BoardValue> board, Board<StateValue> collapsedBoard, List<InitValue<StateValue>> initValueList) throws NoSolutionException {
+        prepare(board, initValueList);
+        return solvePrepared(board, collapsedBoard);
+    }
+
+    /**
+     * Fills the empty board with the superposition states and propagates the initial values
+     *
+     * @param board the empty board
+     * @param initValueList the initial value list for the problem
+     */
+    public void prepare(Board<BoardValue> board, List<InitValue<StateValue>> initValueList) {
         generateBoard(board);
         preCollapse(board, initValueList);
-        board = collapse(board);
-        if (board == null)
+    }
+
+    /**
+     * Collapses the given initial values on the prepared board and propagates only their
+     * consequences
+     *
+     * @param board the prepared board
+     * @param initValueList the additional initial values
+     */
+    public void restrict(Board<BoardValue> board, List<InitValue<StateValue>> initValueList) {
+        preCollapse(board, initValueList);
+    }
+
+    /**
+     * Solves the prepared board. The prepared board is not modified, so it can be reused
+     * by the next searches
+     *
+     * @param board the prepared board
+     * @param collapsedBoard the solved board
+     * @return the solved board
+     * @throws NoSolutionException if no solution can be found
+     * @throws CancellationException when the current thread is interrupted
+     */
+    public Board<StateValue> solvePrepared(Board<BoardValue> board, Board<StateValue> collapsedBoard) throws NoSolutionException {
+        Board<BoardValue> result = checkConstrains(board, null);
+        if (result == null)
             throw new NoSolutionException();
-        return convertToCollapsed(board, collapsedBoard);
+        return convertToCollapsed(result, collapsedBoard);
+    }
+
+    /**
+     * Enumerates every valid collapsed board of the given problem. Each collapsed board is
+     * passed to the visitor, which returns whether the enumeration should be continued.
+     * The enumeration also stops when the current thread is interrupted
+     *
+     * @param board the empty board
+     * @param initValueList the initial value list for the problem
+     * @param visitor the visitor of the collapsed boards
+     * @param shuffle whether the superpositions should be visited in the random order
+     * @return whether the whole search space has been enumerated
+     */
+    public boolean enumerate(Board<BoardValue> board, List<InitValue<StateValue>> initValueList, Predicate<Board<BoardValue>> visitor, boolean shuffle) {
+        prepare(board, initValueList);
+        return visitConstrains(board, null, visitor, shuffle);
+    }
+
+    /**
+     * Computes the fingerprint of the prepared board
+     *
+     * @param board the prepared board
+     * @return the fingerprint of the board
+     */
+    private long fingerprint(Board<BoardValue> board) {
+        long fingerprint = 31L * board.getWidth() + board.getHeight();
+        for (int y = 0; y < board.getHeight(); ++y) {
+            for (int x = 0; x < board.getWidth(); ++x) {
+                fingerprint = 31 * fingerprint + board.accessCell(new Coord(x, y)).hashCode();
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Creates the frontier of the enumeration from the stack of the decisions
+     *
+     * @param stack the stack of the decisions
+     * @param fingerprint the fingerprint of the prepared board
+     * @param random the random generator
+     * @param solutions the number of the visited solutions
+     * @return the frontier of the enumeration
+     */
+    private SearchCheckpoint.Frontier frontier(List<Frame> stack, long fingerprint, SearchCheckpoint.StateRandom random, long solutions) {
+        List<Coord> positions = new ArrayList<>();
+        List<int[]> orders = new ArrayList<>();
+        int[] next = new int[stack.size()];
+        for (int d = 0; d < stack.size(); ++d) {
+            positions.add(stack.get(d).position);
+            orders.add(stack.get(d).order);
+            next[d] = stack.get(d).next;
+        }
+        return new SearchCheckpoint.Frontier(fingerprint, positions, orders, next, random.getState(), solutions);
+    }
+
+    /**
+     * Enumerates every valid collapsed board of the given problem and periodically saves
+     * the frontier of the enumeration to the checkpoint. When the checkpoint exists, the
+     * enumeration is resumed from it. The checkpoint is removed after the whole search space
+     * has been enumerated and kept when the visitor stops the enumeration or the current
+     * thread is interrupted. The resumed decisions are rebuilt at their saved positions, so
+     * the stateful heuristics only choose the cells of the decisions made after the resumption
+     *
+     * @param board the empty board
+     * @param initValueList the initial value list for the problem
+     * @param visitor the visitor of the collapsed boards
+     * @param shuffle whether the superpositions should be visited in the random order
+     * @param checkpoint the checkpoint of the enumeration
+     * @return whether the whole search space has been enumerated
+     * @throws IOException when the checkpoint cannot be read or written
+     */
+    public boolean enumerate(Board<BoardValue> board, List<InitValue<StateValue>> initValueList, Predicate<Board<BoardValue>> visitor, boolean shuffle, SearchCheckpoint checkpoint) throws IOException {
+        prepare(board, initValueList);
+        long fingerprint = fingerprint(board);
+        SearchCheckpoint.Frontier saved = checkpoint.read(fingerprint);
+        SearchCheckpoint.StateRandom random = new SearchCheckpoint.StateRandom(saved != null ? saved.seed() : new Random().nextLong());
+        Random order = shuffle ? random : null;
+        List<Frame> stack = new ArrayList<>();
+        if (saved != null) {
+            for (int d = 0; d < saved.orders().size(); ++d) {
+                Board<BoardValue> current = d == 0 ? board : stack.get(d - 1).branch(stack.get(d - 1).next - 1);
+                Frame frame = new Frame(current, saved.positions().get(d), saved.orders().get(d), order);
+                frame.next = saved.next()[d];
+                stack.add(frame);
+            }
+        } else if (softConstrains.check(board)) {
+            if (isCollapsed(board)) {
+                if (hardConstrains.check(board)) {
+                    checkpoint.visit();
+                    visitor.test(board);
+                }
+                return true;
+            }
+            stack.add(new Frame(board, null, null, order));
+        }
+        for (long steps = 1; !stack.isEmpty(); ++steps) {
+            Frame frame = stack.get(stack.size() - 1);
+            if (frame.next == frame.order.length) {
+                stack.remove(stack.size() - 1);
+                continue;
+            }
+            Board<BoardValue> tempBoard = frame.branch(frame.next++);
+            if (!softConstrains.check(tempBoard)) {
+                reportFailure(tempBoard, frame.position);
+            } else if (!isCollapsed(tempBoard)) {
+                stack.add(new Frame(tempBoard, null, null, order));
+            } else if (hardConstrains.check(tempBoard)) {
+                checkpoint.visit();
+                if (!visitor.test(tempBoard)) {
+                    checkpoint.write(frontier(stack, fingerprint, random, checkpoint.getSolutions()));
+                    return false;
+                }
+            }
+            if ((steps & CHECKPOINT_MASK) == 0) {
+                boolean interrupted = Thread.currentThread().isInterrupted();
+                if (interrupted || checkpoint.isDue()) {
+                    checkpoint.write(frontier(stack, fingerprint, random, checkpoint.getSolutions()));
+                }
+                if (interrupted) {
+                    return false;
+                }
+            }
+        }
+        checkpoint.delete();
+        return true;
+    }
+
+    /**
+     * Converts the collapsed board into the given board of states
+     *
+     * @param board the collapsed board object
+     * @param collapsed the empty collapsed board
+     * @return the converted board
+     */
+    public Board<StateValue> convert(Board<BoardValue> board, Board<StateValue> collapsed) {
+        return convertToCollapsed(board, collapsed);
     }
 
 }
@@ -0,0 +1,544 @@
+package backend.solvers.sat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Conflict-driven clause learning SAT solver. Uses the two watched literals propagation,
+ * the VSIDS branching heuristic with the phase saving and the Luby restarts. The variables
+ * and literals follow the DIMACS convention: the variables are numbered from 1 and
+ * the negative literal is the negated variable
+ */
+public class CDCLSolver {
+    private final static double                 VARIABLE_DECAY = 0.95;
+    private final static double                 RESCALE_LIMIT = 1e100;
+    private final static int                    RESTART_BASE = 100;
+    private final static int                    UNDEFINED = -1;
+
+    private final List<int[]>                   clauses = new ArrayList<>();
+    private IntVector[]                         watches = new IntVector[0];
+    private int[]                               assigns = new int[0];
+    private int[]                               levels = new int[0];
+    private int[]                               reasons = new int[0];
+    private boolean[]                           phases = new boolean[0];
+    private boolean[]                           seen = new boolean[0];
+    private double[]                            activity = new double[0];
+    private int[]                               trail = new int[0];
+    private int[]                               heap = new int[0];
+    private int[]                               heapIndex = new int[0];
+    private boolean[]                           model = new boolean[0];
+    private final IntVector                     trailLimits = new IntVector();
+    private double                              increment = 1;
+    private int                                 variables = 0;
+    private int                                 trailSize = 0;
+    private int                                 propagated = 0;
+    private int                                 heapSize = 0;
+    private long                                conflicts = 0;
+    private boolean                             inconsistent = false;
+
+    /**
+     * Growable array of the primitive integers
+     */
+    private static class IntVector {
+        private int[]                           data = new int[4];
+        private int                             size = 0;
+
+        /**
+         * Appends the value to the vector
+         *
+         * @param value the appended value
+         */
+        public void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        /**
+         * Returns the value at the given index
+         *
+         * @param index the index of the value
+         * @return the value at the given index
+         */
+        public int get(int index) {
+            return data[index];
+        }
+
+        /**
+         * Sets the value at the given index
+         *
+         * @param index the index of the value
+         * @param value the new value
+         */
+        public void set(int index, int value) {
+            data[index] = value;
+        }
+
+        /**
+         * Shrinks the vector to the given size
+         *
+         * @param size the new size of the vector
+         */
+        public void shrink(int size) {
+            this.size = size;
+        }
+
+        /**
+         * Returns the size of the vector
+         *
+         * @return the size of the vector
+         */
+        public int size() {
+            return size;
+        }
+
+    }
+
+    /**
+     * Creates the new variable
+     *
+     * @return the number of the new variable
+     */
+    public int newVariable() {
+        if (variables == assigns.length) {
+            int capacity = Math.max(16, variables * 2);
+            int watchesCount = watches.length;
+            watches = Arrays.copyOf(watches, capacity * 2);
+            for (int i = watchesCount; i < watches.length; ++i) {
+                watches[i] = new IntVector();
+            }
+            assigns = Arrays.copyOf(assigns, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            reasons = Arrays.copyOf(reasons, capacity);
+            phases = Arrays.copyOf(phases, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            activity = Arrays.copyOf(activity, capacity);
+            trail = Arrays.copyOf(trail, capacity);
+            heap = Arrays.copyOf(heap, capacity);
+            heapIndex = Arrays.copyOf(heapIndex, capacity);
+        }
+        int variable = variables++;
+        assigns[variable] = UNDEFINED;
+        reasons[variable] = UNDEFINED;
+        heapIndex[variable] = UNDEFINED;
+        heapInsert(variable);
+        return variable + 1;
+    }
+
+    /**
+     * Returns the number of the variables
+     *
+     * @return the number of the variables
+     */
+    public int getVariables() {
+        return variables;
+    }
+
+    /**
+     * Returns the number of the conflicts found by all searches
+     *
+     * @return the number of the conflicts
+     */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Converts the DIMACS literal to the internal literal
+     *
+     * @param literal the DIMACS literal
+     * @return the internal literal
+     */
+    private static int internal(int literal) {
+        return literal > 0 ? (literal - 1) << 1 : ((-literal - 1) << 1) | 1;
+    }
+
+    /**
+     * Returns the value of the internal literal
+     *
+     * @param literal the internal literal
+     * @return 1 when the literal is true, 0 when false and -1 when unassigned
+     */
+    private int literalValue(int literal) {
+        int assign = assigns[literal >> 1];
+        return assign == UNDEFINED ? UNDEFINED : assign ^ (literal & 1);
+    }
+
+    /**
+     * Adds the clause to the formula. The clauses can only be added between the searches
+     *
+     * @param literals the DIMACS literals of the clause
+     */
+    public void addClause(int... literals) {
+        if (inconsistent) {
+            return;
+        }
+        int[] clause = new int[literals.length];
+        int size = 0;
+        for (int literal : literals) {
+            int lit = internal(literal);
+            int value = literalValue(lit);
+            if (value == 1) {
+                return;
+            }
+            boolean duplicate = value == 0;
+            for (int i = 0; i < size && !duplicate; ++i) {
+                if (clause[i] == (lit ^ 1)) {
+                    return;
+                }
+                duplicate = clause[i] == lit;
+            }
+            if (!duplicate) {
+                clause[size++] = lit;
+            }
+        }
+        if (size == 0) {
+            inconsistent = true;
+        } else if (size == 1) {
+            enqueue(clause[0], UNDEFINED);
+            inconsistent = propagate() != UNDEFINED;
+        } else {
+            attach(Arrays.copyOf(clause, size));
+        }
+    }
+
+    /**
+     * Stores the clause and watches its first two literals
+     *
+     * @param clause the internal literals of the clause
+     * @return the index of the clause
+     */
+    private int attach(int[] clause) {
+        int index = clauses.size();
+        clauses.add(clause);
+        watches[clause[0]].add(index);
+        watches[clause[1]].add(index);
+        return index;
+    }
+
+    /**
+     * Assigns the literal to true
+     *
+     * @param literal the internal literal
+     * @param reason the index of the clause implying the literal or -1 for the decision
+     */
+    private void enqueue(int literal, int reason) {
+        int variable = literal >> 1;
+        assigns[variable] = (literal & 1) ^ 1;
+        levels[variable] = trailLimits.size();
+        reasons[variable] = reason;
+        trail[trailSize++] = literal;
+    }
+
+    /**
+     * Propagates the assigned literals using the watched literals
+     *
+     * @return the index of the conflicting clause or -1
+     */
+    private int propagate() {
+        int conflict = UNDEFINED;
+        while (propagated < trailSize && conflict == UNDEFINED) {
+            int falseLiteral = trail[propagated++] ^ 1;
+            IntVector watchList = watches[falseLiteral];
+            int i = 0, j = 0;
+            while (i < watchList.size()) {
+                int index = watchList.get(i++);
+                int[] clause = clauses.get(index);
+                if (clause[0] == falseLiteral) {
+                    clause[0] = clause[1];
+                    clause[1] = falseLiteral;
+                }
+                if (literalValue(clause[0]) == 1) {
+                    watchList.set(j++, index);
+                    continue;
+                }
+                boolean moved = false;
+                for (int k = 2; k < clause.length && !moved; ++k) {
+                    if (literalValue(clause[k]) != 0) {
+                        clause[1] = clause[k];
+                        clause[k] = falseLiteral;
+                        watches[clause[1]].add(index);
+                        moved = true;
+                    }
+                }
+                if (moved) {
+                    continue;
+                }
+                watchList.set(j++, index);
+                if (literalValue(clause[0]) == 0) {
+                    conflict = index;
+                    while (i < watchList.size()) {
+                        watchList.set(j++, watchList.get(i++));
+                    }
+                } else {
+                    enqueue(clause[0], index);
+                }
+            }
+            watchList.shrink(j);
+        }
+        return conflict;
+    }
+
+    /**
+     * Analyzes the conflict and derives the first unique implication point clause
+     *
+     * @param conflict the index of the conflicting clause
+     * @return the learnt clause with the asserting literal first and the literal
+     * of the backjump level second
+     */
+    private int[] analyze(int conflict) {
+        IntVector learnt = new IntVector();
+        learnt.add(UNDEFINED);
+        int pathCount = 0, literal = UNDEFINED, index = trailSize - 1, reason = conflict;
+        do {
+            int[] clause = clauses.get(reason);
+            for (int k = literal == UNDEFINED ? 0 : 1; k < clause.length; ++k) {
+                int variable = clause[k] >> 1;
+                if (!seen[variable] && levels[variable] > 0) {
+                    seen[variable] = true;
+                    bump(variable);
+                    if (levels[variable] >= trailLimits.size()) {
+                        ++pathCount;
+                    } else {
+                        learnt.add(clause[k]);
+                    }
+                }
+            }
+            while (!seen[trail[index] >> 1]) {
+                --index;
+            }
+            literal = trail[index--];
+            reason = reasons[literal >> 1];
+            seen[literal >> 1] = false;
+            --pathCount;
+        } while (pathCount > 0);
+        learnt.set(0, literal ^ 1);
+        int[] clause = Arrays.copyOf(learnt.data, learnt.size());
+        int highest = 1;
+        for (int k = 1; k < clause.length; ++k) {
+            seen[clause[k] >> 1] = false;
+            if (levels[clause[k] >> 1] > levels[clause[highest] >> 1]) {
+                highest = k;
+            }
+        }
+        if (clause.length > 1) {
+            int swap = clause[1];
+            clause[1] = clause[highest];
+            clause[highest] = swap;
+        }
+        return clause;
+    }
+
+    /**
+     * Undoes the assignments above the given decision level
+     *
+     * @param level the decision level
+     */
+    private void cancelUntil(int level) {
+        if (trailLimits.size() <= level) {
+            return;
+        }
+        for (int i = trailSize - 1; i >= trailLimits.get(level); --i) {
+            int variable = trail[i] >> 1;
+            phases[variable] = assigns[variable] == 1;
+            assigns[variable] = UNDEFINED;
+            reasons[variable] = UNDEFINED;
+            if (heapIndex[variable] == UNDEFINED) {
+                heapInsert(variable);
+            }
+        }
+        trailSize = trailLimits.get(level);
+        propagated = trailSize;
+        trailLimits.shrink(level);
+    }
+
+    /**
+     * Increases the activity of the variable
+     *
+     * @param variable the variable
+     */
+    private void bump(int variable) {
+        activity[variable] += increment;
+        if (activity[variable] > RESCALE_LIMIT) {
+            for (int i = 0; i < variables; ++i) {
+                activity[i] /= RESCALE_LIMIT;
+            }
+            increment /= RESCALE_LIMIT;
+        }
+        if (heapIndex[variable] != UNDEFINED) {
+            heapUp(heapIndex[variable]);
+        }
+    }
+
+    /**
+     * Inserts the variable into the activity heap
+     *
+     * @param variable the variable
+     */
+    private void heapInsert(int variable) {
+        heap[heapSize] = variable;
+        heapIndex[variable] = heapSize;
+        heapUp(heapSize++);
+    }
+
+    /**
+     * Removes the most active variable from the activity heap
+     *
+     * @return the most active variable
+     */
+    private int heapPop() {
+        int top = heap[0];
+        heap[0] = heap[--heapSize];
+        heapIndex[heap[0]] = 0;
+        heapIndex[top] = UNDEFINED;
+        if (heapSize > 0) {
+            heapDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Moves the heap element towards the root
+     *
+     * @param position the position of the element
+     */
+    private void heapUp(int position) {
+        int variable = heap[position];
+        while (position > 0 && activity[heap[(position - 1) >> 1]] < activity[variable]) {
+            heap[position] = heap[(position - 1) >> 1];
+            heapIndex[heap[position]] = position;
+            position = (position - 1) >> 1;
+        }
+        heap[position] = variable;
+        heapIndex[variable] = position;
+    }
+
+    /**
+     * Moves the heap element towards the leaves
+     *
+     * @param position the position of the element
+     */
+    private void heapDown(int position) {
+        int variable = heap[position];
+        while (2 * position + 1 < heapSize) {
+            int child = 2 * position + 1;
+            if (child + 1 < heapSize && activity[heap[child + 1]] > activity[heap[child]]) {
+                ++child;
+            }
+            if (activity[heap[child]] <= activity[variable]) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapIndex[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = variable;
+        heapIndex[variable] = position;
+    }
+
+    /**
+     * Returns the element of the Luby sequence
+     *
+     * @param index the index of the element
+     * @return the element of the Luby sequence
+     */
+    private static long luby(long index) {
+        long size = 1;
+        int sequence = 0;
+        while (size < index + 1) {
+            ++sequence;
+            size = 2 * size + 1;
+        }
+        while (size - 1 != index) {
+            size = (size - 1) >> 1;
+            --sequence;
+            index %= size;
+        }
+        return 1L << sequence;
+    }
+
+    /**
+     * Searches for the model until the given number of conflicts is reached
+     *
+     * @param conflictLimit the number of conflicts before the restart
+     * @return 1 when the model was found, 0 when the formula is unsatisfiable
+     * and -1 when the search was restarted
+     */
+    private int search(long conflictLimit) {
+        long found = 0;
+        while (true) {
+            int conflict = propagate();
+            if (conflict != UNDEFINED) {
+                ++conflicts;
+                ++found;
+                if (trailLimits.size() == 0) {
+                    return 0;
+                }
+                int[] learnt = analyze(conflict);
+                cancelUntil(learnt.length > 1 ? levels[learnt[1] >> 1] : 0);
+                enqueue(learnt[0], learnt.length > 1 ? attach(learnt) : UNDEFINED);
+                increment /= VARIABLE_DECAY;
+            } else if (found >= conflictLimit) {
+                cancelUntil(0);
+                return UNDEFINED;
+            } else {
+                int variable = UNDEFINED;
+                while (heapSize > 0 && variable == UNDEFINED) {
+                    int candidate = heapPop();
+                    variable = assigns[candidate] == UNDEFINED ? candidate : UNDEFINED;
+                }
+                if (variable == UNDEFINED) {
+                    return 1;
+                }
+                trailLimits.add(trailSize);
+                enqueue(variable << 1 | (phases[variable] ? 0 : 1), UNDEFINED);
+            }
+        }
+    }
+
+    /**
+     * Solves the formula. After the successful search the model is available
+     * through the {@link #value(int)} method and new clauses can be added. The interrupted
+     * search is abandoned at the next restart
+     *
+     * @return whether the formula is satisfiable
+     * @throws CancellationException when the current thread is interrupted
+     */
+    public boolean solve() {
+        if (inconsistent) {
+            return false;
+        }
+        int result = UNDEFINED;
+        for (long restart = 0; result == UNDEFINED; ++restart) {
+            if (Thread.currentThread().isInterrupted()) {
+                cancelUntil(0);
+                throw new CancellationException("The search was interrupted");
+            }
+            result = search(luby(restart) * RESTART_BASE);
+        }
+        if (result == 1) {
+            model = new boolean[variables];
+            for (int variable = 0; variable < variables; ++variable) {
+                model[variable] = assigns[variable] == 1;
+            }
+        } else {
+            inconsistent = true;
+        }
+        cancelUntil(0);
+        return result == 1;
+    }
+
+    /**
+     * Returns the value of the variable in the last found model
+     *
+     * @param variable the number of the variable
+     * @return the value of the variable
+     */
+    public boolean value(int variable) {
+        return model[variable - 1];
+    }
+
+}
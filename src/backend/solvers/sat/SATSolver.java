@@ -0,0 +1,267 @@
+package backend.solvers.sat;
+
+import backend.boards.Board;
+import backend.constrains.solver.HardConstrains;
+import backend.constrains.solver.SoftConstrains;
+import backend.solvers.NoSolutionException;
+import backend.solvers.Solver;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+
+import java.util.*;
+
+/**
+ * Solves the Battleships board by the encoding into CNF and the CDCL search. Every cell
+ * has one variable per state, the states' neighborhood is encoded from the states
+ * constraints, the line limits by the sequential counters and the fleet by the ship
+ * start variables of every length
+ */
+public class SATSolver extends Solver<Set<Integer>, Integer> {
+    private final static int                                    SHIP = 2;
+
+    private final List<Integer>                                 rowLimits;
+    private final List<Integer>                                 columnLimits;
+    private final TreeMap<Integer, Integer>                     shipLimits;
+
+    /**
+     * Creates a new SATSolver object
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @param constrains the board's states constraints
+     */
+    public SATSolver(List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits, Map<Integer, Map<Coord, Set<Integer>>> constrains) {
+        super(new SoftConstrains(rowLimits, columnLimits, shipLimits), new HardConstrains(rowLimits, columnLimits, shipLimits), constrains);
+        this.rowLimits = rowLimits;
+        this.columnLimits = columnLimits;
+        this.shipLimits = shipLimits;
+    }
+
+    /**
+     * Encodes the board's states and their neighborhood
+     *
+     * @param formula the CDCL solver
+     * @param dimensions the board dimensions
+     * @param states the sorted states
+     * @return the variables indexed by the cell and the state's index
+     */
+    private int[][] encodeStates(CDCLSolver formula, Coord dimensions, List<Integer> states) {
+        int[][] variables = new int[dimensions.x() * dimensions.y()][states.size()];
+        for (int[] cell : variables) {
+            for (int s = 0; s < states.size(); ++s) {
+                cell[s] = formula.newVariable();
+            }
+            formula.addClause(cell);
+            for (int s = 0; s < states.size(); ++s) {
+                for (int t = s + 1; t < states.size(); ++t) {
+                    formula.addClause(-cell[s], -cell[t]);
+                }
+            }
+        }
+        for (int index = 0; index < variables.length; ++index) {
+            int x = index % dimensions.x(), y = index / dimensions.x();
+            for (int s = 0; s < states.size(); ++s) {
+                for (Map.Entry<Coord, Set<Integer>> rule : constrains.get(states.get(s)).entrySet()) {
+                    int nx = x + rule.getKey().x(), ny = y + rule.getKey().y();
+                    if (nx < 0 || ny < 0 || nx >= dimensions.x() || ny >= dimensions.y()) {
+                        continue;
+                    }
+                    List<Integer> clause = new ArrayList<>(List.of(-variables[index][s]));
+                    for (int t = 0; t < states.size(); ++t) {
+                        if (rule.getValue().contains(states.get(t))) {
+                            clause.add(variables[ny * dimensions.x() + nx][t]);
+                        }
+                    }
+                    formula.addClause(clause.stream().mapToInt(Integer::intValue).toArray());
+                }
+            }
+        }
+        return variables;
+    }
+
+    /**
+     * Encodes that exactly the given number of literals is true using the sequential counter
+     *
+     * @param formula the CDCL solver
+     * @param literals the counted literals
+     * @param count the required number of true literals
+     */
+    static void exactly(CDCLSolver formula, List<Integer> literals, int count) {
+        if (count < 0 || count > literals.size()) {
+            formula.addClause();
+            return;
+        }
+        int[] previous = new int[count + 2];
+        for (int i = 0; i < literals.size(); ++i) {
+            int[] current = new int[count + 2];
+            for (int j = 1; j <= Math.min(i + 1, count + 1); ++j) {
+                current[j] = formula.newVariable();
+                int literal = literals.get(i);
+                if (previous[j] != 0) {
+                    formula.addClause(-previous[j], current[j]);
+                    formula.addClause(-current[j], previous[j], literal);
+                } else {
+                    formula.addClause(-current[j], literal);
+                }
+                if (j == 1) {
+                    formula.addClause(-literal, current[j]);
+                } else {
+                    formula.addClause(-literal, -previous[j - 1], current[j]);
+                    formula.addClause(-current[j], previous[j - 1]);
+                }
+            }
+            previous = current;
+        }
+        if (count > 0) {
+            formula.addClause(previous[count]);
+        }
+        if (previous[count + 1] != 0) {
+            formula.addClause(-previous[count + 1]);
+        }
+    }
+
+    /**
+     * Creates the variable equivalent to the conjunction of the given literals
+     *
+     * @param formula the CDCL solver
+     * @param literals the literals of the conjunction
+     * @return the variable of the conjunction
+     */
+    private static int conjunction(CDCLSolver formula, List<Integer> literals) {
+        int variable = formula.newVariable();
+        int[] clause = new int[literals.size() + 1];
+        clause[0] = variable;
+        for (int i = 0; i < literals.size(); ++i) {
+            formula.addClause(-variable, literals.get(i));
+            clause[i + 1] = -literals.get(i);
+        }
+        formula.addClause(clause);
+        return variable;
+    }
+
+    /**
+     * Encodes the fleet by the ship start variables of every length
+     *
+     * @param formula the CDCL solver
+     * @param ships the ship variables of the cells
+     * @param dimensions the board dimensions
+     */
+    private void encodeFleet(CDCLSolver formula, int[] ships, Coord dimensions) {
+        int width = dimensions.x(), height = dimensions.y();
+        int longest = shipLimits.isEmpty() ? 0 : shipLimits.lastKey();
+        for (int length = 1; length <= longest; ++length) {
+            List<Integer> starts = new ArrayList<>();
+            for (int y = 0; y < height; ++y) {
+                for (int x = 0; x < width; ++x) {
+                    if (length == 1) {
+                        starts.add(conjunction(formula, shipRun(ships, dimensions, x, y, 1, 0, 1)));
+                        continue;
+                    }
+                    if (x + length <= width) {
+                        starts.add(conjunction(formula, shipRun(ships, dimensions, x, y, 1, 0, length)));
+                    }
+                    if (y + length <= height) {
+                        starts.add(conjunction(formula, shipRun(ships, dimensions, x, y, 0, 1, length)));
+                    }
+                }
+            }
+            exactly(formula, starts, shipLimits.getOrDefault(length, 0));
+        }
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                for (int[] direction : new int[][]{{1, 0}, {0, 1}}) {
+                    if (x + direction[0] * longest < width && y + direction[1] * longest < height) {
+                        int[] clause = new int[longest + 1];
+                        for (int i = 0; i <= longest; ++i) {
+                            clause[i] = -ships[(y + direction[1] * i) * width + x + direction[0] * i];
+                        }
+                        formula.addClause(clause);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the literals of the ship of the given length starting at the given cell.
+     * The single cell ship is bounded by water in both directions
+     *
+     * @param ships the ship variables of the cells
+     * @param dimensions the board dimensions
+     * @param x the x-axis position of the ship's start
+     * @param y the y-axis position of the ship's start
+     * @param dx the x-axis direction of the ship
+     * @param dy the y-axis direction of the ship
+     * @param length the length of the ship
+     * @return the literals of the ship
+     */
+    private static List<Integer> shipRun(int[] ships, Coord dimensions, int x, int y, int dx, int dy, int length) {
+        List<Integer> literals = new ArrayList<>();
+        for (int i = -1; i <= length; ++i) {
+            int cx = x + dx * i, cy = y + dy * i;
+            if (cx >= 0 && cy >= 0 && cx < dimensions.x() && cy < dimensions.y()) {
+                literals.add(i < 0 || i == length ? -ships[cy * dimensions.x() + cx] : ships[cy * dimensions.x() + cx]);
+            }
+        }
+        if (length == 1) {
+            for (int i = -1; i <= 1; i += 2) {
+                int cx = x + dy * i, cy = y + dx * i;
+                if (cx >= 0 && cy >= 0 && cx < dimensions.x() && cy < dimensions.y()) {
+                    literals.add(-ships[cy * dimensions.x() + cx]);
+                }
+            }
+        }
+        return literals;
+    }
+
+    /**
+     * Solves the given board using the CDCL search
+     *
+     * @param emptyBoard the empty board
+     * @param solvedBoard the solved board
+     * @param initValueList the initial value list for the problem
+     * @return the solved board
+     * @throws NoSolutionException if no solution can be found
+     */
+    @Override
+    public Board<Integer> solve(Board<Set<Integer>> emptyBoard, Board<Integer> solvedBoard, List<InitValue<Integer>> initValueList) throws NoSolutionException {
+        Coord dimensions = emptyBoard.getDimensions();
+        List<Integer> states = new ArrayList<>(new TreeSet<>(constrains.keySet()));
+        CDCLSolver formula = new CDCLSolver();
+        int[][] variables = encodeStates(formula, dimensions, states);
+        int[] ships = new int[variables.length];
+        for (int index = 0; index < variables.length; ++index) {
+            ships[index] = variables[index][states.indexOf(SHIP)];
+        }
+        for (InitValue<Integer> initValue : initValueList) {
+            formula.addClause(variables[initValue.coord().y() * dimensions.x() + initValue.coord().x()][states.indexOf(initValue.value())]);
+        }
+        for (int line = 0; line < rowLimits.size() + columnLimits.size(); ++line) {
+            boolean row = line < rowLimits.size();
+            List<Integer> literals = new ArrayList<>();
+            for (int i = 0; i < (row ? dimensions.x() : dimensions.y()); ++i) {
+                literals.add(row ? ships[line * dimensions.x() + i] : ships[i * dimensions.x() + line - rowLimits.size()]);
+            }
+            exactly(formula, literals, row ? rowLimits.get(line) : columnLimits.get(line - rowLimits.size()));
+        }
+        encodeFleet(formula, ships, dimensions);
+        if (!formula.solve()) {
+            throw new NoSolutionException();
+        }
+        for (int index = 0; index < variables.length; ++index) {
+            Coord position = new Coord(index % dimensions.x(), index / dimensions.x());
+            for (int s = 0; s < states.size(); ++s) {
+                if (formula.value(variables[index][s])) {
+                    emptyBoard.generateCell(position, new HashSet<>(Set.of(states.get(s))));
+                    solvedBoard.setValue(position, states.get(s));
+                }
+            }
+        }
+        if (!hardConstrains.check(emptyBoard)) {
+            throw new NoSolutionException();
+        }
+        return solvedBoard;
+    }
+
+}
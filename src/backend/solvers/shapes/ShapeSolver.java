@@ -0,0 +1,450 @@
+package backend.solvers.shapes;
+
+import backend.boards.Board;
+import backend.constrains.dto.RuleTable;
+import backend.constrains.solver.HardConstrains;
+import backend.constrains.solver.SoftConstrains;
+import backend.solvers.NoSolutionException;
+import backend.solvers.Solver;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.stream.IntStream;
+
+/**
+ * Solves the Battleships board over the full vectorized states alphabet. Every ship cell
+ * takes one of the ship shapes, so the ship ends, middles and singles propagate natively.
+ * The cell domains are the bitmasks of the states and the neighborhood is compiled into
+ * the table of the supported states of every direction and every domain. The unknown state
+ * and the undirected ship are not the part of the alphabet, the undirected ship clue allows
+ * every ship shape
+ */
+public class ShapeSolver extends Solver<Set<Integer>, Integer> {
+    private final static int                                    UNKNOWN = 0;
+    private final static int                                    WATER = 1;
+    private final static int                                    SHIP = 2;
+    private final static int                                    MAX_STATE = 12;
+    private final static int                                    UP = 1;
+    private final static int                                    LEFT = 3;
+    private final static int                                    RIGHT = 4;
+    private final static int                                    DOWN = 6;
+    private final static int[]                                  DX = IntStream.range(0, RuleTable.DIRECTIONS).map(d -> RuleTable.offset(d).x()).toArray();
+    private final static int[]                                  DY = IntStream.range(0, RuleTable.DIRECTIONS).map(d -> RuleTable.offset(d).y()).toArray();
+
+    private final int[]                                         rowLimits;
+    private final int[]                                         columnLimits;
+    private final int[]                                         shipCounts;
+    private final int                                           multiShips;
+    private final int                                           alphabet;
+    private final int                                           ships;
+    private final int                                           singles;
+    private final int                                           starts;
+    private final int                                           middles;
+    private final int                                           domains;
+    private final int[]                                         supported;
+    private int                                                 width;
+    private int                                                 height;
+    private long                                                nodes = 0;
+
+    /**
+     * The tables compiled from the vectorized states constraints. The tables do not depend
+     * on the limits of the board, so they are compiled once and shared by the solvers
+     *
+     * @param states the bitmask of the states of the alphabet
+     * @param ships the bitmask of the ship shapes
+     * @param singles the bitmask of the single cell ship shapes
+     * @param starts the bitmask of the ship shapes starting the longer ship
+     * @param middles the bitmask of the ship shapes with the ship on every side
+     * @param domains the number of the cell domains
+     * @param supported the bitmask of the states supported by the neighbor's domain, indexed by the direction and the domain
+     */
+    public record Alphabet(int states, int ships, int singles, int starts, int middles, int domains, int[] supported) {
+
+        /**
+         * Compiles the tables of the vectorized states constraints
+         *
+         * @param constrains the vectorized states constraints
+         * @return the compiled tables
+         * @throws IllegalArgumentException when the alphabet contains no ship shape or the state is too large
+         */
+        public static Alphabet compile(Map<Integer, Map<Coord, Set<Integer>>> constrains) throws IllegalArgumentException {
+            int maximum = constrains.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+            if (maximum > MAX_STATE) {
+                throw new IllegalArgumentException("State " + maximum + " exceeds the shape alphabet");
+            }
+            int states = 0;
+            for (Integer state : constrains.keySet()) {
+                states |= state != UNKNOWN && state != SHIP ? 1 << state : 0;
+            }
+            int ships = states & ~(1 << WATER);
+            if (ships == 0) {
+                throw new IllegalArgumentException("The alphabet contains no ship shape");
+            }
+            RuleTable table = new RuleTable(constrains, 0);
+            int domains = 1 << (maximum + 1);
+            int[] supported = new int[RuleTable.DIRECTIONS * domains];
+            for (int d = 0; d < RuleTable.DIRECTIONS; ++d) {
+                for (int domain = 0; domain < domains; ++domain) {
+                    for (int state = 0; state <= maximum; ++state) {
+                        if ((states >>> state & 1) != 0 && (table.allowed(state, d) & domain & states) != 0) {
+                            supported[d * domains + domain] |= 1 << state;
+                        }
+                    }
+                }
+            }
+            int single = 0, start = 0, middle = 0;
+            for (int state = 0; state <= maximum; ++state) {
+                if ((ships >>> state & 1) == 0) {
+                    continue;
+                }
+                boolean left = (table.allowed(state, LEFT) & ships) != 0, right = (table.allowed(state, RIGHT) & ships) != 0;
+                boolean up = (table.allowed(state, UP) & ships) != 0, down = (table.allowed(state, DOWN) & ships) != 0;
+                single |= !left && !right && !up && !down ? 1 << state : 0;
+                start |= !left && !up ? 1 << state : 0;
+                middle |= left && right && up && down ? 1 << state : 0;
+            }
+            return new Alphabet(states, ships, single, start & ~single, middle, domains, supported);
+        }
+
+        /**
+         * Returns the bitmask of the clue values accepted by the solver, i.e. the states of
+         * the alphabet and the undirected ship
+         *
+         * @return the bitmask of the clue values
+         */
+        public int clues() {
+            return states | 1 << SHIP;
+        }
+
+    }
+
+    /**
+     * Creates a new ShapeSolver object
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @param constrains the vectorized states constraints
+     * @throws IllegalArgumentException when the alphabet contains no ship shape or the state is too large
+     */
+    public ShapeSolver(List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits, Map<Integer, Map<Coord, Set<Integer>>> constrains) throws IllegalArgumentException {
+        this(rowLimits, columnLimits, shipLimits, constrains, Alphabet.compile(constrains));
+    }
+
+    /**
+     * Creates a new ShapeSolver object over the already compiled tables
+     *
+     * @param rowLimits the row limits
+     * @param columnLimits the column limits
+     * @param shipLimits the ship lengths
+     * @param constrains the vectorized states constraints
+     * @param compiled the tables compiled from the constraints
+     */
+    public ShapeSolver(List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits, Map<Integer, Map<Coord, Set<Integer>>> constrains, Alphabet compiled) {
+        super(new SoftConstrains(rowLimits, columnLimits, shipLimits), new HardConstrains(rowLimits, columnLimits, shipLimits), constrains);
+        this.rowLimits = rowLimits.stream().mapToInt(Integer::intValue).toArray();
+        this.columnLimits = columnLimits.stream().mapToInt(Integer::intValue).toArray();
+        this.shipCounts = new int[(shipLimits.isEmpty() ? 0 : shipLimits.lastKey()) + 1];
+        shipLimits.forEach((length, count) -> shipCounts[length] = count);
+        this.multiShips = Arrays.stream(shipCounts).sum() - (shipCounts.length > 1 ? shipCounts[1] : 0);
+        this.alphabet = compiled.states();
+        this.ships = compiled.ships();
+        this.singles = compiled.singles();
+        this.starts = compiled.starts();
+        this.middles = compiled.middles();
+        this.domains = compiled.domains();
+        this.supported = compiled.supported();
+    }
+
+    /**
+     * Returns the number of the search nodes visited by the last solving
+     *
+     * @return the number of the visited search nodes
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the index of the cell's neighbor in the given direction
+     *
+     * @param index the index of the cell
+     * @param direction the index of the neighbor's direction
+     * @return the index of the neighbor or -1 when the neighbor is not on the board
+     */
+    private int neighbor(int index, int direction) {
+        int x = index % width + DX[direction], y = index / width + DY[direction];
+        return x < 0 || y < 0 || x >= width || y >= height ? -1 : y * width + x;
+    }
+
+    /**
+     * Returns the domain of the cell's neighbor. The cells outside the board are water
+     *
+     * @param cells the cell domains
+     * @param index the index of the cell
+     * @param direction the index of the neighbor's direction
+     * @return the domain of the neighbor
+     */
+    private int neighborDomain(int[] cells, int index, int direction) {
+        int neighbor = neighbor(index, direction);
+        return neighbor < 0 ? 1 << WATER : cells[neighbor];
+    }
+
+    /**
+     * Narrows the domain of the cell
+     *
+     * @param cells the cell domains
+     * @param index the index of the cell, the cells outside the board are ignored
+     * @param mask the allowed states
+     * @return 1 when the domain has changed, 0 when it has not and -1 when it has become empty
+     */
+    private static int narrow(int[] cells, int index, int mask) {
+        if (index < 0) {
+            return 0;
+        }
+        int domain = cells[index] & mask;
+        if (domain == cells[index]) {
+            return 0;
+        }
+        cells[index] = domain;
+        return domain == 0 ? -1 : 1;
+    }
+
+    /**
+     * Removes the states without the support of some neighbor
+     *
+     * @param cells the cell domains
+     * @return 1 when some domain has changed, 0 when none has and -1 when some has become empty
+     */
+    private int reviseNeighbors(int[] cells) {
+        int changed = 0;
+        for (int index = 0; index < cells.length; ++index) {
+            for (int d = 0; d < RuleTable.DIRECTIONS; ++d) {
+                int result = narrow(cells, index, supported[d * domains + neighborDomain(cells, index, d)]);
+                if (result < 0) {
+                    return -1;
+                }
+                changed |= result;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Keeps the middle shapes only on the axis with the ship on both sides and the water
+     * on both sides of the other axis
+     *
+     * @param cells the cell domains
+     * @return 1 when some domain has changed, 0 when none has and -1 when some has become empty
+     */
+    private int reviseMiddles(int[] cells) {
+        int changed = 0, water = 1 << WATER;
+        for (int index = 0; index < cells.length && middles != 0; ++index) {
+            if ((cells[index] & middles) == 0) {
+                continue;
+            }
+            int left = neighborDomain(cells, index, LEFT), right = neighborDomain(cells, index, RIGHT);
+            int up = neighborDomain(cells, index, UP), down = neighborDomain(cells, index, DOWN);
+            boolean horizontal = (left & ships) != 0 && (right & ships) != 0 && (up & water) != 0 && (down & water) != 0;
+            boolean vertical = (up & ships) != 0 && (down & ships) != 0 && (left & water) != 0 && (right & water) != 0;
+            int result = horizontal || vertical ? 0 : narrow(cells, index, ~middles);
+            if (result == 0 && (cells[index] & ~middles) == 0 && horizontal != vertical) {
+                int along = horizontal ? ships : water, across = horizontal ? water : ships;
+                result = narrow(cells, neighbor(index, LEFT), along) | narrow(cells, neighbor(index, RIGHT), along)
+                    | narrow(cells, neighbor(index, UP), across) | narrow(cells, neighbor(index, DOWN), across);
+            }
+            if (result < 0) {
+                return -1;
+            }
+            changed |= result;
+        }
+        return changed;
+    }
+
+    /**
+     * Narrows the undecided cells of the line to the water or to the ships when the line
+     * limit is reached
+     *
+     * @param cells the cell domains
+     * @param first the index of the line's first cell
+     * @param step the distance between the line's cells
+     * @param length the number of the line's cells
+     * @param limit the line limit
+     * @return 1 when some domain has changed, 0 when none has and -1 when the limit cannot be met
+     */
+    private int reviseLine(int[] cells, int first, int step, int length, int limit) {
+        int definite = 0, possible = 0;
+        for (int i = 0, index = first; i < length; ++i, index += step) {
+            definite += (cells[index] & ~ships) == 0 ? 1 : 0;
+            possible += (cells[index] & ships) != 0 ? 1 : 0;
+        }
+        if (definite > limit || possible < limit) {
+            return -1;
+        }
+        if (definite == possible) {
+            return 0;
+        }
+        int mask = definite == limit ? ~ships : possible == limit ? ships : -1;
+        int changed = 0;
+        for (int i = 0, index = first; i < length && mask != -1; ++i, index += step) {
+            if ((cells[index] & ships) != 0 && (cells[index] & ~ships) != 0) {
+                changed |= narrow(cells, index, mask);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Narrows the undecided cells to or from the given states when their required number
+     * is reached
+     *
+     * @param cells the cell domains
+     * @param states the counted states
+     * @param required the required number of the cells holding the states
+     * @return 1 when some domain has changed, 0 when none has and -1 when the number cannot be met
+     */
+    private int reviseCount(int[] cells, int states, int required) {
+        int definite = 0, possible = 0;
+        for (int domain : cells) {
+            definite += (domain & ~states) == 0 ? 1 : 0;
+            possible += (domain & states) != 0 ? 1 : 0;
+        }
+        if (definite > required || possible < required) {
+            return -1;
+        }
+        int changed = 0;
+        for (int index = 0; index < cells.length && definite != possible; ++index) {
+            if ((cells[index] & states) == 0 || (cells[index] & ~states) == 0) {
+                continue;
+            }
+            if (definite == required) {
+                changed |= narrow(cells, index, ~states);
+            } else if (possible == required) {
+                changed |= narrow(cells, index, states);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Propagates the constraints until the fixpoint
+     *
+     * @param cells the cell domains
+     * @return whether no constraint has been violated
+     */
+    private boolean propagate(int[] cells) {
+        int changed = 1;
+        while (changed > 0) {
+            changed = reviseNeighbors(cells);
+            for (int y = 0; y < height && changed >= 0; ++y) {
+                changed |= reviseLine(cells, y * width, 1, width, rowLimits[y]);
+            }
+            for (int x = 0; x < width && changed >= 0; ++x) {
+                changed |= reviseLine(cells, x, width, height, columnLimits[x]);
+            }
+            changed = changed < 0 ? -1 : changed | reviseMiddles(cells);
+            changed = changed < 0 ? -1 : changed | reviseCount(cells, singles, shipCounts.length > 1 ? shipCounts[1] : 0);
+            changed = changed < 0 ? -1 : changed | reviseCount(cells, starts, multiShips);
+        }
+        return changed == 0;
+    }
+
+    /**
+     * Checks if the ships of the solved cells match the ship lengths
+     *
+     * @param cells the solved cell domains
+     * @return whether the ship lengths are satisfied
+     */
+    private boolean fleet(int[] cells) {
+        int[] histogram = new int[shipCounts.length];
+        for (int index = 0; index < cells.length; ++index) {
+            if ((cells[index] & (starts | singles)) == 0) {
+                continue;
+            }
+            int length = 1, direction = (neighborDomain(cells, index, RIGHT) & ships) != 0 ? RIGHT : DOWN;
+            for (int next = neighbor(index, direction); next >= 0 && (cells[next] & ships) != 0; next = neighbor(next, direction)) {
+                ++length;
+            }
+            if (length >= histogram.length) {
+                return false;
+            }
+            histogram[length] += 1;
+        }
+        return Arrays.equals(histogram, shipCounts);
+    }
+
+    /**
+     * Searches for the solution by branching on the cell with the smallest domain
+     *
+     * @param cells the propagated cell domains
+     * @return the solved cell domains or null when there is no solution
+     */
+    private int[] search(int[] cells) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("The search was interrupted");
+        }
+        ++nodes;
+        int best = -1;
+        for (int index = 0; index < cells.length; ++index) {
+            int size = Integer.bitCount(cells[index]);
+            if (size > 1 && (best < 0 || size < Integer.bitCount(cells[best]))) {
+                best = index;
+            }
+        }
+        if (best < 0) {
+            return fleet(cells) ? cells : null;
+        }
+        for (int domain = cells[best]; domain != 0; domain &= domain - 1) {
+            int[] branch = cells.clone();
+            branch[best] = Integer.lowestOneBit(domain);
+            int[] solution = propagate(branch) ? search(branch) : null;
+            if (solution != null) {
+                return solution;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Solves the given board over the vectorized states alphabet. The initial values may
+     * hold every state of the alphabet and the undirected ship
+     *
+     * @param emptyBoard the empty board
+     * @param solvedBoard the solved board
+     * @param initValueList the initial value list for the problem
+     * @return the solved board with the water and ship states
+     * @throws NoSolutionException if no solution can be found
+     * @throws CancellationException when the current thread is interrupted
+     */
+    @Override
+    public Board<Integer> solve(Board<Set<Integer>> emptyBoard, Board<Integer> solvedBoard, List<InitValue<Integer>> initValueList) throws NoSolutionException {
+        width = emptyBoard.getWidth();
+        height = emptyBoard.getHeight();
+        nodes = 0;
+        int[] cells = new int[width * height];
+        Arrays.fill(cells, alphabet);
+        for (InitValue<Integer> initValue : initValueList) {
+            int value = initValue.value(), index = initValue.coord().y() * width + initValue.coord().x();
+            if (value != UNKNOWN) {
+                cells[index] &= value == SHIP ? ships : value >= 0 && value < Integer.SIZE ? 1 << value : 0;
+            }
+        }
+        int[] solution = Arrays.stream(cells).allMatch(domain -> domain != 0) && propagate(cells) ? search(cells) : null;
+        if (solution == null) {
+            throw new NoSolutionException();
+        }
+        for (int index = 0; index < solution.length; ++index) {
+            Coord position = new Coord(index % width, index / width);
+            int value = (solution[index] & ships) != 0 ? SHIP : WATER;
+            emptyBoard.generateCell(position, new HashSet<>(Set.of(value)));
+            solvedBoard.setValue(position, value);
+        }
+        if (!hardConstrains.check(emptyBoard)) {
+            throw new NoSolutionException();
+        }
+        return solvedBoard;
+    }
+
+}
@@ -158,4 +158,26 @@ public class BattleshipsBoardTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    void lineCountsTest() {
+        BattleshipsBoard board = new BattleshipsBoard(new Coord(3, 2));
+        for (int y = 0; y < 2; ++y) {
+            for (int x = 0; x < 3; ++x) {
+                board.generateCell(new Coord(x, y), new HashSet<>(Set.of(1, 2)));
+            }
+        }
+        assertEquals(3, board.getRowUndecided(0));
+        assertEquals(2, board.getColumnUndecided(2));
+        board.setValue(new Coord(2, 1), new HashSet<>(Set.of(2)));
+        board.setValue(new Coord(1, 1), new HashSet<>(Set.of(1)));
+        BattleshipsBoard cloned = (BattleshipsBoard) board.clone();
+        cloned.transpose().setValue(new Coord(1, 0), new HashSet<>(Set.of(2)));
+        assertEquals(1, board.getRowShips(1));
+        assertEquals(1, board.getRowUndecided(1));
+        assertEquals(1, board.getColumnUndecided(2));
+        assertEquals(2, cloned.getRowShips(1));
+        assertEquals(0, cloned.getRowUndecided(1));
+        assertEquals(1, cloned.getColumnUndecided(0));
+    }
+
+}
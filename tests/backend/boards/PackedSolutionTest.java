@@ -0,0 +1,88 @@
+package backend.boards;
+
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.utility.Coord;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedSolutionTest {
+
+    private static BoardDTO generateBoard(Integer[][] cells) {
+        BoardDTO board = new BoardDTO(new Coord(cells[0].length, cells.length));
+        for (int y = 0; y < cells.length; ++y) {
+            for (int x = 0; x < cells[0].length; ++x) {
+                board.generateCell(new Coord(x, y), cells[y][x]);
+            }
+        }
+        return board;
+    }
+
+    @Test
+    void encodeDecodeTest() {
+        Integer[][] cells = WaveFunctionCollapseTest.validBoard();
+        PackedSolution solution = PackedSolution.encode(generateBoard(cells));
+        assertEquals(10, solution.ships());
+        BoardDTO board = solution.toBoard();
+        byte[] bytes = new byte[40];
+        solution.decode(bytes, 4);
+        for (int y = 0; y < 6; ++y) {
+            for (int x = 0; x < 6; ++x) {
+                assertEquals(cells[y][x], board.accessCell(new Coord(x, y)));
+                assertEquals(cells[y][x], bytes[4 + y * 6 + x]);
+                assertEquals(cells[y][x] == 2, solution.isShip(x, y));
+            }
+        }
+        assertEquals(solution, PackedSolution.encode(bytes, 4, 6, 6));
+        assertEquals(solution.hashCode(), PackedSolution.encode(bytes, 4, 6, 6).hashCode());
+        assertNotEquals(solution, PackedSolution.encode(bytes, 4, 9, 4));
+    }
+
+    @Test
+    void largeBoardTest() {
+        Random random = new Random(47);
+        byte[] cells = new byte[13 * 11];
+        for (int i = 0; i < cells.length; ++i) {
+            cells[i] = (byte) (1 + random.nextInt(2));
+        }
+        PackedSolution solution = PackedSolution.encode(cells, 0, 13, 11);
+        ByteBuffer buffer = ByteBuffer.allocate(solution.byteSize() + 1).put((byte) 7);
+        solution.write(buffer);
+        assertFalse(buffer.hasRemaining());
+        PackedSolution read = PackedSolution.read(buffer.flip().position(1));
+        assertEquals(solution, read);
+        byte[] decoded = new byte[cells.length];
+        read.decode(decoded, 0);
+        assertArrayEquals(cells, decoded);
+    }
+
+    @Test
+    void malformedReadTest() {
+        assertThrowsExactly(BufferUnderflowException.class, () -> PackedSolution.read(ByteBuffer.wrap(new byte[]{-1, -1, -1, -1})));
+        assertThrowsExactly(BufferUnderflowException.class, () -> PackedSolution.read(ByteBuffer.wrap(new byte[]{-1, -1, 0x7F, -1})));
+        ByteBuffer padded = ByteBuffer.allocate(2 * Short.BYTES + Long.BYTES).putShort((short) 6).putShort((short) 6).putLong(1L << 36);
+        assertThrowsExactly(IllegalArgumentException.class, () -> PackedSolution.read(padded.flip()));
+        ByteBuffer full = ByteBuffer.allocate(2 * Short.BYTES + Long.BYTES).putShort((short) 8).putShort((short) 8).putLong(-1L);
+        assertEquals(64, PackedSolution.read(full.flip()).ships());
+    }
+
+    @Test
+    void diffTest() {
+        Integer[][] cells = WaveFunctionCollapseTest.validBoard();
+        PackedSolution solution = PackedSolution.encode(generateBoard(cells));
+        cells[0][1] = 2;
+        cells[2][2] = 1;
+        PackedSolution submission = PackedSolution.encode(generateBoard(cells));
+        PackedSolution difference = solution.diff(submission);
+        assertEquals(2, difference.ships());
+        assertEquals(List.of(new Coord(1, 0), new Coord(2, 2)), difference.shipCells());
+        assertEquals(0, solution.diff(solution).ships());
+        assertThrowsExactly(IllegalArgumentException.class, () -> solution.diff(PackedSolution.encode(new byte[4], 0, 2, 2)));
+    }
+
+}
@@ -0,0 +1,105 @@
+package backend.constrains;
+
+import backend.boards.BattleshipsBoard;
+import backend.boards.Board;
+import backend.constrains.solver.SoftConstrains;
+import backend.facades.BattleshipsSolver;
+import backend.solvers.NoSolutionException;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConstrainsTest {
+
+    private static Board<Set<Integer>> generateBoard() {
+        BattleshipsBoard board = new BattleshipsBoard(new Coord(4, 4));
+        for (int x = 0; x < 4; ++x) {
+            for (int y = 0; y < 4; ++y) {
+                board.generateCell(new Coord(x, y), new HashSet<>(Set.of(1, 2)));
+            }
+        }
+        board.setValue(new Coord(1, 1), new HashSet<>(Set.of(2)));
+        return board;
+    }
+
+    private static AdaptiveConstrains<Set<Integer>> generateConstrains(ConstrainStatistics statistics) {
+        return new AdaptiveConstrains<>(new SoftConstrains(List.of(1, 1, 1, 1), List.of(1, 0, 1, 1),
+            new TreeMap<>(Map.of(1, 1))), statistics);
+    }
+
+    @Test
+    void countersTest() {
+        ConstrainStatistics statistics = new ConstrainStatistics();
+        assertFalse(generateConstrains(statistics).check(generateBoard()));
+        List<ConstrainStatistics.Counters> counters = statistics.getCounters();
+        assertEquals(1, counters.get(ConstrainStatistics.Check.ROWS.ordinal()).calls());
+        assertEquals(0, counters.get(ConstrainStatistics.Check.ROWS.ordinal()).rejections());
+        assertEquals(1, counters.get(ConstrainStatistics.Check.COLUMNS.ordinal()).rejections());
+        assertEquals(0, counters.get(ConstrainStatistics.Check.SHIP_LENGTHS.ordinal()).calls());
+    }
+
+    @Test
+    void reorderTest() {
+        ConstrainStatistics statistics = new ConstrainStatistics();
+        AdaptiveConstrains<Set<Integer>> constrains = generateConstrains(statistics);
+        assertEquals(ConstrainStatistics.Check.ROWS, statistics.getOrder().get(0));
+        constrains.check(generateBoard());
+        statistics.reorder();
+        assertEquals(ConstrainStatistics.Check.COLUMNS, statistics.getOrder().get(0));
+        assertFalse(constrains.check(generateBoard()));
+        assertEquals(1, statistics.getCounters().get(ConstrainStatistics.Check.ROWS.ordinal()).calls());
+    }
+
+    @Test
+    void sharedStatisticsTest() throws InterruptedException {
+        ConstrainStatistics statistics = new ConstrainStatistics();
+        AdaptiveConstrains<Set<Integer>> constrains = generateConstrains(statistics);
+        Board<Set<Integer>> board = generateBoard();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 3000; ++j) {
+                    constrains.check(board);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        ConstrainStatistics.Counters columns = statistics.getCounters().get(ConstrainStatistics.Check.COLUMNS.ordinal());
+        assertEquals(12000, columns.rejections());
+        assertEquals(columns.calls(), columns.rejections());
+        assertTrue(columns.nanos() > 0);
+        assertEquals(ConstrainStatistics.Check.COLUMNS, statistics.getOrder().get(0));
+    }
+
+    @Test
+    void failedCheckOrderTest() {
+        SoftConstrains constrains = new SoftConstrains(List.of(0, 0, 0, 0), List.of(1, 0, 1, 1), new TreeMap<>(Map.of(1, 1)));
+        Board<Set<Integer>> board = generateBoard();
+        assertEquals(ConstrainStatistics.Check.ROWS, constrains.failedCheck(board, new ConstrainStatistics.Check[]{
+            ConstrainStatistics.Check.ROWS, ConstrainStatistics.Check.COLUMNS, ConstrainStatistics.Check.SHIP_LENGTHS}));
+        assertEquals(ConstrainStatistics.Check.COLUMNS, constrains.failedCheck(board, new ConstrainStatistics.Check[]{
+            ConstrainStatistics.Check.COLUMNS, ConstrainStatistics.Check.ROWS, ConstrainStatistics.Check.SHIP_LENGTHS}));
+        assertNull(constrains.failedCheck(board, new ConstrainStatistics.Check[]{ConstrainStatistics.Check.SHIP_LENGTHS}));
+    }
+
+    @Test
+    void solverStatisticsTest() throws NoSolutionException {
+        BattleshipsSolver solver = new BattleshipsSolver(BattleshipsStatesTest.generateConstrains());
+        solver.solve(List.of(new InitValue<>(new Coord(2, 2), 4)), List.of(3, 1, 2, 3, 0, 1),
+            List.of(3, 0, 3, 0, 1, 3), WaveFunctionCollapseTest.generateShipLengths());
+        assertTrue(solver.getSoftStatistics().getCounters().stream().mapToLong(ConstrainStatistics.Counters::calls).sum() > 0);
+        assertTrue(solver.getHardStatistics().getCounters().get(ConstrainStatistics.Check.ROWS.ordinal()).calls() > 0);
+    }
+
+}
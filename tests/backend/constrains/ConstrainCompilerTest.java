@@ -0,0 +1,85 @@
+package backend.constrains;
+
+import backend.boards.BattleshipsBoard;
+import backend.constrains.solver.HardConstrains;
+import backend.constrains.solver.SoftConstrains;
+import backend.utility.Coord;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConstrainCompilerTest {
+
+    private final static List<Integer>                      rowLimits = List.of(2, 1, 3, 0, 2, 1);
+    private final static List<Integer>                      colLimits = List.of(1, 2, 2, 1, 2, 1);
+
+    private static BattleshipsBoard generateBoard(Random random) {
+        BattleshipsBoard board = new BattleshipsBoard(new Coord(6, 6));
+        for (int y = 0; y < 6; ++y) {
+            for (int x = 0; x < 6; ++x) {
+                int kind = random.nextInt(5);
+                board.generateCell(new Coord(x, y), new HashSet<>(kind == 0 ? Set.of(1, 2) : kind == 1 ? Set.of(2) : Set.of(1)));
+            }
+        }
+        return board;
+    }
+
+    private static int[] pack(BattleshipsBoard board) {
+        int[] cells = new int[36];
+        for (int y = 0; y < 6; ++y) {
+            for (int x = 0; x < 6; ++x) {
+                Set<Integer> cell = board.accessCell(new Coord(x, y));
+                cells[y * 6 + x] = !cell.contains(2) ? 0 : cell.size() == 1 ? ConstrainCompiler.SHIP : ConstrainCompiler.OPEN;
+            }
+        }
+        return cells;
+    }
+
+    @Test
+    void compiledCheckerTest() {
+        ConstrainCompiler.Checker bounded = ConstrainCompiler.compile(ConstrainCompiler.Kind.BOUNDED, rowLimits, colLimits).orElseThrow();
+        ConstrainCompiler.Checker exact = ConstrainCompiler.compile(ConstrainCompiler.Kind.EXACT, rowLimits, colLimits).orElseThrow();
+        SoftConstrains soft = new SoftConstrains(rowLimits, colLimits, new TreeMap<>());
+        HardConstrains hard = new HardConstrains(rowLimits, colLimits, new TreeMap<>());
+        Random random = new Random(39);
+        int accepted = 0;
+        for (int i = 0; i < 3000; ++i) {
+            BattleshipsBoard board = generateBoard(random);
+            int expected = (soft.rowConstrainsStatus(board) ? 0 : ConstrainCompiler.ROWS) | (soft.columnConstrainsStatus(board) ? 0 : ConstrainCompiler.COLUMNS);
+            assertEquals(expected, bounded.check(pack(board)));
+            assertEquals((hard.rowConstrainsStatus(board) ? 0 : ConstrainCompiler.ROWS) | (hard.columnConstrainsStatus(board) ? 0 : ConstrainCompiler.COLUMNS), exact.check(pack(board)));
+            accepted += expected == 0 ? 1 : 0;
+        }
+        assertTrue(accepted > 0);
+    }
+
+    @Test
+    void exactCheckerTest() {
+        ConstrainCompiler.Checker exact = ConstrainCompiler.compile(ConstrainCompiler.Kind.EXACT, List.of(1, 1), List.of(1, 1)).orElseThrow();
+        int s = ConstrainCompiler.SHIP, o = ConstrainCompiler.OPEN;
+        assertEquals(0, exact.check(new int[]{s, 0, 0, s}));
+        assertEquals(ConstrainCompiler.ROWS | ConstrainCompiler.COLUMNS, exact.check(new int[]{s, 0, 0, o}));
+        assertEquals(ConstrainCompiler.ROWS, exact.check(new int[]{s, s, 0, 0}));
+        assertEquals(ConstrainCompiler.COLUMNS, exact.check(new int[]{s, 0, s, 0}));
+    }
+
+    @Test
+    void cachedCheckerTest() {
+        assertSame(ConstrainCompiler.compile(ConstrainCompiler.Kind.BOUNDED, rowLimits, colLimits).orElseThrow(),
+            ConstrainCompiler.compile(ConstrainCompiler.Kind.BOUNDED, new ArrayList<>(rowLimits), new ArrayList<>(colLimits)).orElseThrow());
+        assertTrue(ConstrainCompiler.compile(ConstrainCompiler.Kind.EXACT, Collections.nCopies(100, 1), Collections.nCopies(100, 1)).isEmpty());
+    }
+
+    @Test
+    void hotConstrainsTest() {
+        SoftConstrains soft = new SoftConstrains(rowLimits, colLimits, new TreeMap<>());
+        Random random = new Random(40);
+        for (int i = 0; i < 3000; ++i) {
+            BattleshipsBoard board = generateBoard(random);
+            assertEquals(soft.rowConstrainsStatus(board) && soft.columnConstrainsStatus(board), soft.boardConstrain(board));
+        }
+    }
+
+}
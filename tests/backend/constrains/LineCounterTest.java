@@ -0,0 +1,91 @@
+package backend.constrains;
+
+import backend.boards.BattleshipsBoard;
+import backend.constrains.solver.SoftConstrains;
+import backend.utility.Coord;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineCounterTest {
+
+    private static byte[] generateCells(int width, int height, long seed) {
+        Random random = new Random(seed);
+        byte[] cells = new byte[width * height];
+        for (int i = 0; i < cells.length; ++i) {
+            cells[i] = (byte) random.nextInt(3);
+        }
+        return cells;
+    }
+
+    private static void assertCountsEqual(LineCounter.Counts expected, LineCounter.Counts actual) {
+        assertArrayEquals(expected.rowShips(), actual.rowShips());
+        assertArrayEquals(expected.rowOpen(), actual.rowOpen());
+        assertArrayEquals(expected.columnShips(), actual.columnShips());
+        assertArrayEquals(expected.columnOpen(), actual.columnOpen());
+    }
+
+    @Test
+    void smallBoardCountTest() {
+        byte[] cells = {LineCounter.SHIP, 0, LineCounter.OPEN, LineCounter.SHIP, LineCounter.SHIP, 0};
+        LineCounter.Counts counts = new WordLineCounter().count(cells, 3, 2);
+        assertArrayEquals(new int[]{1, 2}, counts.rowShips());
+        assertArrayEquals(new int[]{1, 0}, counts.rowOpen());
+        assertArrayEquals(new int[]{2, 1, 0}, counts.columnShips());
+        assertArrayEquals(new int[]{0, 0, 1}, counts.columnOpen());
+    }
+
+    @Test
+    void wordCounterEquivalenceTest() {
+        for (int[] dimensions : new int[][]{{8, 8}, {10, 10}, {13, 7}, {64, 600}, {21, 256}}) {
+            byte[] cells = generateCells(dimensions[0], dimensions[1], dimensions[0] * 31L + dimensions[1]);
+            assertCountsEqual(new ScalarLineCounter().count(cells, dimensions[0], dimensions[1]),
+                new WordLineCounter().count(cells, dimensions[0], dimensions[1]));
+        }
+    }
+
+    @Test
+    void reusedCountsTest() {
+        LineCounter.Counts counts = new LineCounter.Counts(64, 64);
+        for (LineCounter counter : new LineCounter[]{new ScalarLineCounter(), new WordLineCounter()}) {
+            for (int[] dimensions : new int[][]{{64, 64}, {13, 7}, {24, 40}}) {
+                byte[] cells = generateCells(dimensions[0], dimensions[1], dimensions[0] * 17L + dimensions[1]);
+                LineCounter.Counts expected = new ScalarLineCounter().count(cells, dimensions[0], dimensions[1]);
+                counter.count(cells, dimensions[0], dimensions[1], counts);
+                assertArrayEquals(expected.rowShips(), Arrays.copyOf(counts.rowShips(), dimensions[1]));
+                assertArrayEquals(expected.rowOpen(), Arrays.copyOf(counts.rowOpen(), dimensions[1]));
+                assertArrayEquals(expected.columnShips(), Arrays.copyOf(counts.columnShips(), dimensions[0]));
+                assertArrayEquals(expected.columnOpen(), Arrays.copyOf(counts.columnOpen(), dimensions[0]));
+            }
+        }
+    }
+
+    @Test
+    void largeBoardConstrainTest() {
+        Random random = new Random(38);
+        BattleshipsBoard board = new BattleshipsBoard(new Coord(20, 20));
+        List<Integer> rowLimits = new ArrayList<>(), columnLimits = new ArrayList<>();
+        for (int y = 0; y < 20; ++y) {
+            for (int x = 0; x < 20; ++x) {
+                int kind = random.nextInt(4);
+                board.generateCell(new Coord(x, y), new HashSet<>(kind == 0 ? Set.of(1, 2) : kind == 1 ? Set.of(2) : Set.of(1)));
+            }
+        }
+        for (int i = 0; i < 20; ++i) {
+            rowLimits.add(5);
+            columnLimits.add(5);
+        }
+        SoftConstrains constrains = new SoftConstrains(rowLimits, columnLimits, new TreeMap<>());
+        assertEquals(constrains.rowConstrainsStatus(board) && constrains.columnConstrainsStatus(board), constrains.boardConstrain(board));
+        for (int i = 0; i < 20; ++i) {
+            rowLimits.set(i, board.getRowShips(i));
+            columnLimits.set(i, board.getColumnShips(i));
+        }
+        assertTrue(constrains.boardConstrain(board));
+        rowLimits.set(3, board.getRowShips(3) + board.getRowUndecided(3) + 1);
+        assertFalse(constrains.boardConstrain(board));
+    }
+
+}
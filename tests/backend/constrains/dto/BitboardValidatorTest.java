@@ -0,0 +1,114 @@
+package backend.constrains.dto;
+
+import backend.boards.Board;
+import backend.boards.BoardDTO;
+import backend.io.MAPReader;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.utility.Coord;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitboardValidatorTest {
+
+    private final static List<Integer>                      rowLimits = List.of(3, 1, 2, 3, 0, 1);
+    private final static List<Integer>                      colLimits = List.of(3, 0, 3, 0, 1, 3);
+    private final static TreeMap<Integer, Integer>          shipLimits = WaveFunctionCollapseTest.generateShipLengths();
+
+    private static Map<Integer, Map<Coord, Set<Integer>>> generateConstrains() throws IOException {
+        MAPReader reader = new MAPReader();
+        return reader.read(Files.newBufferedReader(Path.of("assets/DTOStates.map")));
+    }
+
+    private static BoardDTO generateBoard(Integer[][] cells) {
+        BoardDTO board = new BoardDTO(new Coord(6, 6));
+        for (int y = 0; y < 6; ++y) {
+            for (int x = 0; x < 6; ++x) {
+                board.generateCell(new Coord(x, y), cells[y][x]);
+            }
+        }
+        return board;
+    }
+
+    private static List<BoardDTO> generateBoards() {
+        Random random = new Random(37);
+        List<BoardDTO> boards = new ArrayList<>();
+        for (int i = 0; i < 2000; ++i) {
+            Integer[][] cells = WaveFunctionCollapseTest.validBoard();
+            for (int mutation = random.nextInt(3); mutation > 0; --mutation) {
+                int x = random.nextInt(6), y = random.nextInt(6);
+                cells[y][x] = random.nextInt(4) == 0 ? random.nextInt(9) : cells[y][x] > 1 ? 3 + random.nextInt(6) : 3 - cells[y][x];
+            }
+            boards.add(generateBoard(cells));
+        }
+        return boards;
+    }
+
+    private static byte[] pack(List<BoardDTO> boards) {
+        byte[] cells = new byte[boards.size() * 36];
+        for (int i = 0; i < boards.size(); ++i) {
+            for (int y = 0; y < 6; ++y) {
+                for (int x = 0; x < 6; ++x) {
+                    cells[i * 36 + y * 6 + x] = (byte) (int) boards.get(i).accessCell(new Coord(x, y));
+                }
+            }
+        }
+        return cells;
+    }
+
+    @Test
+    void validBoardTest() throws IOException {
+        BitboardValidator validator = new BitboardValidator(rowLimits, colLimits, shipLimits, generateConstrains());
+        assertTrue(validator.check(generateBoard(WaveFunctionCollapseTest.validBoard())));
+        Integer[][] cells = WaveFunctionCollapseTest.validBoard();
+        cells[4][0] = 0;
+        assertFalse(validator.check(generateBoard(cells)));
+    }
+
+    @Test
+    void hardConstrainsEquivalenceTest() throws IOException {
+        Map<Integer, Map<Coord, Set<Integer>>> constrains = generateConstrains();
+        HardConstrains hardConstrains = new HardConstrains(rowLimits, colLimits, shipLimits, constrains);
+        BitboardValidator validator = new BitboardValidator(rowLimits, colLimits, shipLimits, constrains);
+        List<BoardDTO> boards = generateBoards();
+        boolean[] results = validator.checkAll(boards);
+        boolean[] packed = validator.checkAll(pack(boards));
+        int accepted = 0;
+        for (int i = 0; i < boards.size(); ++i) {
+            boolean expected = hardConstrains.check(boards.get(i));
+            assertEquals(expected, results[i]);
+            assertEquals(expected, packed[i]);
+            accepted += expected ? 1 : 0;
+        }
+        assertTrue(accepted > 0 && accepted < boards.size());
+    }
+
+    @Test
+    void vectorizedFieldsTest() throws IOException {
+        Map<Integer, Map<Coord, Set<Integer>>> constrains = generateConstrains();
+        BitboardValidator validator = new BitboardValidator(List.of(0, 2, 0), List.of(1, 1, 0), new TreeMap<>(Map.of(2, 1)), constrains);
+        Board<Integer> board = new BoardDTO(new Coord(3, 3));
+        for (int x = 0; x < 3; ++x) {
+            for (int y = 0; y < 3; ++y) {
+                board.generateCell(new Coord(x, y), 1);
+            }
+        }
+        board.setValue(new Coord(0, 1), 2);
+        board.setValue(new Coord(1, 1), 3);
+        assertTrue(validator.check(board));
+        board.setValue(new Coord(1, 1), 5);
+        assertFalse(validator.check(board));
+    }
+
+    @Test
+    void tooWideBoardTest() {
+        assertThrowsExactly(IllegalArgumentException.class, () -> new BitboardValidator(List.of(0),
+            Collections.nCopies(65, 0), new TreeMap<>(), Map.of()));
+    }
+
+}
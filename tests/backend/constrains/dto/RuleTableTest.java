@@ -0,0 +1,134 @@
+package backend.constrains.dto;
+
+import backend.boards.BoardDTO;
+import backend.io.MAPReader;
+import backend.io.RuleTableFile;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.utility.Coord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleTableTest {
+
+    private final static int                                SHAPES = ~0b111;
+    private final static Map<Integer, Map<Coord, Set<Integer>>> rules = generateConstrains();
+    private final static RuleTable                          table = new RuleTable(rules, SHAPES);
+
+    private static Map<Integer, Map<Coord, Set<Integer>>> generateConstrains() {
+        try {
+            return new MAPReader().read(Files.newBufferedReader(Path.of("assets/DTOStates.map")));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static boolean reference(byte[] cells, int offset, int width, int height) {
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                int state = cells[offset + y * width + x];
+                if (state <= 2) {
+                    continue;
+                }
+                for (int v = -1; v <= 1; ++v) {
+                    for (int u = -1; u <= 1; ++u) {
+                        int nx = x + u, ny = y + v;
+                        if ((u != 0 || v != 0) && nx >= 0 && ny >= 0 && nx < width && ny < height
+                            && !rules.get(state).get(new Coord(u, v)).contains((int) cells[offset + ny * width + nx])) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static byte[] generateBoards(int count) {
+        Random random = new Random(41);
+        byte[] cells = new byte[count * 36];
+        for (int i = 0; i < count; ++i) {
+            Integer[][] board = WaveFunctionCollapseTest.validBoard();
+            for (int mutation = random.nextInt(4); mutation > 0; --mutation) {
+                board[random.nextInt(6)][random.nextInt(6)] = random.nextInt(9);
+            }
+            for (int y = 0; y < 6; ++y) {
+                for (int x = 0; x < 6; ++x) {
+                    cells[i * 36 + y * 6 + x] = (byte) (int) board[y][x];
+                }
+            }
+        }
+        return cells;
+    }
+
+    @Test
+    void allowedTest() {
+        assertEquals((1 << 0) | (1 << 2) | (1 << 5) | (1 << 8), table.allowed(3, 3));
+        assertEquals((1 << 0) | (1 << 1), table.allowed(3, 4));
+        assertEquals((1 << 0) | (1 << 1), table.allowed(2, 0));
+    }
+
+    @Test
+    void referenceEquivalenceTest() {
+        byte[] cells = generateBoards(2000);
+        int accepted = 0;
+        for (int i = 0; i < 2000; ++i) {
+            boolean expected = reference(cells, i * 36, 6, 6);
+            assertEquals(expected, table.check(cells, i * 36, 6, 6), "board " + i);
+            accepted += expected ? 1 : 0;
+        }
+        assertTrue(accepted > 0 && accepted < 2000);
+    }
+
+    @Test
+    void checkAllTest() {
+        byte[] cells = generateBoards(500);
+        boolean[] results = table.checkAll(cells, 6, 6);
+        assertEquals(500, results.length);
+        for (int i = 0; i < results.length; ++i) {
+            assertEquals(table.check(cells, i * 36, 6, 6), results[i]);
+        }
+    }
+
+    @Test
+    void checkBoardTest() {
+        Integer[][] cells = WaveFunctionCollapseTest.validBoard();
+        BoardDTO board = new BoardDTO(new Coord(6, 6));
+        for (int y = 0; y < 6; ++y) {
+            for (int x = 0; x < 6; ++x) {
+                board.generateCell(new Coord(x, y), cells[y][x]);
+            }
+        }
+        assertTrue(table.check(board));
+        board.setValue(new Coord(2, 2), 7);
+        assertFalse(table.check(board));
+        board.setValue(new Coord(2, 2), 40);
+        assertFalse(table.check(board));
+    }
+
+    @Test
+    void mappedTableTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("DTOStates.rules");
+        RuleTableFile.write(file, rules);
+        RuleTable mapped = new RuleTable(RuleTableFile.load(file), SHAPES);
+        for (int state = 0; state < RuleTable.STATES; ++state) {
+            for (int d = 0; d < RuleTable.DIRECTIONS; ++d) {
+                assertEquals(table.allowed(state, d), mapped.allowed(state, d));
+            }
+        }
+        byte[] cells = generateBoards(500);
+        assertArrayEquals(table.checkAll(cells, 6, 6), mapped.checkAll(cells, 6, 6));
+    }
+
+    @Test
+    void stateOutsideAlphabetTest() {
+        assertThrowsExactly(IllegalArgumentException.class, () -> new RuleTable(Map.of(RuleTable.STATES, Map.of()), SHAPES));
+    }
+
+}
@@ -0,0 +1,72 @@
+package backend.constrains.dto;
+
+import backend.io.MAPReader;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.Coord;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymmetricRuleTableTest {
+
+    private final static Map<Integer, Map<Coord, Set<Integer>>> rules = generateConstrains();
+    private final static SymmetricRuleTable                 table = new SymmetricRuleTable(rules);
+
+    private static Map<Integer, Map<Coord, Set<Integer>>> generateConstrains() {
+        try {
+            return new MAPReader().read(Files.newBufferedReader(Path.of("assets/DTOStates.map")));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    void symmetriesTest() {
+        assertEquals(8, table.getSymmetries().size());
+        for (int state = 3; state <= 6; ++state) {
+            assertEquals(3, table.getCanonical(state));
+        }
+        for (int state : List.of(0, 1, 2, 7, 8)) {
+            assertEquals(state, table.getCanonical(state));
+        }
+        assertEquals(6 * RuleTable.DIRECTIONS, table.getEntries());
+    }
+
+    @Test
+    void decompressionTest() {
+        RuleTable expanded = new RuleTable(rules, 0);
+        for (int state = 0; state <= 8; ++state) {
+            for (int d = 0; d < RuleTable.DIRECTIONS; ++d) {
+                assertEquals(expanded.allowed(state, d), table.allowed(state, d), state + " at " + RuleTable.offset(d));
+            }
+        }
+    }
+
+    @Test
+    void verifyTest() {
+        List<SymmetricRuleTable.Inconsistency> inconsistencies = table.verify();
+        assertEquals(4, inconsistencies.size());
+        for (SymmetricRuleTable.Inconsistency inconsistency : inconsistencies) {
+            assertEquals(1, inconsistency.state());
+            assertEquals(0, table.allowed(inconsistency.neighbor(), SymmetricRuleTable.opposite(inconsistency.direction())) & 0b10);
+        }
+        assertTrue(new SymmetricRuleTable(BattleshipsStatesTest.generateConstrains()).verify().isEmpty());
+    }
+
+    @Test
+    void asymmetricRulesTest() {
+        Map<Integer, Map<Coord, Set<Integer>>> asymmetric = Map.of(
+            1, Map.of(new Coord(1, 0), Set.of(1, 2)),
+            2, Map.of(new Coord(1, 0), Set.of(1)));
+        SymmetricRuleTable compressed = new SymmetricRuleTable(asymmetric);
+        assertEquals(2, compressed.getSymmetries().size());
+        assertEquals(2 * RuleTable.DIRECTIONS, compressed.getEntries());
+        assertEquals(List.of(new SymmetricRuleTable.Inconsistency(2, 3, 2)), compressed.verify());
+    }
+
+}
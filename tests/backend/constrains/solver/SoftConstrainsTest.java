@@ -3,7 +3,9 @@ package backend.constrains.solver;
 import backend.boards.Board;
 import backend.boards.BattleshipsBoard;
 import backend.utility.Coord;
+import com.sun.management.ThreadMXBean;
 
+import java.lang.management.ManagementFactory;
 import java.util.*;
 
 import org.junit.jupiter.api.Test;
@@ -80,4 +82,50 @@ public class SoftConstrainsTest {
         assertFalse(constrains.check(invalidBoard));
     }
 
+    @Test
+    void allocationFreeCheckTest() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 1000; ++i) {
+            constrains.check(validBoard);
+            constrains.boardConstrain(validBoard);
+            constrains.shipLengthConstrain(validBoard);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        boolean valid = true;
+        for (int i = 0; i < 1000; ++i) {
+            valid &= constrains.check(validBoard);
+            valid &= constrains.boardConstrain(validBoard);
+            valid &= constrains.shipLengthConstrain(validBoard);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(valid);
+        assertTrue(allocated < 1000, "allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void allocationFreeLargeBoardTest() {
+        BattleshipsBoard board = new BattleshipsBoard(new Coord(24, 24));
+        List<Integer> rowLimits = new ArrayList<>(), columnLimits = new ArrayList<>();
+        for (int i = 0; i < 24; ++i) {
+            for (int j = 0; j < 24; ++j) {
+                board.generateCell(new Coord(i, j), new HashSet<>(i % 3 == 0 ? Set.of(2) : Set.of(1, 2)));
+            }
+            rowLimits.add(8);
+            columnLimits.add(i % 3 == 0 ? 24 : 0);
+        }
+        SoftConstrains largeConstrains = new SoftConstrains(rowLimits, columnLimits, new TreeMap<>());
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 2000; ++i) {
+            largeConstrains.boardConstrain(board);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        boolean valid = true;
+        for (int i = 0; i < 1000; ++i) {
+            valid &= largeConstrains.boardConstrain(board);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(valid);
+        assertTrue(allocated < 1000, "allocated " + allocated + " bytes");
+    }
+
 }
@@ -0,0 +1,105 @@
+package backend.distributed;
+
+import backend.boards.BoardDTO;
+import backend.facades.BattleshipsSolver;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CubeCoordinatorTest {
+
+    private final static List<Integer>                                          rows = List.of(3, 1, 2, 3, 0, 1);
+    private final static List<Integer>                                          cols = List.of(3, 0, 3, 0, 1, 3);
+
+    public static class FailingWorker {
+
+        public static void main(String[] args) throws IOException {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))) {
+                DataInputStream input = new DataInputStream(socket.getInputStream());
+                input.readByte();
+                Protocol.readJob(input);
+                input.readByte();
+                Protocol.readAssignments(input);
+            }
+            System.exit(1);
+        }
+
+    }
+
+    private static Job generateJob(Job.Mode mode) {
+        return new Job(List.of(), rows, cols, WaveFunctionCollapseTest.generateShipLengths(),
+            BattleshipsStatesTest.generateConstrains(), mode);
+    }
+
+    @Test
+    void packingTest() {
+        InitValue<Integer> value = new InitValue<>(new Coord(4000, 17), 8);
+        assertEquals(value, Protocol.unpack(Protocol.pack(value)));
+    }
+
+    @Test
+    void countingTest() throws IOException, InterruptedException {
+        long expected = new BattleshipsSolver(BattleshipsStatesTest.generateConstrains())
+            .count(List.of(), rows, cols, WaveFunctionCollapseTest.generateShipLengths());
+        CubeCoordinator.Result result = new CubeCoordinator(2).run(generateJob(Job.Mode.COUNT));
+        assertEquals(expected, result.count());
+        assertTrue(result.solutions().isEmpty());
+    }
+
+    @Test
+    void collectingTest() throws IOException, InterruptedException {
+        CubeCoordinator.Result result = new CubeCoordinator(2).run(generateJob(Job.Mode.ALL));
+        assertEquals(result.count(), result.solutions().size());
+        Set<List<Integer>> distinct = new HashSet<>();
+        for (BoardDTO solution : result.solutions()) {
+            List<Integer> cells = new ArrayList<>();
+            for (int y = 0; y < 6; ++y) {
+                for (int x = 0; x < 6; ++x) {
+                    cells.add(solution.accessCell(new Coord(x, y)));
+                }
+            }
+            distinct.add(cells);
+        }
+        assertEquals(result.count(), distinct.size());
+    }
+
+    @Test
+    void firstSolutionTest() throws IOException, InterruptedException {
+        Job job = new Job(List.of(new InitValue<>(new Coord(2, 2), 4)), rows, cols, WaveFunctionCollapseTest.generateShipLengths(),
+            BattleshipsStatesTest.generateConstrains(), Job.Mode.FIRST);
+        CubeCoordinator.Result result = new CubeCoordinator(2).run(job);
+        Integer[][] validBoard = WaveFunctionCollapseTest.validBoard();
+        assertEquals(1, result.solutions().size());
+        for (int y = 0; y < 6; ++y) {
+            for (int x = 0; x < 6; ++x) {
+                assertEquals(validBoard[y][x], result.solutions().get(0).accessCell(new Coord(x, y)));
+            }
+        }
+    }
+
+    @Test
+    void failedWorkerTest() throws IOException, InterruptedException {
+        long expected = new BattleshipsSolver(BattleshipsStatesTest.generateConstrains())
+            .count(List.of(), rows, cols, WaveFunctionCollapseTest.generateShipLengths());
+        CubeCoordinator coordinator = new CubeCoordinator(List.of(CubeCoordinator.workerCommand(FailingWorker.class),
+            CubeCoordinator.workerCommand(CubeWorker.class)));
+        assertEquals(expected, coordinator.run(generateJob(Job.Mode.COUNT)).count());
+    }
+
+    @Test
+    void allWorkersFailedTest() {
+        CubeCoordinator coordinator = new CubeCoordinator(List.of(CubeCoordinator.workerCommand(FailingWorker.class)));
+        assertThrowsExactly(IOException.class, () -> coordinator.run(generateJob(Job.Mode.COUNT)));
+    }
+
+}
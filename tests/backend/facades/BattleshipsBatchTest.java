@@ -0,0 +1,144 @@
+package backend.facades;
+
+import backend.boards.BoardDTO;
+import backend.io.PuzzleReader;
+import backend.solvers.NoSolutionException;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.InitValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BattleshipsBatchTest {
+
+    private final static BattleshipsSolver                      solver = new BattleshipsSolver(BattleshipsStatesTest.generateConstrains());
+    private final static String                                 validPuzzle = "3,1,2,3,0,1;3,0,3,0,1,3;1:3,2:2,3:1;2:2:4";
+    private final static String                                 invalidPuzzle = "0,1,0,0,0,0;0,0,1,0,0,0;1:3,2:2,3:1;2:2:4";
+
+    private static String validSolution() {
+        List<String> rows = new ArrayList<>();
+        for (Integer[] row : WaveFunctionCollapseTest.validBoard()) {
+            StringBuilder builder = new StringBuilder();
+            for (Integer value : row) {
+                builder.append(value == 2 ? '#' : '.');
+            }
+            rows.add(builder.toString());
+        }
+        return String.join("/", rows);
+    }
+
+    @Test
+    void solveFileTest(@TempDir Path directory) throws IOException, InterruptedException {
+        List<String> puzzles = new ArrayList<>(), expected = new ArrayList<>();
+        for (int i = 0; i < 60; ++i) {
+            puzzles.add(i % 3 == 0 ? invalidPuzzle : validPuzzle);
+            expected.add(i % 3 == 0 ? "! no solution" : validSolution());
+        }
+        Path input = directory.resolve("puzzles.txt"), output = directory.resolve("solutions.txt");
+        Files.write(input, puzzles, StandardCharsets.US_ASCII);
+        BattleshipsBatch.Report report = new BattleshipsBatch(solver, 4, 3).solve(input, output);
+        assertEquals(expected, Files.readAllLines(output, StandardCharsets.US_ASCII));
+        assertEquals(60, report.puzzles());
+        assertEquals(20, report.failures());
+        assertTrue(0 < report.p50() && report.p50() <= report.p99() && report.p99() <= report.nanos());
+        assertTrue(report.throughput() > 0);
+    }
+
+    @Test
+    void malformedPuzzleTest(@TempDir Path directory) throws IOException, InterruptedException {
+        Path input = directory.resolve("puzzles.txt"), output = directory.resolve("solutions.txt");
+        Files.write(input, List.of(validPuzzle, "3,1,x;1;;", validPuzzle, "1;1;;9:9:1", invalidPuzzle), StandardCharsets.US_ASCII);
+        BattleshipsBatch.Report report = new BattleshipsBatch(solver, 2, 1).solve(input, output);
+        List<String> lines = Files.readAllLines(output, StandardCharsets.US_ASCII);
+        assertEquals(5, lines.size());
+        assertEquals(validSolution(), lines.get(0));
+        assertTrue(lines.get(1).startsWith("! Puzzle at byte " + (validPuzzle.length() + 1)));
+        assertEquals(validSolution(), lines.get(2));
+        assertTrue(lines.get(3).startsWith("! Puzzle at byte"));
+        assertEquals("! no solution", lines.get(4));
+        assertEquals(5, report.puzzles());
+        assertEquals(3, report.failures());
+        assertEquals(2, report.malformed());
+    }
+
+    @Test
+    void deadlineTest() throws IOException, InterruptedException {
+        BattleshipsSolver hanging = new BattleshipsSolver(BattleshipsStatesTest.generateConstrains()) {
+            @Override
+            public BoardDTO solve(List<InitValue<Integer>> initValueList, List<Integer> rowLimits, List<Integer> columnLimits,
+                                  TreeMap<Integer, Integer> shipLimits) throws NoSolutionException {
+                if (rowLimits.size() == 1) {
+                    try {
+                        Thread.sleep(Duration.ofMinutes(1).toMillis());
+                    } catch (InterruptedException exception) {
+                        throw new CancellationException("Solving interrupted");
+                    }
+                }
+                return super.solve(initValueList, rowLimits, columnLimits, shipLimits);
+            }
+        };
+        PuzzleReader reader = new PuzzleReader();
+        List<PuzzleReader.Puzzle> puzzles = reader.read(ByteBuffer.wrap(String.join("\n", validPuzzle, "1;1;1:1;", validPuzzle)
+            .getBytes(StandardCharsets.US_ASCII)));
+        StringWriter output = new StringWriter();
+        long start = System.nanoTime();
+        BattleshipsBatch.Report report = new BattleshipsBatch(hanging, 2, 2, Duration.ofMillis(200)).solve(puzzles.iterator(), output);
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+        List<String> lines = output.toString().lines().toList();
+        assertEquals(List.of(validSolution(), "! timeout after 200 ms", validSolution()), lines);
+        assertEquals(3, report.puzzles());
+        assertEquals(1, report.failures());
+        assertEquals(0, report.malformed());
+        assertThrowsExactly(IllegalArgumentException.class, () -> new BattleshipsBatch(solver, 1, 1, Duration.ZERO));
+    }
+
+    @Test
+    void backpressureTest() throws IOException, InterruptedException {
+        PuzzleReader.Puzzle puzzle = new PuzzleReader().read(ByteBuffer.wrap(validPuzzle.getBytes(StandardCharsets.US_ASCII))).get(0);
+        AtomicInteger taken = new AtomicInteger();
+        StringWriter output = new StringWriter() {
+            @Override
+            public void write(String line) {
+                assertTrue(taken.get() - countLines() <= 2);
+                super.write(line);
+            }
+
+            private int countLines() {
+                return (int) getBuffer().chars().filter(character -> character == '\n').count();
+            }
+        };
+        Iterator<PuzzleReader.Puzzle> puzzles = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return taken.get() < 40;
+            }
+
+            @Override
+            public PuzzleReader.Puzzle next() {
+                taken.incrementAndGet();
+                return puzzle;
+            }
+        };
+        BattleshipsBatch.Report report = new BattleshipsBatch(solver, 2, 2).solve(puzzles, output);
+        assertEquals(40, report.puzzles());
+        assertEquals(40, output.toString().lines().count());
+        assertThrowsExactly(IllegalArgumentException.class, () -> new BattleshipsBatch(solver, 0, 1));
+    }
+
+}
@@ -0,0 +1,85 @@
+package backend.facades;
+
+import backend.boards.BoardDTO;
+import backend.solvers.NoSolutionException;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BattleshipsDecomposerTest {
+
+    private final static BattleshipsDecomposer                                  decomposer = new BattleshipsDecomposer(BattleshipsStatesTest.generateConstrains());
+    private final static List<Integer>                                          cornerLimits = List.of(1, 0, 0, 0, 1);
+    private final static List<InitValue<Integer>>                               cornerClues = List.of(new InitValue<>(new Coord(0, 0), 7));
+
+    @Test
+    void decomposeTest() throws NoSolutionException {
+        List<BattleshipsDecomposer.Region> regions = decomposer.decompose(cornerClues, cornerLimits, cornerLimits,
+            new TreeMap<>(Map.of(1, 2)));
+        assertEquals(Set.of(new BattleshipsDecomposer.Region(List.of(new Coord(0, 0))),
+            new BattleshipsDecomposer.Region(List.of(new Coord(4, 4)))), Set.copyOf(regions));
+    }
+
+    @Test
+    void solveRegionsTest() throws NoSolutionException {
+        BoardDTO result = decomposer.solve(cornerClues, cornerLimits, cornerLimits, new TreeMap<>(Map.of(1, 2)));
+        for (int y = 0; y < 5; ++y) {
+            for (int x = 0; x < 5; ++x) {
+                boolean ship = x == y && (x == 0 || x == 4);
+                assertEquals(ship ? 2 : 1, result.accessCell(new Coord(x, y)));
+            }
+        }
+    }
+
+    @Test
+    void lineCoupledRegionsTest() throws NoSolutionException {
+        BattleshipsDecomposer lineDecomposer = new BattleshipsDecomposer(BattleshipsStatesTest.generateConstrains());
+        List<Integer> rows = List.of(1, 0, 1), columns = List.of(1, 0, 0, 0, 1);
+        assertEquals(4, lineDecomposer.decompose(List.of(), rows, columns, new TreeMap<>(Map.of(1, 2))).size());
+        BoardDTO result = lineDecomposer.solve(List.of(), rows, columns, new TreeMap<>(Map.of(1, 2)));
+        boolean first = result.accessCell(new Coord(0, 0)) == 2;
+        for (int y = 0; y < 3; ++y) {
+            for (int x = 0; x < 5; ++x) {
+                boolean ship = first ? x == 0 && y == 0 || x == 4 && y == 2 : x == 0 && y == 2 || x == 4 && y == 0;
+                assertEquals(ship ? 2 : 1, result.accessCell(new Coord(x, y)));
+            }
+        }
+        assertEquals(0, lineDecomposer.getFallbacks());
+    }
+
+    @Test
+    void solveFleetMismatchTest() {
+        assertThrowsExactly(NoSolutionException.class, () -> decomposer.solve(cornerClues, cornerLimits, cornerLimits,
+            new TreeMap<>(Map.of(1, 1, 2, 1))));
+    }
+
+    @Test
+    void solveLargeFleetTest() {
+        BattleshipsDecomposer fleetDecomposer = new BattleshipsDecomposer(BattleshipsStatesTest.generateConstrains());
+        assertThrowsExactly(NoSolutionException.class, () -> fleetDecomposer.solve(List.of(), List.of(0, 0), List.of(0, 0),
+            new TreeMap<>(Map.of(1, 1000, 2, 1000, 3, 1000, 4, 1000))));
+        assertEquals(1, fleetDecomposer.getFallbacks());
+    }
+
+    @Test
+    void solveSingleRegionTest() throws NoSolutionException {
+        Integer[][] validBoard = WaveFunctionCollapseTest.validBoard();
+        BoardDTO result = decomposer.solve(List.of(new InitValue<>(new Coord(2, 2), 4)), List.of(3, 1, 2, 3, 0, 1),
+            List.of(3, 0, 3, 0, 1, 3), WaveFunctionCollapseTest.generateShipLengths());
+        for (int y = 0; y < 6; ++y) {
+            for (int x = 0; x < 6; ++x) {
+                assertEquals(validBoard[y][x], result.accessCell(new Coord(x, y)));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package backend.facades;
+
+import backend.solvers.NoSolutionException;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BattleshipsHeatmapTest {
+
+    private final static BattleshipsSolver                                      solver = new BattleshipsSolver(BattleshipsStatesTest.generateConstrains());
+    private final static TreeMap<Integer, Integer>                              shipLengths = WaveFunctionCollapseTest.generateShipLengths();
+    private final static Integer[][]                                            validBoard = WaveFunctionCollapseTest.validBoard();
+    private final static List<InitValue<Integer>>                               initValueList = List.of(new InitValue<>(new Coord(2, 2), 4));
+    private final static List<Integer>                                          rows = List.of(3, 1, 2, 3, 0, 1);
+    private final static List<Integer>                                          cols = List.of(3, 0, 3, 0, 1, 3);
+
+    @Test
+    void countingUniqueSolutionTest() {
+        assertEquals(1, solver.count(initValueList, rows, cols, shipLengths));
+    }
+
+    @Test
+    void exactHeatmapTest() throws NoSolutionException {
+        BattleshipsHeatmap heatmap = new BattleshipsHeatmap(solver, Duration.ofSeconds(30));
+        BattleshipsHeatmap.Heatmap result = heatmap.compute(initValueList, rows, cols, shipLengths);
+        assertTrue(result.exact());
+        assertEquals(1, result.samples());
+        for (int y = 0; y < 6; ++y) {
+            for (int x = 0; x < 6; ++x) {
+                assertEquals(validBoard[y][x] == 2 ? 1.0 : 0.0, result.probabilities()[y][x]);
+            }
+        }
+        assertSame(result, heatmap.compute(initValueList, rows, cols, shipLengths));
+        heatmap.shutdown();
+    }
+
+    @Test
+    void sampledHeatmapTest() throws NoSolutionException {
+        BattleshipsHeatmap heatmap = new BattleshipsHeatmap(solver, Duration.ofMillis(500), 0, 2);
+        BattleshipsHeatmap.Heatmap result = heatmap.compute(initValueList, rows, cols, shipLengths);
+        assertFalse(result.exact());
+        assertTrue(result.samples() > 0);
+        assertTrue(result.error() > 0.0 && result.error() <= 1.0);
+        for (int y = 0; y < 6; ++y) {
+            for (int x = 0; x < 6; ++x) {
+                assertEquals(validBoard[y][x] == 2 ? 1.0 : 0.0, result.probabilities()[y][x]);
+            }
+        }
+        heatmap.shutdown();
+    }
+
+    @Test
+    void unfinishedExactHeatmapTest() throws NoSolutionException {
+        BattleshipsHeatmap heatmap = new BattleshipsHeatmap(solver, Duration.ofSeconds(2), Integer.MAX_VALUE, 1);
+        List<Integer> sparse = List.of(1, 0, 1, 0, 1, 0, 1, 0, 1, 0, 1, 0, 1, 0, 1, 0, 1, 0, 1, 0);
+        BattleshipsHeatmap.Heatmap result = heatmap.compute(List.of(), sparse, sparse, new TreeMap<>(Map.of(1, 10)));
+        assertFalse(result.exact());
+        assertTrue(result.samples() > 0);
+        heatmap.shutdown();
+    }
+
+    @Test
+    void heatmapOfInvalidPuzzleTest() {
+        BattleshipsHeatmap heatmap = new BattleshipsHeatmap(solver, Duration.ofSeconds(30));
+        List<Integer> invalidRows = List.of(0, 1, 0, 0, 0, 0);
+        List<Integer> invalidCols = List.of(0, 0, 1, 0, 0, 0);
+        assertThrowsExactly(NoSolutionException.class, () -> heatmap.compute(initValueList, invalidRows, invalidCols, shipLengths));
+        heatmap.shutdown();
+    }
+
+}
@@ -0,0 +1,73 @@
+package backend.facades;
+
+import backend.boards.BoardDTO;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.utility.Coord;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BattleshipsHintsTest {
+
+    private final static TreeMap<Integer, Integer>                              shipLengths = WaveFunctionCollapseTest.generateShipLengths();
+    private final static Integer[][]                                            validBoard = WaveFunctionCollapseTest.validBoard();
+    private final static BattleshipsHints                                       hints = new BattleshipsHints(
+        List.of(3, 1, 2, 3, 0, 1), List.of(3, 0, 3, 0, 1, 3), shipLengths);
+
+    private static BoardDTO generateBoard(Coord dimensions) {
+        BoardDTO board = new BoardDTO(dimensions);
+        for (int y = 0; y < dimensions.y(); ++y) {
+            for (int x = 0; x < dimensions.x(); ++x) {
+                board.setValue(new Coord(x, y), 0);
+            }
+        }
+        return board;
+    }
+
+    @Test
+    void lineCountHintTest() {
+        BattleshipsHints.Hint hint = hints.next(generateBoard(new Coord(6, 6)));
+        assertEquals(new BattleshipsHints.Hint(new Coord(0, 4), 1, BattleshipsHints.Rule.LINE_COUNT), hint);
+    }
+
+    @Test
+    void waterAroundShipsHintTest() {
+        BattleshipsHints local = new BattleshipsHints(List.of(2, 2, 2, 2), List.of(2, 2, 2, 2), shipLengths);
+        BoardDTO board = generateBoard(new Coord(4, 4));
+        board.setValue(new Coord(1, 1), 2);
+        BattleshipsHints.Hint hint = local.next(board);
+        assertEquals(new BattleshipsHints.Hint(new Coord(0, 0), 1, BattleshipsHints.Rule.WATER_AROUND_SHIPS), hint);
+    }
+
+    @Test
+    void shipShapeHintTest() {
+        BattleshipsHints local = new BattleshipsHints(List.of(1, 2, 1, 2), List.of(1, 2, 1, 2), shipLengths);
+        BoardDTO board = generateBoard(new Coord(4, 4));
+        board.setValue(new Coord(1, 1), 7);
+        board.setValue(new Coord(0, 0), 1);
+        board.setValue(new Coord(2, 0), 1);
+        board.setValue(new Coord(0, 2), 1);
+        board.setValue(new Coord(2, 2), 1);
+        BattleshipsHints.Hint hint = local.next(board);
+        assertEquals(new BattleshipsHints.Hint(new Coord(0, 1), 1, BattleshipsHints.Rule.SHIP_SHAPE), hint);
+    }
+
+    @Test
+    void hintsAreConsistentWithSolutionTest() {
+        BoardDTO board = generateBoard(new Coord(6, 6));
+        board.setValue(new Coord(2, 2), 4);
+        BattleshipsHints.Hint hint;
+        int deduced = 0;
+        while ((hint = hints.next(board)) != null) {
+            Integer expected = validBoard[hint.coord().y()][hint.coord().x()];
+            assertEquals(expected, hint.value());
+            board.setValue(hint.coord(), hint.value());
+            ++deduced;
+        }
+        assertEquals(35, deduced);
+    }
+
+}
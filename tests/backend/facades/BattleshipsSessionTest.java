@@ -0,0 +1,71 @@
+package backend.facades;
+
+import backend.boards.BoardDTO;
+import backend.solvers.NoSolutionException;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BattleshipsSessionTest {
+
+    private final static BattleshipsSolver                                      solver = new BattleshipsSolver(BattleshipsStatesTest.generateConstrains());
+    private final static Integer[][]                                            validBoard = WaveFunctionCollapseTest.validBoard();
+    private final static List<Integer>                                          rows = List.of(3, 1, 2, 3, 0, 1);
+    private final static List<Integer>                                          cols = List.of(3, 0, 3, 0, 1, 3);
+
+    private static BattleshipsSession openSession() {
+        return solver.openSession(rows, cols, WaveFunctionCollapseTest.generateShipLengths());
+    }
+
+    private static void assertValidBoard(BoardDTO result) {
+        for (int y = 0; y < 6; ++y) {
+            for (int x = 0; x < 6; ++x) {
+                assertEquals(validBoard[y][x], result.accessCell(new Coord(x, y)));
+            }
+        }
+    }
+
+    @Test
+    void addingClueTest() throws NoSolutionException {
+        BattleshipsSession session = openSession();
+        session.addClue(new InitValue<>(new Coord(2, 2), 4));
+        assertValidBoard(session.solve());
+    }
+
+    @Test
+    void addingConsistentClueKeepsSolutionTest() throws NoSolutionException {
+        BattleshipsSession session = openSession();
+        session.addClue(new InitValue<>(new Coord(2, 2), 4));
+        BoardDTO result = session.solve();
+        session.addClue(new InitValue<>(new Coord(0, 0), 2));
+        assertSame(result, session.solve());
+    }
+
+    @Test
+    void addingContradictoryClueTest() {
+        BattleshipsSession session = openSession();
+        session.addClue(new InitValue<>(new Coord(2, 2), 4));
+        session.addClue(new InitValue<>(new Coord(1, 0), 2));
+        assertThrowsExactly(NoSolutionException.class, session::solve);
+    }
+
+    @Test
+    void removingClueTest() throws NoSolutionException {
+        BattleshipsSession session = openSession();
+        InitValue<Integer> contradiction = new InitValue<>(new Coord(1, 0), 2);
+        session.addClue(contradiction);
+        session.addClue(new InitValue<>(new Coord(2, 2), 4));
+        assertThrowsExactly(NoSolutionException.class, session::solve);
+        assertTrue(session.removeClue(contradiction));
+        assertFalse(session.removeClue(contradiction));
+        assertEquals(List.of(new InitValue<>(new Coord(2, 2), 4)), session.getClues());
+        assertValidBoard(session.solve());
+    }
+
+}
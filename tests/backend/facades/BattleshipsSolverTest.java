@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -49,5 +50,25 @@ public class BattleshipsSolverTest {
         assertThrowsExactly(NoSolutionException.class, () -> solver.solve(initValueList, rows, cols, shipLengths));
     }
 
+    @Test
+    void interruptedSolvingTest() {
+        Thread.currentThread().interrupt();
+        try {
+            assertThrowsExactly(CancellationException.class, () -> solver.solve(List.of(), List.of(3, 1, 2, 3, 0, 1), List.of(3, 0, 3, 0, 1, 3), shipLengths));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void clueAlphabetTest() {
+        for (int value = 1; value <= 8; ++value) {
+            assertTrue(solver.isClue(value));
+        }
+        assertFalse(solver.isClue(0));
+        assertFalse(solver.isClue(9));
+        assertFalse(solver.isClue(-1));
+    }
+
 
 }
@@ -0,0 +1,80 @@
+package backend.heuristic;
+
+import backend.boards.BattleshipsBoard;
+import backend.boards.BoardDTO;
+import backend.facades.BattleshipsSolver;
+import backend.solvers.NoSolutionException;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImpactHeuristicTest {
+
+    private static BattleshipsBoard generateBoard() {
+        BattleshipsBoard board = new BattleshipsBoard(new Coord(4, 4));
+        for (int x = 0; x < 4; ++x) {
+            for (int y = 0; y < 4; ++y) {
+                board.generateCell(new Coord(x, y), new HashSet<>(Set.of(1, 2)));
+            }
+        }
+        return board;
+    }
+
+    @Test
+    void leastConstrainingValueTest() {
+        ImpactHeuristic heuristic = new ImpactHeuristic(BattleshipsStatesTest.generateConstrains(), dimensions -> new ImpactTable(dimensions, 9));
+        List<Integer> superposition = new ArrayList<>(List.of(2, 1));
+        heuristic.order(generateBoard(), new Coord(1, 1), superposition);
+        assertEquals(List.of(1, 2), superposition);
+    }
+
+    @Test
+    void recordedImpactTest() {
+        ImpactTable table = new ImpactTable(new Coord(4, 4), 9);
+        ImpactHeuristic heuristic = new ImpactHeuristic(BattleshipsStatesTest.generateConstrains(), dimensions -> table);
+        BattleshipsBoard before = generateBoard();
+        BattleshipsBoard after = (BattleshipsBoard) before.clone();
+        after.setValue(new Coord(2, 1), new HashSet<>(Set.of(2)));
+        after.setValue(new Coord(1, 0), new HashSet<>(Set.of(1)));
+        heuristic.propagated(before, after, new Coord(2, 1), 2);
+        assertEquals(0.75, table.impact(new Coord(2, 1), 2), 1e-9);
+        assertTrue(Double.isNaN(table.impact(new Coord(2, 1), 1)));
+        assertEquals(new Coord(2, 1), heuristic.choose(before));
+        table.record(new Coord(2, 1), 1, 0.9);
+        List<Integer> superposition = new ArrayList<>(List.of(1, 2));
+        heuristic.order(before, new Coord(2, 1), superposition);
+        assertEquals(List.of(2, 1), superposition);
+    }
+
+    @Test
+    void scopedTableTest() {
+        ImpactHeuristic heuristic = new ImpactHeuristic(BattleshipsStatesTest.generateConstrains());
+        assertSame(heuristic.table(new Coord(5, 7)), heuristic.table(new Coord(5, 7)));
+        assertNotSame(heuristic.table(new Coord(5, 7)), heuristic.table(new Coord(7, 5)));
+        assertNotSame(heuristic.table(new Coord(5, 7)), new ImpactHeuristic(BattleshipsStatesTest.generateConstrains()).table(new Coord(5, 7)));
+        assertThrows(IndexOutOfBoundsException.class, () -> heuristic.table(new Coord(5, 7)).record(new Coord(0, 0), 16, 0.5));
+    }
+
+    @Test
+    void solvingWithHeuristicTest() throws NoSolutionException {
+        BattleshipsSolver solver = new BattleshipsSolver(BattleshipsStatesTest.generateConstrains(),
+            BattleshipsSolver.Engine.WAVE_FUNCTION_COLLAPSE, new ImpactHeuristic(BattleshipsStatesTest.generateConstrains()));
+        Integer[][] validBoard = WaveFunctionCollapseTest.validBoard();
+        for (int round = 0; round < 2; ++round) {
+            BoardDTO result = solver.solve(List.of(new InitValue<>(new Coord(2, 2), 4)), List.of(3, 1, 2, 3, 0, 1),
+                List.of(3, 0, 3, 0, 1, 3), WaveFunctionCollapseTest.generateShipLengths());
+            for (int y = 0; y < 6; ++y) {
+                for (int x = 0; x < 6; ++x) {
+                    assertEquals(validBoard[y][x], result.accessCell(new Coord(x, y)));
+                }
+            }
+        }
+    }
+
+}
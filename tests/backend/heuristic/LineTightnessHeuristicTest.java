@@ -0,0 +1,67 @@
+package backend.heuristic;
+
+import backend.boards.BattleshipsBoard;
+import backend.boards.BoardDTO;
+import backend.facades.BattleshipsSolver;
+import backend.solvers.NoSolutionException;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineTightnessHeuristicTest {
+
+    private static BattleshipsBoard generateBoard() {
+        BattleshipsBoard board = new BattleshipsBoard(new Coord(4, 4));
+        for (int x = 0; x < 4; ++x) {
+            for (int y = 0; y < 4; ++y) {
+                board.generateCell(new Coord(x, y), new HashSet<>(Set.of(1, 2)));
+            }
+        }
+        return board;
+    }
+
+    @Test
+    void tightestLineTest() {
+        Heuristic<Set<Integer>> heuristic = new LineTightnessHeuristic().instantiate(List.of(2, 2, 2, 2), List.of(2, 2, 1, 2));
+        assertEquals(new Coord(2, 0), heuristic.choose(generateBoard()));
+    }
+
+    @Test
+    void touchingShipTest() {
+        Heuristic<Set<Integer>> heuristic = new LineTightnessHeuristic().instantiate(List.of(2, 2, 2, 1), List.of(2, 2, 2, 2));
+        BattleshipsBoard board = generateBoard();
+        board.setValue(new Coord(1, 2), new HashSet<>(Set.of(2)));
+        assertEquals(new Coord(0, 2), heuristic.choose(board));
+    }
+
+    @Test
+    void withoutLimitsTest() {
+        Heuristic<Set<Integer>> heuristic = new LineTightnessHeuristic();
+        BattleshipsBoard board = generateBoard();
+        board.setValue(new Coord(2, 2), new HashSet<>(Set.of(2)));
+        assertEquals(new Coord(2, 1), heuristic.choose(board));
+    }
+
+    @Test
+    void solvingWithHeuristicTest() throws NoSolutionException {
+        BattleshipsSolver solver = new BattleshipsSolver(BattleshipsStatesTest.generateConstrains(),
+            BattleshipsSolver.Engine.WAVE_FUNCTION_COLLAPSE, new LineTightnessHeuristic());
+        Integer[][] validBoard = WaveFunctionCollapseTest.validBoard();
+        BoardDTO result = solver.solve(List.of(new InitValue<>(new Coord(2, 2), 4)), List.of(3, 1, 2, 3, 0, 1),
+            List.of(3, 0, 3, 0, 1, 3), WaveFunctionCollapseTest.generateShipLengths());
+        for (int y = 0; y < 6; ++y) {
+            for (int x = 0; x < 6; ++x) {
+                assertEquals(validBoard[y][x], result.accessCell(new Coord(x, y)));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package backend.io;
+
+import backend.utility.Coord;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MAPReaderTest {
+
+    private final static MAPReader                          reader = new MAPReader();
+
+    private static MAPFormatException parseError(String input) {
+        return assertThrowsExactly(MAPFormatException.class, () -> reader.read(new StringReader(input)));
+    }
+
+    @Test
+    void readAssetTest() throws IOException {
+        Map<Integer, Map<Coord, Set<Integer>>> data = reader.read(Files.newBufferedReader(Path.of("assets/DTOStates.map")));
+        assertEquals(9, data.size());
+        for (Map<Coord, Set<Integer>> record : data.values()) {
+            assertEquals(8, record.size());
+        }
+        assertEquals(Set.of(0, 8, 2, 5), data.get(3).get(new Coord(-1, 0)));
+        assertEquals(Set.of(0, 1, 2, 4, 8), data.get(2).get(new Coord(0, 1)));
+    }
+
+    @Test
+    void readByteBufferTest() throws IOException {
+        byte[] bytes = Files.readAllBytes(Path.of("assets/DTOStates.map"));
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        assertEquals(reader.read(Files.newBufferedReader(Path.of("assets/DTOStates.map"))), reader.read(buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void readCompactTest() throws IOException {
+        Map<Integer, Map<Coord, Set<Integer>>> data = reader.read(ByteBuffer.wrap(
+            "-1:{[ 0 | -1 ]->[]}2 : {\r\n\t[1|0] -> [ 1 | 2 ]\r\n}".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(Map.of(-1, Map.of(new Coord(0, -1), Set.of()), 2, Map.of(new Coord(1, 0), Set.of(1, 2))), data);
+        assertTrue(reader.read(new StringReader(" \n ")).isEmpty());
+    }
+
+    @Test
+    void errorPositionTest() {
+        MAPFormatException missingArrow = parseError("1: {\n\t[0|1] > [1]\n}");
+        assertEquals(2, missingArrow.getLine());
+        assertEquals(8, missingArrow.getColumn());
+        MAPFormatException badNumber = parseError("1: {\n\t[0|x] -> [1]\n}");
+        assertEquals(2, badNumber.getLine());
+        assertEquals(5, badNumber.getColumn());
+        MAPFormatException unclosed = parseError("1: {\n\t[0|1] -> [1|2]\n");
+        assertEquals(3, unclosed.getLine());
+        assertEquals(1, unclosed.getColumn());
+        assertTrue(unclosed.getMessage().contains("end of input"));
+        MAPFormatException overflow = parseError("99999999999: {}");
+        assertEquals(1, overflow.getLine());
+    }
+
+}
@@ -0,0 +1,128 @@
+package backend.io;
+
+import backend.facades.BattleshipsGenerator;
+import backend.solvers.NoSolutionException;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PuzzleCorpusTest {
+
+    private final static PuzzleCorpus.Format                format = new PuzzleCorpus.Format(10, 10, 4, 12);
+
+    private record Puzzle(List<InitValue<Integer>> initValues, List<Integer> rowLimits, List<Integer> columnLimits, TreeMap<Integer, Integer> shipLimits) { }
+
+    private static Puzzle generatePuzzle(Random random) {
+        int width = 1 + random.nextInt(10), height = 1 + random.nextInt(10);
+        List<Integer> rows = new ArrayList<>(), columns = new ArrayList<>();
+        for (int y = 0; y < height; ++y) {
+            rows.add(random.nextInt(width + 1));
+        }
+        for (int x = 0; x < width; ++x) {
+            columns.add(random.nextInt(height + 1));
+        }
+        TreeMap<Integer, Integer> fleet = new TreeMap<>();
+        for (int length = 1; length <= 4; ++length) {
+            if (random.nextBoolean()) {
+                fleet.put(length, 1 + random.nextInt(4));
+            }
+        }
+        List<InitValue<Integer>> clues = new ArrayList<>();
+        for (int clue = random.nextInt(13); clue > 0; --clue) {
+            clues.add(new InitValue<>(new Coord(random.nextInt(width), random.nextInt(height)), random.nextInt(9)));
+        }
+        return new Puzzle(clues, rows, columns, fleet);
+    }
+
+    @Test
+    void appendAndReadTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("puzzles.corpus");
+        Random random = new Random(46);
+        List<Puzzle> puzzles = new ArrayList<>();
+        for (int i = 0; i < 3000; ++i) {
+            puzzles.add(generatePuzzle(random));
+        }
+        for (List<Puzzle> part : List.of(puzzles.subList(0, 1000), puzzles.subList(1000, 3000))) {
+            try (PuzzleCorpus.Writer writer = new PuzzleCorpus.Writer(file, format)) {
+                for (Puzzle puzzle : part) {
+                    writer.append(puzzle.initValues(), puzzle.rowLimits(), puzzle.columnLimits(), puzzle.shipLimits());
+                }
+            }
+        }
+        PuzzleCorpus corpus = PuzzleCorpus.open(file);
+        assertEquals(format, corpus.getFormat());
+        assertEquals(3000, corpus.size());
+        corpus.forEach(view -> {
+            Puzzle puzzle = puzzles.get((int) view.index());
+            assertEquals(puzzle.columnLimits().size(), view.width());
+            assertEquals(puzzle.rowLimits(), view.rowLimits());
+            assertEquals(puzzle.columnLimits(), view.columnLimits());
+            assertEquals(puzzle.shipLimits(), view.shipLimits());
+            assertEquals(puzzle.initValues(), view.initValues());
+        });
+        assertThrows(IndexOutOfBoundsException.class, () -> corpus.view().moveTo(3000));
+    }
+
+    @Test
+    void appendSolutionTest(@TempDir Path directory) throws IOException, NoSolutionException {
+        Path file = directory.resolve("generated.corpus");
+        TreeMap<Integer, Integer> fleet = WaveFunctionCollapseTest.generateShipLengths();
+        BattleshipsGenerator.Solution solution = new BattleshipsGenerator(BattleshipsStatesTest.generateConstrains(), fleet,
+            new Coord(6, 6), 2).generate();
+        try (PuzzleCorpus.Writer writer = new PuzzleCorpus.Writer(file, format)) {
+            writer.append(solution, fleet);
+        }
+        PuzzleCorpus.View view = PuzzleCorpus.open(file).view().moveTo(0);
+        assertEquals(solution.rowLimits(), view.rowLimits());
+        assertEquals(solution.columnLimits(), view.columnLimits());
+        assertEquals(solution.initValues(), view.initValues());
+        assertEquals(fleet, view.shipLimits());
+    }
+
+    @Test
+    void partialRecordTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("puzzles.corpus");
+        Random random = new Random(46);
+        List<Puzzle> puzzles = List.of(generatePuzzle(random), generatePuzzle(random));
+        try (PuzzleCorpus.Writer writer = new PuzzleCorpus.Writer(file, format)) {
+            writer.append(puzzles.get(0).initValues(), puzzles.get(0).rowLimits(), puzzles.get(0).columnLimits(), puzzles.get(0).shipLimits());
+        }
+        Files.write(file, new byte[format.recordSize() / 2], StandardOpenOption.APPEND);
+        try (PuzzleCorpus.Writer writer = new PuzzleCorpus.Writer(file, format)) {
+            writer.append(puzzles.get(1).initValues(), puzzles.get(1).rowLimits(), puzzles.get(1).columnLimits(), puzzles.get(1).shipLimits());
+        }
+        PuzzleCorpus corpus = PuzzleCorpus.open(file);
+        assertEquals(2, corpus.size());
+        PuzzleCorpus.View view = corpus.view().moveTo(1);
+        assertEquals(puzzles.get(1).rowLimits(), view.rowLimits());
+        assertEquals(puzzles.get(1).columnLimits(), view.columnLimits());
+        assertEquals(puzzles.get(1).initValues(), view.initValues());
+    }
+
+    @Test
+    void invalidCorpusTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("puzzles.corpus");
+        try (PuzzleCorpus.Writer writer = new PuzzleCorpus.Writer(file, format)) {
+            assertThrowsExactly(IllegalArgumentException.class, () -> writer.append(List.of(), List.of(1, 1), List.of(300), new TreeMap<>()));
+            assertThrowsExactly(IllegalArgumentException.class, () -> writer.append(List.of(), List.of(1), List.of(1), new TreeMap<>(Map.of(5, 1))));
+            writer.append(List.of(), List.of(1), List.of(1), new TreeMap<>(Map.of(1, 1)));
+        }
+        assertEquals(1, PuzzleCorpus.open(file).size());
+        assertThrowsExactly(IOException.class, () -> new PuzzleCorpus.Writer(file, new PuzzleCorpus.Format(6, 6, 3, 4)));
+        Path other = directory.resolve("other.corpus");
+        Files.write(other, new byte[64]);
+        assertThrowsExactly(IOException.class, () -> PuzzleCorpus.open(other));
+    }
+
+}
@@ -0,0 +1,120 @@
+package backend.io;
+
+import backend.boards.BoardDTO;
+import backend.facades.BattleshipsSolver;
+import backend.solvers.NoSolutionException;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PuzzleReaderTest {
+
+    private static ByteBuffer bytes(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static PuzzleReader.Puzzle generatePuzzle(Random random) {
+        int width = 1 + random.nextInt(15), height = 1 + random.nextInt(15);
+        List<Integer> rows = new ArrayList<>(), columns = new ArrayList<>();
+        for (int y = 0; y < height; ++y) {
+            rows.add(random.nextInt(width + 1));
+        }
+        for (int x = 0; x < width; ++x) {
+            columns.add(random.nextInt(height + 1));
+        }
+        TreeMap<Integer, Integer> fleet = new TreeMap<>();
+        for (int length = 1; length <= 5; ++length) {
+            if (random.nextBoolean()) {
+                fleet.put(length, 1 + random.nextInt(4));
+            }
+        }
+        List<InitValue<Integer>> clues = new ArrayList<>();
+        for (int clue = random.nextInt(5); clue > 0; --clue) {
+            clues.add(new InitValue<>(new Coord(random.nextInt(width), random.nextInt(height)), random.nextInt(9)));
+        }
+        return PuzzleReader.Puzzle.of(clues, rows, columns, fleet);
+    }
+
+    @Test
+    void solveParsedPuzzleTest() throws PuzzleFormatException, NoSolutionException {
+        List<PuzzleReader.Puzzle> puzzles = new PuzzleReader().read(bytes("# rows ; columns ; fleet ; clues\n\n"
+            + "  3,1,2,3,0,1 ; 3,0,3,0,1,3 ; 1:3, 2:2, 3:1 ; 2:2:4\r\n1;1;1:1;"));
+        assertEquals(2, puzzles.size());
+        PuzzleReader.Puzzle puzzle = puzzles.get(0);
+        assertEquals(34, puzzle.offset());
+        assertEquals(WaveFunctionCollapseTest.generateShipLengths(), puzzle.shipLimits());
+        assertEquals(List.of(new InitValue<>(new Coord(2, 2), 4)), puzzle.initValues());
+        assertEquals("3,1,2,3,0,1;3,0,3,0,1,3;1:3,2:2,3:1;2:2:4", puzzle.format());
+        BoardDTO board = new BattleshipsSolver(BattleshipsStatesTest.generateConstrains()).solve(puzzle.initValues(),
+            puzzle.rowLimits(), puzzle.columnLimits(), puzzle.shipLimits());
+        Integer[][] expected = WaveFunctionCollapseTest.validBoard();
+        for (int y = 0; y < puzzle.height(); ++y) {
+            for (int x = 0; x < puzzle.width(); ++x) {
+                assertEquals(expected[y][x], board.accessCell(new Coord(x, y)));
+            }
+        }
+        assertEquals(0, puzzles.get(1).clues().length);
+    }
+
+    @Test
+    void parallelStreamTest(@TempDir Path directory) throws IOException {
+        Random random = new Random(48);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 40000; ++i) {
+            lines.add(generatePuzzle(random).format());
+        }
+        Path file = directory.resolve("puzzles.txt");
+        Files.write(file, lines, StandardCharsets.US_ASCII);
+        PuzzleReader reader = new PuzzleReader(4096);
+        try (Stream<PuzzleReader.Puzzle> sequential = reader.stream(file); Stream<PuzzleReader.Puzzle> parallel = reader.stream(file)) {
+            assertEquals(lines, sequential.map(PuzzleReader.Puzzle::format).toList());
+            List<PuzzleReader.Puzzle> puzzles = parallel.parallel().toList();
+            assertEquals(lines, puzzles.stream().map(PuzzleReader.Puzzle::format).toList());
+            for (int i = 1; i < puzzles.size(); ++i) {
+                assertEquals(puzzles.get(i - 1).offset() + lines.get(i - 1).length() + 1, puzzles.get(i).offset());
+            }
+        }
+    }
+
+    @Test
+    void malformedPuzzleTest() {
+        PuzzleReader reader = new PuzzleReader();
+        PuzzleFormatException exception = assertThrowsExactly(PuzzleFormatException.class, () -> reader.read(bytes("1;1;;\n1,1;1 1;;")));
+        assertEquals(6, exception.getOffset());
+        assertEquals(7, exception.getColumn());
+        assertEquals(4, assertThrowsExactly(PuzzleFormatException.class, () -> reader.read(bytes("1;1"))).getColumn());
+        assertEquals(5, assertThrowsExactly(PuzzleFormatException.class, () -> reader.read(bytes("1;1;0:1;"))).getColumn());
+        assertEquals(9, assertThrowsExactly(PuzzleFormatException.class, () -> reader.read(bytes("1;1;1:1,1:2;"))).getColumn());
+        assertEquals(6, assertThrowsExactly(PuzzleFormatException.class, () -> reader.read(bytes("1;1;;1:0:1"))).getColumn());
+        assertThrowsExactly(PuzzleFormatException.class, () -> reader.read(bytes("1;1;;;")));
+        assertThrowsExactly(PuzzleFormatException.class, () -> reader.read(bytes("1;99999999999;;")));
+        UncheckedIOException unchecked = assertThrowsExactly(UncheckedIOException.class,
+            () -> new PuzzleReader(8).stream(bytes("1,1,1,1,1;1;;\n")).toList());
+        assertInstanceOf(PuzzleFormatException.class, unchecked.getCause());
+    }
+
+    @Test
+    void skipMalformedLineTest() {
+        Iterator<PuzzleReader.Puzzle> puzzles = new PuzzleReader(8).stream(bytes("1;1;;\n1,1,1,1,1;1;;\n1;x;;\n1;0;;\n")).iterator();
+        assertEquals(List.of(1), puzzles.next().columnLimits());
+        assertEquals(6, assertInstanceOf(PuzzleFormatException.class, assertThrowsExactly(UncheckedIOException.class, puzzles::hasNext).getCause()).getOffset());
+        assertEquals(20, assertInstanceOf(PuzzleFormatException.class, assertThrowsExactly(UncheckedIOException.class, puzzles::hasNext).getCause()).getOffset());
+        assertEquals(List.of(0), puzzles.next().columnLimits());
+        assertFalse(puzzles.hasNext());
+    }
+
+}
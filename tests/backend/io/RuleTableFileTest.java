@@ -0,0 +1,80 @@
+package backend.io;
+
+import backend.constrains.dto.RuleTable;
+import backend.utility.Coord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleTableFileTest {
+
+    private static Map<Integer, Map<Coord, Set<Integer>>> generateConstrains() throws IOException {
+        return new MAPReader().read(Files.newBufferedReader(Path.of("assets/DTOStates.map")));
+    }
+
+    @Test
+    void roundTripTest(@TempDir Path directory) throws IOException {
+        Map<Integer, Map<Coord, Set<Integer>>> rules = generateConstrains();
+        Path file = directory.resolve("DTOStates.rules");
+        RuleTableFile.write(file, rules);
+        RuleTableFile table = RuleTableFile.load(file);
+        assertEquals(8, table.getDirections().size());
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8}, table.getStates());
+        assertEquals(rules, table.toMap());
+        RuleTable expected = new RuleTable(rules, 0);
+        for (int state = 0; state <= 8; ++state) {
+            for (int d = 0; d < RuleTable.DIRECTIONS; ++d) {
+                assertEquals(expected.allowed(state, d), table.allowed(state, table.getDirections().indexOf(RuleTable.offset(d))));
+            }
+        }
+        assertEquals(0, table.allowed(9, 0));
+    }
+
+    @Test
+    void corruptedFileTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("DTOStates.rules");
+        RuleTableFile.write(file, generateConstrains());
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+        assertTrue(assertThrowsExactly(IOException.class, () -> RuleTableFile.load(file)).getMessage().contains("corrupted"));
+        ByteBuffer.wrap(bytes).putInt(Integer.BYTES, 1);
+        Files.write(file, bytes);
+        assertTrue(assertThrowsExactly(IOException.class, () -> RuleTableFile.load(file)).getMessage().contains("version"));
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrowsExactly(IOException.class, () -> RuleTableFile.load(file));
+    }
+
+    @Test
+    void everyStateRuleTest(@TempDir Path directory) throws IOException {
+        Set<Integer> everyState = IntStream.range(0, Integer.SIZE).boxed().collect(Collectors.toSet());
+        Map<Integer, Map<Coord, Set<Integer>>> rules = Map.of(1, Map.of(new Coord(1, 0), everyState), 2, Map.of(new Coord(-1, 0), Set.of(1)));
+        Path file = directory.resolve("every.rules");
+        RuleTableFile.write(file, rules);
+        RuleTableFile table = RuleTableFile.load(file);
+        int right = table.getDirections().indexOf(new Coord(1, 0)), left = table.getDirections().indexOf(new Coord(-1, 0));
+        assertEquals(-1, table.allowed(1, right));
+        assertFalse(table.isUnrestricted(1, right));
+        assertEquals(-1, table.allowed(1, left));
+        assertTrue(table.isUnrestricted(1, left));
+        assertFalse(table.isUnrestricted(3, left));
+        assertEquals(rules, table.toMap());
+    }
+
+    @Test
+    void invalidStateTest(@TempDir Path directory) {
+        assertThrowsExactly(IllegalArgumentException.class, () -> RuleTableFile.write(directory.resolve("invalid.rules"),
+            Map.of(1, Map.of(new Coord(1, 0), Set.of(40)))));
+    }
+
+}
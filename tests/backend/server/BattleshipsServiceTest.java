@@ -0,0 +1,173 @@
+package backend.server;
+
+import backend.boards.PackedSolution;
+import backend.facades.BattleshipsSolver;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.states.BattleshipsStatesTest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BattleshipsServiceTest {
+
+    private final static String                                 validPuzzle = "{\"rows\":[3,1,2,3,0,1],\"columns\":[3,0,3,0,1,3],"
+        + "\"fleet\":{\"1\":3,\"2\":2,\"3\":1},\"clues\":[[2,2,4]]}";
+    private final static byte[]                                 binaryPuzzle = {6, 6, 3, 1, 2, 3, 0, 1, 3, 0, 3, 0, 1, 3, 3, 3, 2, 1, 0, 1, 2, 2, 4};
+    private final static HttpClient                             client = HttpClient.newHttpClient();
+    private static BattleshipsService                           service;
+
+    @BeforeAll
+    static void startService() throws IOException {
+        service = new BattleshipsService(BattleshipsStatesTest.generateConstrains(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        service.start();
+    }
+
+    @AfterAll
+    static void stopService() {
+        service.close();
+    }
+
+    private static HttpRequest request(String endpoint, String type, HttpRequest.BodyPublisher body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + service.getAddress().getPort() + endpoint))
+            .header("Content-Type", type).POST(body).build();
+    }
+
+    private static HttpResponse<String> post(String endpoint, String body) throws IOException, InterruptedException {
+        return client.send(request(endpoint, "application/json", HttpRequest.BodyPublishers.ofString(body)), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<byte[]> post(String endpoint, byte[] body) throws IOException, InterruptedException {
+        return client.send(request(endpoint, "application/octet-stream", HttpRequest.BodyPublishers.ofByteArray(body)), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static List<String> validSolution() {
+        List<String> rows = new ArrayList<>();
+        for (Integer[] row : WaveFunctionCollapseTest.validBoard()) {
+            StringBuilder builder = new StringBuilder();
+            for (Integer value : row) {
+                builder.append(value == 2 ? '#' : '.');
+            }
+            rows.add(builder.toString());
+        }
+        return rows;
+    }
+
+    @Test
+    void jsonEndpointsTest() throws IOException, InterruptedException {
+        HttpResponse<String> solved = post("/solve", validPuzzle);
+        assertEquals(200, solved.statusCode());
+        assertEquals(Map.of("solution", validSolution()), Json.parse(solved.body()));
+        assertEquals("{\"solutions\":1}", post("/count", validPuzzle).body());
+        String solution = "[\"" + String.join("\",\"", validSolution()) + "\"]";
+        assertEquals("{\"solvable\":true,\"unique\":true,\"correct\":true}",
+            post("/validate", validPuzzle.replace("]]}", "]],\"solution\":" + solution + "}")).body());
+        assertEquals("{\"solvable\":true,\"unique\":true,\"correct\":false}",
+            post("/validate", validPuzzle.replace("]]}", "]],\"solution\":" + solution.replace('#', '.') + "}")).body());
+        HttpResponse<String> generated = post("/generate", "{\"width\":6,\"height\":6,\"fleet\":{\"1\":3,\"2\":2,\"3\":1}}");
+        assertEquals(200, generated.statusCode());
+        assertEquals(200, post("/solve", generated.body()).statusCode());
+    }
+
+    @Test
+    void binaryEndpointsTest() throws IOException, InterruptedException {
+        HttpResponse<byte[]> solved = post("/solve", binaryPuzzle);
+        assertEquals(200, solved.statusCode());
+        PackedSolution solution = PackedSolution.read(ByteBuffer.wrap(solved.body()));
+        assertEquals(Messages.readSolution(validSolution(), 6, 6), solution);
+        assertEquals(1, ByteBuffer.wrap(post("/count", binaryPuzzle).body()).getLong());
+        ByteBuffer validated = ByteBuffer.allocate(binaryPuzzle.length + solution.byteSize()).put(binaryPuzzle);
+        solution.write(validated);
+        assertArrayEquals(new byte[]{7}, post("/validate", validated.array()).body());
+        HttpResponse<byte[]> generated = post("/generate", new byte[]{6, 6, 2, 3, 3, 2, 1});
+        assertEquals(200, generated.statusCode());
+        assertEquals(200, post("/solve", generated.body()).statusCode());
+    }
+
+    @Test
+    void concurrentRequestsTest() {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 64; ++i) {
+            responses.add(client.sendAsync(request("/solve", "application/json", HttpRequest.BodyPublishers.ofString(validPuzzle)),
+                HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(Map.of("solution", validSolution()), Json.parse(response.join().body()));
+        }
+    }
+
+    @Test
+    void invalidRequestsTest() throws IOException, InterruptedException {
+        assertEquals(400, post("/solve", "{\"rows\":[1],").statusCode());
+        assertEquals(400, post("/solve", "{\"rows\":[1],\"columns\":[2]}").statusCode());
+        assertEquals(400, post("/solve", new byte[]{6, 6, 3}).statusCode());
+        assertEquals(400, post("/generate", "{\"width\":6,\"height\":6,\"fleet\":{}}").statusCode());
+        assertEquals(400, post("/generate", "{\"width\":40,\"height\":6,\"fleet\":{\"1\":1}}").statusCode());
+        assertEquals(400, post("/generate", "{\"width\":6,\"height\":6,\"fleet\":{\"1\":1},\"resolution\":2}").statusCode());
+        assertEquals(400, post("/generate", new byte[]{6, 6, 2, 1, 1}).statusCode());
+        assertEquals(400, post("/solve", validPuzzle.replace("[[2,2,4]]", "[[2,2,9]]")).statusCode());
+        assertEquals(400, post("/validate", validPuzzle.replace("[[2,2,4]]", "[[2,2,0]]")).statusCode());
+        assertEquals(422, post("/solve", "{\"rows\":[0,1,0,0,0,0],\"columns\":[0,0,1,0,0,0],\"fleet\":{\"1\":3,\"2\":2,\"3\":1},\"clues\":[[2,2,4]]}").statusCode());
+        assertEquals(400, post("/solve", "[".repeat(200_000)).statusCode());
+        assertEquals(400, post("/validate", "{\"rows\":" + "[".repeat(100) + "]".repeat(100) + "}").statusCode());
+        byte[] oversized = Arrays.copyOf(binaryPuzzle, binaryPuzzle.length + 4);
+        Arrays.fill(oversized, binaryPuzzle.length, oversized.length, (byte) -1);
+        assertEquals(400, post("/validate", oversized).statusCode());
+        assertEquals(404, post("/solve/more", validPuzzle).statusCode());
+        HttpResponse<String> get = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + service.getAddress().getPort() + "/count")).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, get.statusCode());
+        assertTrue(((Map<?, ?>) Json.parse(get.body())).containsKey("error"));
+    }
+
+    @Test
+    void deadlineTest() throws IOException, InterruptedException {
+        String limits = IntStream.range(0, 20).mapToObj(i -> i < 10 ? "1" : "0").collect(Collectors.joining(",", "[", "]"));
+        String sparse = "{\"rows\":" + limits + ",\"columns\":" + limits + ",\"fleet\":{\"1\":10}}";
+        BattleshipsService bounded = new BattleshipsService(new BattleshipsSolver(BattleshipsStatesTest.generateConstrains()),
+            BattleshipsStatesTest.generateConstrains(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), Duration.ofMillis(200));
+        try {
+            bounded.start();
+            HttpRequest count = HttpRequest.newBuilder(URI.create("http://localhost:" + bounded.getAddress().getPort() + "/count"))
+                .header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(sparse)).build();
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(count, HttpResponse.BodyHandlers.ofString());
+            assertEquals(503, response.statusCode());
+            assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+        } finally {
+            bounded.close();
+        }
+    }
+
+    @Test
+    void jsonTest() {
+        assertEquals(Map.of("a", List.of(1L, -2L, true, false), "b", "q\"\n\u00e9"), Json.parse(" {\"a\" : [1, -2, true, false], \"b\":\"q\\\"\\n\\u00e9\"} "));
+        assertNull(Json.parse("null"));
+        assertEquals("\"q\\\"\\n\"", Json.quote("q\"\n"));
+        assertThrowsExactly(IllegalArgumentException.class, () -> Json.parse("[1.5]"));
+        assertThrowsExactly(IllegalArgumentException.class, () -> Json.parse("{\"a\":1} x"));
+        assertThrowsExactly(IllegalArgumentException.class, () -> Json.parse("\"abc"));
+        assertEquals(List.of(List.of(List.of())), Json.parse("[[[]]]"));
+        assertThrowsExactly(IllegalArgumentException.class, () -> Json.parse("[".repeat(65) + "]".repeat(65)));
+    }
+
+}
@@ -0,0 +1,119 @@
+package backend.solvers;
+
+import backend.boards.BattleshipsBoard;
+import backend.boards.Board;
+import backend.constrains.solver.HardConstrains;
+import backend.constrains.solver.SoftConstrains;
+import backend.facades.BattleshipsSolver;
+import backend.heuristic.Heuristic;
+import backend.heuristic.MinimumEntropyHeuristic;
+import backend.states.BattleshipsStates;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.Coord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchCheckpointTest {
+
+    private final static List<Integer>                                          rows = List.of(3, 1, 2, 3, 0, 1);
+    private final static List<Integer>                                          cols = List.of(3, 0, 3, 0, 1, 3);
+    private final static TreeMap<Integer, Integer>                              shipLengths = WaveFunctionCollapseTest.generateShipLengths();
+
+    private static WaveFunctionCollapse<Set<Integer>, Integer> generateSolver() {
+        return generateSolver(new MinimumEntropyHeuristic<>());
+    }
+
+    private static WaveFunctionCollapse<Set<Integer>, Integer> generateSolver(Heuristic<Set<Integer>> heuristic) {
+        return new WaveFunctionCollapse<>(new SoftConstrains(rows, cols, shipLengths), new HardConstrains(rows, cols, shipLengths),
+            BattleshipsStatesTest.generateConstrains(), new BattleshipsStates(), heuristic);
+    }
+
+    private static Heuristic<Set<Integer>> generateRotatingHeuristic(int calls) {
+        int[] counter = {calls};
+        return board -> {
+            List<Coord> undecided = new ArrayList<>();
+            for (int y = 0; y < board.getHeight(); ++y) {
+                for (int x = 0; x < board.getWidth(); ++x) {
+                    if (board.accessCell(new Coord(x, y)).size() > 1) {
+                        undecided.add(new Coord(x, y));
+                    }
+                }
+            }
+            return undecided.get(counter[0]++ % undecided.size());
+        };
+    }
+
+    @Test
+    void stateRandomTest() {
+        Random expected = new Random(42);
+        SearchCheckpoint.StateRandom random = new SearchCheckpoint.StateRandom(42 ^ 0x5DEECE66DL);
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(expected.nextInt(1000), random.nextInt(1000));
+        }
+    }
+
+    @Test
+    void resumingTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("search.checkpoint");
+        List<Board<Set<Integer>>> visited = new ArrayList<>();
+        SearchCheckpoint first = new SearchCheckpoint(file, Duration.ZERO);
+        assertFalse(generateSolver().enumerate(new BattleshipsBoard(new Coord(6, 6)), new ArrayList<>(), board -> {
+            visited.add(board);
+            return visited.size() < 2;
+        }, true, first));
+        assertTrue(Files.exists(file));
+        assertEquals(2, first.getSolutions());
+        SearchCheckpoint second = new SearchCheckpoint(file, Duration.ZERO);
+        assertTrue(generateSolver().enumerate(new BattleshipsBoard(new Coord(6, 6)), new ArrayList<>(), board -> {
+            visited.add(board);
+            return true;
+        }, true, second));
+        assertFalse(Files.exists(file));
+        long expected = new BattleshipsSolver(BattleshipsStatesTest.generateConstrains()).count(List.of(), rows, cols, shipLengths);
+        assertEquals(expected, second.getSolutions());
+        assertEquals(expected, visited.size());
+        assertEquals(expected, new HashSet<>(visited).size());
+    }
+
+    @Test
+    void statefulHeuristicResumingTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("stateful.checkpoint");
+        List<Board<Set<Integer>>> visited = new ArrayList<>();
+        assertFalse(generateSolver(generateRotatingHeuristic(0)).enumerate(new BattleshipsBoard(new Coord(6, 6)), new ArrayList<>(), board -> {
+            visited.add(board);
+            return visited.size() < 3;
+        }, false, new SearchCheckpoint(file, Duration.ZERO)));
+        assertTrue(generateSolver(generateRotatingHeuristic(7)).enumerate(new BattleshipsBoard(new Coord(6, 6)), new ArrayList<>(), board -> {
+            visited.add(board);
+            return true;
+        }, false, new SearchCheckpoint(file, Duration.ZERO)));
+        long expected = new BattleshipsSolver(BattleshipsStatesTest.generateConstrains()).count(List.of(), rows, cols, shipLengths);
+        assertEquals(expected, visited.size());
+        assertEquals(expected, new HashSet<>(visited).size());
+    }
+
+    @Test
+    void reusedCheckpointTest(@TempDir Path directory) throws IOException {
+        SearchCheckpoint checkpoint = new SearchCheckpoint(directory.resolve("reused.checkpoint"), Duration.ofMinutes(1));
+        assertTrue(generateSolver().enumerate(new BattleshipsBoard(new Coord(6, 6)), new ArrayList<>(), board -> true, false, checkpoint));
+        long solutions = checkpoint.getSolutions();
+        assertTrue(generateSolver().enumerate(new BattleshipsBoard(new Coord(6, 6)), new ArrayList<>(), board -> true, false, checkpoint));
+        assertEquals(solutions, checkpoint.getSolutions());
+    }
+
+    @Test
+    void countingTest(@TempDir Path directory) throws IOException {
+        BattleshipsSolver solver = new BattleshipsSolver(BattleshipsStatesTest.generateConstrains());
+        SearchCheckpoint checkpoint = new SearchCheckpoint(directory.resolve("count.checkpoint"), Duration.ofMinutes(1));
+        assertEquals(solver.count(List.of(), rows, cols, shipLengths), solver.count(List.of(), rows, cols, shipLengths, checkpoint));
+    }
+
+}
@@ -0,0 +1,113 @@
+package backend.solvers.sat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CDCLSolverTest {
+
+    private static int[][] pigeonholes(CDCLSolver solver, int pigeons, int holes) {
+        int[][] variables = new int[pigeons][holes];
+        for (int p = 0; p < pigeons; ++p) {
+            for (int h = 0; h < holes; ++h) {
+                variables[p][h] = solver.newVariable();
+            }
+            solver.addClause(variables[p]);
+        }
+        for (int h = 0; h < holes; ++h) {
+            for (int p = 0; p < pigeons; ++p) {
+                for (int q = p + 1; q < pigeons; ++q) {
+                    solver.addClause(-variables[p][h], -variables[q][h]);
+                }
+            }
+        }
+        return variables;
+    }
+
+    private static boolean satisfies(List<int[]> clauses, boolean[] assignment) {
+        for (int[] clause : clauses) {
+            boolean satisfied = false;
+            for (int literal : clause) {
+                satisfied |= assignment[Math.abs(literal)] == literal > 0;
+            }
+            if (!satisfied) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void satisfiablePigeonholeTest() {
+        CDCLSolver solver = new CDCLSolver();
+        int[][] variables = pigeonholes(solver, 5, 5);
+        assertTrue(solver.solve());
+        for (int[] pigeon : variables) {
+            int placed = 0;
+            for (int variable : pigeon) {
+                placed += solver.value(variable) ? 1 : 0;
+            }
+            assertTrue(placed >= 1);
+        }
+    }
+
+    @Test
+    void unsatisfiablePigeonholeTest() {
+        CDCLSolver solver = new CDCLSolver();
+        pigeonholes(solver, 7, 6);
+        assertFalse(solver.solve());
+        assertTrue(solver.getConflicts() > 0);
+    }
+
+    @Test
+    void emptyClauseTest() {
+        CDCLSolver solver = new CDCLSolver();
+        int variable = solver.newVariable();
+        solver.addClause(variable);
+        solver.addClause(-variable);
+        assertFalse(solver.solve());
+    }
+
+    @Test
+    void randomFormulasTest() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; ++round) {
+            int variables = 10;
+            CDCLSolver solver = new CDCLSolver();
+            for (int v = 0; v < variables; ++v) {
+                solver.newVariable();
+            }
+            List<int[]> clauses = new ArrayList<>();
+            for (int c = 0; c < 43; ++c) {
+                int[] clause = new int[3];
+                for (int i = 0; i < 3; ++i) {
+                    clause[i] = (random.nextInt(variables) + 1) * (random.nextBoolean() ? 1 : -1);
+                }
+                clauses.add(clause);
+                solver.addClause(clause);
+            }
+            boolean expected = false;
+            for (int mask = 0; mask < 1 << variables && !expected; ++mask) {
+                boolean[] assignment = new boolean[variables + 1];
+                for (int v = 0; v < variables; ++v) {
+                    assignment[v + 1] = (mask >> v & 1) == 1;
+                }
+                expected = satisfies(clauses, assignment);
+            }
+            boolean result = solver.solve();
+            assertEquals(expected, result);
+            if (result) {
+                boolean[] model = new boolean[variables + 1];
+                for (int v = 1; v <= variables; ++v) {
+                    model[v] = solver.value(v);
+                }
+                assertTrue(satisfies(clauses, model));
+            }
+        }
+    }
+
+}
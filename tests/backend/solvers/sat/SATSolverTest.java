@@ -0,0 +1,73 @@
+package backend.solvers.sat;
+
+import backend.boards.BattleshipsBoard;
+import backend.boards.Board;
+import backend.boards.BoardDTO;
+import backend.constrains.solver.HardConstrains;
+import backend.facades.BattleshipsSolver;
+import backend.solvers.NoSolutionException;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SATSolverTest {
+
+    private final static BattleshipsSolver                                      solver = new BattleshipsSolver(
+        BattleshipsStatesTest.generateConstrains(), BattleshipsSolver.Engine.SAT);
+    private final static TreeMap<Integer, Integer>                              shipLengths = WaveFunctionCollapseTest.generateShipLengths();
+
+    @Test
+    void solvingValidPuzzleTest() throws NoSolutionException {
+        Integer[][] validBoard = WaveFunctionCollapseTest.validBoard();
+        BoardDTO result = solver.solve(List.of(new InitValue<>(new Coord(2, 2), 4)), List.of(3, 1, 2, 3, 0, 1),
+            List.of(3, 0, 3, 0, 1, 3), shipLengths);
+        for (int y = 0; y < 6; ++y) {
+            for (int x = 0; x < 6; ++x) {
+                assertEquals(validBoard[y][x], result.accessCell(new Coord(x, y)));
+            }
+        }
+    }
+
+    @Test
+    void solvingInvalidPuzzleTest() {
+        assertThrowsExactly(NoSolutionException.class, () -> solver.solve(List.of(new InitValue<>(new Coord(2, 2), 4)),
+            List.of(0, 1, 0, 0, 0, 0), List.of(0, 0, 1, 0, 0, 0), shipLengths));
+    }
+
+    @Test
+    void solvingLargePuzzleTest() throws NoSolutionException {
+        int size = 25;
+        TreeMap<Integer, Integer> fleet = new TreeMap<>(Map.of(1, 8, 2, 6, 3, 4, 4, 3, 5, 2));
+        List<Integer> rows = new ArrayList<>(Collections.nCopies(size, 0));
+        List<Integer> columns = new ArrayList<>(Collections.nCopies(size, 0));
+        int x = 0, y = 0;
+        for (int length = 5; length >= 1; --length) {
+            for (int ship = 0; ship < fleet.get(length); ++ship) {
+                if (x + length > size) {
+                    x = 0;
+                    y += 2;
+                }
+                rows.set(y, rows.get(y) + length);
+                for (int i = 0; i < length; ++i) {
+                    columns.set(x + i, columns.get(x + i) + 1);
+                }
+                x += length + 1;
+            }
+        }
+        BoardDTO result = solver.solve(List.of(), rows, columns, fleet);
+        Board<Set<Integer>> board = new BattleshipsBoard(new Coord(size, size));
+        for (int j = 0; j < size; ++j) {
+            for (int i = 0; i < size; ++i) {
+                board.generateCell(new Coord(i, j), new HashSet<>(Set.of(result.accessCell(new Coord(i, j)))));
+            }
+        }
+        assertTrue(new HardConstrains(rows, columns, fleet).check(board));
+    }
+
+}
@@ -0,0 +1,111 @@
+package backend.solvers.shapes;
+
+import backend.boards.BattleshipsBoard;
+import backend.boards.Board;
+import backend.boards.BoardDTO;
+import backend.constrains.solver.HardConstrains;
+import backend.facades.BattleshipsSolver;
+import backend.heuristic.MinimumEntropyHeuristic;
+import backend.io.MAPReader;
+import backend.solvers.NoSolutionException;
+import backend.solvers.WaveFunctionCollapseTest;
+import backend.states.BattleshipsStatesTest;
+import backend.utility.Coord;
+import backend.utility.InitValue;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShapeSolverTest {
+
+    private final static Map<Integer, Map<Coord, Set<Integer>>>                 shapeConstrains = generateShapeConstrains();
+    private final static BattleshipsSolver                                      solver = new BattleshipsSolver(
+        BattleshipsStatesTest.generateConstrains(), shapeConstrains, BattleshipsSolver.Engine.SHAPES, new MinimumEntropyHeuristic<>());
+    private final static TreeMap<Integer, Integer>                              shipLengths = WaveFunctionCollapseTest.generateShipLengths();
+
+    private static Map<Integer, Map<Coord, Set<Integer>>> generateShapeConstrains() {
+        try {
+            return new MAPReader().read(Files.newBufferedReader(Path.of("assets/DTOStates.map")));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void assertSolved(BoardDTO result, List<Integer> rows, List<Integer> columns, TreeMap<Integer, Integer> fleet) {
+        Board<Set<Integer>> board = new BattleshipsBoard(new Coord(columns.size(), rows.size()));
+        for (int y = 0; y < rows.size(); ++y) {
+            for (int x = 0; x < columns.size(); ++x) {
+                board.generateCell(new Coord(x, y), new HashSet<>(Set.of(result.accessCell(new Coord(x, y)))));
+            }
+        }
+        assertTrue(new HardConstrains(rows, columns, fleet).check(board));
+    }
+
+    @Test
+    void solvingValidPuzzleTest() throws NoSolutionException {
+        Integer[][] validBoard = WaveFunctionCollapseTest.validBoard();
+        BoardDTO result = solver.solve(List.of(new InitValue<>(new Coord(2, 2), 4)), List.of(3, 1, 2, 3, 0, 1),
+            List.of(3, 0, 3, 0, 1, 3), shipLengths);
+        for (int y = 0; y < 6; ++y) {
+            for (int x = 0; x < 6; ++x) {
+                assertEquals(validBoard[y][x], result.accessCell(new Coord(x, y)));
+            }
+        }
+    }
+
+    @Test
+    void solvingInvalidPuzzleTest() {
+        assertThrowsExactly(NoSolutionException.class, () -> solver.solve(List.of(new InitValue<>(new Coord(2, 2), 4)),
+            List.of(0, 1, 0, 0, 0, 0), List.of(0, 0, 1, 0, 0, 0), shipLengths));
+    }
+
+    @Test
+    void middleCluePropagationTest() throws NoSolutionException {
+        List<Integer> rows = List.of(0, 3, 0), columns = List.of(1, 1, 1);
+        TreeMap<Integer, Integer> fleet = new TreeMap<>(Map.of(3, 1));
+        ShapeSolver shapes = new ShapeSolver(rows, columns, fleet, shapeConstrains);
+        Board<Integer> result = shapes.solve(new BattleshipsBoard(new Coord(3, 3)), new BoardDTO(new Coord(3, 3)),
+            List.of(new InitValue<>(new Coord(1, 1), 8)));
+        for (int x = 0; x < 3; ++x) {
+            assertEquals(2, result.accessCell(new Coord(x, 1)));
+        }
+        assertEquals(1, shapes.getNodes());
+        assertThrowsExactly(NoSolutionException.class, () -> shapes.solve(new BattleshipsBoard(new Coord(3, 3)),
+            new BoardDTO(new Coord(3, 3)), List.of(new InitValue<>(new Coord(1, 1), 7))));
+    }
+
+    @Test
+    void solvingCluelessPuzzleTest() throws NoSolutionException {
+        int size = 10;
+        TreeMap<Integer, Integer> fleet = new TreeMap<>(Map.of(1, 4, 2, 3, 3, 2, 4, 1));
+        List<Integer> rows = new ArrayList<>(Collections.nCopies(size, 0));
+        List<Integer> columns = new ArrayList<>(Collections.nCopies(size, 0));
+        int x = 0, y = 0;
+        for (int length = 4; length >= 1; --length) {
+            for (int ship = 0; ship < fleet.get(length); ++ship) {
+                if (x + length > size) {
+                    x = 0;
+                    y += 2;
+                }
+                rows.set(y, rows.get(y) + length);
+                for (int i = 0; i < length; ++i) {
+                    columns.set(x + i, columns.get(x + i) + 1);
+                }
+                x += length + 1;
+            }
+        }
+        assertSolved(solver.solve(List.of(), rows, columns, fleet), rows, columns, fleet);
+    }
+
+    @Test
+    void missingShapeConstrainsTest() {
+        assertThrowsExactly(IllegalArgumentException.class, () -> new BattleshipsSolver(
+            BattleshipsStatesTest.generateConstrains(), BattleshipsSolver.Engine.SHAPES));
+    }
+
+}